@@ -1,9 +1,11 @@
 package vn.uit.lms.config;
 
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import vn.uit.lms.service.storage.MinioMultipartClient;
 
 @Configuration
 public class MinioConfig {
@@ -24,4 +26,14 @@ public class MinioConfig {
                 .credentials(accessKey, secretKey)
                 .build();
     }
+
+    @Bean
+    public MinioMultipartClient minioMultipartClient() {
+        return new MinioMultipartClient(
+                MinioAsyncClient.builder()
+                        .endpoint(minioUrl)
+                        .credentials(accessKey, secretKey)
+                        .build()
+        );
+    }
 }
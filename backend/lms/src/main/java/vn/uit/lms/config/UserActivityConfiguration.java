@@ -0,0 +1,38 @@
+package vn.uit.lms.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import vn.uit.lms.service.log.UserActivityRecorder;
+import vn.uit.lms.shared.constant.ActivityType;
+import vn.uit.lms.shared.interceptor.UserActivityInterceptor;
+
+/**
+ * Maps the endpoints that count as user activity to their activity type.
+ * Logins are recorded by the auth service, which knows the account id.
+ */
+@Configuration
+public class UserActivityConfiguration implements WebMvcConfigurer {
+
+    private final UserActivityRecorder recorder;
+
+    public UserActivityConfiguration(UserActivityRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new UserActivityInterceptor(
+                        recorder, "GET", ActivityType.LESSON_OPEN, "LESSON", "lessonId"))
+                .addPathPatterns("/api/v1/student/lessons/*");
+        registry.addInterceptor(new UserActivityInterceptor(
+                        recorder, "POST", ActivityType.QUIZ_START, "QUIZ", "id"))
+                .addPathPatterns("/api/v1/quizzes/*/start");
+        registry.addInterceptor(new UserActivityInterceptor(
+                        recorder, "GET", ActivityType.DOWNLOAD, "FILE", "id"))
+                .addPathPatterns("/api/v1/files/*/download");
+        registry.addInterceptor(new UserActivityInterceptor(
+                        recorder, "GET", ActivityType.DOWNLOAD, "LESSON_RESOURCE", "resourceId"))
+                .addPathPatterns("/api/v1/student/lessons/*/resources/*");
+    }
+}
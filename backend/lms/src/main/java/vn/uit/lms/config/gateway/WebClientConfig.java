@@ -1,9 +1,15 @@
 package vn.uit.lms.config.gateway;
 
+import io.netty.channel.ChannelOption;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 @RequiredArgsConstructor
@@ -11,10 +17,33 @@ public class WebClientConfig {
 
     private final ZaloPayConfig zaloPayConfig;
 
+    /**
+     * Dedicated connection pool so a slow ZaloPay cannot exhaust connections
+     * shared with other outbound clients
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider zaloPayConnectionProvider() {
+        ZaloPayConfig.Client client = zaloPayConfig.getClient();
+        return ConnectionProvider.builder("zalopay")
+                .maxConnections(client.getMaxConnections())
+                .pendingAcquireMaxCount(client.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(client.getPendingAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofSeconds(client.getMaxIdleTimeSeconds()))
+                .evictInBackground(Duration.ofSeconds(client.getMaxIdleTimeSeconds()))
+                .metrics(true)
+                .build();
+    }
+
     @Bean
-    public WebClient zaloPayWebClient() {
+    public WebClient zaloPayWebClient(ConnectionProvider zaloPayConnectionProvider) {
+        ZaloPayConfig.Client client = zaloPayConfig.getClient();
+        HttpClient httpClient = HttpClient.create(zaloPayConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, client.getConnectTimeoutMs())
+                .responseTimeout(Duration.ofMillis(client.getResponseTimeoutMs()));
+
         return WebClient.builder()
                 .baseUrl(zaloPayConfig.getEndpoints().getBase())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
     }
 }
@@ -15,6 +15,7 @@ public class ZaloPayConfig {
     private String key1;
     private String key2;
     private Endpoints endpoints;
+    private Client client = new Client();
 
     @Getter
     @Setter
@@ -28,4 +29,26 @@ public class ZaloPayConfig {
         private String callback;
 
     }
-}
\ No newline at end of file
+
+    /**
+     * HTTP client tuning: connection pool, per-operation timeouts, bulkhead and circuit breaker
+     */
+    @Getter
+    @Setter
+    public static class Client {
+        private int maxConnections = 50;
+        private int pendingAcquireMaxCount = 100;
+        private long pendingAcquireTimeoutMs = 2000;
+        private long maxIdleTimeSeconds = 30;
+        private int connectTimeoutMs = 2000;
+        private long responseTimeoutMs = 10000;
+
+        private long createTimeoutMs = 8000;
+        private long queryTimeoutMs = 5000;
+        private long refundTimeoutMs = 10000;
+
+        private int maxConcurrentCalls = 40;
+        private int circuitFailureThreshold = 5;
+        private long circuitOpenSeconds = 30;
+    }
+}
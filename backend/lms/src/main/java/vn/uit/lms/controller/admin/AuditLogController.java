@@ -1,15 +1,19 @@
 package vn.uit.lms.controller.admin;
 
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.data.domain.Pageable;
 import vn.uit.lms.service.log.AuditLogService;
 import vn.uit.lms.shared.dto.ApiResponse;
 import vn.uit.lms.shared.annotation.AdminOnly;
+import vn.uit.lms.shared.dto.request.log.AuditLogSearchRequest;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 
 @RestController
@@ -21,17 +25,14 @@ public class AuditLogController {
     private final AuditLogService service;
 
     @GetMapping("/search")
-    public ApiResponse<?> search(
-            @RequestParam(defaultValue = "") String keyword,
-            Pageable pageable
-    ) {
+    public ApiResponse<?> search(@Valid AuditLogSearchRequest request) {
 
         return ApiResponse.builder()
                 .success(true)
                 .status(HttpStatus.OK.value())
                 .message("Audit logs fetched successfully")
                 .code("AUDIT_LOG_SEARCH")
-                .data(service.search(keyword, pageable))
+                .data(service.search(request))
                 .timestamp(Instant.now())
                 .meta(ApiResponse.Meta.builder()
                         .author("LMS System")
@@ -41,13 +42,13 @@ public class AuditLogController {
                 .build();
     }
     @GetMapping
-    public ApiResponse<?> getAll(Pageable pageable) {
+    public ApiResponse<?> getAll(@Valid AuditLogSearchRequest request) {
         return ApiResponse.builder()
                 .success(true)
                 .status(HttpStatus.OK.value())
                 .message("Audit logs fetched successfully")
                 .code("AUDIT_LOG_LIST")
-                .data(service.getAll(pageable))
+                .data(service.search(request))
                 .timestamp(Instant.now())
                 .meta(ApiResponse.Meta.builder()
                         .author("LMS System")
@@ -57,12 +58,13 @@ public class AuditLogController {
                 .build();
     }
     @GetMapping("/export")
-    public void export(HttpServletResponse response) throws IOException {
+    public void export(@Valid AuditLogSearchRequest request, HttpServletResponse response) throws IOException {
 
-        response.setContentType("text/csv");
+        response.setContentType("text/csv; charset=UTF-8");
         response.setHeader("Content-Disposition", "attachment; filename=audit_logs.csv");
 
-        service.exportCsv(response.getWriter());
+        service.exportCsv(request, new BufferedWriter(
+                new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8)));
     }
 
 }
@@ -75,4 +75,42 @@ public class DashboardController {
                 dashboardService.getCourseReport(period)
         );
     }
+
+    /**
+     * Báo cáo mức độ tương tác (DAU/MAU, phiên học)
+     */
+    @GetMapping("/reports/engagement")
+    public ApiResponse<EngagementReportResponse> getEngagementReport(
+            @RequestParam String period
+    ) {
+        return ApiResponse.success(
+                dashboardService.getEngagementReport(period)
+        );
+    }
+
+    /**
+     * Phễu học tập theo nhóm ghi danh hàng tuần
+     */
+    @GetMapping("/reports/funnel")
+    public ApiResponse<FunnelReportResponse> getFunnelReport(
+            @RequestParam String period,
+            @RequestParam(required = false) Long courseId
+    ) {
+        return ApiResponse.success(
+                dashboardService.getFunnelReport(period, courseId)
+        );
+    }
+
+    /**
+     * Tỷ lệ giữ chân học viên theo nhóm ghi danh hàng tuần
+     */
+    @GetMapping("/reports/cohorts")
+    public ApiResponse<CohortRetentionResponse> getCohortRetention(
+            @RequestParam String period,
+            @RequestParam(required = false) Long courseId
+    ) {
+        return ApiResponse.success(
+                dashboardService.getCohortRetention(period, courseId)
+        );
+    }
 }
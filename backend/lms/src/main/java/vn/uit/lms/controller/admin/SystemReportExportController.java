@@ -1,43 +1,71 @@
 package vn.uit.lms.controller.admin;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
+import vn.uit.lms.service.admin.SystemReportExportService;
+import vn.uit.lms.shared.constant.ExportFormat;
+import vn.uit.lms.shared.dto.ApiResponse;
+import vn.uit.lms.shared.dto.PageResponse;
 import vn.uit.lms.shared.dto.request.admin.ReportPeriodRequest;
 import vn.uit.lms.shared.annotation.AdminOnly;
+import vn.uit.lms.shared.dto.response.admin.ReportExportJobResponse;
 
 import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/v1/admin/reports/system")
+@RequiredArgsConstructor
 @AdminOnly
 public class SystemReportExportController {
 
+    private final SystemReportExportService systemReportExportService;
+
     /**
-     * Export system report (CSV / Excel / PDF)
+     * Export system report (CSV / Excel / PDF), streamed for short periods
      */
     @GetMapping("/export")
     public void exportSystemReport(
             @Valid ReportPeriodRequest period,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
             HttpServletResponse response
     ) throws IOException {
+        systemReportExportService.export(period, format, response);
+    }
 
-        // demo export CSV
-        response.setContentType("text/csv");
-        response.setHeader(
-                "Content-Disposition",
-                "attachment; filename=system-report.csv"
+    /**
+     * Queue a background export; poll the job for the download URL
+     */
+    @PostMapping("/export/jobs")
+    public ApiResponse<ReportExportJobResponse> submitExportJob(
+            @Valid ReportPeriodRequest period,
+            @RequestParam(defaultValue = "CSV") ExportFormat format
+    ) {
+        return ApiResponse.success(
+                systemReportExportService.submit(period, format)
         );
+    }
 
-        response.getWriter().println("metric,value");
-        response.getWriter().println("totalUsers,1000");
-        response.getWriter().println("totalCourses,120");
-        response.getWriter().println("totalRevenue,50000000");
+    @GetMapping("/export/jobs/{id}")
+    public ApiResponse<ReportExportJobResponse> getExportJob(@PathVariable Long id) {
+        return ApiResponse.success(
+                systemReportExportService.getJob(id)
+        );
+    }
 
-        response.getWriter().flush();
+    @GetMapping("/export/jobs")
+    public ApiResponse<PageResponse<ReportExportJobResponse>> getMyExportJobs(Pageable pageable) {
+        return ApiResponse.success(
+                systemReportExportService.getMyJobs(pageable)
+        );
     }
 }
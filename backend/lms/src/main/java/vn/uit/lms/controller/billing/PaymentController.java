@@ -8,15 +8,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import vn.uit.lms.service.billing.PaymentCallbackDetector;
 import vn.uit.lms.service.billing.PaymentEnrollmentOrchestrator;
 import vn.uit.lms.service.billing.PaymentService;
 import vn.uit.lms.service.billing.ZaloPayService;
+import vn.uit.lms.service.billing.gateway.CallbackEnvelope;
+import vn.uit.lms.shared.constant.PaymentProvider;
 import vn.uit.lms.shared.constant.PaymentStatus;
 import vn.uit.lms.shared.dto.request.billing.CreatePaymentRequest;
 import vn.uit.lms.shared.dto.request.billing.RefundRequest;
 import vn.uit.lms.shared.dto.response.billing.CoursePaymentStatsResponse;
 import vn.uit.lms.shared.dto.response.billing.PaymentTransactionResponse;
 import vn.uit.lms.shared.dto.response.billing.PaymentUrlResponse;
+import vn.uit.lms.shared.dto.response.billing.ZaloPayQueryResponse;
 import vn.uit.lms.shared.annotation.AdminOnly;
 import vn.uit.lms.shared.annotation.StudentOnly;
 import vn.uit.lms.shared.annotation.StudentOrTeacher;
@@ -24,6 +28,7 @@ import vn.uit.lms.shared.annotation.TeacherOnly;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/payments")
@@ -32,6 +37,7 @@ import java.util.Map;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentCallbackDetector callbackDetector;
     private final ZaloPayService zaloPayService;
     private final PaymentEnrollmentOrchestrator enrollmentOrchestrator;
 
@@ -41,11 +47,13 @@ public class PaymentController {
      */
     @PostMapping("/create-payment")
     @StudentOnly
-    public ResponseEntity<PaymentUrlResponse> createPayment(
+    public CompletableFuture<ResponseEntity<PaymentUrlResponse>> createPayment(
             @RequestBody @Valid CreatePaymentRequest request,
             HttpServletRequest httpRequest
     ) {
-        return ResponseEntity.ok(paymentService.createPayment(request, httpRequest));
+        // Deferred result: the servlet thread is released while the gateway call is in flight
+        return paymentService.createPayment(request, httpRequest)
+                .thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -54,7 +62,7 @@ public class PaymentController {
      */
     @PostMapping("/verify-payment")
     public ResponseEntity<PaymentTransactionResponse> verifyPayment(@RequestBody Map<String, String> params) {
-        return ResponseEntity.ok(paymentService.verifyPaymentAutoDetect(params));
+        return ResponseEntity.ok(paymentService.verifyPayment(callbackDetector.parse(params)));
     }
 
     /**
@@ -64,32 +72,35 @@ public class PaymentController {
      *
      * This endpoint can be used as a single callback URL for all payment gateways
      * Each gateway will send different parameters, and the system automatically detects which one
+     *
+     * The callback is verified and stored in the inbox, then acknowledged immediately;
+     * payment status and enrollment are applied asynchronously by the callback worker.
+     * Gateway retries of the same notification are acknowledged without reprocessing.
      */
     @PostMapping("/callback")
     public ResponseEntity<?> unifiedPaymentCallback(@RequestBody Map<String, String> params) {
         try {
             log.info("Received payment callback, auto-detecting provider...");
 
-            PaymentTransactionResponse response = paymentService.verifyPaymentAutoDetect(params);
+            CallbackEnvelope callback = callbackDetector.parse(params);
+            paymentService.acceptCallback(callback);
 
             // Return appropriate response format based on detected provider
-            // For VNPay: return transaction response directly
-            // For ZaloPay/MoMo: return standardized response
-            if (params.containsKey("data") && params.containsKey("mac")) {
+            if (callback.getProvider() == PaymentProvider.ZALOPAY) {
                 // ZaloPay format response
                 Map<String, Object> result = new java.util.HashMap<>();
                 result.put("return_code", 1);
                 result.put("return_message", "success");
                 return ResponseEntity.ok(result);
-            } else if (params.containsKey("signature") && params.containsKey("resultCode")) {
+            } else if (callback.getProvider() == PaymentProvider.MOMO) {
                 // MoMo format response
                 Map<String, Object> result = new java.util.HashMap<>();
                 result.put("status", 200);
                 result.put("message", "success");
                 return ResponseEntity.ok(result);
             } else {
-                // VNPay or generic response
-                return ResponseEntity.ok(response);
+                // VNPay IPN acknowledgement
+                return ResponseEntity.ok(Map.of("RspCode", "00", "Message", "Confirm Success"));
             }
 
         } catch (Exception e) {
@@ -182,8 +193,9 @@ public class PaymentController {
      */
     @GetMapping("/zalopay/query-order/{appTransId}")
     @StudentOrTeacher
-    public ResponseEntity<?> queryZaloPayOrderStatus(@PathVariable String appTransId) {
-        return ResponseEntity.ok(zaloPayService.queryOrderStatus(appTransId));
+    public CompletableFuture<ResponseEntity<ZaloPayQueryResponse>> queryZaloPayOrderStatus(@PathVariable String appTransId) {
+        return zaloPayService.queryOrderStatusAsync(appTransId)
+                .thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -192,8 +204,9 @@ public class PaymentController {
      */
     @GetMapping("/zalopay/query-refund/{mRefundId}")
     @AdminOnly
-    public ResponseEntity<?> queryZaloPayRefundStatus(@PathVariable String mRefundId) {
-        return ResponseEntity.ok(zaloPayService.queryRefundStatus(mRefundId));
+    public CompletableFuture<ResponseEntity<ZaloPayQueryResponse>> queryZaloPayRefundStatus(@PathVariable String mRefundId) {
+        return zaloPayService.queryRefundStatusAsync(mRefundId)
+                .thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -1,21 +1,27 @@
 package vn.uit.lms.controller.billing;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import vn.uit.lms.service.billing.PayoutBatchService;
 import vn.uit.lms.service.billing.PayoutService;
+import vn.uit.lms.service.schedule.PayoutBatchJob;
 import vn.uit.lms.shared.constant.PayoutStatus;
 import vn.uit.lms.shared.dto.request.billing.CompletePayoutRequest;
 import vn.uit.lms.shared.dto.request.billing.CreatePayoutRequest;
 import vn.uit.lms.shared.dto.request.billing.RejectPayoutRequest;
+import vn.uit.lms.shared.dto.response.billing.PayoutBatchResponse;
 import vn.uit.lms.shared.dto.response.billing.PayoutResponse;
 import vn.uit.lms.shared.annotation.AdminOnly;
 import vn.uit.lms.shared.annotation.TeacherOnly;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -24,6 +30,8 @@ import java.util.List;
 public class PayoutController {
 
     private final PayoutService payoutService;
+    private final PayoutBatchService payoutBatchService;
+    private final PayoutBatchJob payoutBatchJob;
 
     /**
      * Create payout request (Teacher)
@@ -126,5 +134,27 @@ public class PayoutController {
     public ResponseEntity<BigDecimal> getMyAvailablePayoutAmount() {
         return ResponseEntity.ok(payoutService.getMyAvailablePayoutAmount());
     }
-}
 
+    /**
+     * Draft payouts for all teachers for a completed month (Admin)
+     */
+    @PostMapping("/admin/payouts/batch")
+    @AdminOnly
+    public ResponseEntity<PayoutBatchResponse> runPayoutBatch(@RequestParam String period) {
+        return ResponseEntity.ok(payoutBatchJob.run(payoutBatchService.parsePeriod(period)));
+    }
+
+    /**
+     * Download the bank-transfer file for a period's pending payouts (Admin)
+     */
+    @GetMapping("/admin/payouts/batch/export")
+    @AdminOnly
+    public void exportBankTransferFile(@RequestParam String period, HttpServletResponse response) throws IOException {
+        YearMonth payoutPeriod = payoutBatchService.parsePeriod(period);
+
+        response.setContentType("text/csv");
+        response.setHeader("Content-Disposition", "attachment; filename=payouts_" + payoutPeriod + ".csv");
+
+        payoutBatchService.exportBankTransferFile(payoutPeriod, response.getWriter());
+    }
+}
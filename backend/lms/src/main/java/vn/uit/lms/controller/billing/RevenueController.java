@@ -1,15 +1,21 @@
 package vn.uit.lms.controller.billing;
 
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import vn.uit.lms.service.billing.RevenueExportService;
 import vn.uit.lms.service.billing.RevenueService;
+import vn.uit.lms.shared.dto.request.billing.TransactionExportRequest;
 import vn.uit.lms.shared.dto.response.billing.MonthlyRevenueResponse;
 import vn.uit.lms.shared.dto.response.billing.PaymentTransactionResponse;
 import vn.uit.lms.shared.dto.response.billing.RevenueBreakdownResponse;
 import vn.uit.lms.shared.dto.response.billing.TeacherRevenueResponse;
+import vn.uit.lms.shared.annotation.AdminOnly;
 import vn.uit.lms.shared.annotation.TeacherOnly;
 
+import java.io.IOException;
 import java.time.YearMonth;
 import java.util.List;
 
@@ -19,6 +25,7 @@ import java.util.List;
 public class RevenueController {
 
     private final RevenueService revenueService;
+    private final RevenueExportService revenueExportService;
 
     /**
      * Get teacher's overall revenue (Admin or specific teacher)
@@ -95,5 +102,24 @@ public class RevenueController {
     public ResponseEntity<List<PaymentTransactionResponse>> getMyPaymentTransactions() {
         return ResponseEntity.ok(revenueService.getMyPaymentTransactions());
     }
-}
 
+    /**
+     * Export my payment transactions as CSV or Excel (current teacher)
+     */
+    @GetMapping("/my-payment-transactions/export")
+    @TeacherOnly
+    public void exportMyPaymentTransactions(@Valid TransactionExportRequest request,
+                                            HttpServletResponse response) throws IOException {
+        revenueExportService.exportMyTransactions(request, response);
+    }
+
+    /**
+     * Export payment transactions by date range and teacher as CSV or Excel (Admin)
+     */
+    @GetMapping("/admin/payment-transactions/export")
+    @AdminOnly
+    public void exportPaymentTransactions(@Valid TransactionExportRequest request,
+                                          HttpServletResponse response) throws IOException {
+        revenueExportService.exportTransactions(request, response);
+    }
+}
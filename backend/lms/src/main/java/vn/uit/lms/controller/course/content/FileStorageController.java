@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -11,13 +12,18 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import vn.uit.lms.service.course.content.FileStorageService;
+import vn.uit.lms.service.storage.UploadTaskExecutor;
 import vn.uit.lms.shared.constant.StorageProvider;
 import vn.uit.lms.shared.dto.response.storage.FileStorageResponse;
 import vn.uit.lms.shared.annotation.ApiMessage;
 import vn.uit.lms.shared.annotation.Authenticated;
 import vn.uit.lms.shared.annotation.TeacherOrAdmin;
+import vn.uit.lms.shared.exception.UploadFileException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/files")
@@ -28,6 +34,7 @@ import java.util.Map;
 public class FileStorageController {
 
     private final FileStorageService fileStorageService;
+    private final UploadTaskExecutor uploadTaskExecutor;
 
     @Operation(
         summary = "Upload file",
@@ -49,6 +56,39 @@ public class FileStorageController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @Operation(
+        summary = "Upload file as raw stream",
+        description = "Upload the request body directly to storage without multipart buffering. " +
+                "Content-Type is the file MIME type; size is enforced while streaming."
+    )
+    @PutMapping("/stream")
+    @ApiMessage("File uploaded successfully")
+    public CompletableFuture<ResponseEntity<FileStorageResponse>> uploadFileStream(
+            HttpServletRequest request,
+
+            @Parameter(description = "Original file name", required = true)
+            @RequestParam String fileName,
+
+            @Parameter(description = "Folder path for organizing files")
+            @RequestParam(required = false) String folderPath,
+
+            @Parameter(description = "Storage provider (defaults to MINIO)")
+            @RequestParam(required = false) StorageProvider storageProvider
+    ) {
+        long contentLength = request.getContentLengthLong();
+        String contentType = request.getContentType();
+
+        return uploadTaskExecutor.supply(() -> {
+            try (InputStream body = request.getInputStream()) {
+                FileStorageResponse response = fileStorageService.uploadFileStream(
+                        body, contentLength, contentType, fileName, folderPath, storageProvider);
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            } catch (IOException e) {
+                throw new UploadFileException("Failed to read upload stream: " + e.getMessage());
+            }
+        });
+    }
+
     @Operation(
         summary = "Get file details",
         description = "Retrieve file storage information by ID"
@@ -16,6 +16,8 @@ import vn.uit.lms.shared.dto.request.course.content.UpdateLessonRequest;
 import vn.uit.lms.shared.dto.request.course.content.UpdateVideoRequest;
 import vn.uit.lms.shared.dto.response.course.content.LessonDTO;
 import vn.uit.lms.shared.dto.response.course.content.RequestUploadUrlResponse;
+import vn.uit.lms.shared.dto.response.course.content.VideoProcessingStatusResponse;
+import vn.uit.lms.shared.dto.response.course.content.VideoThumbnailsResponse;
 import vn.uit.lms.shared.annotation.ApiMessage;
 import vn.uit.lms.shared.annotation.Authenticated;
 import vn.uit.lms.shared.annotation.TeacherOnly;
@@ -124,6 +126,17 @@ public class LessonController {
         return ResponseEntity.ok(lessonDTO);
     }
 
+    @Operation(summary = "Get video processing status", description = "Get transcoding status, percent complete and ETA of a lesson's video. Only accessible by teachers.")
+    @GetMapping("/lessons/{lessonId}/video/processing-status")
+    @ApiMessage("Video processing status retrieved successfully")
+    @TeacherOnly
+    public ResponseEntity<VideoProcessingStatusResponse> getVideoProcessingStatus(
+            @Parameter(description = "Lesson ID", required = true) @PathVariable("lessonId") Long lessonId
+    ) {
+        VideoProcessingStatusResponse response = lessonService.getVideoProcessingStatus(lessonId);
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "Get video streaming URL", description = "Get a presigned URL for streaming a lesson's video")
     @GetMapping("/lessons/{lessonId}/video/stream-url")
     @ApiMessage("Streaming URL generated successfully")
@@ -135,6 +148,17 @@ public class LessonController {
         return ResponseEntity.ok(Map.of("streamUrl", streamUrl));
     }
 
+    @Operation(summary = "Get video thumbnails", description = "Get poster image and WebVTT scrubbing thumbnail track for a lesson's video")
+    @GetMapping("/lessons/{lessonId}/video/thumbnails")
+    @ApiMessage("Video thumbnails retrieved successfully")
+    @Authenticated
+    public ResponseEntity<VideoThumbnailsResponse> getVideoThumbnails(
+            @Parameter(description = "Lesson ID", required = true) @PathVariable("lessonId") Long lessonId
+    ) {
+        VideoThumbnailsResponse response = lessonService.getVideoThumbnails(lessonId);
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "Delete lesson video", description = "Delete the video associated with a lesson. Only accessible by teachers.")
     @DeleteMapping("/lessons/{lessonId}/video")
     @ApiMessage("Video deleted successfully")
@@ -0,0 +1,106 @@
+package vn.uit.lms.controller.course.content;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import vn.uit.lms.service.course.content.VideoUploadSessionService;
+import vn.uit.lms.shared.annotation.ApiMessage;
+import vn.uit.lms.shared.annotation.TeacherOnly;
+import vn.uit.lms.shared.dto.request.course.content.CompleteUploadSessionRequest;
+import vn.uit.lms.shared.dto.request.course.content.CreateUploadSessionRequest;
+import vn.uit.lms.shared.dto.request.course.content.UploadPartCompletedRequest;
+import vn.uit.lms.shared.dto.request.course.content.UploadPartUrlsRequest;
+import vn.uit.lms.shared.dto.response.course.content.LessonDTO;
+import vn.uit.lms.shared.dto.response.course.content.UploadPartUrlsResponse;
+import vn.uit.lms.shared.dto.response.course.content.UploadSessionResponse;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@Tag(name = "Video Upload Sessions", description = "APIs for resumable multipart video uploads")
+@SecurityRequirement(name = "bearerAuth")
+public class VideoUploadSessionController {
+
+    private final VideoUploadSessionService videoUploadSessionService;
+
+    @Operation(summary = "Start multipart video upload", description = "Create a resumable upload session for a lesson video. Only accessible by teachers.")
+    @PostMapping("/lessons/{lessonId}/video/upload-sessions")
+    @ApiMessage("Upload session created successfully")
+    @TeacherOnly
+    public ResponseEntity<UploadSessionResponse> createSession(
+            @Parameter(description = "Lesson ID", required = true) @PathVariable("lessonId") Long lessonId,
+            @Parameter(description = "Upload details", required = true) @Valid @RequestBody CreateUploadSessionRequest request
+    ) {
+        UploadSessionResponse response = videoUploadSessionService.createSession(lessonId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @Operation(summary = "Get upload session", description = "Get session state including parts still missing, used to resume an interrupted upload. Only accessible by teachers.")
+    @GetMapping("/lessons/{lessonId}/video/upload-sessions/{sessionId}")
+    @ApiMessage("Upload session retrieved successfully")
+    @TeacherOnly
+    public ResponseEntity<UploadSessionResponse> getSession(
+            @Parameter(description = "Lesson ID", required = true) @PathVariable("lessonId") Long lessonId,
+            @Parameter(description = "Upload session ID", required = true) @PathVariable("sessionId") Long sessionId
+    ) {
+        UploadSessionResponse response = videoUploadSessionService.getSession(lessonId, sessionId);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get part upload URLs", description = "Get presigned URLs for uploading parts in parallel. Only accessible by teachers.")
+    @PostMapping("/lessons/{lessonId}/video/upload-sessions/{sessionId}/part-urls")
+    @ApiMessage("Part upload URLs generated successfully")
+    @TeacherOnly
+    public ResponseEntity<UploadPartUrlsResponse> generatePartUrls(
+            @Parameter(description = "Lesson ID", required = true) @PathVariable("lessonId") Long lessonId,
+            @Parameter(description = "Upload session ID", required = true) @PathVariable("sessionId") Long sessionId,
+            @Parameter(description = "Part numbers to sign") @RequestBody(required = false) UploadPartUrlsRequest request
+    ) {
+        UploadPartUrlsResponse response = videoUploadSessionService.generatePartUrls(lessonId, sessionId, request);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Report uploaded part", description = "Record a part that finished uploading. Only accessible by teachers.")
+    @PostMapping("/lessons/{lessonId}/video/upload-sessions/{sessionId}/parts")
+    @ApiMessage("Part recorded successfully")
+    @TeacherOnly
+    public ResponseEntity<UploadSessionResponse> recordPart(
+            @Parameter(description = "Lesson ID", required = true) @PathVariable("lessonId") Long lessonId,
+            @Parameter(description = "Upload session ID", required = true) @PathVariable("sessionId") Long sessionId,
+            @Parameter(description = "Uploaded part details", required = true) @Valid @RequestBody UploadPartCompletedRequest request
+    ) {
+        UploadSessionResponse response = videoUploadSessionService.recordPart(lessonId, sessionId, request);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Complete multipart video upload", description = "Assemble all parts and trigger video processing. Only accessible by teachers.")
+    @PostMapping("/lessons/{lessonId}/video/upload-sessions/{sessionId}/complete")
+    @ApiMessage("Video upload completed, processing started")
+    @TeacherOnly
+    public ResponseEntity<LessonDTO> completeSession(
+            @Parameter(description = "Lesson ID", required = true) @PathVariable("lessonId") Long lessonId,
+            @Parameter(description = "Upload session ID", required = true) @PathVariable("sessionId") Long sessionId,
+            @Parameter(description = "Video details", required = true) @Valid @RequestBody CompleteUploadSessionRequest request
+    ) {
+        LessonDTO lessonDTO = videoUploadSessionService.completeSession(lessonId, sessionId, request);
+        return ResponseEntity.ok(lessonDTO);
+    }
+
+    @Operation(summary = "Abort multipart video upload", description = "Cancel an upload session and discard uploaded parts. Only accessible by teachers.")
+    @DeleteMapping("/lessons/{lessonId}/video/upload-sessions/{sessionId}")
+    @ApiMessage("Upload session aborted successfully")
+    @TeacherOnly
+    public ResponseEntity<Void> abortSession(
+            @Parameter(description = "Lesson ID", required = true) @PathVariable("lessonId") Long lessonId,
+            @Parameter(description = "Upload session ID", required = true) @PathVariable("sessionId") Long sessionId
+    ) {
+        videoUploadSessionService.abortSession(lessonId, sessionId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -12,6 +12,7 @@ import vn.uit.lms.service.course.content.LessonService;
 import vn.uit.lms.service.course.content.LessonResourceService;
 import vn.uit.lms.shared.dto.response.course.content.ChapterDto;
 import vn.uit.lms.shared.dto.response.course.content.LessonDTO;
+import vn.uit.lms.shared.dto.response.course.content.VideoThumbnailsResponse;
 import vn.uit.lms.shared.dto.response.resource.LessonResourceResponse;
 import vn.uit.lms.shared.annotation.ApiMessage;
 import vn.uit.lms.shared.annotation.StudentOnly;
@@ -134,6 +135,22 @@ public class StudentCourseController {
         ));
     }
 
+    @Operation(
+        summary = "Get video poster and scrubbing thumbnails for enrolled student",
+        description = "Get poster image URL and WebVTT thumbnail track for a lesson's video. " +
+                     "Same access rules as video streaming. Sprite URLs are valid for 1 hour."
+    )
+    @GetMapping("/lessons/{lessonId}/video/thumbnails")
+    @ApiMessage("Video thumbnails retrieved successfully")
+    @StudentOnly
+    public ResponseEntity<VideoThumbnailsResponse> getVideoThumbnails(
+            @Parameter(description = "Lesson ID", required = true)
+            @PathVariable("lessonId") Long lessonId
+    ) {
+        VideoThumbnailsResponse response = lessonService.getVideoThumbnailsForStudent(lessonId);
+        return ResponseEntity.ok(response);
+    }
+
     /* ==================== LESSON RESOURCES ==================== */
 
     @Operation(
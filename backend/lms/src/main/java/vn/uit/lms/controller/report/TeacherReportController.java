@@ -0,0 +1,39 @@
+package vn.uit.lms.controller.report;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import vn.uit.lms.service.report.TeacherReportService;
+import vn.uit.lms.shared.annotation.AdminOnly;
+import vn.uit.lms.shared.annotation.TeacherOnly;
+import vn.uit.lms.shared.dto.request.report.TeacherReportRequest;
+import vn.uit.lms.shared.dto.response.report.TeacherCourseReportResponse;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+public class TeacherReportController {
+
+    private final TeacherReportService teacherReportService;
+
+    /**
+     * Course analytics of the current teacher, sliced by date range and course
+     */
+    @GetMapping("/my-reports/courses")
+    @TeacherOnly
+    public ResponseEntity<TeacherCourseReportResponse> getMyCourseReport(TeacherReportRequest request) {
+        return ResponseEntity.ok(teacherReportService.getMyCourseReport(request));
+    }
+
+    /**
+     * Course analytics of any teacher (Admin)
+     */
+    @GetMapping("/teachers/{teacherId}/reports/courses")
+    @AdminOnly
+    public ResponseEntity<TeacherCourseReportResponse> getCourseReport(
+            @PathVariable Long teacherId,
+            TeacherReportRequest request
+    ) {
+        return ResponseEntity.ok(teacherReportService.getCourseReport(teacherId, request));
+    }
+}
@@ -0,0 +1,64 @@
+package vn.uit.lms.core.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Pre-computed statistics of one teacher.
+ *
+ * Rows are rewritten as a whole by set-based refresh queries, never edited field by
+ * field, so every column of a row reflects the same moment ({@link #refreshedAt}).
+ */
+@Entity
+@Table(name = "teacher_statistics")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TeacherStatistics {
+
+    @Id
+    @Column(name = "teacher_id")
+    private Long teacherId;
+
+    @Column(name = "total_courses", nullable = false)
+    @Builder.Default
+    private Long totalCourses = 0L;
+
+    @Column(name = "published_courses", nullable = false)
+    @Builder.Default
+    private Long publishedCourses = 0L;
+
+    @Column(name = "draft_courses", nullable = false)
+    @Builder.Default
+    private Long draftCourses = 0L;
+
+    /**
+     * Distinct students with an ENROLLED or COMPLETED enrollment in any of the teacher's courses
+     */
+    @Column(name = "total_students", nullable = false)
+    @Builder.Default
+    private Long totalStudents = 0L;
+
+    @Column(name = "total_reviews", nullable = false)
+    @Builder.Default
+    private Long totalReviews = 0L;
+
+    @Column(name = "average_rating", nullable = false)
+    @Builder.Default
+    private Double averageRating = 0.0;
+
+    /**
+     * Teacher earnings after refunds, from the revenue rollups
+     */
+    @Column(name = "total_revenue", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private Instant refreshedAt;
+}
@@ -12,7 +12,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "quiz_attempts")
+@Table(name = "quiz_attempts", indexes = {
+        @Index(name = "idx_quiz_attempt_updated", columnList = "updated_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,116 @@
+package vn.uit.lms.core.domain.billing;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import vn.uit.lms.shared.constant.CallbackInboxStatus;
+import vn.uit.lms.shared.constant.PaymentProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Signature-verified gateway callback waiting to be applied.
+ *
+ * The idempotency key is derived from the callback payload, so gateway retries of the
+ * same notification collapse onto one row. A worker claims due rows by pushing
+ * {@code nextAttemptAt} forward (a lease) under SKIP LOCKED, so a crashed worker's
+ * rows become claimable again once the lease expires.
+ */
+@Entity
+@Table(name = "payment_callback_inbox",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_callback_inbox_key", columnNames = {"idempotency_key"})
+        },
+        indexes = {
+                @Index(name = "idx_callback_inbox_status_next", columnList = "status, next_attempt_at"),
+                @Index(name = "idx_callback_inbox_payment", columnList = "payment_id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentCallbackInbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "idempotency_key", nullable = false, length = 128)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "provider", nullable = false, length = 20)
+    private PaymentProvider provider;
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "payload", columnDefinition = "JSON", nullable = false)
+    private Map<String, String> payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private CallbackInboxStatus status = CallbackInboxStatus.RECEIVED;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false)
+    private Instant receivedAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "applied_at")
+    private Instant appliedAt;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+    /**
+     * Take a processing lease; the row is invisible to other workers until it expires
+     */
+    public void claim(Duration lease) {
+        this.attempts++;
+        this.nextAttemptAt = Instant.now().plus(lease);
+    }
+
+    public void markApplied() {
+        this.status = CallbackInboxStatus.APPLIED;
+        this.appliedAt = Instant.now();
+        this.lastError = null;
+    }
+
+    public void markProcessed() {
+        this.status = CallbackInboxStatus.PROCESSED;
+        this.processedAt = Instant.now();
+        this.lastError = null;
+    }
+
+    /**
+     * Schedule a retry with exponential backoff, or give up after maxAttempts
+     */
+    public void markFailed(String error, int maxAttempts, Duration baseBackoff) {
+        this.lastError = error;
+        if (this.attempts >= maxAttempts) {
+            this.status = CallbackInboxStatus.DEAD;
+            return;
+        }
+        // Keep APPLIED so a retry only re-runs the enrollment step
+        if (this.status != CallbackInboxStatus.APPLIED) {
+            this.status = CallbackInboxStatus.FAILED;
+        }
+        long factor = 1L << Math.min(this.attempts - 1, 10);
+        this.nextAttemptAt = Instant.now().plus(baseBackoff.multipliedBy(factor));
+    }
+}
@@ -21,7 +21,8 @@ import java.util.Map;
         @Index(name = "idx_payment_course", columnList = "course_id"),
         @Index(name = "idx_payment_status", columnList = "status"),
         @Index(name = "idx_payment_created", columnList = "created_at"),
-        @Index(name = "idx_payment_provider_txn", columnList = "provider_transaction_id")
+        @Index(name = "idx_payment_provider_txn", columnList = "provider_transaction_id"),
+        @Index(name = "idx_payment_updated", columnList = "updated_at")
 })
 @Getter
 @Setter
@@ -68,6 +69,12 @@ public class PaymentTransaction extends BaseEntity {
     @Column(name = "provider_transaction_id", length = 255)
     private String providerTransactionId;
 
+    /**
+     * Mã đơn hàng phía cổng thanh toán (app_trans_id của ZaloPay), dùng để tra cứu trạng thái
+     */
+    @Column(name = "provider_order_id", length = 64)
+    private String providerOrderId;
+
     @Column(name = "paid_at")
     private Instant paidAt;
 
@@ -109,6 +116,19 @@ public class PaymentTransaction extends BaseEntity {
     @Column(name = "user_agent", length = 512)
     private String userAgent;
 
+    /**
+     * Số lần đối soát với cổng thanh toán khi chưa nhận được callback
+     */
+    @Column(name = "reconcile_attempts", nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer reconcileAttempts = 0;
+
+    /**
+     * Thời điểm đối soát tiếp theo (null: đối soát ngay khi giao dịch đủ cũ)
+     */
+    @Column(name = "next_reconcile_at")
+    private Instant nextReconcileAt;
+
 
     /**
      * Đánh dấu thanh toán thành công
@@ -144,6 +164,27 @@ public class PaymentTransaction extends BaseEntity {
         this.errorCode = errorCode;
     }
 
+    /**
+     * Đánh dấu hết hạn: cổng thanh toán xác nhận đơn không được thanh toán
+     */
+    public void markAsExpired(String reason) {
+        if (this.status != PaymentStatus.PENDING) {
+            throw new IllegalStateException("Can only mark PENDING transactions as EXPIRED");
+        }
+
+        this.status = PaymentStatus.EXPIRED;
+        this.failedAt = Instant.now();
+        this.failureReason = reason;
+    }
+
+    /**
+     * Ghi nhận một lần đối soát và hẹn lần kế tiếp
+     */
+    public void scheduleReconcile(Instant nextAttemptAt) {
+        this.reconcileAttempts = (this.reconcileAttempts == null ? 0 : this.reconcileAttempts) + 1;
+        this.nextReconcileAt = nextAttemptAt;
+    }
+
     /**
      * Hoàn tiền
      * Business Rule: Chỉ hoàn tiền transaction SUCCESS
@@ -19,6 +19,8 @@ import java.util.Map;
         @Index(name = "idx_payout_status", columnList = "status"),
         @Index(name = "idx_payout_period", columnList = "payout_period"),
         @Index(name = "idx_payout_date", columnList = "payout_date")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payout_reference", columnNames = "reference")
 })
 @Getter
 @Setter
@@ -0,0 +1,93 @@
+package vn.uit.lms.core.domain.billing;
+
+import jakarta.persistence.*;
+import lombok.*;
+import vn.uit.lms.shared.constant.LedgerAccount;
+import vn.uit.lms.shared.constant.LedgerEntryType;
+import vn.uit.lms.shared.constant.LedgerSide;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Append-only double-entry line of the revenue ledger.
+ *
+ * Every SALE or REFUND posts a balanced set of lines (sum of DEBIT == sum of CREDIT).
+ * The unique key on (payment, type, account) makes posting idempotent: a replayed
+ * callback cannot book the same payment twice.
+ */
+@Entity
+@Table(name = "revenue_ledger_entries",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_ledger_payment_type_account",
+                        columnNames = {"payment_id", "entry_type", "account"}
+                )
+        },
+        indexes = {
+                @Index(name = "idx_ledger_teacher_date", columnList = "teacher_id, entry_date"),
+                @Index(name = "idx_ledger_payment", columnList = "payment_id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    @Column(name = "teacher_id", nullable = false)
+    private Long teacherId;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 20)
+    private LedgerEntryType entryType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "account", nullable = false, length = 30)
+    private LedgerAccount account;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "side", nullable = false, length = 10)
+    private LedgerSide side;
+
+    @Column(name = "amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "currency", nullable = false, length = 10)
+    private String currency;
+
+    /**
+     * Business date the line belongs to (paid/refunded date in server time zone)
+     */
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = Instant.now();
+    }
+
+    /**
+     * Signed amount: DEBIT positive, CREDIT negative
+     */
+    public BigDecimal getSignedAmount() {
+        return side == LedgerSide.DEBIT ? amount : amount.negate();
+    }
+}
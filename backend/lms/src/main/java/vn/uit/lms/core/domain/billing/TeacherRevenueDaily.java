@@ -0,0 +1,88 @@
+package vn.uit.lms.core.domain.billing;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Daily revenue rollup per (teacher, course).
+ *
+ * Maintained incrementally in the same transaction as the ledger posting, so revenue
+ * reports are range reads over a few rows per course instead of scans over payments.
+ * Refund columns are booked on the refund date; sale columns on the paid date.
+ */
+@Entity
+@Table(name = "teacher_revenue_daily",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_revenue_daily_teacher_course_date",
+                        columnNames = {"teacher_id", "course_id", "revenue_date"}
+                )
+        },
+        indexes = {
+                @Index(name = "idx_revenue_daily_teacher_date", columnList = "teacher_id, revenue_date")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TeacherRevenueDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "teacher_id", nullable = false)
+    private Long teacherId;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "revenue_date", nullable = false)
+    private LocalDate revenueDate;
+
+    /**
+     * Sum of sale amounts (before refunds)
+     */
+    @Column(name = "gross_amount", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal grossAmount = BigDecimal.ZERO;
+
+    @Column(name = "fee_amount", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal feeAmount = BigDecimal.ZERO;
+
+    /**
+     * Gross minus gateway fees minus refunded net
+     */
+    @Column(name = "net_amount", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal netAmount = BigDecimal.ZERO;
+
+    @Column(name = "teacher_earnings", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal teacherEarnings = BigDecimal.ZERO;
+
+    @Column(name = "platform_fee", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal platformFee = BigDecimal.ZERO;
+
+    @Column(name = "refund_amount", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal refundAmount = BigDecimal.ZERO;
+
+    @Column(name = "sales_count", nullable = false)
+    @Builder.Default
+    private Long salesCount = 0L;
+
+    @Column(name = "refund_count", nullable = false)
+    @Builder.Default
+    private Long refundCount = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -15,6 +15,9 @@ import vn.uit.lms.shared.entity.BaseEntity;
         name = "course_review",
         uniqueConstraints = {
                 @UniqueConstraint(columnNames = {"course_id", "student_id"})
+        },
+        indexes = {
+                @Index(name = "idx_course_review_updated", columnList = "updated_at")
         }
 )
 public class CourseReview extends BaseEntity {
@@ -8,7 +8,8 @@ import vn.uit.lms.shared.entity.BaseEntity;
 @Entity
 @Table(name = "file_storages", indexes = {
         @Index(name = "idx_storage_key", columnList = "storage_key"),
-        @Index(name = "idx_storage_provider", columnList = "storage_provider")
+        @Index(name = "idx_storage_provider", columnList = "storage_provider"),
+        @Index(name = "idx_storage_content", columnList = "content_id")
 })
 @Getter
 @Setter
@@ -21,7 +22,10 @@ public class FileStorage extends BaseEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "storage_key", nullable = false, length = 512, unique = true)
+    /**
+     * Key of the stored object; uploads sharing content share the key
+     */
+    @Column(name = "storage_key", nullable = false, length = 512)
     private String storageKey;
 
     @Enumerated(EnumType.STRING)
@@ -43,6 +47,14 @@ public class FileStorage extends BaseEntity {
     @Column(name = "metadata", columnDefinition = "TEXT")
     private String metadata;
 
+    /**
+     * Stored bytes, shared with other uploads of identical content.
+     * Null for rows created before deduplication, which own their object alone.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "content_id")
+    private StoredObject content;
+
 
     /**
      * Check if this is a video file
@@ -6,6 +6,7 @@ import vn.uit.lms.shared.constant.LessonType;
 import vn.uit.lms.shared.constant.VideoStatus;
 import vn.uit.lms.shared.entity.BaseEntity;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -51,6 +52,33 @@ public class Lesson extends BaseEntity {
     @Column(name = "duration_seconds")
     private Integer durationSeconds;
 
+    /**
+     * Transcoding progress (0-100), reported by the video worker while PROCESSING
+     */
+    @Column(name = "processing_progress")
+    private Integer processingProgress;
+
+    /**
+     * Estimated seconds until transcoding completes, null when unknown
+     */
+    @Column(name = "processing_eta_seconds")
+    private Integer processingEtaSeconds;
+
+    @Column(name = "processing_updated_at")
+    private Instant processingUpdatedAt;
+
+    /**
+     * Poster frame generated during transcoding (hls/lessons/{id}/poster.jpg)
+     */
+    @Column(name = "poster_object_key", length = 512)
+    private String posterObjectKey;
+
+    /**
+     * WebVTT track pointing into the thumbnail sprite sheets, used for scrub previews
+     */
+    @Column(name = "thumbnails_vtt_key", length = 512)
+    private String thumbnailsVttKey;
+
     @Column(name = "order_index", nullable = false)
     @Builder.Default
     private Integer orderIndex = 0;
@@ -103,6 +131,9 @@ public class Lesson extends BaseEntity {
         }
         this.videoObjectKey = objectKey;
         this.videoStatus = VideoStatus.UPLOADED;
+        this.posterObjectKey = null;
+        this.thumbnailsVttKey = null;
+        resetProcessingProgress();
     }
 
     /**
@@ -252,9 +283,7 @@ public class Lesson extends BaseEntity {
 
         // Clear video fields if changing away from VIDEO type
         if (newType != LessonType.VIDEO) {
-            this.videoObjectKey = null;
-            this.videoStatus = null;
-            this.durationSeconds = null;
+            clearVideoData();
         }
     }
 
@@ -265,6 +294,18 @@ public class Lesson extends BaseEntity {
         this.videoObjectKey = null;
         this.videoStatus = null;
         this.durationSeconds = null;
+        this.posterObjectKey = null;
+        this.thumbnailsVttKey = null;
+        resetProcessingProgress();
+    }
+
+    /**
+     * Clear transcoding progress (new upload or video removed)
+     */
+    public void resetProcessingProgress() {
+        this.processingProgress = null;
+        this.processingEtaSeconds = null;
+        this.processingUpdatedAt = null;
     }
 
     /**
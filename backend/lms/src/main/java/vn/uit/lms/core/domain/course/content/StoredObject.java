@@ -0,0 +1,71 @@
+package vn.uit.lms.core.domain.course.content;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import vn.uit.lms.shared.constant.StorageProvider;
+
+import java.time.Instant;
+
+/**
+ * Bytes of an uploaded file in object storage, shared by every upload with identical
+ * content (SHA-256 + size) in the same bucket.
+ *
+ * Per-upload data (owner, original name, declared type) lives on {@link FileStorage};
+ * the object is removed when the last upload referencing it is deleted.
+ */
+@Entity
+@Table(name = "stored_objects", indexes = {
+        @Index(name = "idx_stored_object_checksum_size", columnList = "checksum, size_bytes")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredObject {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "storage_key", nullable = false, length = 512, unique = true)
+    private String storageKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_provider", nullable = false, length = 20)
+    private StorageProvider storageProvider;
+
+    @Column(name = "bucket", nullable = false, length = 128)
+    private String bucket;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    /**
+     * SHA-256 of the content; null if hashing failed, such objects are never shared
+     */
+    @Column(name = "checksum", length = 128)
+    private String checksum;
+
+    /**
+     * Number of uploads referencing this object
+     */
+    @Column(name = "reference_count", nullable = false)
+    @Builder.Default
+    private Integer referenceCount = 1;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Drop {@code references} references
+     *
+     * @return remaining references, the object can be removed when it reaches 0
+     */
+    public int releaseReferences(int references) {
+        this.referenceCount = Math.max(0, referenceCount - references);
+        return this.referenceCount;
+    }
+}
@@ -0,0 +1,37 @@
+package vn.uit.lms.core.domain.course.content;
+
+import jakarta.persistence.*;
+import lombok.*;
+import vn.uit.lms.shared.entity.BaseEntity;
+
+/**
+ * A part of a multipart video upload that the client reported as uploaded
+ */
+@Entity
+@Table(name = "video_upload_parts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_upload_part_session_number", columnNames = {"session_id", "part_number"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VideoUploadPart extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_id", nullable = false)
+    private VideoUploadSession session;
+
+    @Column(name = "part_number", nullable = false)
+    private int partNumber;
+
+    @Column(name = "etag", length = 128)
+    private String etag;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+}
@@ -0,0 +1,157 @@
+package vn.uit.lms.core.domain.course.content;
+
+import jakarta.persistence.*;
+import lombok.*;
+import vn.uit.lms.shared.constant.UploadSessionStatus;
+import vn.uit.lms.shared.entity.BaseEntity;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumable multipart upload of a lesson video.
+ *
+ * The browser uploads parts directly to MinIO through presigned URLs and reports each
+ * finished part, so an interrupted upload resumes from the first missing part instead of zero.
+ */
+@Entity
+@Table(name = "video_upload_sessions", indexes = {
+        @Index(name = "idx_upload_session_lesson", columnList = "lesson_id"),
+        @Index(name = "idx_upload_session_status_expires", columnList = "status, expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VideoUploadSession extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lesson_id", nullable = false)
+    private Lesson lesson;
+
+    @Column(name = "bucket", nullable = false, length = 128)
+    private String bucket;
+
+    @Column(name = "object_key", nullable = false, length = 512)
+    private String objectKey;
+
+    @Column(name = "upload_id", nullable = false, length = 256)
+    private String uploadId;
+
+    @Column(name = "content_type", length = 128)
+    private String contentType;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "part_size", nullable = false)
+    private Long partSize;
+
+    @Column(name = "total_parts", nullable = false)
+    private Integer totalParts;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private UploadSessionStatus status = UploadSessionStatus.IN_PROGRESS;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("partNumber ASC")
+    @Builder.Default
+    private List<VideoUploadPart> parts = new ArrayList<>();
+
+    public boolean isExpired() {
+        return expiresAt != null && Instant.now().isAfter(expiresAt);
+    }
+
+    /**
+     * Ensure the session still accepts parts
+     */
+    public void ensureActive() {
+        if (status.isTerminal()) {
+            throw new IllegalStateException("Upload session is " + status);
+        }
+        if (isExpired()) {
+            throw new IllegalStateException("Upload session has expired");
+        }
+    }
+
+    public void validatePartNumber(int partNumber) {
+        if (partNumber < 1 || partNumber > totalParts) {
+            throw new IllegalArgumentException(
+                    "Part number must be between 1 and " + totalParts + ", got " + partNumber);
+        }
+    }
+
+    /**
+     * Record (or overwrite on retry) a part reported by the client
+     */
+    public VideoUploadPart recordPart(int partNumber, String etag, Long sizeBytes) {
+        validatePartNumber(partNumber);
+
+        VideoUploadPart part = parts.stream()
+                .filter(p -> p.getPartNumber() == partNumber)
+                .findFirst()
+                .orElseGet(() -> {
+                    VideoUploadPart created = VideoUploadPart.builder()
+                            .session(this)
+                            .partNumber(partNumber)
+                            .build();
+                    parts.add(created);
+                    return created;
+                });
+
+        part.setEtag(etag);
+        part.setSizeBytes(sizeBytes);
+        return part;
+    }
+
+    /**
+     * Part numbers (1-based) not yet reported as uploaded
+     */
+    public List<Integer> getMissingPartNumbers() {
+        boolean[] present = new boolean[totalParts + 1];
+        for (VideoUploadPart part : parts) {
+            present[part.getPartNumber()] = true;
+        }
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 1; i <= totalParts; i++) {
+            if (!present[i]) {
+                missing.add(i);
+            }
+        }
+        return missing;
+    }
+
+    public long getUploadedBytes() {
+        return parts.stream()
+                .mapToLong(p -> p.getSizeBytes() != null ? p.getSizeBytes() : 0L)
+                .sum();
+    }
+
+    public void markCompleted() {
+        ensureActive();
+        this.status = UploadSessionStatus.COMPLETED;
+        this.completedAt = Instant.now();
+    }
+
+    public void markAborted() {
+        this.status = UploadSessionStatus.ABORTED;
+    }
+
+    public void markExpired() {
+        this.status = UploadSessionStatus.EXPIRED;
+    }
+}
@@ -24,7 +24,8 @@ import java.util.Map;
                 @Index(name = "idx_enrollment_course", columnList = "course_id"),
                 @Index(name = "idx_enrollment_version", columnList = "course_version_id"),
                 @Index(name = "idx_enrollment_status", columnList = "status"),
-                @Index(name = "idx_enrollment_dates", columnList = "enrolled_at, end_at")
+                @Index(name = "idx_enrollment_dates", columnList = "enrolled_at, end_at"),
+                @Index(name = "idx_enrollment_updated", columnList = "updated_at")
         },
         uniqueConstraints = {
                 @UniqueConstraint(
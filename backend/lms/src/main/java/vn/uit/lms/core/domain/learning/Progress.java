@@ -19,6 +19,9 @@ import java.time.Instant;
                         name = "uk_progress_student_lesson_version",
                         columnNames = {"student_id", "lesson_id", "course_version_id"}
                 )
+        },
+        indexes = {
+                @Index(name = "idx_progress_updated", columnList = "updated_at")
         }
 )
 @Getter
@@ -32,4 +32,7 @@ public class AuditLog {
     private Long userAccountId;
     private String ipAddress;
 
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
 }
@@ -0,0 +1,80 @@
+package vn.uit.lms.core.domain.log;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One user's activity on one day, rolled up from {@code user_activity_log}.
+ *
+ * Events less than the session timeout apart belong to the same session; active time
+ * is the sum of those in-session gaps. Rows are overwritten each time their day is
+ * summarized again, so the raw events can be purged once the day is final.
+ */
+@Entity
+@Table(name = "user_activity_daily",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_user_activity_daily_account_date",
+                        columnNames = {"account_id", "activity_date"}
+                )
+        },
+        indexes = {
+                @Index(name = "idx_user_activity_daily_date", columnList = "activity_date, account_id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserActivityDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+
+    @Column(name = "event_count", nullable = false)
+    @Builder.Default
+    private Long eventCount = 0L;
+
+    @Column(name = "session_count", nullable = false)
+    @Builder.Default
+    private Long sessionCount = 0L;
+
+    @Column(name = "active_seconds", nullable = false)
+    @Builder.Default
+    private Long activeSeconds = 0L;
+
+    @Column(name = "logins", nullable = false)
+    @Builder.Default
+    private Long logins = 0L;
+
+    @Column(name = "lesson_opens", nullable = false)
+    @Builder.Default
+    private Long lessonOpens = 0L;
+
+    @Column(name = "quiz_starts", nullable = false)
+    @Builder.Default
+    private Long quizStarts = 0L;
+
+    @Column(name = "downloads", nullable = false)
+    @Builder.Default
+    private Long downloads = 0L;
+
+    @Column(name = "first_seen_at", nullable = false)
+    private Instant firstSeenAt;
+
+    @Column(name = "last_seen_at", nullable = false)
+    private Instant lastSeenAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
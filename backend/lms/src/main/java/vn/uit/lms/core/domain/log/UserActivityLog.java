@@ -3,11 +3,17 @@ package vn.uit.lms.core.domain.log;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import vn.uit.lms.shared.constant.ActivityType;
+
+import java.time.Instant;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "user_activity_log")
+@Table(name = "user_activity_log", indexes = {
+        @Index(name = "idx_user_activity_created", columnList = "created_at"),
+        @Index(name = "idx_user_activity_account_created", columnList = "account_id, created_at")
+})
 public class UserActivityLog {
 
     @Id
@@ -15,11 +21,18 @@ public class UserActivityLog {
     private Long id;
 
     private Long accountId;
-    private String actionType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30)
+    private ActivityType actionType;
+
     private String referenceType;
     private String referenceId;
 
     @Column(columnDefinition = "JSON")
     private String metadata;
 
+    @Column(nullable = false)
+    private Instant createdAt;
+
 }
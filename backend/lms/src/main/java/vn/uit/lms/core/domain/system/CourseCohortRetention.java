@@ -0,0 +1,51 @@
+package vn.uit.lms.core.domain.system;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Learners of a weekly cohort still active {@code weekOffset} weeks after enrolling.
+ *
+ * Retention is rolling: a learner counts for week N when their latest lesson or quiz
+ * activity in the course is at least N weeks after their enrollment.
+ */
+@Entity
+@Table(name = "course_cohort_retention",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_cohort_retention_course_week_offset",
+                        columnNames = {"course_id", "cohort_week", "week_offset"}
+                )
+        },
+        indexes = {
+                @Index(name = "idx_cohort_retention_week", columnList = "cohort_week, week_offset")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseCohortRetention {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "cohort_week", nullable = false)
+    private LocalDate cohortWeek;
+
+    @Column(name = "week_offset", nullable = false)
+    private Integer weekOffset;
+
+    @Column(name = "retained", nullable = false)
+    private Long retained;
+
+    @Column(name = "computed_at", nullable = false)
+    private Instant computedAt;
+}
@@ -0,0 +1,96 @@
+package vn.uit.lms.core.domain.system;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Per-course, per-day learning and sales facts behind the teacher reports.
+ *
+ * Loaded by the nightly ETL, which recomputes only the (course, day) cells touched by
+ * source rows changed since its watermark. Averages are stored as sum and count so any
+ * date range can be rolled up exactly. Days are in the server time zone.
+ */
+@Entity
+@Table(name = "course_daily_facts",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_course_fact_course_date",
+                        columnNames = {"course_id", "fact_date"}
+                )
+        },
+        indexes = {
+                @Index(name = "idx_course_fact_teacher_date", columnList = "teacher_id, fact_date, course_id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseDailyFact {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "teacher_id", nullable = false)
+    private Long teacherId;
+
+    @Column(name = "fact_date", nullable = false)
+    private LocalDate factDate;
+
+    @Column(name = "enrollments", nullable = false)
+    @Builder.Default
+    private Long enrollments = 0L;
+
+    @Column(name = "completions", nullable = false)
+    @Builder.Default
+    private Long completions = 0L;
+
+    /**
+     * Amount of payments made on this day, including ones refunded later
+     */
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "refunds", nullable = false, precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal refunds = BigDecimal.ZERO;
+
+    @Column(name = "sales_count", nullable = false)
+    @Builder.Default
+    private Long salesCount = 0L;
+
+    /**
+     * Distinct students who viewed or completed a lesson or started a quiz on this day
+     */
+    @Column(name = "active_learners", nullable = false)
+    @Builder.Default
+    private Long activeLearners = 0L;
+
+    @Column(name = "quiz_attempts", nullable = false)
+    @Builder.Default
+    private Long quizAttempts = 0L;
+
+    @Column(name = "quiz_score_sum", nullable = false)
+    @Builder.Default
+    private Double quizScoreSum = 0.0;
+
+    @Column(name = "review_count", nullable = false)
+    @Builder.Default
+    private Long reviewCount = 0L;
+
+    @Column(name = "rating_sum", nullable = false)
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
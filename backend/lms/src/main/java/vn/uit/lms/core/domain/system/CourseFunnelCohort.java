@@ -0,0 +1,64 @@
+package vn.uit.lms.core.domain.system;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Learning funnel of one weekly enrollment cohort of a course.
+ *
+ * Each count only includes learners who also reached every earlier stage, so
+ * consecutive columns show where the cohort dropped off. Written by the cohort
+ * analytics job, which replaces the recent cohorts of a course on every run.
+ */
+@Entity
+@Table(name = "course_funnel_cohorts",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_funnel_cohort_course_week",
+                        columnNames = {"course_id", "cohort_week"}
+                )
+        },
+        indexes = {
+                @Index(name = "idx_funnel_cohort_week", columnList = "cohort_week")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseFunnelCohort {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    /**
+     * Monday of the week the learners enrolled in
+     */
+    @Column(name = "cohort_week", nullable = false)
+    private LocalDate cohortWeek;
+
+    @Column(name = "enrolled", nullable = false)
+    private Long enrolled;
+
+    @Column(name = "first_lesson", nullable = false)
+    private Long firstLesson;
+
+    @Column(name = "half_completed", nullable = false)
+    private Long halfCompleted;
+
+    @Column(name = "final_quiz", nullable = false)
+    private Long finalQuiz;
+
+    @Column(name = "certified", nullable = false)
+    private Long certified;
+
+    @Column(name = "computed_at", nullable = false)
+    private Instant computedAt;
+}
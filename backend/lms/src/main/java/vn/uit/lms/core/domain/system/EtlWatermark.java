@@ -0,0 +1,31 @@
+package vn.uit.lms.core.domain.system;
+
+import jakarta.persistence.*;
+import lombok.*;
+import vn.uit.lms.shared.constant.CourseFactSource;
+
+import java.time.Instant;
+
+/**
+ * Highest source {@code updated_at} already loaded into the course facts by one ETL step
+ */
+@Entity
+@Table(name = "etl_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EtlWatermark {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source", length = 40)
+    private CourseFactSource source;
+
+    @Column(name = "watermark", nullable = false)
+    private Instant watermark;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,52 @@
+package vn.uit.lms.core.domain.system;
+
+import jakarta.persistence.*;
+import lombok.*;
+import vn.uit.lms.shared.constant.DashboardMetric;
+import vn.uit.lms.shared.constant.MetricGranularity;
+
+import java.time.Instant;
+
+/**
+ * Time-bucketed counter of one dashboard metric.
+ *
+ * Written only by adding flushed deltas, so every instance can contribute to the
+ * same bucket. A bucket is identified by its start instant in the server time zone.
+ */
+@Entity
+@Table(name = "metric_rollups",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_metric_rollup_bucket",
+                        columnNames = {"metric", "granularity", "bucket_start"}
+                )
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetricRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metric", nullable = false, length = 40)
+    private DashboardMetric metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private MetricGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(name = "metric_value", nullable = false)
+    @Builder.Default
+    private Long value = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
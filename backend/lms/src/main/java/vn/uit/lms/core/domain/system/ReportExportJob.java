@@ -0,0 +1,92 @@
+package vn.uit.lms.core.domain.system;
+
+import jakarta.persistence.*;
+import lombok.*;
+import vn.uit.lms.shared.constant.ExportFormat;
+import vn.uit.lms.shared.constant.ExportJobStatus;
+
+import java.time.Instant;
+
+/**
+ * Background export of the system report.
+ *
+ * The finished file is stored in object storage under {@link #objectKey} and handed
+ * out through short-lived presigned URLs.
+ */
+@Entity
+@Table(name = "report_export_jobs",
+        indexes = {
+                @Index(name = "idx_report_export_job_requested_by", columnList = "requested_by, created_at")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReportExportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "requested_by", nullable = false)
+    private Long requestedBy;
+
+    @Column(name = "period", nullable = false, length = 30)
+    private String period;
+
+    @Column(name = "range_start", nullable = false)
+    private Instant rangeStart;
+
+    @Column(name = "range_end", nullable = false)
+    private Instant rangeEnd;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false, length = 10)
+    private ExportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private ExportJobStatus status = ExportJobStatus.QUEUED;
+
+    @Column(name = "object_key", length = 500)
+    private String objectKey;
+
+    @Column(name = "row_count")
+    private Long rowCount;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+
+    public void start() {
+        this.status = ExportJobStatus.RUNNING;
+        this.startedAt = Instant.now();
+    }
+
+    public void complete(String objectKey, long rowCount, long fileSize) {
+        this.status = ExportJobStatus.COMPLETED;
+        this.objectKey = objectKey;
+        this.rowCount = rowCount;
+        this.fileSize = fileSize;
+        this.completedAt = Instant.now();
+    }
+
+    public void fail(String errorMessage) {
+        this.status = ExportJobStatus.FAILED;
+        this.errorMessage = errorMessage;
+        this.completedAt = Instant.now();
+    }
+}
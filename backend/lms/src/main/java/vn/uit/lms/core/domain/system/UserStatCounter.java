@@ -0,0 +1,35 @@
+package vn.uit.lms.core.domain.system;
+
+import jakarta.persistence.*;
+import lombok.*;
+import vn.uit.lms.shared.constant.UserStatKey;
+
+import java.time.Instant;
+
+/**
+ * Persisted value of one account counter.
+ *
+ * Instances add their flushed deltas to the same row; the nightly recompute
+ * overwrites it with an exact count.
+ */
+@Entity
+@Table(name = "user_stat_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserStatCounter {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "counter_key", length = 40)
+    private UserStatKey key;
+
+    @Column(name = "counter_value", nullable = false)
+    @Builder.Default
+    private Long value = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
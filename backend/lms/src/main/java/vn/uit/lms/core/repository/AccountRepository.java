@@ -1,12 +1,21 @@
 package vn.uit.lms.core.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import vn.uit.lms.core.domain.Account;
+import vn.uit.lms.shared.constant.AccountStatus;
 import vn.uit.lms.shared.constant.Role;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long>, JpaSpecificationExecutor<Account> {
@@ -18,4 +27,90 @@ public interface AccountRepository extends JpaRepository<Account, Long>, JpaSpec
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
 
+    long countByDeletedAtIsNull();
+    long countByRoleAndDeletedAtIsNull(Role role);
+    long countByStatusAndDeletedAtIsNull(AccountStatus status);
+
+    /**
+     * Registration time and role of accounts created before the cutoff, read through a cursor
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT a.createdAt AS createdAt, a.role AS role FROM Account a WHERE a.createdAt < :cutoff")
+    Stream<RegistrationRow> streamRegistrationsBefore(@Param("cutoff") Instant cutoff);
+
+    /**
+     * Accounts registered in [from, to) in id order, read through a cursor
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT a.id AS id, a.username AS username, a.email AS email, a.role AS role, a.status AS status, " +
+            "a.createdAt AS createdAt, a.lastLoginAt AS lastLoginAt " +
+            "FROM Account a WHERE a.createdAt >= :from AND a.createdAt < :to ORDER BY a.id")
+    Stream<AccountReportRow> streamForReport(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Accounts for the admin user export in id order, read through a cursor
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT a.id AS id, a.username AS username, a.email AS email, a.role AS role, a.status AS status, " +
+            "a.avatarUrl AS avatarUrl, a.createdAt AS createdAt, a.updatedAt AS updatedAt, " +
+            "a.lastLoginAt AS lastLoginAt " +
+            "FROM Account a WHERE a.status IN :statuses " +
+            "AND (:includeDeleted = true OR a.deletedAt IS NULL) ORDER BY a.id")
+    Stream<AccountExportRow> streamForExport(
+            @Param("statuses") Collection<AccountStatus> statuses,
+            @Param("includeDeleted") boolean includeDeleted
+    );
+
+    interface AccountExportRow {
+        Long getId();
+        String getUsername();
+        String getEmail();
+        Role getRole();
+        AccountStatus getStatus();
+        String getAvatarUrl();
+        Instant getCreatedAt();
+        Instant getUpdatedAt();
+        Instant getLastLoginAt();
+    }
+
+    @Query("SELECT a.status AS status, COUNT(a) AS total FROM Account a GROUP BY a.status")
+    List<StatusCount> countGroupedByStatus();
+
+    @Query("SELECT a.role AS role, COUNT(a) AS total FROM Account a GROUP BY a.role")
+    List<RoleCount> countGroupedByRole();
+
+    interface StatusCount {
+        AccountStatus getStatus();
+        Long getTotal();
+    }
+
+    interface RoleCount {
+        Role getRole();
+        Long getTotal();
+    }
+
+    interface AccountReportRow {
+        Long getId();
+        String getUsername();
+        String getEmail();
+        Role getRole();
+        AccountStatus getStatus();
+        Instant getCreatedAt();
+        Instant getLastLoginAt();
+    }
+
+    interface RegistrationRow {
+        Instant getCreatedAt();
+        Role getRole();
+    }
+
 }
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import vn.uit.lms.core.domain.Account;
 import vn.uit.lms.core.domain.Student;
+import vn.uit.lms.shared.constant.AccountStatus;
 
 import java.util.Optional;
 
@@ -21,5 +22,28 @@ public interface StudentRepository extends JpaRepository<Student, Long>, JpaSpec
 
     @Query("SELECT s FROM Student s JOIN FETCH s.account WHERE s.studentCode = :code")
     Optional<Student> findByStudentCodeWithAccount(@Param("code") String code);
-}
 
+    /**
+     * Checkout preconditions of the student behind a login, in one round trip
+     */
+    @Query("SELECT s.id AS studentId, a.status AS accountStatus, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM PaymentTransaction p WHERE p.student.id = s.id " +
+            "AND p.course.id = :courseId AND p.status = vn.uit.lms.shared.constant.PaymentStatus.SUCCESS) " +
+            "THEN true ELSE false END AS alreadyPaid, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM Enrollment e WHERE e.student.id = s.id " +
+            "AND e.courseVersion.id = :courseVersionId AND e.deletedAt IS NULL) " +
+            "THEN true ELSE false END AS alreadyEnrolled " +
+            "FROM Student s JOIN s.account a WHERE LOWER(a.email) = LOWER(:email)")
+    Optional<CheckoutEligibility> findCheckoutEligibility(
+            @Param("email") String email,
+            @Param("courseId") Long courseId,
+            @Param("courseVersionId") Long courseVersionId
+    );
+
+    interface CheckoutEligibility {
+        Long getStudentId();
+        AccountStatus getAccountStatus();
+        Boolean getAlreadyPaid();
+        Boolean getAlreadyEnrolled();
+    }
+}
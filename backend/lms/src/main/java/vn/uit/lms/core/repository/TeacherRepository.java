@@ -1,5 +1,6 @@
 package vn.uit.lms.core.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Repository;
 import vn.uit.lms.core.domain.Account;
 import vn.uit.lms.core.domain.Teacher;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -29,6 +31,12 @@ public interface TeacherRepository extends JpaRepository<Teacher, Long>, JpaSpec
     long countByApprovedTrue();
 
     long countByApprovedFalse();
+
+    /**
+     * Teacher ids in ascending order after {@code afterId}, for keyset batching
+     */
+    @Query("SELECT t.id FROM Teacher t WHERE t.id > :afterId ORDER BY t.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
 
 
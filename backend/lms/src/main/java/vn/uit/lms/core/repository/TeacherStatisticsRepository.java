@@ -0,0 +1,55 @@
+package vn.uit.lms.core.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.uit.lms.core.domain.TeacherStatistics;
+
+import java.util.Collection;
+
+@Repository
+public interface TeacherStatisticsRepository extends JpaRepository<TeacherStatistics, Long> {
+
+    /**
+     * Recompute the statistics rows of the given teachers in one statement.
+     * Courses count as published while they have a live PUBLISHED version; every other
+     * live course counts as a draft.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO teacher_statistics (teacher_id, total_courses, published_courses, draft_courses, " +
+            "total_students, total_reviews, average_rating, total_revenue, refreshed_at) " +
+            "SELECT t.id, COALESCE(c.total, 0), COALESCE(c.published, 0), COALESCE(c.total, 0) - COALESCE(c.published, 0), " +
+            "COALESCE(s.students, 0), COALESCE(r.reviews, 0), COALESCE(r.average, 0), COALESCE(rv.revenue, 0), " +
+            "CURRENT_TIMESTAMP " +
+            "FROM teachers t " +
+            "LEFT JOIN (SELECT co.teacher_id, COUNT(*) AS total, " +
+            "    COUNT(*) FILTER (WHERE EXISTS (SELECT 1 FROM course_versions v " +
+            "        WHERE v.course_id = co.id AND v.status = 'PUBLISHED' AND v.deleted_at IS NULL)) AS published " +
+            "    FROM courses co WHERE co.deleted_at IS NULL AND co.teacher_id IN (:teacherIds) " +
+            "    GROUP BY co.teacher_id) c ON c.teacher_id = t.id " +
+            "LEFT JOIN (SELECT co.teacher_id, COUNT(DISTINCT e.student_id) AS students " +
+            "    FROM enrollments e JOIN courses co ON co.id = e.course_id " +
+            "    WHERE e.deleted_at IS NULL AND e.status IN ('ENROLLED', 'COMPLETED') AND co.teacher_id IN (:teacherIds) " +
+            "    GROUP BY co.teacher_id) s ON s.teacher_id = t.id " +
+            "LEFT JOIN (SELECT co.teacher_id, COUNT(*) AS reviews, ROUND(AVG(cr.rating)::numeric, 2) AS average " +
+            "    FROM course_review cr JOIN courses co ON co.id = cr.course_id " +
+            "    WHERE cr.deleted_at IS NULL AND co.deleted_at IS NULL AND co.teacher_id IN (:teacherIds) " +
+            "    GROUP BY co.teacher_id) r ON r.teacher_id = t.id " +
+            "LEFT JOIN (SELECT d.teacher_id, SUM(d.teacher_earnings) AS revenue " +
+            "    FROM teacher_revenue_daily d WHERE d.teacher_id IN (:teacherIds) " +
+            "    GROUP BY d.teacher_id) rv ON rv.teacher_id = t.id " +
+            "WHERE t.id IN (:teacherIds) " +
+            "ON CONFLICT (teacher_id) DO UPDATE SET " +
+            "total_courses = EXCLUDED.total_courses, " +
+            "published_courses = EXCLUDED.published_courses, " +
+            "draft_courses = EXCLUDED.draft_courses, " +
+            "total_students = EXCLUDED.total_students, " +
+            "total_reviews = EXCLUDED.total_reviews, " +
+            "average_rating = EXCLUDED.average_rating, " +
+            "total_revenue = EXCLUDED.total_revenue, " +
+            "refreshed_at = EXCLUDED.refreshed_at",
+            nativeQuery = true)
+    int refreshForTeachers(@Param("teacherIds") Collection<Long> teacherIds);
+}
@@ -0,0 +1,61 @@
+package vn.uit.lms.core.repository.billing;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import vn.uit.lms.core.domain.billing.PaymentCallbackInbox;
+import vn.uit.lms.shared.constant.CallbackInboxStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface PaymentCallbackInboxRepository extends JpaRepository<PaymentCallbackInbox, Long> {
+
+    Optional<PaymentCallbackInbox> findByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Due rows, locked with SKIP LOCKED (lock timeout -2) so concurrent workers never block each other
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT i FROM PaymentCallbackInbox i " +
+            "WHERE i.status IN :statuses AND i.nextAttemptAt <= :now " +
+            "ORDER BY i.id")
+    List<PaymentCallbackInbox> findDueForUpdate(
+            @Param("statuses") List<CallbackInboxStatus> statuses,
+            @Param("now") Instant now,
+            Pageable pageable
+    );
+
+    /**
+     * Single due row, locked with SKIP LOCKED; empty if another worker holds it
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT i FROM PaymentCallbackInbox i " +
+            "WHERE i.id = :id AND i.status IN :statuses AND i.nextAttemptAt <= :now")
+    Optional<PaymentCallbackInbox> findDueByIdForUpdate(
+            @Param("id") Long id,
+            @Param("statuses") List<CallbackInboxStatus> statuses,
+            @Param("now") Instant now
+    );
+
+    /**
+     * Unfinished rows per status in one scan (PROCESSED rows are the bulk and not counted)
+     */
+    @Query("SELECT i.status AS status, COUNT(i) AS total FROM PaymentCallbackInbox i " +
+            "WHERE i.status <> vn.uit.lms.shared.constant.CallbackInboxStatus.PROCESSED " +
+            "GROUP BY i.status")
+    List<StatusCount> countUnfinishedGroupedByStatus();
+
+    interface StatusCount {
+        CallbackInboxStatus getStatus();
+        Long getTotal();
+    }
+}
@@ -1,19 +1,36 @@
 package vn.uit.lms.core.repository.billing;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import vn.uit.lms.core.domain.Student;
 import vn.uit.lms.core.domain.billing.PaymentTransaction;
+import vn.uit.lms.shared.constant.PaymentProvider;
 import vn.uit.lms.shared.constant.PaymentStatus;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PaymentTransactionRepository extends JpaRepository<PaymentTransaction, Long>, JpaSpecificationExecutor<PaymentTransaction> {
 
+    /**
+     * Load payment with a row lock; serializes concurrent callbacks for the same order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PaymentTransaction p WHERE p.id = :id")
+    Optional<PaymentTransaction> findByIdForUpdate(@Param("id") Long id);
+
     @Query("SELECT p FROM PaymentTransaction p WHERE p.student.id = :studentId")
     List<PaymentTransaction> findByStudentId(@Param("studentId") Long studentId);
 
@@ -43,4 +60,137 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
     );
 
     boolean existsByStudentIdAndCourseIdAndStatus(Long studentId, Long courseId, PaymentStatus status);
+
+    /**
+     * Settled payments without revenue ledger lines, in id order (keyset paging)
+     */
+    @Query("SELECT p FROM PaymentTransaction p JOIN FETCH p.course c JOIN FETCH c.teacher " +
+            "WHERE p.id > :afterId AND p.status IN :statuses AND p.paidAt IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM RevenueLedgerEntry e WHERE e.paymentId = p.id " +
+            "AND e.entryType = vn.uit.lms.shared.constant.LedgerEntryType.SALE) " +
+            "ORDER BY p.id")
+    List<PaymentTransaction> findUnbookedSettledPayments(
+            @Param("afterId") Long afterId,
+            @Param("statuses") List<PaymentStatus> statuses,
+            Pageable pageable
+    );
+
+    /**
+     * Record the id the gateway order was created under
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PaymentTransaction p SET p.providerOrderId = :providerOrderId WHERE p.id = :id")
+    int updateProviderOrderId(@Param("id") Long id, @Param("providerOrderId") String providerOrderId);
+
+    /**
+     * Stale PENDING payments due for gateway reconciliation, in id order (keyset paging)
+     */
+    @Query("SELECT p.id AS id, p.paymentMethod AS paymentMethod, p.providerOrderId AS providerOrderId, " +
+            "p.createdAt AS createdAt, p.reconcileAttempts AS reconcileAttempts " +
+            "FROM PaymentTransaction p " +
+            "WHERE p.status = vn.uit.lms.shared.constant.PaymentStatus.PENDING " +
+            "AND p.id > :afterId AND p.createdAt < :staleBefore " +
+            "AND (p.nextReconcileAt IS NULL OR p.nextReconcileAt <= :now) " +
+            "ORDER BY p.id")
+    List<PendingPaymentRef> findPendingForReconciliation(
+            @Param("afterId") Long afterId,
+            @Param("staleBefore") Instant staleBefore,
+            @Param("now") Instant now,
+            Pageable pageable
+    );
+
+    interface PendingPaymentRef {
+        Long getId();
+        PaymentProvider getPaymentMethod();
+        String getProviderOrderId();
+        Instant getCreatedAt();
+        Integer getReconcileAttempts();
+    }
+
+    /**
+     * Export rows in id order, read through a server-side cursor. The caller must consume
+     * the stream inside a read-only transaction and close it.
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT p.id AS id, p.createdAt AS createdAt, p.paidAt AS paidAt, p.status AS status, " +
+            "p.paymentMethod AS paymentMethod, p.currency AS currency, p.amount AS amount, " +
+            "p.transactionFee AS transactionFee, p.netAmount AS netAmount, p.refundAmount AS refundAmount, " +
+            "p.refundedAt AS refundedAt, p.providerTransactionId AS providerTransactionId, " +
+            "c.id AS courseId, c.title AS courseTitle, t.id AS teacherId, t.fullName AS teacherName, " +
+            "s.id AS studentId, s.fullName AS studentName " +
+            "FROM PaymentTransaction p JOIN p.course c JOIN c.teacher t JOIN p.student s " +
+            "WHERE p.id > :afterId AND p.createdAt >= :from AND p.createdAt < :to " +
+            "AND (:teacherId IS NULL OR t.id = :teacherId) " +
+            "AND (:status IS NULL OR p.status = :status) " +
+            "ORDER BY p.id")
+    Stream<PaymentExportRow> streamForExport(
+            @Param("afterId") Long afterId,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("teacherId") Long teacherId,
+            @Param("status") PaymentStatus status
+    );
+
+    interface PaymentExportRow {
+        Long getId();
+        Instant getCreatedAt();
+        Instant getPaidAt();
+        PaymentStatus getStatus();
+        PaymentProvider getPaymentMethod();
+        String getCurrency();
+        BigDecimal getAmount();
+        BigDecimal getTransactionFee();
+        BigDecimal getNetAmount();
+        BigDecimal getRefundAmount();
+        Instant getRefundedAt();
+        String getProviderTransactionId();
+        Long getCourseId();
+        String getCourseTitle();
+        Long getTeacherId();
+        String getTeacherName();
+        Long getStudentId();
+        String getStudentName();
+    }
+
+    /**
+     * Paid and refunded amounts of payments settled before the cutoff, read through a cursor
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT p.paidAt AS paidAt, p.amount AS amount, p.refundedAt AS refundedAt, p.refundAmount AS refundAmount " +
+            "FROM PaymentTransaction p " +
+            "WHERE p.paidAt < :cutoff " +
+            "AND p.status IN ('SUCCESS', 'REFUNDED')")
+    Stream<PaymentMetricRow> streamSettledBefore(@Param("cutoff") Instant cutoff);
+
+    /**
+     * Payments settled in [from, to), refunded ones included, in id order, read through a cursor
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT p.id AS id, p.createdAt AS createdAt, p.paidAt AS paidAt, p.status AS status, " +
+            "p.paymentMethod AS paymentMethod, p.currency AS currency, p.amount AS amount, " +
+            "p.transactionFee AS transactionFee, p.netAmount AS netAmount, p.refundAmount AS refundAmount, " +
+            "p.refundedAt AS refundedAt, p.providerTransactionId AS providerTransactionId, " +
+            "c.id AS courseId, c.title AS courseTitle, t.id AS teacherId, t.fullName AS teacherName, " +
+            "s.id AS studentId, s.fullName AS studentName " +
+            "FROM PaymentTransaction p JOIN p.course c JOIN c.teacher t JOIN p.student s " +
+            "WHERE p.paidAt >= :from AND p.paidAt < :to AND p.status IN ('SUCCESS', 'REFUNDED') " +
+            "ORDER BY p.id")
+    Stream<PaymentExportRow> streamSettledForReport(@Param("from") Instant from, @Param("to") Instant to);
+
+    interface PaymentMetricRow {
+        Instant getPaidAt();
+        BigDecimal getAmount();
+        Instant getRefundedAt();
+        BigDecimal getRefundAmount();
+    }
 }
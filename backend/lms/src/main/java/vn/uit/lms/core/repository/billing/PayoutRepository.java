@@ -1,5 +1,6 @@
 package vn.uit.lms.core.repository.billing;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +9,7 @@ import vn.uit.lms.core.domain.billing.Payout;
 import vn.uit.lms.shared.constant.PayoutStatus;
 
 import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
 
 public interface PayoutRepository extends JpaRepository<Payout, Long>, JpaSpecificationExecutor<Payout> {
@@ -23,5 +25,29 @@ public interface PayoutRepository extends JpaRepository<Payout, Long>, JpaSpecif
     @Query("SELECT p FROM Payout p WHERE p.teacher.id = :teacherId ORDER BY p.createdAt DESC")
     List<Payout> findByTeacherIdOrderByCreatedAtDesc(@Param("teacherId") Long teacherId);
 
+    boolean existsByTeacherIdAndPayoutPeriod(Long teacherId, String payoutPeriod);
+
     boolean existsByTeacherIdAndPayoutPeriodAndStatus(Long teacherId, String payoutPeriod, PayoutStatus status);
+
+    @Query("SELECT DISTINCT p.teacher.id FROM Payout p " +
+            "WHERE p.payoutPeriod = :payoutPeriod AND p.teacher.id IN :teacherIds")
+    List<Long> findTeacherIdsWithPayoutForPeriod(
+            @Param("payoutPeriod") String payoutPeriod,
+            @Param("teacherIds") Collection<Long> teacherIds
+    );
+
+    @Query("SELECT p FROM Payout p WHERE p.teacher.id IN :teacherIds " +
+            "AND p.bankAccountNumber IS NOT NULL AND p.bankName IS NOT NULL " +
+            "ORDER BY p.createdAt DESC")
+    List<Payout> findWithBankAccountByTeacherIds(@Param("teacherIds") Collection<Long> teacherIds);
+
+    @Query("SELECT p FROM Payout p JOIN FETCH p.teacher " +
+            "WHERE p.payoutPeriod = :payoutPeriod AND p.status = :status AND p.id > :afterId " +
+            "ORDER BY p.id")
+    List<Payout> findPageByPeriodAndStatus(
+            @Param("payoutPeriod") String payoutPeriod,
+            @Param("status") PayoutStatus status,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
 }
@@ -0,0 +1,25 @@
+package vn.uit.lms.core.repository.billing;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vn.uit.lms.core.domain.billing.RevenueLedgerEntry;
+import vn.uit.lms.shared.constant.LedgerEntryType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface RevenueLedgerEntryRepository extends JpaRepository<RevenueLedgerEntry, Long> {
+
+    List<RevenueLedgerEntry> findByPaymentIdAndEntryType(Long paymentId, LedgerEntryType entryType);
+
+    boolean existsByPaymentIdAndEntryType(Long paymentId, LedgerEntryType entryType);
+
+    /**
+     * Ledger balance check: must be zero for every payment
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN e.side = vn.uit.lms.shared.constant.LedgerSide.DEBIT " +
+            "THEN e.amount ELSE -e.amount END), 0) " +
+            "FROM RevenueLedgerEntry e WHERE e.paymentId = :paymentId")
+    BigDecimal sumSignedAmountByPaymentId(@Param("paymentId") Long paymentId);
+}
@@ -0,0 +1,143 @@
+package vn.uit.lms.core.repository.billing;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vn.uit.lms.core.domain.billing.TeacherRevenueDaily;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TeacherRevenueDailyRepository extends JpaRepository<TeacherRevenueDaily, Long> {
+
+    /**
+     * Totals of one course over a range of rollup rows
+     */
+    interface CourseRevenueTotals {
+        Long getCourseId();
+        String getCourseTitle();
+        String getCourseThumbnail();
+        BigDecimal getGrossAmount();
+        BigDecimal getFeeAmount();
+        BigDecimal getNetAmount();
+        BigDecimal getTeacherEarnings();
+        BigDecimal getPlatformFee();
+        BigDecimal getRefundAmount();
+        Long getSalesCount();
+        Long getRefundCount();
+    }
+
+    /**
+     * Teacher earnings of one day
+     */
+    interface DailyRevenueTotals {
+        LocalDate getRevenueDate();
+        BigDecimal getTeacherEarnings();
+    }
+
+    /**
+     * Totals of one teacher over a range of rollup rows
+     */
+    interface TeacherBalanceTotals {
+        Long getTeacherId();
+        BigDecimal getNetAmount();
+        BigDecimal getTeacherEarnings();
+        Long getSalesCount();
+        Long getRefundCount();
+    }
+
+    /**
+     * Atomically add deltas to the (teacher, course, date) row, creating it if missing.
+     * Must run inside the ledger posting transaction.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO teacher_revenue_daily (teacher_id, course_id, revenue_date, gross_amount, " +
+            "fee_amount, net_amount, teacher_earnings, platform_fee, refund_amount, sales_count, refund_count, updated_at) " +
+            "VALUES (:teacherId, :courseId, :revenueDate, :gross, :fee, :net, :teacherEarnings, :platformFee, " +
+            ":refund, :salesCount, :refundCount, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (teacher_id, course_id, revenue_date) DO UPDATE SET " +
+            "gross_amount = teacher_revenue_daily.gross_amount + EXCLUDED.gross_amount, " +
+            "fee_amount = teacher_revenue_daily.fee_amount + EXCLUDED.fee_amount, " +
+            "net_amount = teacher_revenue_daily.net_amount + EXCLUDED.net_amount, " +
+            "teacher_earnings = teacher_revenue_daily.teacher_earnings + EXCLUDED.teacher_earnings, " +
+            "platform_fee = teacher_revenue_daily.platform_fee + EXCLUDED.platform_fee, " +
+            "refund_amount = teacher_revenue_daily.refund_amount + EXCLUDED.refund_amount, " +
+            "sales_count = teacher_revenue_daily.sales_count + EXCLUDED.sales_count, " +
+            "refund_count = teacher_revenue_daily.refund_count + EXCLUDED.refund_count, " +
+            "updated_at = CURRENT_TIMESTAMP",
+            nativeQuery = true)
+    void upsertDelta(
+            @Param("teacherId") Long teacherId,
+            @Param("courseId") Long courseId,
+            @Param("revenueDate") LocalDate revenueDate,
+            @Param("gross") BigDecimal gross,
+            @Param("fee") BigDecimal fee,
+            @Param("net") BigDecimal net,
+            @Param("teacherEarnings") BigDecimal teacherEarnings,
+            @Param("platformFee") BigDecimal platformFee,
+            @Param("refund") BigDecimal refund,
+            @Param("salesCount") long salesCount,
+            @Param("refundCount") long refundCount
+    );
+
+    @Query("SELECT r.courseId AS courseId, c.title AS courseTitle, c.thumbnailUrl AS courseThumbnail, " +
+            "SUM(r.grossAmount) AS grossAmount, SUM(r.feeAmount) AS feeAmount, SUM(r.netAmount) AS netAmount, " +
+            "SUM(r.teacherEarnings) AS teacherEarnings, SUM(r.platformFee) AS platformFee, " +
+            "SUM(r.refundAmount) AS refundAmount, SUM(r.salesCount) AS salesCount, SUM(r.refundCount) AS refundCount " +
+            "FROM TeacherRevenueDaily r JOIN Course c ON c.id = r.courseId " +
+            "WHERE r.teacherId = :teacherId " +
+            "GROUP BY r.courseId, c.title, c.thumbnailUrl")
+    List<CourseRevenueTotals> sumByCourse(@Param("teacherId") Long teacherId);
+
+    @Query("SELECT r.courseId AS courseId, c.title AS courseTitle, c.thumbnailUrl AS courseThumbnail, " +
+            "SUM(r.grossAmount) AS grossAmount, SUM(r.feeAmount) AS feeAmount, SUM(r.netAmount) AS netAmount, " +
+            "SUM(r.teacherEarnings) AS teacherEarnings, SUM(r.platformFee) AS platformFee, " +
+            "SUM(r.refundAmount) AS refundAmount, SUM(r.salesCount) AS salesCount, SUM(r.refundCount) AS refundCount " +
+            "FROM TeacherRevenueDaily r JOIN Course c ON c.id = r.courseId " +
+            "WHERE r.teacherId = :teacherId AND r.revenueDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.courseId, c.title, c.thumbnailUrl")
+    List<CourseRevenueTotals> sumByCourseBetween(
+            @Param("teacherId") Long teacherId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT r.revenueDate AS revenueDate, SUM(r.teacherEarnings) AS teacherEarnings " +
+            "FROM TeacherRevenueDaily r " +
+            "WHERE r.teacherId = :teacherId AND r.revenueDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.revenueDate ORDER BY r.revenueDate")
+    List<DailyRevenueTotals> sumByDayBetween(
+            @Param("teacherId") Long teacherId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT COALESCE(SUM(r.teacherEarnings), 0) FROM TeacherRevenueDaily r " +
+            "WHERE r.teacherId = :teacherId AND r.revenueDate BETWEEN :startDate AND :endDate")
+    BigDecimal sumTeacherEarningsBetween(
+            @Param("teacherId") Long teacherId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Per-teacher totals of one partition (teacherId mod partitions) whose earnings
+     * reach {@code minimumEarnings}
+     */
+    @Query("SELECT r.teacherId AS teacherId, SUM(r.netAmount) AS netAmount, " +
+            "SUM(r.teacherEarnings) AS teacherEarnings, SUM(r.salesCount) AS salesCount, " +
+            "SUM(r.refundCount) AS refundCount " +
+            "FROM TeacherRevenueDaily r " +
+            "WHERE r.revenueDate BETWEEN :startDate AND :endDate AND MOD(r.teacherId, :partitions) = :partition " +
+            "GROUP BY r.teacherId HAVING SUM(r.teacherEarnings) >= :minimumEarnings " +
+            "ORDER BY r.teacherId")
+    List<TeacherBalanceTotals> sumByTeacherBetween(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("partition") long partition,
+            @Param("partitions") long partitions,
+            @Param("minimumEarnings") BigDecimal minimumEarnings
+    );
+}
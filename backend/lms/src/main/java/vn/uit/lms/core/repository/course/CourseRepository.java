@@ -1,11 +1,19 @@
 package vn.uit.lms.core.repository.course;
 
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import vn.uit.lms.core.domain.course.Course;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecificationExecutor<Course> {
@@ -14,4 +22,34 @@ public interface CourseRepository extends JpaRepository<Course, Long>, JpaSpecif
     Optional<Course> findByIdAndDeletedAtIsNull(Long id);
     boolean existsBySlug(String slug);
 
+    /**
+     * Owning teachers of the given courses, deleted courses included
+     */
+    @Query("SELECT DISTINCT c.teacher.id FROM Course c WHERE c.id IN :courseIds")
+    List<Long> findTeacherIdsByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    /**
+     * Courses created in [from, to) in id order, read through a cursor
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT c.id AS id, c.title AS title, cat.name AS categoryName, t.id AS teacherId, " +
+            "t.fullName AS teacherName, c.isClosed AS closed, c.createdAt AS createdAt, c.deletedAt AS deletedAt " +
+            "FROM Course c JOIN c.teacher t LEFT JOIN c.category cat " +
+            "WHERE c.createdAt >= :from AND c.createdAt < :to ORDER BY c.id")
+    Stream<CourseReportRow> streamForReport(@Param("from") Instant from, @Param("to") Instant to);
+
+    interface CourseReportRow {
+        Long getId();
+        String getTitle();
+        String getCategoryName();
+        Long getTeacherId();
+        String getTeacherName();
+        Boolean getClosed();
+        Instant getCreatedAt();
+        Instant getDeletedAt();
+    }
+
 }
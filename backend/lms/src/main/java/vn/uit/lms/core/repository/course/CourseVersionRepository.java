@@ -2,11 +2,14 @@ package vn.uit.lms.core.repository.course;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import vn.uit.lms.core.domain.course.Course;
 import vn.uit.lms.core.domain.course.CourseVersion;
 import vn.uit.lms.shared.constant.CourseStatus;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,4 +27,26 @@ public interface CourseVersionRepository extends JpaRepository<CourseVersion, Lo
 
     long countByCourseAndDeletedAtIsNull(Course course);
 
+    /**
+     * Number of courses with at least one live published version
+     */
+    @Query("SELECT COUNT(DISTINCT v.course.id) FROM CourseVersion v " +
+            "WHERE v.status = 'PUBLISHED' " +
+            "AND v.deletedAt IS NULL AND v.course.deletedAt IS NULL")
+    long countPublishedCourses();
+
+    /**
+     * Price and status of a version with its course, for checkout
+     */
+    @Query("SELECT v.id AS versionId, c.id AS courseId, c.title AS courseTitle, v.price AS price, v.status AS status " +
+            "FROM CourseVersion v JOIN v.course c WHERE v.id = :id AND v.deletedAt IS NULL")
+    Optional<CheckoutVersionView> findCheckoutView(@Param("id") Long id);
+
+    interface CheckoutVersionView {
+        Long getVersionId();
+        Long getCourseId();
+        String getCourseTitle();
+        BigDecimal getPrice();
+        CourseStatus getStatus();
+    }
 }
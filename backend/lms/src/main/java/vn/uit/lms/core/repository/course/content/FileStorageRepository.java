@@ -13,7 +13,7 @@ import java.util.Optional;
 @Repository
 public interface FileStorageRepository extends JpaRepository<FileStorage, Long> {
 
-    Optional<FileStorage> findByStorageKey(String storageKey);
+    Optional<FileStorage> findFirstByStorageKeyOrderByIdAsc(String storageKey);
 
     List<FileStorage> findByStorageProvider(StorageProvider provider);
 
@@ -28,4 +28,3 @@ public interface FileStorageRepository extends JpaRepository<FileStorage, Long>
     @Query("SELECT SUM(f.sizeBytes) FROM FileStorage f WHERE f.storageProvider = :provider")
     Long getTotalSizeByProvider(@Param("provider") StorageProvider provider);
 }
-
@@ -1,9 +1,15 @@
 package vn.uit.lms.core.repository.course.content;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import vn.uit.lms.core.domain.course.content.Chapter;
 import vn.uit.lms.core.domain.course.content.Lesson;
+
+import java.time.Instant;
 import java.util.List;
 
 @Repository
@@ -11,4 +17,15 @@ public interface LessonRepository extends JpaRepository<Lesson, Long> {
     boolean existsByTitleAndChapter(String title, Chapter chapter);
     List<Lesson> findByChapterOrderByOrderIndexAsc(Chapter chapter);
 
+    /**
+     * Write transcoding progress without loading the entity (called from the video worker)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Lesson l SET l.processingProgress = :progress, l.processingEtaSeconds = :etaSeconds, " +
+            "l.processingUpdatedAt = :updatedAt WHERE l.id = :lessonId")
+    int updateProcessingProgress(@Param("lessonId") Long lessonId,
+                                 @Param("progress") Integer progress,
+                                 @Param("etaSeconds") Integer etaSeconds,
+                                 @Param("updatedAt") Instant updatedAt);
 }
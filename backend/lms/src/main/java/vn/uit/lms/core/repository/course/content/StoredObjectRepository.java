@@ -0,0 +1,37 @@
+package vn.uit.lms.core.repository.course.content;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.uit.lms.core.domain.course.content.StoredObject;
+import vn.uit.lms.shared.constant.StorageProvider;
+
+import java.util.Optional;
+
+@Repository
+public interface StoredObjectRepository extends JpaRepository<StoredObject, Long> {
+
+    /**
+     * Find an already stored object with identical content (SHA-256 + size)
+     */
+    Optional<StoredObject> findFirstByChecksumAndSizeBytesAndStorageProviderAndBucketOrderByIdAsc(
+            String checksum, Long sizeBytes, StorageProvider storageProvider, String bucket);
+
+    /**
+     * Atomically add references. Returns 0 if the row was removed concurrently.
+     */
+    @Modifying
+    @Query("UPDATE StoredObject o SET o.referenceCount = o.referenceCount + :references WHERE o.id = :id")
+    int incrementReferenceCount(@Param("id") Long id, @Param("references") int references);
+
+    /**
+     * Lock the row while releasing a reference so the last owner is detected exactly once
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM StoredObject o WHERE o.id = :id")
+    Optional<StoredObject> findByIdForUpdate(@Param("id") Long id);
+}
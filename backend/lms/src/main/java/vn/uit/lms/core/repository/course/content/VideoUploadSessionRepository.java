@@ -0,0 +1,37 @@
+package vn.uit.lms.core.repository.course.content;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import vn.uit.lms.core.domain.course.content.VideoUploadSession;
+import vn.uit.lms.shared.constant.UploadSessionStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface VideoUploadSessionRepository extends JpaRepository<VideoUploadSession, Long> {
+
+    Optional<VideoUploadSession> findByIdAndLessonId(Long id, Long lessonId);
+
+    List<VideoUploadSession> findByLessonId(Long lessonId);
+
+    List<VideoUploadSession> findByLessonIdAndStatus(Long lessonId, UploadSessionStatus status);
+
+    /**
+     * Lock the session row so concurrent complete/abort calls are serialized
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM VideoUploadSession s WHERE s.id = :id AND s.lesson.id = :lessonId")
+    Optional<VideoUploadSession> findForUpdate(@Param("id") Long id, @Param("lessonId") Long lessonId);
+
+    @Query("SELECT s FROM VideoUploadSession s WHERE s.status = :status AND s.expiresAt < :now ORDER BY s.id")
+    List<VideoUploadSession> findExpired(@Param("status") UploadSessionStatus status,
+                                         @Param("now") Instant now,
+                                         Pageable pageable);
+}
@@ -1,17 +1,21 @@
 package vn.uit.lms.core.repository.learning;
 
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import vn.uit.lms.core.domain.course.Course;
 import vn.uit.lms.core.domain.learning.Enrollment;
 import vn.uit.lms.shared.constant.EnrollmentStatus;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long>, JpaSpecificationExecutor<Enrollment> {
 
@@ -156,4 +160,62 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long>, J
             @Param("studentId") Long studentId,
             @Param("teacherId") Long teacherId
     );
+
+    /**
+     * Enrollment and completion times of enrollments created before the cutoff, read through a cursor
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT e.enrolledAt AS enrolledAt, e.completedAt AS completedAt, e.averageScore AS averageScore " +
+            "FROM Enrollment e WHERE e.enrolledAt < :cutoff")
+    Stream<EnrollmentMetricRow> streamMetricsBefore(@Param("cutoff") Instant cutoff);
+
+    /**
+     * Enrollments created in [from, to) in id order, read through a cursor
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT e.id AS id, s.id AS studentId, s.fullName AS studentName, c.id AS courseId, " +
+            "c.title AS courseTitle, e.status AS status, e.enrolledAt AS enrolledAt, " +
+            "e.completionPercentage AS completionPercentage, e.completedAt AS completedAt, e.averageScore AS averageScore " +
+            "FROM Enrollment e JOIN e.student s JOIN e.course c " +
+            "WHERE e.enrolledAt >= :from AND e.enrolledAt < :to ORDER BY e.id")
+    Stream<EnrollmentReportRow> streamEnrolledForReport(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Enrollments completed in [from, to) in id order, read through a cursor
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT e.id AS id, s.id AS studentId, s.fullName AS studentName, c.id AS courseId, " +
+            "c.title AS courseTitle, e.status AS status, e.enrolledAt AS enrolledAt, " +
+            "e.completionPercentage AS completionPercentage, e.completedAt AS completedAt, e.averageScore AS averageScore " +
+            "FROM Enrollment e JOIN e.student s JOIN e.course c " +
+            "WHERE e.completedAt >= :from AND e.completedAt < :to ORDER BY e.id")
+    Stream<EnrollmentReportRow> streamCompletedForReport(@Param("from") Instant from, @Param("to") Instant to);
+
+    interface EnrollmentReportRow {
+        Long getId();
+        Long getStudentId();
+        String getStudentName();
+        Long getCourseId();
+        String getCourseTitle();
+        EnrollmentStatus getStatus();
+        Instant getEnrolledAt();
+        Float getCompletionPercentage();
+        Instant getCompletedAt();
+        Float getAverageScore();
+    }
+
+    interface EnrollmentMetricRow {
+        Instant getEnrolledAt();
+        Instant getCompletedAt();
+        Float getAverageScore();
+    }
 }
@@ -1,10 +1,80 @@
 package vn.uit.lms.core.repository.log;
 
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import vn.uit.lms.core.domain.log.AuditLog;
+import vn.uit.lms.shared.constant.AuditAction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
-    Page<AuditLog> findByTableNameContainingIgnoreCase(String table, Pageable pageable);
+
+    /**
+     * Newest entries first, keyset paged by (createdAt, id). The createdAt bounds let
+     * Postgres prune monthly partitions; pass a null cursor for the first page.
+     */
+    @Query("SELECT a FROM AuditLog a " +
+            "WHERE a.createdAt >= :from AND a.createdAt < :to " +
+            "AND (:tableName IS NULL OR a.tableName = :tableName) " +
+            "AND (:action IS NULL OR a.action = :action) " +
+            "AND (:userAccountId IS NULL OR a.userAccountId = :userAccountId) " +
+            "AND (:recordId IS NULL OR a.recordId = :recordId) " +
+            "AND (:cursorAt IS NULL OR a.createdAt < :cursorAt " +
+            "     OR (a.createdAt = :cursorAt AND a.id < :cursorId)) " +
+            "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AuditLog> search(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("tableName") String tableName,
+            @Param("action") AuditAction action,
+            @Param("userAccountId") Long userAccountId,
+            @Param("recordId") String recordId,
+            @Param("cursorAt") LocalDateTime cursorAt,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+
+    /**
+     * Export rows in (createdAt, id) order, read through a server-side cursor. The caller
+     * must consume the stream inside a read-only transaction and close it.
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT a.id AS id, a.tableName AS tableName, a.recordId AS recordId, a.action AS action, " +
+            "a.changedData AS changedData, a.userAccountId AS userAccountId, a.ipAddress AS ipAddress, " +
+            "a.createdAt AS createdAt " +
+            "FROM AuditLog a " +
+            "WHERE a.createdAt >= :from AND a.createdAt < :to " +
+            "AND (:tableName IS NULL OR a.tableName = :tableName) " +
+            "AND (:action IS NULL OR a.action = :action) " +
+            "AND (:userAccountId IS NULL OR a.userAccountId = :userAccountId) " +
+            "AND (:recordId IS NULL OR a.recordId = :recordId) " +
+            "ORDER BY a.createdAt, a.id")
+    Stream<AuditLogRow> streamForExport(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("tableName") String tableName,
+            @Param("action") AuditAction action,
+            @Param("userAccountId") Long userAccountId,
+            @Param("recordId") String recordId
+    );
+
+    interface AuditLogRow {
+        Long getId();
+        String getTableName();
+        String getRecordId();
+        AuditAction getAction();
+        String getChangedData();
+        Long getUserAccountId();
+        String getIpAddress();
+        LocalDateTime getCreatedAt();
+    }
 }
@@ -0,0 +1,39 @@
+package vn.uit.lms.core.repository.log;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vn.uit.lms.core.domain.log.UserActivityDaily;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface UserActivityDailyRepository extends JpaRepository<UserActivityDaily, Long> {
+
+    /**
+     * Activity of all users on one day
+     */
+    interface DailyEngagement {
+        LocalDate getActivityDate();
+        Long getActiveUsers();
+        Long getSessions();
+        Long getActiveSeconds();
+        Long getEvents();
+    }
+
+    @Query("SELECT d.activityDate AS activityDate, COUNT(d) AS activeUsers, SUM(d.sessionCount) AS sessions, " +
+            "SUM(d.activeSeconds) AS activeSeconds, SUM(d.eventCount) AS events " +
+            "FROM UserActivityDaily d WHERE d.activityDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY d.activityDate ORDER BY d.activityDate")
+    List<DailyEngagement> sumByDay(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT COUNT(DISTINCT d.accountId) FROM UserActivityDaily d " +
+            "WHERE d.activityDate BETWEEN :startDate AND :endDate")
+    long countActiveUsers(
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+}
@@ -0,0 +1,29 @@
+package vn.uit.lms.core.repository.system;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vn.uit.lms.core.domain.system.CourseCohortRetention;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CourseCohortRetentionRepository extends JpaRepository<CourseCohortRetention, Long> {
+
+    interface CohortRetention {
+        LocalDate getCohortWeek();
+        Integer getWeekOffset();
+        Long getRetained();
+    }
+
+    @Query("SELECT r.cohortWeek AS cohortWeek, r.weekOffset AS weekOffset, SUM(r.retained) AS retained " +
+            "FROM CourseCohortRetention r " +
+            "WHERE r.cohortWeek BETWEEN :startWeek AND :endWeek " +
+            "AND (:courseId IS NULL OR r.courseId = :courseId) " +
+            "GROUP BY r.cohortWeek, r.weekOffset ORDER BY r.cohortWeek, r.weekOffset")
+    List<CohortRetention> sumByCohortAndOffset(
+            @Param("courseId") Long courseId,
+            @Param("startWeek") LocalDate startWeek,
+            @Param("endWeek") LocalDate endWeek
+    );
+}
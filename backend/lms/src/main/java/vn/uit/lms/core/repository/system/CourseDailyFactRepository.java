@@ -0,0 +1,84 @@
+package vn.uit.lms.core.repository.system;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vn.uit.lms.core.domain.system.CourseDailyFact;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CourseDailyFactRepository extends JpaRepository<CourseDailyFact, Long> {
+
+    /**
+     * Sums of the additive fact columns over a range of rows
+     */
+    interface FactTotals {
+        Long getEnrollments();
+        Long getCompletions();
+        BigDecimal getRevenue();
+        BigDecimal getRefunds();
+        Long getSalesCount();
+        Long getActiveLearners();
+        Long getQuizAttempts();
+        Double getQuizScoreSum();
+        Long getReviewCount();
+        Long getRatingSum();
+    }
+
+    interface CourseFactTotals extends FactTotals {
+        Long getCourseId();
+        String getCourseTitle();
+    }
+
+    interface DailyFactTotals extends FactTotals {
+        LocalDate getFactDate();
+    }
+
+    @Query("SELECT SUM(f.enrollments) AS enrollments, SUM(f.completions) AS completions, " +
+            "SUM(f.revenue) AS revenue, SUM(f.refunds) AS refunds, SUM(f.salesCount) AS salesCount, " +
+            "SUM(f.activeLearners) AS activeLearners, SUM(f.quizAttempts) AS quizAttempts, " +
+            "SUM(f.quizScoreSum) AS quizScoreSum, SUM(f.reviewCount) AS reviewCount, SUM(f.ratingSum) AS ratingSum " +
+            "FROM CourseDailyFact f " +
+            "WHERE f.teacherId = :teacherId AND f.factDate BETWEEN :startDate AND :endDate " +
+            "AND (:courseId IS NULL OR f.courseId = :courseId)")
+    FactTotals sumTotals(
+            @Param("teacherId") Long teacherId,
+            @Param("courseId") Long courseId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT f.courseId AS courseId, c.title AS courseTitle, " +
+            "SUM(f.enrollments) AS enrollments, SUM(f.completions) AS completions, " +
+            "SUM(f.revenue) AS revenue, SUM(f.refunds) AS refunds, SUM(f.salesCount) AS salesCount, " +
+            "SUM(f.activeLearners) AS activeLearners, SUM(f.quizAttempts) AS quizAttempts, " +
+            "SUM(f.quizScoreSum) AS quizScoreSum, SUM(f.reviewCount) AS reviewCount, SUM(f.ratingSum) AS ratingSum " +
+            "FROM CourseDailyFact f JOIN Course c ON c.id = f.courseId " +
+            "WHERE f.teacherId = :teacherId AND f.factDate BETWEEN :startDate AND :endDate " +
+            "AND (:courseId IS NULL OR f.courseId = :courseId) " +
+            "GROUP BY f.courseId, c.title ORDER BY f.courseId")
+    List<CourseFactTotals> sumByCourse(
+            @Param("teacherId") Long teacherId,
+            @Param("courseId") Long courseId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("SELECT f.factDate AS factDate, " +
+            "SUM(f.enrollments) AS enrollments, SUM(f.completions) AS completions, " +
+            "SUM(f.revenue) AS revenue, SUM(f.refunds) AS refunds, SUM(f.salesCount) AS salesCount, " +
+            "SUM(f.activeLearners) AS activeLearners, SUM(f.quizAttempts) AS quizAttempts, " +
+            "SUM(f.quizScoreSum) AS quizScoreSum, SUM(f.reviewCount) AS reviewCount, SUM(f.ratingSum) AS ratingSum " +
+            "FROM CourseDailyFact f " +
+            "WHERE f.teacherId = :teacherId AND f.factDate BETWEEN :startDate AND :endDate " +
+            "AND (:courseId IS NULL OR f.courseId = :courseId) " +
+            "GROUP BY f.factDate ORDER BY f.factDate")
+    List<DailyFactTotals> sumByDay(
+            @Param("teacherId") Long teacherId,
+            @Param("courseId") Long courseId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+}
@@ -0,0 +1,40 @@
+package vn.uit.lms.core.repository.system;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vn.uit.lms.core.domain.system.CourseFunnelCohort;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CourseFunnelCohortRepository extends JpaRepository<CourseFunnelCohort, Long> {
+
+    /**
+     * Funnel counts of one cohort week, over one or all courses
+     */
+    interface CohortFunnel {
+        LocalDate getCohortWeek();
+        Long getEnrolled();
+        Long getFirstLesson();
+        Long getHalfCompleted();
+        Long getFinalQuiz();
+        Long getCertified();
+    }
+
+    @Query("SELECT f.cohortWeek AS cohortWeek, SUM(f.enrolled) AS enrolled, SUM(f.firstLesson) AS firstLesson, " +
+            "SUM(f.halfCompleted) AS halfCompleted, SUM(f.finalQuiz) AS finalQuiz, SUM(f.certified) AS certified " +
+            "FROM CourseFunnelCohort f " +
+            "WHERE f.cohortWeek BETWEEN :startWeek AND :endWeek " +
+            "AND (:courseId IS NULL OR f.courseId = :courseId) " +
+            "GROUP BY f.cohortWeek ORDER BY f.cohortWeek")
+    List<CohortFunnel> sumByCohort(
+            @Param("courseId") Long courseId,
+            @Param("startWeek") LocalDate startWeek,
+            @Param("endWeek") LocalDate endWeek
+    );
+
+    @Query("SELECT MAX(f.computedAt) FROM CourseFunnelCohort f")
+    Instant findLastComputedAt();
+}
@@ -0,0 +1,24 @@
+package vn.uit.lms.core.repository.system;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vn.uit.lms.core.domain.system.EtlWatermark;
+import vn.uit.lms.shared.constant.CourseFactSource;
+
+import java.time.Instant;
+
+public interface EtlWatermarkRepository extends JpaRepository<EtlWatermark, CourseFactSource> {
+
+    /**
+     * Store the watermark of one step, creating its row if missing
+     */
+    @Modifying
+    @Query(value = "INSERT INTO etl_watermarks (source, watermark, updated_at) " +
+            "VALUES (:source, :watermark, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (source) DO UPDATE SET " +
+            "watermark = EXCLUDED.watermark, updated_at = CURRENT_TIMESTAMP",
+            nativeQuery = true)
+    void upsert(@Param("source") String source, @Param("watermark") Instant watermark);
+}
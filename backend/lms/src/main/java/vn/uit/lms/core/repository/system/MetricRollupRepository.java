@@ -0,0 +1,80 @@
+package vn.uit.lms.core.repository.system;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vn.uit.lms.core.domain.system.MetricRollup;
+import vn.uit.lms.shared.constant.DashboardMetric;
+import vn.uit.lms.shared.constant.MetricGranularity;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface MetricRollupRepository extends JpaRepository<MetricRollup, Long> {
+
+    /**
+     * Value of one metric bucket
+     */
+    interface BucketValue {
+        DashboardMetric getMetric();
+        Instant getBucketStart();
+        Long getValue();
+    }
+
+    /**
+     * Atomically add a delta to a bucket, creating it if missing
+     */
+    @Modifying
+    @Query(value = "INSERT INTO metric_rollups (metric, granularity, bucket_start, metric_value, updated_at) " +
+            "VALUES (:metric, :granularity, :bucketStart, :delta, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (metric, granularity, bucket_start) DO UPDATE SET " +
+            "metric_value = metric_rollups.metric_value + EXCLUDED.metric_value, " +
+            "updated_at = CURRENT_TIMESTAMP",
+            nativeQuery = true)
+    void upsertDelta(
+            @Param("metric") String metric,
+            @Param("granularity") String granularity,
+            @Param("bucketStart") Instant bucketStart,
+            @Param("delta") long delta
+    );
+
+    /**
+     * Insert a bucket only if it does not exist yet
+     *
+     * @return 1 when inserted, 0 when the bucket was already there
+     */
+    @Modifying
+    @Query(value = "INSERT INTO metric_rollups (metric, granularity, bucket_start, metric_value, updated_at) " +
+            "VALUES (:metric, :granularity, :bucketStart, :value, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (metric, granularity, bucket_start) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(
+            @Param("metric") String metric,
+            @Param("granularity") String granularity,
+            @Param("bucketStart") Instant bucketStart,
+            @Param("value") long value
+    );
+
+    @Query("SELECT MIN(r.bucketStart) FROM MetricRollup r " +
+            "WHERE r.metric = :metric AND r.granularity = :granularity AND r.bucketStart > :after")
+    Optional<Instant> findEarliestBucketStart(
+            @Param("metric") DashboardMetric metric,
+            @Param("granularity") MetricGranularity granularity,
+            @Param("after") Instant after
+    );
+
+    boolean existsByMetricAndGranularityAndBucketStart(
+            DashboardMetric metric, MetricGranularity granularity, Instant bucketStart);
+
+    @Query("SELECT r.metric AS metric, r.bucketStart AS bucketStart, r.value AS value " +
+            "FROM MetricRollup r " +
+            "WHERE r.granularity = :granularity AND r.metric IN :metrics AND r.bucketStart IN :bucketStarts")
+    List<BucketValue> findBuckets(
+            @Param("granularity") MetricGranularity granularity,
+            @Param("metrics") Collection<DashboardMetric> metrics,
+            @Param("bucketStarts") Collection<Instant> bucketStarts
+    );
+}
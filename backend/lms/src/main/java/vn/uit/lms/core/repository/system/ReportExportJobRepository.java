@@ -0,0 +1,31 @@
+package vn.uit.lms.core.repository.system;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vn.uit.lms.core.domain.system.ReportExportJob;
+import vn.uit.lms.shared.constant.ExportJobStatus;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface ReportExportJobRepository extends JpaRepository<ReportExportJob, Long> {
+
+    Page<ReportExportJob> findByRequestedByOrderByCreatedAtDesc(Long requestedBy, Pageable pageable);
+
+    /**
+     * Fail jobs left unfinished by an instance that stopped mid-export
+     */
+    @Modifying
+    @Query("UPDATE ReportExportJob j SET j.status = 'FAILED', j.errorMessage = :reason, j.completedAt = :now " +
+            "WHERE j.status IN :statuses AND j.createdAt < :before")
+    int failAbandoned(
+            @Param("statuses") Collection<ExportJobStatus> statuses,
+            @Param("before") Instant before,
+            @Param("reason") String reason,
+            @Param("now") Instant now
+    );
+}
@@ -0,0 +1,34 @@
+package vn.uit.lms.core.repository.system;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vn.uit.lms.core.domain.system.UserStatCounter;
+import vn.uit.lms.shared.constant.UserStatKey;
+
+public interface UserStatCounterRepository extends JpaRepository<UserStatCounter, UserStatKey> {
+
+    /**
+     * Atomically add a delta to a counter, creating it if missing
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_stat_counters (counter_key, counter_value, updated_at) " +
+            "VALUES (:key, :delta, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (counter_key) DO UPDATE SET " +
+            "counter_value = user_stat_counters.counter_value + EXCLUDED.counter_value, " +
+            "updated_at = CURRENT_TIMESTAMP",
+            nativeQuery = true)
+    void upsertDelta(@Param("key") String key, @Param("delta") long delta);
+
+    /**
+     * Overwrite a counter with an exact value
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_stat_counters (counter_key, counter_value, updated_at) " +
+            "VALUES (:key, :value, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (counter_key) DO UPDATE SET " +
+            "counter_value = EXCLUDED.counter_value, updated_at = CURRENT_TIMESTAMP",
+            nativeQuery = true)
+    void upsertValue(@Param("key") String key, @Param("value") long value);
+}
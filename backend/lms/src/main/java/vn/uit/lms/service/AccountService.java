@@ -19,6 +19,7 @@ import vn.uit.lms.core.repository.AccountRepository;
 import vn.uit.lms.core.repository.StudentRepository;
 import vn.uit.lms.core.repository.TeacherRepository;
 import vn.uit.lms.service.event.AccountStatusChangeEvent;
+import vn.uit.lms.service.event.TeacherApprovalChangedEvent;
 import vn.uit.lms.service.storage.CloudinaryStorageService;
 import vn.uit.lms.shared.constant.AccountActionType;
 import vn.uit.lms.shared.constant.AccountStatus;
@@ -342,6 +343,7 @@ public class AccountService {
 
         // Use domain behaviors for approval
         AccountStatus oldStatus = account.getStatus();
+        boolean wasApproved = teacher.isApproved();
         teacher.approve(adminId);
 
         teacherRepository.save(teacher);
@@ -362,8 +364,10 @@ public class AccountService {
         eventPublisher.publishEvent(new AccountStatusChangeEvent(
                 account,
                 AccountActionType.APPROVE,
-                "Teacher account approved by: " + adminAccount.getUsername()
+                "Teacher account approved by: " + adminAccount.getUsername(),
+                oldStatus
         ));
+        eventPublisher.publishEvent(new TeacherApprovalChangedEvent(teacher.getId(), wasApproved, true));
 
         AccountProfileResponse.Profile profile = TeacherMapper.toProfileResponse(teacher);
         AccountProfileResponse response = AccountMapper.toProfileResponse(account, profile);
@@ -406,6 +410,7 @@ public class AccountService {
 
         // Use domain behaviors for rejection
         AccountStatus oldStatus = account.getStatus();
+        boolean wasApproved = teacher.isApproved();
         teacher.reject(adminId, reason);
         account.reject();
 
@@ -424,7 +429,8 @@ public class AccountService {
         accountActionLogService.saveLog(logEntry);
 
         // Publish event
-        eventPublisher.publishEvent(new AccountStatusChangeEvent(account, AccountActionType.REJECT, reason));
+        eventPublisher.publishEvent(new AccountStatusChangeEvent(account, AccountActionType.REJECT, reason, oldStatus));
+        eventPublisher.publishEvent(new TeacherApprovalChangedEvent(teacher.getId(), wasApproved, teacher.isApproved()));
 
         AccountProfileResponse.Profile profile = TeacherMapper.toProfileResponse(teacher);
         AccountProfileResponse response = AccountMapper.toProfileResponse(account, profile);
@@ -504,7 +510,8 @@ public class AccountService {
         eventPublisher.publishEvent(new AccountStatusChangeEvent(
                 account,
                 actionType,
-                reason != null ? reason : "Account status changed to: " + newStatus
+                reason != null ? reason : "Account status changed to: " + newStatus,
+                oldStatus
         ));
 
         // Build response based on role
@@ -568,7 +575,8 @@ public class AccountService {
         eventPublisher.publishEvent(new AccountStatusChangeEvent(
                 account,
                 AccountActionType.SUSPEND,
-                reason != null ? reason : "Account suspended"
+                reason != null ? reason : "Account suspended",
+                oldStatus
         ));
 
         AccountProfileResponse.Profile profile = buildAccountProfile(account);
@@ -618,7 +626,8 @@ public class AccountService {
         eventPublisher.publishEvent(new AccountStatusChangeEvent(
                 account,
                 AccountActionType.UNLOCK,
-                reason != null ? reason : "Account unlocked"
+                reason != null ? reason : "Account unlocked",
+                oldStatus
         ));
 
         AccountProfileResponse.Profile profile = buildAccountProfile(account);
@@ -668,7 +677,8 @@ public class AccountService {
         eventPublisher.publishEvent(new AccountStatusChangeEvent(
                 account,
                 AccountActionType.DEACTIVATE,
-                reason != null ? reason : "Account deactivated"
+                reason != null ? reason : "Account deactivated",
+                oldStatus
         ));
 
         AccountProfileResponse.Profile profile = buildAccountProfile(account);
@@ -720,7 +730,7 @@ public class AccountService {
                 AccountStatus.DEACTIVATED.name()
         );
 
-        eventPublisher.publishEvent(new AccountStatusChangeEvent(account, AccountActionType.DEACTIVATE, "Account status changed to: " + AccountStatus.DEACTIVATED + " by admin: " + adminAccount.getUsername()));
+        eventPublisher.publishEvent(new AccountStatusChangeEvent(account, AccountActionType.DEACTIVATE, "Account status changed to: " + AccountStatus.DEACTIVATED + " by admin: " + adminAccount.getUsername(), oldStatus));
 
         log.info("Account id={} deleted successfully", id);
     }
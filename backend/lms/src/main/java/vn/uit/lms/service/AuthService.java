@@ -13,7 +13,10 @@ import org.springframework.transaction.annotation.Transactional;
 import vn.uit.lms.core.domain.*;
 import vn.uit.lms.core.repository.*;
 import vn.uit.lms.service.event.AccountActiveEvent;
+import vn.uit.lms.service.event.AccountRegisteredEvent;
 import vn.uit.lms.service.event.PasswordResetEvent;
+import vn.uit.lms.service.log.UserActivityRecorder;
+import vn.uit.lms.shared.constant.ActivityType;
 import vn.uit.lms.shared.constant.SecurityConstants;
 import vn.uit.lms.shared.constant.TokenType;
 import vn.uit.lms.shared.dto.request.auth.ChangePasswordDTO;
@@ -50,6 +53,7 @@ public class AuthService {
     private final RefreshTokenService refreshTokenService;
     private final EmailVerificationService emailVerificationService;
     private final EmailVerificationRepository emailVerificationRepository;
+    private final UserActivityRecorder activityRecorder;
 
     private static final Logger log = LoggerFactory.getLogger(AuthService.class);
 
@@ -67,7 +71,8 @@ public class AuthService {
                        ApplicationEventPublisher eventPublisher,
                        RefreshTokenService refreshTokenService,
                        EmailVerificationService emailVerificationService,
-                       EmailVerificationRepository emailVerificationRepository) {
+                       EmailVerificationRepository emailVerificationRepository,
+                       UserActivityRecorder activityRecorder) {
         this.emailVerificationRepository = emailVerificationRepository;
         this.accountRepository = accountRepository;
         this.emailService = emailService;
@@ -79,6 +84,7 @@ public class AuthService {
         this.eventPublisher = eventPublisher;
         this.refreshTokenService = refreshTokenService;
         this.emailVerificationService = emailVerificationService;
+        this.activityRecorder = activityRecorder;
     }
 
     /**
@@ -125,6 +131,7 @@ public class AuthService {
 
         // Publish event for email sending
         eventPublisher.publishEvent(new AccountActiveEvent(saved, rawToken));
+        eventPublisher.publishEvent(new AccountRegisteredEvent(saved.getId(), saved.getRole(), saved.getStatus(), Instant.now()));
 
         return saved;
     }
@@ -200,6 +207,7 @@ public class AuthService {
         // Update last login (using domain behavior)
         accountDB.recordLogin();
         accountRepository.save(accountDB);
+        activityRecorder.record(accountDB.getId(), ActivityType.LOGIN, "ACCOUNT", String.valueOf(accountDB.getId()));
 
         return resLoginDTO;
     }
@@ -3,6 +3,7 @@ package vn.uit.lms.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -11,8 +12,10 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import vn.uit.lms.core.domain.Account;
 import vn.uit.lms.core.domain.Teacher;
+import vn.uit.lms.core.domain.TeacherStatistics;
 import vn.uit.lms.core.repository.AccountRepository;
 import vn.uit.lms.core.repository.TeacherRepository;
+import vn.uit.lms.service.event.TeacherApprovalChangedEvent;
 import vn.uit.lms.service.storage.CloudinaryStorageService;
 import vn.uit.lms.shared.annotation.Audit;
 import vn.uit.lms.shared.constant.AccountStatus;
@@ -48,6 +51,8 @@ public class TeacherService {
     private final CloudinaryStorageService cloudinaryStorageService;
     private final CloudinaryUtils cloudinaryUtils;
     private final AccountService accountService;
+    private final TeacherStatisticsService teacherStatisticsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.avatar.max-size-bytes}")
     private long maxSizeBytes;
@@ -56,12 +61,16 @@ public class TeacherService {
                           AccountRepository accountRepository,
                           CloudinaryStorageService cloudinaryStorageService,
                           CloudinaryUtils cloudinaryUtils,
-                          AccountService accountService) {
+                          AccountService accountService,
+                          TeacherStatisticsService teacherStatisticsService,
+                          ApplicationEventPublisher eventPublisher) {
         this.teacherRepository = teacherRepository;
         this.accountRepository = accountRepository;
         this.cloudinaryStorageService = cloudinaryStorageService;
         this.cloudinaryUtils = cloudinaryUtils;
         this.accountService = accountService;
+        this.teacherStatisticsService = teacherStatisticsService;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -351,6 +360,7 @@ public class TeacherService {
         teacher.setRejectReason(null); // Clear any previous rejection reason
 
         teacher = teacherRepository.save(teacher);
+        eventPublisher.publishEvent(new TeacherApprovalChangedEvent(teacher.getId(), false, true));
 
         // Send approval notification - implementation pending
         // When EmailService is available:
@@ -412,12 +422,14 @@ public class TeacherService {
         Teacher teacher = teacherRepository.findByIdWithAccount(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Teacher not found with id: " + id));
 
+        boolean wasApproved = teacher.isApproved();
         teacher.setApproved(false);
         teacher.setRejectReason(reason);
         teacher.setApprovedBy(null);
         teacher.setApprovedAt(null);
 
         teacher = teacherRepository.save(teacher);
+        eventPublisher.publishEvent(new TeacherApprovalChangedEvent(teacher.getId(), wasApproved, false));
 
         // Send rejection notification - implementation pending
         // When EmailService is available:
@@ -716,44 +728,8 @@ public class TeacherService {
      * - TEACHER: Can view their own stats
      * - ADMIN: Can view any teacher's stats
      *
-     * Implementation Plan:
-     * 1. Count courses by status:
-     *    - Total courses: All courses created by teacher
-     *    - Published courses: Status = PUBLISHED
-     *    - Draft courses: Status = DRAFT
-     *    - Archived courses: Status = ARCHIVED
-     *    - Pending review courses: Status = PENDING_REVIEW
-     * 2. Count total students:
-     *    - Query distinct students enrolled in any teacher's course
-     *    - Consider only active enrollments
-     * 3. Calculate average rating:
-     *    - Aggregate all course reviews for teacher's courses
-     *    - Calculate weighted average based on review count
-     *    - Round to 2 decimal places
-     * 4. Count total reviews:
-     *    - Sum of all reviews across all teacher's courses
-     *    - Group by rating (5-star, 4-star, etc.) for distribution
-     * 5. Calculate total revenue:
-     *    - Use getTeacherRevenue() method
-     *    - Consider only completed payments
-     *    - Apply revenue share percentage
-     * 6. Additional statistics:
-     *    - Course completion rate
-     *    - Student engagement rate
-     *    - Average course duration
-     *    - Most popular course
-     *    - Recent activity (courses created, updated in last 30 days)
-     * 7. Caching strategy:
-     *    - Cache statistics for 15 minutes (suitable for dashboard)
-     *    - Use @Cacheable annotation with key: "teacher_stats_{teacherId}"
-     *    - Invalidate cache on:
-     *      * New course published
-     *      * New review received
-     *      * Enrollment status changes
-     * 8. Performance optimization:
-     *    - Use native SQL queries for complex aggregations
-     *    - Implement background job to pre-calculate stats
-     *    - Store computed stats in teacher_statistics table
+     * Served from the pre-computed teacher_statistics row (see TeacherStatisticsService);
+     * a teacher without a row yet is computed on first read.
      */
     public TeacherStatsResponse getTeacherStats(Long id) {
         log.info("Fetching statistics for teacher id: {}", id);
@@ -764,39 +740,20 @@ public class TeacherService {
         // Check authorization
         validateTeacherAccess(teacher);
 
-        // Implementation pending - requires Course, Review, Enrollment entities
-        // When entities and repositories are available:
-        //
-        // Count courses by status:
-        // Long totalCourses = courseRepository.countByTeacherId(id);
-        // Long publishedCourses = courseRepository.countByTeacherIdAndStatus(id, CourseStatus.PUBLISHED);
-        // Long draftCourses = courseRepository.countByTeacherIdAndStatus(id, CourseStatus.DRAFT);
-        //
-        // Count total students:
-        // Long totalStudents = enrollmentRepository.countDistinctStudentsByTeacherId(id);
-        //
-        // Calculate average rating:
-        // Double averageRating = reviewRepository.getAverageRatingByTeacherId(id);
-        //
-        // Count total reviews:
-        // Long totalReviews = reviewRepository.countByTeacherId(id);
-        //
-        // Calculate total revenue:
-        // TeacherRevenueResponse revenue = getTeacherRevenue(id);
-        // Double totalRevenue = revenue.getTotalRevenue();
+        TeacherStatistics statistics = teacherStatisticsService.find(id)
+                .orElseGet(() -> teacherStatisticsService.recompute(id));
 
         TeacherStatsResponse stats = TeacherStatsResponse.builder()
-                .totalCourses(0L)
-                .publishedCourses(0L)
-                .draftCourses(0L)
-                .totalStudents(0L)
-                .totalReviews(0L)
-                .averageRating(0.0)
-                .totalRevenue(0.0)
+                .totalCourses(statistics.getTotalCourses())
+                .publishedCourses(statistics.getPublishedCourses())
+                .draftCourses(statistics.getDraftCourses())
+                .totalStudents(statistics.getTotalStudents())
+                .totalReviews(statistics.getTotalReviews())
+                .averageRating(statistics.getAverageRating())
+                .totalRevenue(statistics.getTotalRevenue().doubleValue())
                 .build();
 
-        log.debug("Returning statistics for teacher id: {}", id);
-        log.warn("Statistics calculation pending - requires Course, Review, Enrollment entities and aggregation queries");
+        log.debug("Returning statistics for teacher id: {} (refreshed at {})", id, statistics.getRefreshedAt());
 
         return stats;
     }
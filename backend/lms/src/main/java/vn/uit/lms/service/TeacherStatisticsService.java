@@ -0,0 +1,146 @@
+package vn.uit.lms.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vn.uit.lms.core.domain.TeacherStatistics;
+import vn.uit.lms.core.repository.TeacherStatisticsRepository;
+import vn.uit.lms.core.repository.course.CourseRepository;
+import vn.uit.lms.service.event.CourseChangedEvent;
+import vn.uit.lms.service.event.CourseReviewChangedEvent;
+import vn.uit.lms.service.event.CourseVersionStatusChangeEvent;
+import vn.uit.lms.service.event.EnrollmentCreatedEvent;
+import vn.uit.lms.service.event.PaymentRefundedEvent;
+import vn.uit.lms.service.event.PaymentSucceededEvent;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-computed teacher statistics.
+ *
+ * Changes to a teacher's courses, reviews, enrollments or revenue mark the teacher
+ * dirty; {@code TeacherStatisticsRefreshJob} recomputes dirty teachers every few
+ * seconds and every teacher nightly, with the same set-based statement. Reads are a
+ * single primary-key lookup.
+ */
+@Service
+@Slf4j
+public class TeacherStatisticsService {
+
+    private final TeacherStatisticsRepository statisticsRepository;
+    private final CourseRepository courseRepository;
+
+    private final Set<Long> dirtyTeachers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyCourses = ConcurrentHashMap.newKeySet();
+
+    public TeacherStatisticsService(TeacherStatisticsRepository statisticsRepository,
+                                    CourseRepository courseRepository) {
+        this.statisticsRepository = statisticsRepository;
+        this.courseRepository = courseRepository;
+    }
+
+    public Optional<TeacherStatistics> find(Long teacherId) {
+        return statisticsRepository.findById(teacherId);
+    }
+
+    /**
+     * Compute one teacher's row now, for a teacher read before the first refresh
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public TeacherStatistics recompute(Long teacherId) {
+        statisticsRepository.refreshForTeachers(List.of(teacherId));
+        return statisticsRepository.findById(teacherId)
+                .orElseGet(() -> TeacherStatistics.builder().teacherId(teacherId).build());
+    }
+
+    /**
+     * Recompute the rows of the given teachers in one statement
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int refresh(Collection<Long> teacherIds) {
+        if (teacherIds.isEmpty()) {
+            return 0;
+        }
+        return statisticsRepository.refreshForTeachers(teacherIds);
+    }
+
+    /**
+     * Take the teachers marked dirty since the last call, resolving dirty courses to their owners
+     */
+    public Set<Long> drainDirtyTeachers() {
+        Set<Long> teachers = drain(dirtyTeachers);
+        Set<Long> courses = drain(dirtyCourses);
+        if (!courses.isEmpty()) {
+            try {
+                teachers.addAll(courseRepository.findTeacherIdsByCourseIds(courses));
+            } catch (RuntimeException e) {
+                dirtyCourses.addAll(courses);
+                dirtyTeachers.addAll(teachers);
+                throw e;
+            }
+        }
+        return teachers;
+    }
+
+    public void markDirty(Collection<Long> teacherIds) {
+        dirtyTeachers.addAll(teacherIds);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.teacherId() != null) {
+            dirtyTeachers.add(event.teacherId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseVersionStatusChanged(CourseVersionStatusChangeEvent event) {
+        if (event.courseVersion() != null && event.courseVersion().getCourse() != null) {
+            markCourseDirty(event.courseVersion().getCourse().getId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseReviewChanged(CourseReviewChangedEvent event) {
+        markCourseDirty(event.courseId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnrollmentCreated(EnrollmentCreatedEvent event) {
+        markCourseDirty(event.courseId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentSucceeded(PaymentSucceededEvent event) {
+        markCourseDirty(event.courseId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentRefunded(PaymentRefundedEvent event) {
+        markCourseDirty(event.courseId());
+    }
+
+    private void markCourseDirty(Long courseId) {
+        if (courseId != null) {
+            dirtyCourses.add(courseId);
+        }
+    }
+
+    private static Set<Long> drain(Set<Long> source) {
+        Set<Long> drained = new HashSet<>();
+        for (Long id : source) {
+            if (source.remove(id)) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,74 @@
+package vn.uit.lms.service.admin;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.repository.AccountRepository;
+import vn.uit.lms.core.repository.AccountRepository.RegistrationRow;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository.PaymentMetricRow;
+import vn.uit.lms.core.repository.learning.EnrollmentRepository;
+import vn.uit.lms.core.repository.learning.EnrollmentRepository.EnrollmentMetricRow;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Replays facts that happened before live recording started into a metrics batch.
+ * Rows are streamed through a cursor and only counted, so memory stays bounded by the
+ * number of distinct buckets. Nothing is written here; the caller stores the batch.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardMetricsBackfillService {
+
+    private final AccountRepository accountRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final PaymentTransactionRepository paymentRepository;
+    private final DashboardMetricsRecorder recorder;
+
+    @Transactional(readOnly = true)
+    public long replayRegistrations(Instant cutoff, DashboardMetricsStore.Batch batch) {
+        DashboardMetricsRecorder recorder = this.recorder.into(batch);
+        long count = 0;
+        try (Stream<RegistrationRow> rows = accountRepository.streamRegistrationsBefore(cutoff)) {
+            for (RegistrationRow row : (Iterable<RegistrationRow>) rows::iterator) {
+                recorder.recordRegistration(row.getRole(), row.getCreatedAt());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Transactional(readOnly = true)
+    public long replayEnrollments(Instant cutoff, DashboardMetricsStore.Batch batch) {
+        DashboardMetricsRecorder recorder = this.recorder.into(batch);
+        long count = 0;
+        try (Stream<EnrollmentMetricRow> rows = enrollmentRepository.streamMetricsBefore(cutoff)) {
+            for (EnrollmentMetricRow row : (Iterable<EnrollmentMetricRow>) rows::iterator) {
+                recorder.recordEnrollment(row.getEnrolledAt());
+                if (row.getCompletedAt() != null && row.getCompletedAt().isBefore(cutoff)) {
+                    recorder.recordCompletion(row.getCompletedAt(), row.getAverageScore());
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Transactional(readOnly = true)
+    public long replayPayments(Instant cutoff, DashboardMetricsStore.Batch batch) {
+        DashboardMetricsRecorder recorder = this.recorder.into(batch);
+        long count = 0;
+        try (Stream<PaymentMetricRow> rows = paymentRepository.streamSettledBefore(cutoff)) {
+            for (PaymentMetricRow row : (Iterable<PaymentMetricRow>) rows::iterator) {
+                recorder.recordPayment(row.getPaidAt(), row.getAmount());
+                if (row.getRefundedAt() != null && row.getRefundedAt().isBefore(cutoff)) {
+                    recorder.recordRefund(row.getRefundedAt(), row.getRefundAmount());
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+}
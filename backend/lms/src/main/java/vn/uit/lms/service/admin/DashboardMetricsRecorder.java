@@ -0,0 +1,108 @@
+package vn.uit.lms.service.admin;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vn.uit.lms.service.event.AccountRegisteredEvent;
+import vn.uit.lms.service.event.EnrollmentCompletedEvent;
+import vn.uit.lms.service.event.EnrollmentCreatedEvent;
+import vn.uit.lms.service.event.PaymentRefundedEvent;
+import vn.uit.lms.service.event.PaymentSucceededEvent;
+import vn.uit.lms.shared.constant.DashboardMetric;
+import vn.uit.lms.shared.constant.Role;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Turns committed domain facts into dashboard metric increments.
+ * The historical backfill goes through the same record methods, into a batch.
+ */
+@Component
+public class DashboardMetricsRecorder {
+
+    private final Sink sink;
+
+    @Autowired
+    public DashboardMetricsRecorder(DashboardMetricsStore store) {
+        this(store::increment);
+    }
+
+    private DashboardMetricsRecorder(Sink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Recorder that adds to the batch instead of the live counters
+     */
+    public DashboardMetricsRecorder into(DashboardMetricsStore.Batch batch) {
+        return new DashboardMetricsRecorder(batch::increment);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountRegistered(AccountRegisteredEvent event) {
+        recordRegistration(event.role(), event.registeredAt());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnrollmentCreated(EnrollmentCreatedEvent event) {
+        recordEnrollment(event.enrolledAt());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnrollmentCompleted(EnrollmentCompletedEvent event) {
+        recordCompletion(event.completedAt(), event.averageScore());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentSucceeded(PaymentSucceededEvent event) {
+        recordPayment(event.paidAt(), event.amount());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentRefunded(PaymentRefundedEvent event) {
+        recordRefund(event.refundedAt(), event.refundAmount());
+    }
+
+    public void recordRegistration(Role role, Instant at) {
+        sink.increment(DashboardMetric.REGISTRATIONS, at, 1);
+        if (role == Role.STUDENT) {
+            sink.increment(DashboardMetric.STUDENT_REGISTRATIONS, at, 1);
+        } else if (role == Role.TEACHER) {
+            sink.increment(DashboardMetric.TEACHER_REGISTRATIONS, at, 1);
+        }
+    }
+
+    public void recordEnrollment(Instant at) {
+        sink.increment(DashboardMetric.ENROLLMENTS, at, 1);
+    }
+
+    public void recordCompletion(Instant at, Float averageScore) {
+        sink.increment(DashboardMetric.COMPLETIONS, at, 1);
+        if (averageScore != null) {
+            // Scores are kept in hundredths so the counter stays integral
+            sink.increment(DashboardMetric.SCORED_COMPLETIONS, at, 1);
+            sink.increment(DashboardMetric.SCORE_SUM, at, Math.round(averageScore * 100));
+        }
+    }
+
+    public void recordPayment(Instant at, BigDecimal amount) {
+        sink.increment(DashboardMetric.PAYMENTS, at, 1);
+        sink.increment(DashboardMetric.REVENUE, at, toLong(amount));
+    }
+
+    public void recordRefund(Instant at, BigDecimal amount) {
+        sink.increment(DashboardMetric.REFUNDS, at, 1);
+        sink.increment(DashboardMetric.REFUNDED_AMOUNT, at, toLong(amount));
+    }
+
+    private static long toLong(BigDecimal amount) {
+        return amount != null ? amount.longValue() : 0L;
+    }
+
+    @FunctionalInterface
+    private interface Sink {
+        void increment(DashboardMetric metric, Instant at, long delta);
+    }
+}
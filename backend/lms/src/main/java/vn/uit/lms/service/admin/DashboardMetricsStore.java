@@ -0,0 +1,245 @@
+package vn.uit.lms.service.admin;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.core.repository.system.MetricRollupRepository;
+import vn.uit.lms.core.repository.system.MetricRollupRepository.BucketValue;
+import vn.uit.lms.shared.constant.DashboardMetric;
+import vn.uit.lms.shared.constant.MetricGranularity;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incrementally maintained counters behind the admin dashboard.
+ *
+ * Every recorded fact adds to its hour, day, week and month bucket in memory; the
+ * deltas are flushed to {@code metric_rollups} on a short interval and on shutdown.
+ * A period is answered by covering it with the fewest whole buckets (a year is twelve
+ * month rows), so reads cost the same however much history there is. Deltas not yet
+ * flushed by this instance are added on read; other instances' deltas show up after
+ * their next flush.
+ */
+@Service
+@Slf4j
+public class DashboardMetricsStore {
+
+    private static final List<MetricGranularity> RECORDED_GRANULARITIES = List.of(
+            MetricGranularity.HOUR, MetricGranularity.DAY, MetricGranularity.WEEK, MetricGranularity.MONTH);
+
+    private final MetricRollupRepository rollupRepository;
+    private final MetricRollupWriter rollupWriter;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Instant recordingSince = Instant.now();
+
+    private final Map<BucketKey, Long> pending = new ConcurrentHashMap<>();
+
+    public DashboardMetricsStore(MetricRollupRepository rollupRepository, MetricRollupWriter rollupWriter) {
+        this.rollupRepository = rollupRepository;
+        this.rollupWriter = rollupWriter;
+    }
+
+    /**
+     * Facts committed from this instant on are recorded live by this instance
+     */
+    public Instant getRecordingSince() {
+        return recordingSince;
+    }
+
+    /**
+     * Add {@code delta} to every bucket containing {@code at}
+     */
+    public void increment(DashboardMetric metric, Instant at, long delta) {
+        addTo(pending, metric, at, delta);
+    }
+
+    /**
+     * Detached buffer bucketed like the live counters, for deltas that must be written
+     * all at once (history replay)
+     */
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    private void addTo(Map<BucketKey, Long> target, DashboardMetric metric, Instant at, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        LocalDateTime time = LocalDateTime.ofInstant(at != null ? at : Instant.now(), zone);
+        for (MetricGranularity granularity : RECORDED_GRANULARITIES) {
+            BucketKey key = new BucketKey(metric, granularity, toInstant(bucketStart(granularity, time)));
+            target.merge(key, delta, Long::sum);
+        }
+    }
+
+    /**
+     * Write pending deltas; on failure they are put back for the next attempt
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.metrics.flush-interval-ms:10000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<BucketKey, Long> drained = new HashMap<>();
+        for (BucketKey key : pending.keySet()) {
+            Long delta = pending.remove(key);
+            if (delta != null && delta != 0) {
+                drained.put(key, delta);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        try {
+            rollupWriter.apply(drained);
+            log.debug("Flushed {} dashboard metric bucket(s)", drained.size());
+        } catch (Exception e) {
+            drained.forEach((key, delta) -> pending.merge(key, delta, Long::sum));
+            log.warn("Dashboard metric flush failed, {} bucket(s) kept for retry: {}", drained.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Totals of the metrics over one range
+     */
+    public Map<DashboardMetric, Long> sum(Collection<DashboardMetric> metrics, Range range) {
+        return sum(metrics, List.of(range)).get(0);
+    }
+
+    /**
+     * Totals of the metrics over each range, read in one query per bucket granularity
+     */
+    public List<Map<DashboardMetric, Long>> sum(Collection<DashboardMetric> metrics, List<Range> ranges) {
+        List<List<BucketStart>> covers = new ArrayList<>(ranges.size());
+        Map<MetricGranularity, Set<Instant>> needed = new EnumMap<>(MetricGranularity.class);
+        for (Range range : ranges) {
+            List<BucketStart> cover = cover(range.start(), range.end());
+            covers.add(cover);
+            for (BucketStart bucket : cover) {
+                needed.computeIfAbsent(bucket.granularity(), g -> new HashSet<>()).add(toInstant(bucket.start()));
+            }
+        }
+
+        Map<BucketKey, Long> values = new HashMap<>();
+        needed.forEach((granularity, starts) -> {
+            for (BucketValue row : rollupRepository.findBuckets(granularity, metrics, starts)) {
+                values.put(new BucketKey(row.getMetric(), granularity, row.getBucketStart()), row.getValue());
+            }
+        });
+
+        List<Map<DashboardMetric, Long>> totals = new ArrayList<>(ranges.size());
+        for (List<BucketStart> cover : covers) {
+            Map<DashboardMetric, Long> total = new EnumMap<>(DashboardMetric.class);
+            for (DashboardMetric metric : metrics) {
+                long sum = 0;
+                for (BucketStart bucket : cover) {
+                    BucketKey key = new BucketKey(metric, bucket.granularity(), toInstant(bucket.start()));
+                    sum += values.getOrDefault(key, 0L) + pending.getOrDefault(key, 0L);
+                }
+                total.put(metric, sum);
+            }
+            totals.add(total);
+        }
+        return totals;
+    }
+
+    /**
+     * Cover [start, end) with the fewest whole buckets, largest first. Both ends are
+     * truncated to the hour.
+     */
+    static List<BucketStart> cover(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime cursor = start.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime limit = end.truncatedTo(ChronoUnit.HOURS);
+
+        List<BucketStart> buckets = new ArrayList<>();
+        while (cursor.isBefore(limit)) {
+            MetricGranularity granularity = largestBucketAt(cursor, limit);
+            buckets.add(new BucketStart(granularity, cursor));
+            cursor = bucketEnd(granularity, cursor);
+        }
+        return buckets;
+    }
+
+    static LocalDateTime bucketStart(MetricGranularity granularity, LocalDateTime time) {
+        return switch (granularity) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.toLocalDate().atStartOfDay();
+            case WEEK -> time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            case MONTH -> time.toLocalDate().withDayOfMonth(1).atStartOfDay();
+            case TOTAL -> throw new IllegalArgumentException("TOTAL has no time bucket");
+        };
+    }
+
+    static LocalDateTime bucketEnd(MetricGranularity granularity, LocalDateTime start) {
+        return switch (granularity) {
+            case HOUR -> start.plusHours(1);
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+            case TOTAL -> throw new IllegalArgumentException("TOTAL has no time bucket");
+        };
+    }
+
+    private static MetricGranularity largestBucketAt(LocalDateTime cursor, LocalDateTime limit) {
+        for (MetricGranularity granularity : List.of(MetricGranularity.MONTH, MetricGranularity.WEEK, MetricGranularity.DAY)) {
+            if (bucketStart(granularity, cursor).equals(cursor) && !bucketEnd(granularity, cursor).isAfter(limit)) {
+                return granularity;
+            }
+        }
+        return MetricGranularity.HOUR;
+    }
+
+    private Instant toInstant(LocalDateTime time) {
+        return time.atZone(zone).toInstant();
+    }
+
+    /**
+     * Half-open time range [start, end) in the server time zone
+     */
+    public record Range(LocalDateTime start, LocalDateTime end) {
+    }
+
+    record BucketStart(MetricGranularity granularity, LocalDateTime start) {
+    }
+
+    record BucketKey(DashboardMetric metric, MetricGranularity granularity, Instant bucketStart) {
+    }
+
+    /**
+     * Deltas kept apart from the live counters; not thread-safe
+     */
+    public final class Batch {
+
+        private final Map<BucketKey, Long> deltas = new HashMap<>();
+
+        public void increment(DashboardMetric metric, Instant at, long delta) {
+            addTo(deltas, metric, at, delta);
+        }
+
+        Map<BucketKey, Long> deltas() {
+            return deltas;
+        }
+    }
+}
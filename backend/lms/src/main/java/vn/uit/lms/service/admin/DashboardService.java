@@ -1,8 +1,11 @@
 package vn.uit.lms.service.admin;
 
+import vn.uit.lms.shared.dto.response.admin.CohortRetentionResponse;
 import vn.uit.lms.shared.dto.response.admin.CourseReportResponse;
 import vn.uit.lms.shared.dto.response.admin.DashboardResponse;
 import vn.uit.lms.shared.dto.response.admin.DashboardStatisticsResponse;
+import vn.uit.lms.shared.dto.response.admin.EngagementReportResponse;
+import vn.uit.lms.shared.dto.response.admin.FunnelReportResponse;
 import vn.uit.lms.shared.dto.response.admin.RevenueReportResponse;
 import vn.uit.lms.shared.dto.response.admin.UserReportResponse;
 
@@ -17,5 +20,11 @@ public interface DashboardService {
     UserReportResponse getUserReport(String period);
 
     CourseReportResponse getCourseReport(String period);
+
+    EngagementReportResponse getEngagementReport(String period);
+
+    FunnelReportResponse getFunnelReport(String period, Long courseId);
+
+    CohortRetentionResponse getCohortRetention(String period, Long courseId);
 }
 
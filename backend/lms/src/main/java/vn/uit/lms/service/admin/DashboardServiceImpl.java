@@ -1,26 +1,100 @@
 package vn.uit.lms.service.admin;
 
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import vn.uit.lms.core.repository.AccountRepository;
+import vn.uit.lms.core.repository.TeacherRepository;
+import vn.uit.lms.core.repository.course.CourseVersionRepository;
+import vn.uit.lms.core.repository.log.UserActivityDailyRepository;
+import vn.uit.lms.core.repository.log.UserActivityDailyRepository.DailyEngagement;
+import vn.uit.lms.core.repository.system.CourseCohortRetentionRepository;
+import vn.uit.lms.core.repository.system.CourseCohortRetentionRepository.CohortRetention;
+import vn.uit.lms.core.repository.system.CourseFunnelCohortRepository;
+import vn.uit.lms.core.repository.system.CourseFunnelCohortRepository.CohortFunnel;
+import vn.uit.lms.service.admin.DashboardMetricsStore.Range;
+import vn.uit.lms.shared.constant.AccountStatus;
+import vn.uit.lms.shared.constant.DashboardMetric;
+import vn.uit.lms.shared.constant.FunnelStage;
+import vn.uit.lms.shared.constant.Role;
 import vn.uit.lms.shared.dto.response.admin.*;
+import vn.uit.lms.shared.util.PeriodUtils;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import static vn.uit.lms.shared.constant.DashboardMetric.*;
+
+/**
+ * Admin dashboard answered from the incrementally maintained metric rollups.
+ *
+ * Period figures come from {@link DashboardMetricsStore}; whole-catalog counts
+ * (students, courses, teachers, users) are cached for a short interval.
+ */
 @Service
 public class DashboardServiceImpl implements DashboardService {
 
+    private static final List<DashboardMetric> PERIOD_METRICS = List.of(
+            REGISTRATIONS, ENROLLMENTS, COMPLETIONS, SCORED_COMPLETIONS, SCORE_SUM,
+            PAYMENTS, REVENUE, REFUNDED_AMOUNT);
+
+    private static final DateTimeFormatter HOUR_LABEL = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final DashboardMetricsStore metricsStore;
+    private final AccountRepository accountRepository;
+    private final TeacherRepository teacherRepository;
+    private final CourseVersionRepository courseVersionRepository;
+    private final UserActivityDailyRepository activityDailyRepository;
+    private final CourseFunnelCohortRepository funnelRepository;
+    private final CourseCohortRetentionRepository retentionRepository;
+    private final Duration gaugeTtl;
+
+    private volatile Gauges gauges;
+
+    public DashboardServiceImpl(DashboardMetricsStore metricsStore,
+                                AccountRepository accountRepository,
+                                TeacherRepository teacherRepository,
+                                CourseVersionRepository courseVersionRepository,
+                                UserActivityDailyRepository activityDailyRepository,
+                                CourseFunnelCohortRepository funnelRepository,
+                                CourseCohortRetentionRepository retentionRepository,
+                                @Value("${app.dashboard.gauge-ttl-seconds:300}") long gaugeTtlSeconds) {
+        this.metricsStore = metricsStore;
+        this.accountRepository = accountRepository;
+        this.teacherRepository = teacherRepository;
+        this.courseVersionRepository = courseVersionRepository;
+        this.activityDailyRepository = activityDailyRepository;
+        this.funnelRepository = funnelRepository;
+        this.retentionRepository = retentionRepository;
+        this.gaugeTtl = Duration.ofSeconds(gaugeTtlSeconds);
+    }
+
     /* ================= DASHBOARD CARDS ================= */
 
     @Override
     public DashboardResponse getDashboard(String period) {
+        Map<DashboardMetric, Long> totals = metricsStore.sum(PERIOD_METRICS, range(period));
+        Gauges current = gauges();
+
         DashboardResponse res = new DashboardResponse();
 
-        res.setTotalRevenue(3_500_000L);
-        res.setTotalStudents(1200L);
-        res.setTotalCourses(85L);
-        res.setAvgCompletionRate(72.5);
-        res.setAvgScore(8.1);
-        res.setActiveTeachers(45L);
+        res.setTotalRevenue(netRevenue(totals));
+        res.setTotalStudents(current.students());
+        res.setTotalCourses(current.courses());
+        res.setAvgCompletionRate(completionRate(totals));
+        res.setAvgScore(avgScore(totals));
+        res.setActiveTeachers(current.activeTeachers());
 
         return res;
     }
@@ -29,27 +103,27 @@ public class DashboardServiceImpl implements DashboardService {
 
     @Override
     public DashboardStatisticsResponse getStatistics(String period) {
+        Range range = range(period);
+        List<Range> slots = slots(range);
+        List<Map<DashboardMetric, Long>> totals = metricsStore.sum(PERIOD_METRICS, slots);
+
+        List<TimeSeriesItem> revenueTrend = new ArrayList<>(slots.size());
+        List<TimeSeriesItem> userGrowth = new ArrayList<>(slots.size());
+        List<TimeSeriesItem> courseCompletion = new ArrayList<>(slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            String label = label(slots.get(i), range);
+            Map<DashboardMetric, Long> slot = totals.get(i);
+
+            revenueTrend.add(new TimeSeriesItem(label, netRevenue(slot)));
+            userGrowth.add(new TimeSeriesItem(label, slot.get(REGISTRATIONS)));
+            courseCompletion.add(new TimeSeriesItem(label, completionRate(slot)));
+        }
+
         DashboardStatisticsResponse res = new DashboardStatisticsResponse();
 
-        res.setRevenueTrend(List.of(
-            new TimeSeriesItem("Week 1", 800_000D),
-            new TimeSeriesItem("Week 2", 900_000D),
-            new TimeSeriesItem("Week 3", 700_000D),
-            new TimeSeriesItem("Week 4", 1_100_000D)
-        ));
-
-        res.setUserGrowth(List.of(
-            new TimeSeriesItem("Week 1", 120D),
-            new TimeSeriesItem("Week 2", 150D),
-            new TimeSeriesItem("Week 3", 100D),
-            new TimeSeriesItem("Week 4", 180D)
-        ));
-
-        res.setCourseCompletion(List.of(
-            new TimeSeriesItem("Course A", 75D),
-            new TimeSeriesItem("Course B", 68D),
-            new TimeSeriesItem("Course C", 82D)
-        ));
+        res.setRevenueTrend(revenueTrend);
+        res.setUserGrowth(userGrowth);
+        res.setCourseCompletion(courseCompletion);
 
         return res;
     }
@@ -58,26 +132,250 @@ public class DashboardServiceImpl implements DashboardService {
 
     @Override
     public RevenueReportResponse getRevenueReport(String period) {
+        Map<DashboardMetric, Long> totals = metricsStore.sum(PERIOD_METRICS, range(period));
+
         RevenueReportResponse res = new RevenueReportResponse();
-        res.setTotalRevenue(3_500_000L);
+        res.setPeriod(period);
+        res.setTotalRevenue(netRevenue(totals));
+        res.setTotalTransactions(totals.get(PAYMENTS));
         return res;
     }
 
     @Override
     public UserReportResponse getUserReport(String period) {
+        Map<DashboardMetric, Long> totals = metricsStore.sum(PERIOD_METRICS, range(period));
+        Gauges current = gauges();
+
         UserReportResponse res = new UserReportResponse();
-        res.setTotalUsers(1200L);
-        res.setNewUsers(180L);
-        res.setActiveUsers(950L);
+        res.setTotalUsers(current.users());
+        res.setNewUsers(totals.get(REGISTRATIONS));
+        res.setActiveUsers(current.activeUsers());
         return res;
     }
 
     @Override
     public CourseReportResponse getCourseReport(String period) {
+        Map<DashboardMetric, Long> totals = metricsStore.sum(PERIOD_METRICS, range(period));
+
         CourseReportResponse res = new CourseReportResponse();
-        res.setTotalCourses(85L);
-        res.setAvgCompletionRate(72.5);
-        res.setAvgScore(8.1);
+        res.setTotalCourses(gauges().courses());
+        res.setAvgCompletionRate(completionRate(totals));
+        res.setAvgScore(avgScore(totals));
+        return res;
+    }
+
+    /**
+     * DAU/MAU and session figures, read from the per-user daily activity summaries
+     */
+    @Override
+    public EngagementReportResponse getEngagementReport(String period) {
+        Range range = range(period);
+        LocalDate start = range.start().toLocalDate();
+        LocalDate end = range.end().toLocalDate().minusDays(1);
+        if (end.isAfter(LocalDate.now())) {
+            end = LocalDate.now();
+        }
+
+        Map<LocalDate, DailyEngagement> byDay = new HashMap<>();
+        if (!end.isBefore(start)) {
+            for (DailyEngagement day : activityDailyRepository.sumByDay(start, end)) {
+                byDay.put(day.getActivityDate(), day);
+            }
+        }
+
+        List<TimeSeriesItem> series = new ArrayList<>();
+        long activeUserDays = 0;
+        long sessions = 0;
+        long activeSeconds = 0;
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            DailyEngagement totals = byDay.get(day);
+            long users = totals != null ? totals.getActiveUsers() : 0;
+            series.add(new TimeSeriesItem(day.toString(), users));
+            activeUserDays += users;
+            if (totals != null) {
+                sessions += totals.getSessions();
+                activeSeconds += totals.getActiveSeconds();
+            }
+        }
+
+        long days = series.size();
+        long mau = days > 0 ? activityDailyRepository.countActiveUsers(end.minusDays(29), end) : 0;
+        double averageDau = days > 0 ? round((double) activeUserDays / days) : 0.0;
+
+        EngagementReportResponse res = new EngagementReportResponse();
+        res.setPeriod(period);
+        res.setActiveUsers(days > 0 ? activityDailyRepository.countActiveUsers(start, end) : 0L);
+        res.setDailyActiveUsers(byDay.containsKey(end) ? byDay.get(end).getActiveUsers() : 0L);
+        res.setMonthlyActiveUsers(mau);
+        res.setAverageDailyActiveUsers(averageDau);
+        res.setStickiness(mau > 0 ? round(averageDau * 100.0 / mau) : 0.0);
+        res.setTotalSessions(sessions);
+        res.setAverageSessionMinutes(sessions > 0 ? round(activeSeconds / 60.0 / sessions) : 0.0);
+        res.setDailyActiveSeries(series);
+        return res;
+    }
+
+    /**
+     * Learning funnel of the weekly cohorts that started in the period
+     */
+    @Override
+    public FunnelReportResponse getFunnelReport(String period, Long courseId) {
+        Range range = range(period);
+        long[] learners = new long[FunnelStage.values().length];
+        for (CohortFunnel cohort : funnelRepository.sumByCohort(courseId, firstCohortWeek(range), lastDay(range))) {
+            learners[FunnelStage.ENROLLED.ordinal()] += cohort.getEnrolled();
+            learners[FunnelStage.FIRST_LESSON.ordinal()] += cohort.getFirstLesson();
+            learners[FunnelStage.HALF_COMPLETED.ordinal()] += cohort.getHalfCompleted();
+            learners[FunnelStage.FINAL_QUIZ.ordinal()] += cohort.getFinalQuiz();
+            learners[FunnelStage.CERTIFIED.ordinal()] += cohort.getCertified();
+        }
+
+        List<FunnelReportResponse.StageItem> stages = new ArrayList<>();
+        for (FunnelStage stage : FunnelStage.values()) {
+            int i = stage.ordinal();
+            long previous = learners[Math.max(0, i - 1)];
+            stages.add(new FunnelReportResponse.StageItem(
+                    stage, learners[i], percent(learners[i], previous), percent(learners[i], learners[0])));
+        }
+
+        FunnelReportResponse res = new FunnelReportResponse();
+        res.setPeriod(period);
+        res.setCourseId(courseId);
+        res.setComputedAt(funnelRepository.findLastComputedAt());
+        res.setStages(stages);
+        return res;
+    }
+
+    /**
+     * Rolling retention of the weekly cohorts that started in the period
+     */
+    @Override
+    public CohortRetentionResponse getCohortRetention(String period, Long courseId) {
+        Range range = range(period);
+        LocalDate firstWeek = firstCohortWeek(range);
+        LocalDate lastDay = lastDay(range);
+
+        Map<LocalDate, Long> enrolled = new LinkedHashMap<>();
+        for (CohortFunnel cohort : funnelRepository.sumByCohort(courseId, firstWeek, lastDay)) {
+            enrolled.put(cohort.getCohortWeek(), cohort.getEnrolled());
+        }
+        Map<LocalDate, List<Double>> retention = new HashMap<>();
+        for (CohortRetention row : retentionRepository.sumByCohortAndOffset(courseId, firstWeek, lastDay)) {
+            long size = enrolled.getOrDefault(row.getCohortWeek(), 0L);
+            retention.computeIfAbsent(row.getCohortWeek(), week -> new ArrayList<>())
+                    .add(percent(row.getRetained(), size));
+        }
+
+        List<CohortRetentionResponse.CohortItem> cohorts = new ArrayList<>(enrolled.size());
+        enrolled.forEach((week, size) -> cohorts.add(new CohortRetentionResponse.CohortItem(
+                week, size, retention.getOrDefault(week, List.of()))));
+
+        CohortRetentionResponse res = new CohortRetentionResponse();
+        res.setPeriod(period);
+        res.setCourseId(courseId);
+        res.setComputedAt(funnelRepository.findLastComputedAt());
+        res.setCohorts(cohorts);
         return res;
     }
+
+    /* ================= HELPERS ================= */
+
+    private static Range range(String period) {
+        LocalDateTime[] bounds = PeriodUtils.resolve(period);
+        return new Range(bounds[0], bounds[1]);
+    }
+
+    /**
+     * Chart points: hours for a day, days up to a month, months beyond
+     */
+    private static List<Range> slots(Range range) {
+        Duration span = Duration.between(range.start(), range.end());
+        List<Range> slots = new ArrayList<>();
+        LocalDateTime cursor = range.start();
+        while (cursor.isBefore(range.end())) {
+            LocalDateTime next;
+            if (span.compareTo(Duration.ofDays(1)) <= 0) {
+                next = cursor.plusHours(1);
+            } else if (span.compareTo(Duration.ofDays(31)) <= 0) {
+                next = cursor.plusDays(1);
+            } else {
+                next = cursor.plusMonths(1);
+            }
+            slots.add(new Range(cursor, next.isAfter(range.end()) ? range.end() : next));
+            cursor = next;
+        }
+        return slots;
+    }
+
+    private static String label(Range slot, Range range) {
+        Duration span = Duration.between(range.start(), range.end());
+        if (span.compareTo(Duration.ofDays(1)) <= 0) {
+            return slot.start().format(HOUR_LABEL);
+        }
+        if (span.compareTo(Duration.ofDays(31)) <= 0) {
+            return slot.start().toLocalDate().toString();
+        }
+        return YearMonth.from(slot.start()).toString();
+    }
+
+    private static long netRevenue(Map<DashboardMetric, Long> totals) {
+        return totals.get(REVENUE) - totals.get(REFUNDED_AMOUNT);
+    }
+
+    private static double completionRate(Map<DashboardMetric, Long> totals) {
+        long enrollments = totals.get(ENROLLMENTS);
+        if (enrollments == 0) {
+            return 0.0;
+        }
+        return round(totals.get(COMPLETIONS) * 100.0 / enrollments);
+    }
+
+    private static double avgScore(Map<DashboardMetric, Long> totals) {
+        long scored = totals.get(SCORED_COMPLETIONS);
+        if (scored == 0) {
+            return 0.0;
+        }
+        return round(totals.get(SCORE_SUM) / 100.0 / scored);
+    }
+
+    /**
+     * Monday of the first cohort week overlapping the period
+     */
+    private static LocalDate firstCohortWeek(Range range) {
+        return range.start().toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private static LocalDate lastDay(Range range) {
+        return range.end().toLocalDate().minusDays(1);
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0.0 : round(part * 100.0 / whole);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private Gauges gauges() {
+        Gauges current = gauges;
+        if (current == null || current.loadedAt().plus(gaugeTtl).isBefore(Instant.now())) {
+            current = new Gauges(
+                    accountRepository.countByRoleAndDeletedAtIsNull(Role.STUDENT),
+                    courseVersionRepository.countPublishedCourses(),
+                    teacherRepository.countByApprovedTrue(),
+                    accountRepository.countByDeletedAtIsNull(),
+                    accountRepository.countByStatusAndDeletedAtIsNull(AccountStatus.ACTIVE),
+                    Instant.now());
+            gauges = current;
+        }
+        return current;
+    }
+
+    /**
+     * Whole-catalog counts that are not tied to a period
+     */
+    private record Gauges(long students, long courses, long activeTeachers, long users, long activeUsers,
+                          Instant loadedAt) {
+    }
 }
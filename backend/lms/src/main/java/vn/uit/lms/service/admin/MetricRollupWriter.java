@@ -0,0 +1,60 @@
+package vn.uit.lms.service.admin;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.repository.system.MetricRollupRepository;
+import vn.uit.lms.shared.constant.DashboardMetric;
+import vn.uit.lms.shared.constant.MetricGranularity;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Persists flushed dashboard metric deltas into the rollup table
+ */
+@Service
+@RequiredArgsConstructor
+public class MetricRollupWriter {
+
+    private final MetricRollupRepository rollupRepository;
+
+    /**
+     * Add all deltas in one transaction; either every bucket moves or none does
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void apply(Map<DashboardMetricsStore.BucketKey, Long> deltas) {
+        deltas.forEach((key, delta) -> rollupRepository.upsertDelta(
+                key.metric().name(), key.granularity().name(), key.bucketStart(), delta));
+    }
+
+    /**
+     * Insert the one-off marker row and the batch together; false (nothing written)
+     * when another instance already inserted the marker
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean applyWithMarker(DashboardMetric marker, DashboardMetricsStore.Batch batch) {
+        if (rollupRepository.insertIfAbsent(marker.name(), MetricGranularity.TOTAL.name(), Instant.EPOCH, 1L) == 0) {
+            return false;
+        }
+        apply(batch.deltas());
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isMarked(DashboardMetric marker) {
+        return rollupRepository.existsByMetricAndGranularityAndBucketStart(marker, MetricGranularity.TOTAL, Instant.EPOCH);
+    }
+
+    /**
+     * Record when this instance started live recording under the marker and return the
+     * earliest such instant of any instance: facts before it were never recorded live
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Instant registerRecordingSince(DashboardMetric marker, Instant since) {
+        rollupRepository.insertIfAbsent(marker.name(), MetricGranularity.TOTAL.name(), since, 0L);
+        return rollupRepository.findEarliestBucketStart(marker, MetricGranularity.TOTAL, Instant.EPOCH)
+                .orElse(since);
+    }
+}
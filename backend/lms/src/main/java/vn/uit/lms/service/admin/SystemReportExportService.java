@@ -0,0 +1,268 @@
+package vn.uit.lms.service.admin;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.config.MinioBucketProperties;
+import vn.uit.lms.core.domain.Account;
+import vn.uit.lms.core.domain.system.ReportExportJob;
+import vn.uit.lms.core.repository.system.ReportExportJobRepository;
+import vn.uit.lms.service.AccountService;
+import vn.uit.lms.service.storage.MinioService;
+import vn.uit.lms.shared.constant.ExportFormat;
+import vn.uit.lms.shared.constant.ExportJobStatus;
+import vn.uit.lms.shared.dto.PageResponse;
+import vn.uit.lms.shared.dto.request.admin.ReportPeriodRequest;
+import vn.uit.lms.shared.dto.response.admin.ReportExportJobResponse;
+import vn.uit.lms.shared.exception.InvalidRequestException;
+import vn.uit.lms.shared.exception.ResourceNotFoundException;
+import vn.uit.lms.shared.exception.TooManyRequestsException;
+import vn.uit.lms.shared.util.PeriodUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Downloads of the system report, directly or as background jobs.
+ *
+ * Short periods stream straight into the response. Longer ones must go through a
+ * job: a bounded pool writes the report to a temporary file, uploads it to object
+ * storage and records the outcome, and the admin polls the job for a presigned
+ * download URL.
+ */
+@Service
+@Slf4j
+public class SystemReportExportService {
+
+    private static final List<ExportJobStatus> UNFINISHED = List.of(ExportJobStatus.QUEUED, ExportJobStatus.RUNNING);
+
+    private final SystemReportService systemReportService;
+    private final ReportExportJobRepository jobRepository;
+    private final AccountService accountService;
+    private final MinioService minioService;
+    private final MinioBucketProperties bucketProperties;
+    private final ThreadPoolTaskExecutor threadPool;
+    private final Executor executor;
+
+    @Value("${app.report.export.sync-max-days:93}")
+    private long syncMaxDays;
+
+    @Value("${app.report.export.download-url-ttl-seconds:900}")
+    private int downloadUrlTtlSeconds;
+
+    @Value("${app.report.export.abandon-after-minutes:180}")
+    private long abandonAfterMinutes;
+
+    public SystemReportExportService(SystemReportService systemReportService,
+                                     ReportExportJobRepository jobRepository,
+                                     AccountService accountService,
+                                     MinioService minioService,
+                                     MinioBucketProperties bucketProperties,
+                                     @Value("${app.report.export.parallelism:2}") int parallelism,
+                                     @Value("${app.report.export.queue-capacity:20}") int queueCapacity) {
+        this.systemReportService = systemReportService;
+        this.jobRepository = jobRepository;
+        this.accountService = accountService;
+        this.minioService = minioService;
+        this.bucketProperties = bucketProperties;
+
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(Math.max(1, parallelism));
+        pool.setMaxPoolSize(Math.max(1, parallelism));
+        pool.setQueueCapacity(queueCapacity);
+        pool.setThreadNamePrefix("report-export-");
+        pool.initialize();
+
+        this.threadPool = pool;
+        this.executor = new DelegatingSecurityContextExecutor(pool);
+    }
+
+    /**
+     * Stream the report for a short period into the response
+     */
+    public void export(ReportPeriodRequest request, ExportFormat format, HttpServletResponse response)
+            throws IOException {
+        LocalDateTime[] range = PeriodUtils.resolve(request.period(), request.from(), request.to());
+        if (Duration.between(range[0], range[1]).toDays() > syncMaxDays) {
+            throw new InvalidRequestException("Periods longer than " + syncMaxDays
+                    + " days must be exported as a background job");
+        }
+        ExportFormat target = format != null ? format : ExportFormat.CSV;
+
+        response.setContentType(target.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + filename(range, target) + "\"");
+
+        OutputStream out = response.getOutputStream();
+        long rows = systemReportService.write(request.period().name(), range[0], range[1], target, out);
+        out.flush();
+
+        log.info("Streamed system report {} as {} ({} detail rows)", request.period(), target, rows);
+    }
+
+    /**
+     * Queue a background export of the report
+     */
+    public ReportExportJobResponse submit(ReportPeriodRequest request, ExportFormat format) {
+        LocalDateTime[] range = PeriodUtils.resolve(request.period(), request.from(), request.to());
+        Account account = accountService.verifyCurrentAccount();
+        ZoneId zone = ZoneId.systemDefault();
+
+        ReportExportJob job = jobRepository.save(ReportExportJob.builder()
+                .requestedBy(account.getId())
+                .period(request.period().name())
+                .rangeStart(range[0].atZone(zone).toInstant())
+                .rangeEnd(range[1].atZone(zone).toInstant())
+                .format(format != null ? format : ExportFormat.CSV)
+                .createdAt(Instant.now())
+                .build());
+
+        try {
+            Long jobId = job.getId();
+            executor.execute(() -> run(jobId));
+        } catch (TaskRejectedException e) {
+            job.fail("Export queue is full");
+            jobRepository.save(job);
+            throw new TooManyRequestsException("Too many report exports in progress. Please try again later.");
+        }
+
+        log.info("Queued system report export job {} ({} as {})", job.getId(), job.getPeriod(), job.getFormat());
+        return toResponse(job);
+    }
+
+    public ReportExportJobResponse getJob(Long jobId) {
+        ReportExportJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Export job not found with id: " + jobId));
+        return toResponse(job);
+    }
+
+    /**
+     * Export jobs of the current admin, newest first
+     */
+    public PageResponse<ReportExportJobResponse> getMyJobs(Pageable pageable) {
+        Account account = accountService.verifyCurrentAccount();
+        Page<ReportExportJob> page = jobRepository.findByRequestedByOrderByCreatedAtDesc(account.getId(), pageable);
+        List<ReportExportJobResponse> items = page.getContent().stream().map(this::toResponse).toList();
+
+        return new PageResponse<>(
+                items,
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages(),
+                page.hasNext(),
+                page.hasPrevious()
+        );
+    }
+
+    /**
+     * Fail jobs whose instance stopped before finishing them
+     */
+    @Scheduled(fixedDelayString = "${app.report.export.abandon-sweep-interval-ms:600000}")
+    @Transactional
+    public void failAbandonedJobs() {
+        Instant now = Instant.now();
+        int failed = jobRepository.failAbandoned(UNFINISHED, now.minus(Duration.ofMinutes(abandonAfterMinutes)),
+                "Export did not finish in time", now);
+        if (failed > 0) {
+            log.warn("Marked {} abandoned report export job(s) as failed", failed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Shutting down report export executor");
+        threadPool.shutdown();
+    }
+
+    private void run(Long jobId) {
+        ReportExportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != ExportJobStatus.QUEUED) {
+            return;
+        }
+        job.start();
+        job = jobRepository.save(job);
+
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime start = LocalDateTime.ofInstant(job.getRangeStart(), zone);
+        LocalDateTime end = LocalDateTime.ofInstant(job.getRangeEnd(), zone);
+        String filename = filename(new LocalDateTime[]{start, end}, job.getFormat());
+
+        Path file = null;
+        try {
+            file = Files.createTempFile("system-report-" + jobId + "-", "." + job.getFormat().getExtension());
+            long rows;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                rows = systemReportService.write(job.getPeriod(), start, end, job.getFormat(), out);
+            }
+
+            long size = Files.size(file);
+            String objectKey = "reports/system/" + jobId + "/" + filename;
+            try (InputStream in = Files.newInputStream(file)) {
+                minioService.uploadStream(in, size, job.getFormat().getContentType(),
+                        bucketProperties.getDocuments(), objectKey);
+            }
+
+            job.complete(objectKey, rows, size);
+            jobRepository.save(job);
+            log.info("System report export job {} finished: {} detail rows, {} bytes", jobId, rows, size);
+        } catch (Exception e) {
+            log.error("System report export job {} failed", jobId, e);
+            job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            jobRepository.save(job);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete temporary report file {}", file);
+                }
+            }
+        }
+    }
+
+    private ReportExportJobResponse toResponse(ReportExportJob job) {
+        String downloadUrl = job.getStatus() == ExportJobStatus.COMPLETED && job.getObjectKey() != null
+                ? minioService.generatePresignedGetUrl(job.getObjectKey(), bucketProperties.getDocuments(),
+                downloadUrlTtlSeconds)
+                : null;
+
+        return ReportExportJobResponse.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .format(job.getFormat())
+                .period(job.getPeriod())
+                .rangeStart(job.getRangeStart())
+                .rangeEnd(job.getRangeEnd())
+                .rowCount(job.getRowCount())
+                .fileSize(job.getFileSize())
+                .downloadUrl(downloadUrl)
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private static String filename(LocalDateTime[] range, ExportFormat format) {
+        return "system_report_" + range[0].toLocalDate() + "_" + range[1].minusNanos(1).toLocalDate()
+                + "." + format.getExtension();
+    }
+}
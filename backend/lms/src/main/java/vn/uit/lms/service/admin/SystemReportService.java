@@ -0,0 +1,152 @@
+package vn.uit.lms.service.admin;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.repository.AccountRepository;
+import vn.uit.lms.core.repository.AccountRepository.AccountReportRow;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository.PaymentExportRow;
+import vn.uit.lms.core.repository.course.CourseRepository;
+import vn.uit.lms.core.repository.course.CourseRepository.CourseReportRow;
+import vn.uit.lms.core.repository.learning.EnrollmentRepository;
+import vn.uit.lms.core.repository.learning.EnrollmentRepository.EnrollmentReportRow;
+import vn.uit.lms.service.admin.DashboardMetricsStore.Range;
+import vn.uit.lms.shared.constant.DashboardMetric;
+import vn.uit.lms.shared.constant.ExportFormat;
+import vn.uit.lms.shared.util.export.ReportWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static vn.uit.lms.shared.constant.DashboardMetric.*;
+
+/**
+ * Writes the system report: a summary from the dashboard rollups followed by the
+ * users, courses, enrollments, completions and settled payments of the period.
+ *
+ * Every detail section is read through a database cursor and written row by row,
+ * so memory stays flat whatever the size of the period.
+ */
+@Service
+@RequiredArgsConstructor
+public class SystemReportService {
+
+    private static final List<DashboardMetric> SUMMARY_METRICS = List.of(
+            REGISTRATIONS, STUDENT_REGISTRATIONS, TEACHER_REGISTRATIONS, ENROLLMENTS, COMPLETIONS,
+            SCORED_COMPLETIONS, SCORE_SUM, PAYMENTS, REVENUE, REFUNDS, REFUNDED_AMOUNT);
+
+    private static final List<String> USER_HEADERS = List.of(
+            "id", "username", "email", "role", "status", "created_at", "last_login_at");
+    private static final List<String> COURSE_HEADERS = List.of(
+            "id", "title", "category", "teacher_id", "teacher_name", "closed", "created_at", "deleted_at");
+    private static final List<String> ENROLLMENT_HEADERS = List.of(
+            "id", "student_id", "student_name", "course_id", "course_title", "status", "enrolled_at",
+            "completion_percentage", "completed_at", "average_score");
+    private static final List<String> REVENUE_HEADERS = List.of(
+            "id", "paid_at", "status", "payment_method", "currency", "amount", "transaction_fee", "net_amount",
+            "refund_amount", "refunded_at", "course_id", "course_title", "teacher_id", "teacher_name",
+            "student_id", "student_name");
+
+    private final AccountRepository accountRepository;
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final PaymentTransactionRepository paymentRepository;
+    private final DashboardMetricsStore metricsStore;
+
+    /**
+     * Write the report for [start, end) to {@code out}; the stream is left open
+     *
+     * @return number of detail rows written
+     */
+    @Transactional(readOnly = true)
+    public long write(String period, LocalDateTime start, LocalDateTime end, ExportFormat format, OutputStream out)
+            throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        Instant from = start.atZone(zone).toInstant();
+        Instant to = end.atZone(zone).toInstant();
+
+        long rows = 0;
+        try (ReportWriter writer = ReportWriter.open(format, out, "System report " + period + " (" + start.toLocalDate()
+                + " - " + end.minusNanos(1).toLocalDate() + ")")) {
+            writeSummary(writer, period, start, end);
+
+            writer.section("Users", USER_HEADERS);
+            rows += ReportWriter.writeAll(writer, accountRepository.streamForReport(from, to), SystemReportService::userValues);
+
+            writer.section("Courses", COURSE_HEADERS);
+            rows += ReportWriter.writeAll(writer, courseRepository.streamForReport(from, to), SystemReportService::courseValues);
+
+            writer.section("Enrollments", ENROLLMENT_HEADERS);
+            rows += ReportWriter.writeAll(writer, enrollmentRepository.streamEnrolledForReport(from, to), SystemReportService::enrollmentValues);
+
+            writer.section("Completions", ENROLLMENT_HEADERS);
+            rows += ReportWriter.writeAll(writer, enrollmentRepository.streamCompletedForReport(from, to), SystemReportService::enrollmentValues);
+
+            writer.section("Revenue", REVENUE_HEADERS);
+            rows += ReportWriter.writeAll(writer, paymentRepository.streamSettledForReport(from, to), SystemReportService::revenueValues);
+
+            writer.finish();
+        }
+        return rows;
+    }
+
+    private void writeSummary(ReportWriter writer, String period, LocalDateTime start, LocalDateTime end)
+            throws IOException {
+        Map<DashboardMetric, Long> totals = metricsStore.sum(SUMMARY_METRICS, new Range(start, end));
+        long enrollments = totals.get(ENROLLMENTS);
+        long scored = totals.get(SCORED_COMPLETIONS);
+
+        writer.section("Summary", List.of("metric", "value"));
+        writer.writeRow(List.of("period", period));
+        writer.writeRow(List.of("from", start));
+        writer.writeRow(List.of("to_exclusive", end));
+        writer.writeRow(List.of("new_users", totals.get(REGISTRATIONS)));
+        writer.writeRow(List.of("new_students", totals.get(STUDENT_REGISTRATIONS)));
+        writer.writeRow(List.of("new_teachers", totals.get(TEACHER_REGISTRATIONS)));
+        writer.writeRow(List.of("enrollments", enrollments));
+        writer.writeRow(List.of("completions", totals.get(COMPLETIONS)));
+        writer.writeRow(List.of("completion_rate_pct",
+                enrollments == 0 ? 0.0 : round(totals.get(COMPLETIONS) * 100.0 / enrollments)));
+        writer.writeRow(List.of("average_score",
+                scored == 0 ? 0.0 : round(totals.get(SCORE_SUM) / 100.0 / scored)));
+        writer.writeRow(List.of("payments", totals.get(PAYMENTS)));
+        writer.writeRow(List.of("gross_revenue", totals.get(REVENUE)));
+        writer.writeRow(List.of("refunds", totals.get(REFUNDS)));
+        writer.writeRow(List.of("refunded_amount", totals.get(REFUNDED_AMOUNT)));
+        writer.writeRow(List.of("net_revenue", totals.get(REVENUE) - totals.get(REFUNDED_AMOUNT)));
+    }
+
+    private static List<Object> userValues(AccountReportRow row) {
+        return Arrays.asList(row.getId(), row.getUsername(), row.getEmail(), row.getRole(), row.getStatus(),
+                row.getCreatedAt(), row.getLastLoginAt());
+    }
+
+    private static List<Object> courseValues(CourseReportRow row) {
+        return Arrays.asList(row.getId(), row.getTitle(), row.getCategoryName(), row.getTeacherId(),
+                row.getTeacherName(), row.getClosed(), row.getCreatedAt(), row.getDeletedAt());
+    }
+
+    private static List<Object> enrollmentValues(EnrollmentReportRow row) {
+        return Arrays.asList(row.getId(), row.getStudentId(), row.getStudentName(), row.getCourseId(),
+                row.getCourseTitle(), row.getStatus(), row.getEnrolledAt(), row.getCompletionPercentage(),
+                row.getCompletedAt(), row.getAverageScore());
+    }
+
+    private static List<Object> revenueValues(PaymentExportRow row) {
+        return Arrays.asList(row.getId(), row.getPaidAt(), row.getStatus(), row.getPaymentMethod(),
+                row.getCurrency(), row.getAmount(), row.getTransactionFee(), row.getNetAmount(),
+                row.getRefundAmount(), row.getRefundedAt(), row.getCourseId(), row.getCourseTitle(),
+                row.getTeacherId(), row.getTeacherName(), row.getStudentId(), row.getStudentName());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -3,8 +3,7 @@ package vn.uit.lms.service.admin;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -12,24 +11,33 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vn.uit.lms.core.domain.Account;
 import vn.uit.lms.core.repository.AccountRepository;
+import vn.uit.lms.core.repository.AccountRepository.AccountExportRow;
 import vn.uit.lms.core.repository.StudentRepository;
 import vn.uit.lms.core.repository.TeacherRepository;
+import vn.uit.lms.service.admin.DashboardMetricsStore.Range;
 import vn.uit.lms.shared.constant.AccountStatus;
+import vn.uit.lms.shared.constant.DashboardMetric;
+import vn.uit.lms.shared.constant.ExportFormat;
 import vn.uit.lms.shared.constant.Role;
+import vn.uit.lms.shared.constant.UserStatKey;
 import vn.uit.lms.shared.dto.PageResponse;
 import vn.uit.lms.shared.dto.request.admin.ExportUsersRequest;
 import vn.uit.lms.shared.dto.request.admin.UserFilterRequest;
 import vn.uit.lms.shared.dto.response.admin.AdminUserListResponse;
 import vn.uit.lms.shared.dto.response.admin.UserStatsResponse;
 import vn.uit.lms.shared.exception.InvalidRequestException;
+import vn.uit.lms.shared.util.export.ReportWriter;
 
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for admin user management operations
@@ -43,6 +51,13 @@ public class UserManagementService {
     private final AccountRepository accountRepository;
     private final StudentRepository studentRepository;
     private final TeacherRepository teacherRepository;
+    private final UserStatsStore userStatsStore;
+    private final DashboardMetricsStore metricsStore;
+
+    @Value("${app.user-stats.activity-ttl-seconds:300}")
+    private long activityTtlSeconds;
+
+    private volatile ActivitySnapshot activity;
 
     @Transactional(readOnly = true)
     public PageResponse<AdminUserListResponse> getAllUsers(UserFilterRequest filter, Pageable pageable) {
@@ -72,62 +87,90 @@ public class UserManagementService {
                 .build();
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Role, status and teacher counts come from the in-memory counters; registrations
+     * from the dashboard rollups; login activity from a short-lived cached snapshot.
+     */
     public UserStatsResponse getUserStats() {
-        log.info("Calculating user statistics");
-
         Instant now = Instant.now();
         LocalDateTime nowLocal = LocalDateTime.ofInstant(now, ZoneId.systemDefault());
 
-        Long totalUsers = accountRepository.count();
-        Long activeUsers = accountRepository.count(hasStatus(AccountStatus.ACTIVE));
-        Long inactiveUsers = accountRepository.count(hasStatus(AccountStatus.DEACTIVATED));
-        Long suspendedUsers = accountRepository.count(hasStatus(AccountStatus.SUSPENDED));
-        Long pendingApprovalUsers = accountRepository.count(hasStatus(AccountStatus.PENDING_APPROVAL));
-        Long pendingEmailUsers = accountRepository.count(hasStatus(AccountStatus.PENDING_EMAIL));
-        Long rejectedUsers = accountRepository.count(hasStatus(AccountStatus.REJECTED));
+        Long totalUsers = userStatsStore.get(UserStatKey.TOTAL);
+        Long activeUsers = userStatsStore.get(UserStatKey.STATUS_ACTIVE);
 
         UserStatsResponse.RoleStats roleStats = UserStatsResponse.RoleStats.builder()
-                .students(accountRepository.count(hasRole(Role.STUDENT)))
-                .teachers(accountRepository.count(hasRole(Role.TEACHER)))
-                .admins(accountRepository.count(hasRole(Role.ADMIN)))
-                .approvedTeachers(teacherRepository.countByApprovedTrue())
-                .pendingTeachers(teacherRepository.countByApprovedFalse())
+                .students(userStatsStore.get(UserStatKey.ROLE_STUDENT))
+                .teachers(userStatsStore.get(UserStatKey.ROLE_TEACHER))
+                .admins(userStatsStore.get(UserStatKey.ROLE_ADMIN))
+                .approvedTeachers(userStatsStore.get(UserStatKey.TEACHERS_APPROVED))
+                .pendingTeachers(userStatsStore.get(UserStatKey.TEACHERS_PENDING))
                 .build();
 
-        UserStatsResponse.RegistrationStats registrationStats = UserStatsResponse.RegistrationStats.builder()
-                .today(accountRepository.count(createdAfter(nowLocal.truncatedTo(ChronoUnit.DAYS))))
-                .thisWeek(accountRepository.count(createdAfter(nowLocal.minusWeeks(1))))
-                .thisMonth(accountRepository.count(createdAfter(nowLocal.minusMonths(1))))
-                .thisYear(accountRepository.count(createdAfter(nowLocal.minusYears(1))))
-                .build();
+        // Rolling windows at hour granularity; the current hour is included
+        LocalDateTime end = nowLocal.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        List<Map<DashboardMetric, Long>> registrations = metricsStore.sum(List.of(DashboardMetric.REGISTRATIONS), List.of(
+                new Range(nowLocal.truncatedTo(ChronoUnit.DAYS), end),
+                new Range(nowLocal.minusWeeks(1).truncatedTo(ChronoUnit.HOURS), end),
+                new Range(nowLocal.minusMonths(1).truncatedTo(ChronoUnit.HOURS), end),
+                new Range(nowLocal.minusYears(1).truncatedTo(ChronoUnit.HOURS), end)
+        ));
 
-        UserStatsResponse.ActivityStats activityStats = UserStatsResponse.ActivityStats.builder()
-                .activeToday(accountRepository.count(lastLoginAfter(nowLocal.truncatedTo(ChronoUnit.DAYS))))
-                .activeThisWeek(accountRepository.count(lastLoginAfter(nowLocal.minusWeeks(1))))
-                .activeThisMonth(accountRepository.count(lastLoginAfter(nowLocal.minusMonths(1))))
-                .neverLoggedIn(accountRepository.count(lastLoginIsNull()))
-                .inactiveFor30Days(accountRepository.count(lastLoginBefore(nowLocal.minusDays(30))))
-                .inactiveFor90Days(accountRepository.count(lastLoginBefore(nowLocal.minusDays(90))))
+        UserStatsResponse.RegistrationStats registrationStats = UserStatsResponse.RegistrationStats.builder()
+                .today(registrations.get(0).get(DashboardMetric.REGISTRATIONS))
+                .thisWeek(registrations.get(1).get(DashboardMetric.REGISTRATIONS))
+                .thisMonth(registrations.get(2).get(DashboardMetric.REGISTRATIONS))
+                .thisYear(registrations.get(3).get(DashboardMetric.REGISTRATIONS))
                 .build();
 
-        log.info("Statistics calculated: total={}, active={}, teachers={}, students={}",
+        log.debug("User stats served: total={}, active={}, teachers={}, students={}",
                 totalUsers, activeUsers, roleStats.getTeachers(), roleStats.getStudents());
 
         return UserStatsResponse.builder()
                 .totalUsers(totalUsers)
                 .activeUsers(activeUsers)
-                .inactiveUsers(inactiveUsers)
-                .suspendedUsers(suspendedUsers)
-                .pendingApprovalUsers(pendingApprovalUsers)
-                .pendingEmailUsers(pendingEmailUsers)
-                .rejectedUsers(rejectedUsers)
+                .inactiveUsers(userStatsStore.get(UserStatKey.STATUS_DEACTIVATED))
+                .suspendedUsers(userStatsStore.get(UserStatKey.STATUS_SUSPENDED))
+                .pendingApprovalUsers(userStatsStore.get(UserStatKey.STATUS_PENDING_APPROVAL))
+                .pendingEmailUsers(userStatsStore.get(UserStatKey.STATUS_PENDING_EMAIL))
+                .rejectedUsers(userStatsStore.get(UserStatKey.STATUS_REJECTED))
                 .roleStats(roleStats)
                 .registrationStats(registrationStats)
-                .activityStats(activityStats)
+                .activityStats(activityStats(now))
                 .build();
     }
 
+    /**
+     * Login activity depends on the clock rather than on events, so it is counted at
+     * most once per TTL
+     */
+    private UserStatsResponse.ActivityStats activityStats(Instant now) {
+        ActivitySnapshot current = activity;
+        if (current != null && current.loadedAt().plusSeconds(activityTtlSeconds).isAfter(now)) {
+            return current.stats();
+        }
+
+        LocalDateTime nowLocal = LocalDateTime.ofInstant(now, ZoneId.systemDefault());
+        UserStatsResponse.ActivityStats stats = UserStatsResponse.ActivityStats.builder()
+                .activeToday(accountRepository.count(lastLoginAfter(nowLocal.truncatedTo(ChronoUnit.DAYS))))
+                .activeThisWeek(accountRepository.count(lastLoginAfter(nowLocal.minusWeeks(1))))
+                .activeThisMonth(accountRepository.count(lastLoginAfter(nowLocal.minusMonths(1))))
+                .neverLoggedIn(accountRepository.count(lastLoginIsNull()))
+                .inactiveFor30Days(accountRepository.count(lastLoginBefore(nowLocal.minusDays(30))))
+                .inactiveFor90Days(accountRepository.count(lastLoginBefore(nowLocal.minusDays(90))))
+                .build();
+        activity = new ActivitySnapshot(stats, now);
+        return stats;
+    }
+
+    private record ActivitySnapshot(UserStatsResponse.ActivityStats stats, Instant loadedAt) {
+    }
+
+    /**
+     * Stream matching accounts to the response as CSV or xlsx.
+     *
+     * Rows are read through a forward-only cursor as read-only projections and written
+     * as they arrive, so memory stays flat however many accounts match.
+     */
     @Transactional(readOnly = true)
     public void exportUsers(ExportUsersRequest request, HttpServletResponse response) throws IOException {
         log.info("Exporting users with format: {}", request.getFormat());
@@ -136,23 +179,28 @@ public class UserManagementService {
             throw new InvalidRequestException("Export format is required");
         }
 
-        Specification<Account> spec = buildExportSpecification(request);
-        List<Account> accounts = accountRepository.findAll(spec);
-        log.info("Exporting {} users", accounts.size());
-
-        String filename = "users_export_" + Instant.now().getEpochSecond();
-
-        if (request.getFormat() == ExportUsersRequest.ExportFormat.CSV) {
-            response.setContentType("text/csv");
-            response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + ".csv\"");
-            exportToCsv(accounts, response.getWriter(), request);
-        } else {
-            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-            response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + ".xlsx\"");
-            exportToExcel(accounts, response.getOutputStream(), request);
+        ExportFormat format = ExportFormat.valueOf(request.getFormat().name());
+        List<String> fields = determineExportFields(request.getFields());
+        List<Function<AccountExportRow, Object>> columns = fields.stream()
+                .map(UserManagementService::exportColumn)
+                .toList();
+        List<String> headers = fields.stream().map(this::formatFieldHeader).toList();
+
+        String filename = "users_export_" + Instant.now().getEpochSecond() + "." + format.getExtension();
+        response.setContentType(format.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+
+        long rows;
+        OutputStream out = response.getOutputStream();
+        try (ReportWriter writer = ReportWriter.openTable(format, out, "Users", headers)) {
+            Stream<AccountExportRow> accounts = accountRepository.streamForExport(
+                    exportStatuses(request), Boolean.TRUE.equals(request.getIncludeDeleted()));
+            rows = ReportWriter.writeAll(writer, accounts,
+                    row -> columns.stream().map(column -> column.apply(row)).toList());
+            writer.finish();
         }
 
-        log.info("Export completed successfully");
+        log.info("Export completed successfully: {} users", rows);
     }
 
     private Specification<Account> buildUserSpecification(UserFilterRequest filter) {
@@ -207,9 +255,7 @@ public class UserManagementService {
         return spec;
     }
 
-    private Specification<Account> buildExportSpecification(ExportUsersRequest request) {
-        Specification<Account> spec = Specification.anyOf();
-
+    private List<AccountStatus> exportStatuses(ExportUsersRequest request) {
         List<AccountStatus> includedStatuses = new ArrayList<>();
         includedStatuses.add(AccountStatus.ACTIVE);
         includedStatuses.add(AccountStatus.PENDING_EMAIL);
@@ -224,14 +270,7 @@ public class UserManagementService {
         if (Boolean.TRUE.equals(request.getIncludeRejected())) {
             includedStatuses.add(AccountStatus.REJECTED);
         }
-
-        spec = spec.and((root, query, cb) -> root.get("status").in(includedStatuses));
-
-        if (!Boolean.TRUE.equals(request.getIncludeDeleted())) {
-            spec = spec.and((root, query, cb) -> cb.isNull(root.get("deletedAt")));
-        }
-
-        return spec;
+        return includedStatuses;
     }
 
     private AdminUserListResponse mapToUserListResponse(Account account) {
@@ -272,24 +311,6 @@ public class UserManagementService {
         return response;
     }
 
-    private void exportToCsv(List<Account> accounts, PrintWriter writer, ExportUsersRequest request) {
-        List<String> fields = determineExportFields(request.getFields());
-
-        writer.println(fields.stream()
-                .map(this::formatFieldHeader)
-                .collect(Collectors.joining(",")));
-
-        for (Account account : accounts) {
-            List<String> values = new ArrayList<>();
-            for (String field : fields) {
-                values.add(escapeCsv(getFieldValue(account, field)));
-            }
-            writer.println(String.join(",", values));
-        }
-
-        writer.flush();
-    }
-
     private List<String> determineExportFields(String fieldsParam) {
         if (fieldsParam != null && !fieldsParam.isBlank()) {
             return List.of(fieldsParam.split(","));
@@ -298,32 +319,25 @@ public class UserManagementService {
     }
 
     private String formatFieldHeader(String field) {
-        return field.replaceAll("([A-Z])", " $1").trim().toUpperCase();
+        return field.trim().replaceAll("([A-Z])", " $1").trim().toUpperCase();
     }
 
-    private String getFieldValue(Account account, String field) {
-        return switch (field.toLowerCase()) {
-            case "accountid" -> String.valueOf(account.getId());
-            case "username" -> account.getUsername();
-            case "email" -> account.getEmail();
-            case "role" -> account.getRole().name();
-            case "status" -> account.getStatus().name();
-            case "createdat" -> account.getCreatedAt() != null ? account.getCreatedAt().toString() : "";
-            case "updatedat" -> account.getUpdatedAt() != null ? account.getUpdatedAt().toString() : "";
-            case "lastloginat" -> account.getLastLoginAt() != null ? account.getLastLoginAt().toString() : "";
-            case "avatarurl" -> account.getAvatarUrl() != null ? account.getAvatarUrl() : "";
-            default -> "";
+    // Resolved once per export; unknown fields give an empty column
+    private static Function<AccountExportRow, Object> exportColumn(String field) {
+        return switch (field.trim().toLowerCase()) {
+            case "accountid" -> AccountExportRow::getId;
+            case "username" -> AccountExportRow::getUsername;
+            case "email" -> AccountExportRow::getEmail;
+            case "role" -> AccountExportRow::getRole;
+            case "status" -> AccountExportRow::getStatus;
+            case "createdat" -> AccountExportRow::getCreatedAt;
+            case "updatedat" -> AccountExportRow::getUpdatedAt;
+            case "lastloginat" -> AccountExportRow::getLastLoginAt;
+            case "avatarurl" -> AccountExportRow::getAvatarUrl;
+            default -> row -> null;
         };
     }
 
-    private String escapeCsv(String value) {
-        if (value == null) return "";
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
-        }
-        return value;
-    }
-
     private Specification<Account> hasRole(Role role) {
         return (root, query, cb) -> cb.equal(root.get("role"), role);
     }
@@ -332,11 +346,6 @@ public class UserManagementService {
         return (root, query, cb) -> cb.equal(root.get("status"), status);
     }
 
-    private Specification<Account> createdAfter(LocalDateTime dateTime) {
-        Instant instant = dateTime.atZone(ZoneId.systemDefault()).toInstant();
-        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdAt"), instant);
-    }
-
     private Specification<Account> lastLoginAfter(LocalDateTime dateTime) {
         Instant instant = dateTime.atZone(ZoneId.systemDefault()).toInstant();
         return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("lastLoginAt"), instant);
@@ -353,97 +362,4 @@ public class UserManagementService {
     private Specification<Account> lastLoginIsNull() {
         return (root, query, cb) -> cb.isNull(root.get("lastLoginAt"));
     }
-
-    /**
-     * Export users to Excel format using Apache POI
-     */
-    private void exportToExcel(List<Account> accounts, java.io.OutputStream outputStream, ExportUsersRequest request) throws IOException {
-        List<String> fields = determineExportFields(request.getFields());
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Users");
-
-            // Create header style
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerFont.setFontHeightInPoints((short) 12);
-            headerFont.setColor(IndexedColors.WHITE.getIndex());
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            headerStyle.setAlignment(HorizontalAlignment.CENTER);
-            headerStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-            headerStyle.setBorderBottom(BorderStyle.THIN);
-            headerStyle.setBorderTop(BorderStyle.THIN);
-            headerStyle.setBorderRight(BorderStyle.THIN);
-            headerStyle.setBorderLeft(BorderStyle.THIN);
-
-            // Create data style
-            CellStyle dataStyle = workbook.createCellStyle();
-            dataStyle.setBorderBottom(BorderStyle.THIN);
-            dataStyle.setBorderTop(BorderStyle.THIN);
-            dataStyle.setBorderRight(BorderStyle.THIN);
-            dataStyle.setBorderLeft(BorderStyle.THIN);
-            dataStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-
-            // Create date style
-            CellStyle dateStyle = workbook.createCellStyle();
-            dateStyle.cloneStyleFrom(dataStyle);
-            CreationHelper createHelper = workbook.getCreationHelper();
-            dateStyle.setDataFormat(createHelper.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
-
-            // Create header row
-            Row headerRow = sheet.createRow(0);
-            headerRow.setHeightInPoints(25);
-            for (int i = 0; i < fields.size(); i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(formatFieldHeader(fields.get(i)));
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Create data rows
-            int rowNum = 1;
-            for (Account account : accounts) {
-                Row row = sheet.createRow(rowNum++);
-                for (int i = 0; i < fields.size(); i++) {
-                    Cell cell = row.createCell(i);
-                    String fieldValue = getFieldValue(account, fields.get(i));
-
-                    // Try to parse dates for better formatting
-                    if (fields.get(i).toLowerCase().contains("at") && !fieldValue.isEmpty()) {
-                        try {
-                            cell.setCellValue(fieldValue);
-                            cell.setCellStyle(dataStyle);
-                        } catch (Exception e) {
-                            cell.setCellValue(fieldValue);
-                            cell.setCellStyle(dataStyle);
-                        }
-                    } else {
-                        cell.setCellValue(fieldValue);
-                        cell.setCellStyle(dataStyle);
-                    }
-                }
-            }
-
-            // Auto-size columns
-            for (int i = 0; i < fields.size(); i++) {
-                sheet.autoSizeColumn(i);
-                // Add some padding
-                int currentWidth = sheet.getColumnWidth(i);
-                sheet.setColumnWidth(i, currentWidth + 1000);
-            }
-
-            // Freeze header row
-            sheet.createFreezePane(0, 1);
-
-            // Add filter to header row
-            sheet.setAutoFilter(new org.apache.poi.ss.util.CellRangeAddress(0, 0, 0, fields.size() - 1));
-
-            // Write to output stream
-            workbook.write(outputStream);
-            outputStream.flush();
-        }
-    }
 }
-
@@ -0,0 +1,72 @@
+package vn.uit.lms.service.admin;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vn.uit.lms.service.event.AccountActivatedEvent;
+import vn.uit.lms.service.event.AccountRegisteredEvent;
+import vn.uit.lms.service.event.AccountStatusChangeEvent;
+import vn.uit.lms.service.event.TeacherApprovalChangedEvent;
+import vn.uit.lms.shared.constant.AccountStatus;
+import vn.uit.lms.shared.constant.Role;
+import vn.uit.lms.shared.constant.UserStatKey;
+
+/**
+ * Turns committed account lifecycle events into user stats counter deltas
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStatsRecorder {
+
+    private final UserStatsStore store;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountRegistered(AccountRegisteredEvent event) {
+        store.add(UserStatKey.TOTAL, 1);
+        if (event.role() != null) {
+            store.add(UserStatKey.of(event.role()), 1);
+        }
+        if (event.status() != null) {
+            store.add(UserStatKey.of(event.status()), 1);
+        }
+    }
+
+    /**
+     * Email verified: the account leaves PENDING_EMAIL; teachers get an unapproved profile
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountActivated(AccountActivatedEvent event) {
+        moveStatus(AccountStatus.PENDING_EMAIL, event.account().getStatus());
+        if (event.account().getRole() == Role.TEACHER) {
+            store.add(UserStatKey.TEACHERS_PENDING, 1);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAccountStatusChanged(AccountStatusChangeEvent event) {
+        moveStatus(event.previousStatus(), event.account().getStatus());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTeacherApprovalChanged(TeacherApprovalChangedEvent event) {
+        if (event.wasApproved() == event.approved()) {
+            return;
+        }
+        long delta = event.approved() ? 1 : -1;
+        store.add(UserStatKey.TEACHERS_APPROVED, delta);
+        store.add(UserStatKey.TEACHERS_PENDING, -delta);
+    }
+
+    private void moveStatus(AccountStatus from, AccountStatus to) {
+        if (from == to) {
+            return;
+        }
+        if (from != null) {
+            store.add(UserStatKey.of(from), -1);
+        }
+        if (to != null) {
+            store.add(UserStatKey.of(to), 1);
+        }
+    }
+}
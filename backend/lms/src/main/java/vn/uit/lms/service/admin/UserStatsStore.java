@@ -0,0 +1,165 @@
+package vn.uit.lms.service.admin;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.core.domain.system.UserStatCounter;
+import vn.uit.lms.core.repository.AccountRepository;
+import vn.uit.lms.core.repository.TeacherRepository;
+import vn.uit.lms.core.repository.system.UserStatCounterRepository;
+import vn.uit.lms.shared.constant.UserStatKey;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory account counters behind the admin user statistics.
+ *
+ * Lifecycle events adjust pending deltas; a short-interval flush adds them to
+ * {@code user_stat_counters} and reloads the persisted values, which also picks up
+ * other instances' deltas. Deltas being flushed stay in an in-flight map until the
+ * reload has picked them up, and reads add both pending and in-flight deltas to the
+ * loaded values, so they never touch the database and never miss a delta mid-flush.
+ * {@link #recompute()} replaces every counter with an exact count to correct drift
+ * from changes made outside the events.
+ */
+@Service
+@Slf4j
+public class UserStatsStore {
+
+    private final UserStatsWriter writer;
+    private final UserStatCounterRepository counterRepository;
+    private final AccountRepository accountRepository;
+    private final TeacherRepository teacherRepository;
+
+    private final Map<UserStatKey, Long> persisted = new ConcurrentHashMap<>();
+    private final Map<UserStatKey, Long> pending = new ConcurrentHashMap<>();
+    private final Map<UserStatKey, Long> inFlight = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public UserStatsStore(UserStatsWriter writer,
+                          UserStatCounterRepository counterRepository,
+                          AccountRepository accountRepository,
+                          TeacherRepository teacherRepository) {
+        this.writer = writer;
+        this.counterRepository = counterRepository;
+        this.accountRepository = accountRepository;
+        this.teacherRepository = teacherRepository;
+    }
+
+    public long get(UserStatKey key) {
+        if (!loaded) {
+            reload();
+        }
+        return persisted.getOrDefault(key, 0L) + inFlight.getOrDefault(key, 0L) + pending.getOrDefault(key, 0L);
+    }
+
+    public void add(UserStatKey key, long delta) {
+        if (delta != 0) {
+            pending.merge(key, delta, Long::sum);
+        }
+    }
+
+    /**
+     * Write pending deltas, then reload; on failure the deltas stay in flight for the next attempt
+     */
+    @Scheduled(fixedDelayString = "${app.user-stats.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        drainPending();
+
+        if (!inFlight.isEmpty()) {
+            Map<UserStatKey, Long> batch = new EnumMap<>(inFlight);
+            try {
+                writer.apply(batch);
+            } catch (Exception e) {
+                log.warn("User stats flush failed, {} counter(s) kept for retry: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+        reloadWritten();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Load the persisted counters; true if any exist
+     */
+    public synchronized boolean reload() {
+        Map<UserStatKey, Long> values = new HashMap<>();
+        for (UserStatCounter counter : counterRepository.findAll()) {
+            values.put(counter.getKey(), counter.getValue());
+        }
+        for (UserStatKey key : UserStatKey.values()) {
+            persisted.put(key, values.getOrDefault(key, 0L));
+        }
+        loaded = true;
+        return !values.isEmpty();
+    }
+
+    /**
+     * Overwrite every counter with an exact count of the accounts and teachers tables
+     *
+     * Deltas recorded before the count are part of it, so they are moved in flight first:
+     * still visible to reads, dropped once the exact values are written, and written as
+     * deltas by the next flush if the recompute fails. Only deltas recorded afterwards
+     * stay pending.
+     */
+    public synchronized void recompute() {
+        drainPending();
+
+        Map<UserStatKey, Long> values = new EnumMap<>(UserStatKey.class);
+        for (UserStatKey key : UserStatKey.values()) {
+            values.put(key, 0L);
+        }
+        long total = 0;
+        for (AccountRepository.StatusCount row : accountRepository.countGroupedByStatus()) {
+            if (row.getStatus() != null) {
+                values.put(UserStatKey.of(row.getStatus()), row.getTotal());
+            }
+            total += row.getTotal();
+        }
+        for (AccountRepository.RoleCount row : accountRepository.countGroupedByRole()) {
+            if (row.getRole() != null) {
+                values.put(UserStatKey.of(row.getRole()), row.getTotal());
+            }
+        }
+        values.put(UserStatKey.TOTAL, total);
+        values.put(UserStatKey.TEACHERS_APPROVED, teacherRepository.countByApprovedTrue());
+        values.put(UserStatKey.TEACHERS_PENDING, teacherRepository.countByApprovedFalse());
+
+        writer.replace(values);
+        reloadWritten();
+        log.info("User stats recomputed: {} account(s)", total);
+    }
+
+    private void drainPending() {
+        for (UserStatKey key : pending.keySet()) {
+            Long delta = pending.remove(key);
+            if (delta != null && delta != 0) {
+                inFlight.merge(key, delta, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Reload after the in-flight deltas reached the database; they are cleared only once
+     * the reload has picked them up
+     */
+    private void reloadWritten() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // Đã ghi xuống DB nhưng chưa nạp lại được: cộng vào giá trị đã nạp để không ghi lặp
+            inFlight.forEach((key, delta) -> persisted.merge(key, delta, Long::sum));
+            throw e;
+        } finally {
+            inFlight.clear();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package vn.uit.lms.service.admin;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.repository.system.UserStatCounterRepository;
+import vn.uit.lms.shared.constant.UserStatKey;
+
+import java.util.Map;
+
+/**
+ * Persists account counters for {@link UserStatsStore}
+ */
+@Service
+@RequiredArgsConstructor
+public class UserStatsWriter {
+
+    private final UserStatCounterRepository counterRepository;
+
+    /**
+     * Add all deltas in one transaction; either every counter moves or none does
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void apply(Map<UserStatKey, Long> deltas) {
+        deltas.forEach((key, delta) -> counterRepository.upsertDelta(key.name(), delta));
+    }
+
+    /**
+     * Overwrite every given counter with its exact value
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void replace(Map<UserStatKey, Long> values) {
+        values.forEach((key, value) -> counterRepository.upsertValue(key.name(), value));
+    }
+}
@@ -80,16 +80,40 @@ public class SubmissionFileService {
 
     /**
      * Upload multiple files to submission
+     *
+     * Ownership and state are checked once; the storage transfers run in parallel.
+     * Not transactional, so no DB connection is held during the transfers; the file
+     * links are saved in one short transaction afterwards.
      */
-    @Transactional
     public List<FileStorageResponse> uploadMultipleFiles(Long submissionId, List<MultipartFile> files) {
         if (files == null || files.isEmpty()) {
             throw new InvalidRequestException("No files provided");
         }
 
-        return files.stream()
-                .map(file -> uploadSubmissionFile(submissionId, file))
+        Submission submission = submissionRepository.findById(submissionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Submission not found"));
+
+        validateStudentOwnership(submission);
+
+        if (!submission.canBeEdited()) {
+            throw new InvalidRequestException("Cannot upload files to a graded or rejected submission");
+        }
+
+        String folderPath = String.format("submissions/%d", submissionId);
+        List<FileStorageResponse> responses = fileStorageService.uploadFiles(files, folderPath, StorageProvider.MINIO);
+
+        List<SubmissionFile> submissionFiles = responses.stream()
+                .map(response -> SubmissionFile.builder()
+                        .submission(submission)
+                        .file(fileStorageService.getFileStorageEntity(response.getId()))
+                        .build())
                 .collect(Collectors.toList());
+
+        submissionFileRepository.saveAll(submissionFiles);
+
+        log.info("Files uploaded to submission: submissionId={}, count={}", submissionId, files.size());
+
+        return responses;
     }
 
     /**
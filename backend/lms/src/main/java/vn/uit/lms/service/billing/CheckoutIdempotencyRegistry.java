@@ -0,0 +1,80 @@
+package vn.uit.lms.service.billing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import vn.uit.lms.shared.constant.PaymentProvider;
+import vn.uit.lms.shared.dto.response.billing.PaymentUrlResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * De-duplicates repeated checkouts of the same course version by the same student
+ *
+ * The first checkout for a (student, version, payment method, return URL) within the
+ * window creates the payment; repeats (double clicks, client retries) share its result
+ * instead of creating another PENDING payment and gateway order. A retry with another
+ * payment method or return URL is a different checkout and gets its own payment. A
+ * failed checkout is forgotten at once so the student can retry.
+ */
+@Component
+public class CheckoutIdempotencyRegistry {
+
+    private final Duration window;
+
+    private final Map<Key, Entry> checkouts = new ConcurrentHashMap<>();
+
+    public CheckoutIdempotencyRegistry(@Value("${app.payment.checkout.idempotency-window-seconds:30}") long windowSeconds) {
+        this.window = Duration.ofSeconds(windowSeconds);
+    }
+
+    /**
+     * Run {@code checkout} unless an identical one is in flight or recently succeeded
+     */
+    public CompletableFuture<PaymentUrlResponse> deduplicate(Long studentId, Long courseVersionId,
+                                                             PaymentProvider paymentMethod, String returnUrl,
+                                                             Supplier<CompletableFuture<PaymentUrlResponse>> checkout) {
+        Key key = new Key(studentId, courseVersionId, paymentMethod, returnUrl);
+        Instant now = Instant.now();
+        Entry fresh = new Entry(new CompletableFuture<>(), now.plus(window));
+
+        Entry current = checkouts.compute(key, (k, existing) ->
+                existing == null || !existing.expiresAt().isAfter(now) ? fresh : existing);
+        if (current != fresh) {
+            return current.result();
+        }
+
+        try {
+            checkout.get().whenComplete((response, error) -> {
+                if (error != null) {
+                    checkouts.remove(key, fresh);
+                    fresh.result().completeExceptionally(error);
+                } else {
+                    fresh.result().complete(response);
+                }
+            });
+        } catch (RuntimeException e) {
+            checkouts.remove(key, fresh);
+            fresh.result().completeExceptionally(e);
+            throw e;
+        }
+        return fresh.result();
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.checkout.idempotency-sweep-interval-ms:60000}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        checkouts.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+    }
+
+    private record Key(Long studentId, Long courseVersionId, PaymentProvider paymentMethod, String returnUrl) {
+    }
+
+    private record Entry(CompletableFuture<PaymentUrlResponse> result, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,106 @@
+package vn.uit.lms.service.billing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vn.uit.lms.core.repository.course.CourseVersionRepository;
+import vn.uit.lms.service.event.CourseVersionStatusChangeEvent;
+import vn.uit.lms.shared.constant.CourseStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of course version price and status for checkout
+ *
+ * Only PUBLISHED versions are cached: their price can no longer be edited and they
+ * cannot be deleted, so an entry only goes stale when the version changes status,
+ * which evicts it. The TTL bounds staleness for changes made on other instances.
+ */
+@Service
+@Slf4j
+public class CheckoutVersionCache {
+
+    private final CourseVersionRepository courseVersionRepository;
+    private final Duration ttl;
+    private final int maxEntries;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public CheckoutVersionCache(CourseVersionRepository courseVersionRepository,
+                                @Value("${app.payment.checkout.version-cache-ttl-seconds:300}") long ttlSeconds,
+                                @Value("${app.payment.checkout.version-cache-max-entries:10000}") int maxEntries) {
+        this.courseVersionRepository = courseVersionRepository;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Checkout view of a version, from cache when it is published
+     */
+    public Optional<CheckoutVersion> get(Long versionId) {
+        Instant now = Instant.now();
+        Entry cached = entries.get(versionId);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return Optional.of(cached.version());
+        }
+
+        Optional<CheckoutVersion> loaded = courseVersionRepository.findCheckoutView(versionId)
+                .map(view -> new CheckoutVersion(view.getVersionId(), view.getCourseId(), view.getCourseTitle(),
+                        view.getPrice(), view.getStatus()));
+
+        loaded.filter(CheckoutVersion::isPublished).ifPresentOrElse(
+                version -> {
+                    if (entries.size() >= maxEntries) {
+                        evictExpired();
+                    }
+                    if (entries.size() < maxEntries) {
+                        entries.put(versionId, new Entry(version, now.plus(ttl)));
+                    }
+                },
+                () -> entries.remove(versionId));
+        return loaded;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onVersionStatusChanged(CourseVersionStatusChangeEvent event) {
+        if (event.courseVersion() != null && event.courseVersion().getId() != null) {
+            entries.remove(event.courseVersion().getId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.checkout.version-cache-sweep-interval-ms:300000}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        entries.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+    }
+
+    /**
+     * Version price and status as seen at checkout
+     */
+    public record CheckoutVersion(
+            Long versionId,
+            Long courseId,
+            String courseTitle,
+            BigDecimal price,
+            CourseStatus status
+    ) {
+        public boolean isPublished() {
+            return status == CourseStatus.PUBLISHED;
+        }
+
+        public boolean isFree() {
+            return price == null || price.compareTo(BigDecimal.ZERO) <= 0;
+        }
+    }
+
+    private record Entry(CheckoutVersion version, Instant expiresAt) {
+    }
+}
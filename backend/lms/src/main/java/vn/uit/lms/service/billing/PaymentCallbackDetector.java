@@ -1,26 +1,34 @@
 package vn.uit.lms.service.billing;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import vn.uit.lms.service.billing.gateway.CallbackEnvelope;
 import vn.uit.lms.shared.constant.PaymentProvider;
+import vn.uit.lms.shared.exception.InvalidRequestException;
 
 import java.util.Map;
 
 /**
  * Callback detector service - Automatically detect payment gateway from callback data
  * This allows using a unified callback endpoint for all payment gateways
+ *
+ * Builds the {@link CallbackEnvelope} at the request boundary: the provider is detected,
+ * nested JSON is decoded and the order id extracted exactly once per callback.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentCallbackDetector {
 
+    private static final TypeReference<Map<String, Object>> JSON_MAP = new TypeReference<>() {};
+
     private final ObjectMapper objectMapper;
 
     /**
-     * Detect payment provider from callback request data
+     * Detect the provider and parse the callback
      *
      * Detection rules:
      * - VNPay: Contains vnp_* parameters (vnp_TxnRef, vnp_Amount, etc.)
@@ -28,34 +36,27 @@ public class PaymentCallbackDetector {
      * - MoMo: Contains 'partnerCode', 'orderId', 'requestId' fields
      *
      * @param params Callback parameters
-     * @return Detected PaymentProvider
-     * @throws IllegalArgumentException if provider cannot be detected
+     * @return Parsed callback
+     * @throws InvalidRequestException if provider cannot be detected or the structure is invalid
      */
-    public PaymentProvider detectProvider(Map<String, String> params) {
+    public CallbackEnvelope parse(Map<String, String> params) {
         log.debug("Detecting payment provider from callback params: {}", params.keySet());
 
         // Check for VNPay signature
-        if (params.containsKey("vnp_TxnRef") ||
-            params.containsKey("vnp_SecureHash") ||
-            params.keySet().stream().anyMatch(key -> key.startsWith("vnp_"))) {
+        if (params.keySet().stream().anyMatch(key -> key.startsWith("vnp_"))) {
             log.info("Detected payment provider: VNPAY");
-            return PaymentProvider.VNPAY;
+            return build(PaymentProvider.VNPAY, params, null);
         }
 
         // Check for ZaloPay signature
         if (params.containsKey("data") && params.containsKey("mac") && params.containsKey("type")) {
             // Additional validation: check if data is JSON with ZaloPay structure
-            try {
-                String data = params.get("data");
-                Map<String, Object> dataMap = objectMapper.readValue(data, Map.class);
-                if (dataMap.containsKey("app_id") ||
+            Map<String, Object> dataMap = readData(params.get("data"));
+            if (dataMap != null && (dataMap.containsKey("app_id") ||
                     dataMap.containsKey("app_trans_id") ||
-                    dataMap.containsKey("zp_trans_id")) {
-                    log.info("Detected payment provider: ZALOPAY");
-                    return PaymentProvider.ZALOPAY;
-                }
-            } catch (Exception e) {
-                log.debug("Failed to parse ZaloPay data, continuing detection", e);
+                    dataMap.containsKey("zp_trans_id"))) {
+                log.info("Detected payment provider: ZALOPAY");
+                return build(PaymentProvider.ZALOPAY, params, dataMap);
             }
         }
 
@@ -65,67 +66,65 @@ public class PaymentCallbackDetector {
             params.containsKey("requestId") &&
             params.containsKey("signature")) {
             log.info("Detected payment provider: MOMO");
-            return PaymentProvider.MOMO;
+            return build(PaymentProvider.MOMO, params, null);
         }
 
         // If no provider detected, log all params for debugging
         log.error("Cannot detect payment provider from params: {}", params);
-        throw new IllegalArgumentException("Cannot detect payment provider from callback data");
+        throw new InvalidRequestException("Cannot determine payment gateway from callback data");
+    }
+
+    /**
+     * Parse a callback whose provider is already known (e.g. replayed from the inbox)
+     */
+    public CallbackEnvelope parse(PaymentProvider provider, Map<String, String> params) {
+        Map<String, Object> dataMap = provider == PaymentProvider.ZALOPAY ? readData(params.get("data")) : null;
+        return build(provider, params, dataMap);
+    }
+
+    private CallbackEnvelope build(PaymentProvider provider, Map<String, String> params, Map<String, Object> dataMap) {
+        if (!hasValidStructure(params, provider)) {
+            log.warn("Invalid callback structure for provider: {}", provider);
+            throw new InvalidRequestException("Invalid callback data structure for " + provider);
+        }
+        return CallbackEnvelope.of(provider, params, dataMap, extractOrderId(params, dataMap, provider));
     }
 
     /**
      * Extract order ID from callback data based on provider
-     *
-     * @param params Callback parameters
-     * @param provider Payment provider
-     * @return Order ID string
      */
-    public String extractOrderId(Map<String, String> params, PaymentProvider provider) {
-        try {
-            switch (provider) {
-                case VNPAY:
-                    // VNPay: vnp_TxnRef contains the order ID
-                    return params.get("vnp_TxnRef");
-
-                case ZALOPAY:
-                    // ZaloPay: Parse data JSON and extract from app_trans_id
-                    String data = params.get("data");
-                    if (data != null) {
-                        Map<String, Object> dataMap = objectMapper.readValue(data, Map.class);
-                        String appTransId = (String) dataMap.get("app_trans_id");
-                        if (appTransId != null) {
-                            // Format: yyMMdd_appid_orderId
-                            String[] parts = appTransId.split("_");
-                            if (parts.length >= 3) {
-                                return parts[2];
-                            }
-                        }
+    private String extractOrderId(Map<String, String> params, Map<String, Object> dataMap, PaymentProvider provider) {
+        switch (provider) {
+            case VNPAY:
+                // VNPay: vnp_TxnRef contains the order ID
+                return params.get("vnp_TxnRef");
+
+            case ZALOPAY:
+                // ZaloPay: app_trans_id from the data JSON, format yyMMdd_appid_orderId
+                Object appTransId = dataMap != null ? dataMap.get("app_trans_id") : null;
+                if (appTransId != null) {
+                    String[] parts = appTransId.toString().split("_");
+                    if (parts.length >= 3) {
+                        return parts[2];
                     }
-                    break;
+                }
+                return null;
 
-                case MOMO:
-                    // MoMo: orderId field contains the order ID
-                    return params.get("orderId");
+            case MOMO:
+                // MoMo: orderId field contains the order ID
+                return params.get("orderId");
 
-                default:
-                    log.warn("Unsupported payment provider: {}", provider);
-            }
-        } catch (Exception e) {
-            log.error("Error extracting order ID from {} callback", provider, e);
+            default:
+                log.warn("Unsupported payment provider: {}", provider);
+                return null;
         }
-
-        return null;
     }
 
     /**
      * Check if callback data appears valid for the detected provider
      * Basic validation before full MAC verification
-     *
-     * @param params Callback parameters
-     * @param provider Payment provider
-     * @return true if basic validation passes
      */
-    public boolean hasValidStructure(Map<String, String> params, PaymentProvider provider) {
+    private boolean hasValidStructure(Map<String, String> params, PaymentProvider provider) {
         switch (provider) {
             case VNPAY:
                 return params.containsKey("vnp_SecureHash") &&
@@ -146,5 +145,16 @@ public class PaymentCallbackDetector {
                 return false;
         }
     }
-}
 
+    private Map<String, Object> readData(String data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(data, JSON_MAP);
+        } catch (Exception e) {
+            log.debug("Failed to parse ZaloPay data, continuing detection", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package vn.uit.lms.service.billing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.domain.billing.PaymentCallbackInbox;
+import vn.uit.lms.core.repository.billing.PaymentCallbackInboxRepository;
+import vn.uit.lms.service.event.PaymentCallbackReceivedEvent;
+import vn.uit.lms.shared.constant.CallbackInboxStatus;
+import vn.uit.lms.shared.constant.PaymentProvider;
+import vn.uit.lms.shared.exception.ResourceNotFoundException;
+import vn.uit.lms.shared.util.crypto.HexStringUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Idempotent inbox for signature-verified payment callbacks
+ *
+ * Every method runs in its own transaction so callers (controller, worker) see
+ * committed state and row locks are held only for the duration of one step.
+ */
+@Service
+@Slf4j
+public class PaymentCallbackInboxService {
+
+    private static final List<CallbackInboxStatus> DUE_STATUSES = List.of(
+            CallbackInboxStatus.RECEIVED,
+            CallbackInboxStatus.APPLIED,
+            CallbackInboxStatus.FAILED
+    );
+
+    private final PaymentCallbackInboxRepository inboxRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.payment.callback.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${app.payment.callback.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.payment.callback.retry-backoff-seconds:5}")
+    private long retryBackoffSeconds;
+
+    public PaymentCallbackInboxService(PaymentCallbackInboxRepository inboxRepository,
+                                       ApplicationEventPublisher eventPublisher,
+                                       MeterRegistry meterRegistry) {
+        this.inboxRepository = inboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Store a verified callback; a retry of the same notification returns the existing row
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public PaymentCallbackInbox accept(PaymentProvider provider, Long paymentId, Map<String, String> payload) {
+        String idempotencyKey = buildIdempotencyKey(provider, paymentId, payload);
+
+        Optional<PaymentCallbackInbox> existing = inboxRepository.findByIdempotencyKey(idempotencyKey);
+        if (existing.isPresent()) {
+            countReceived(provider, "duplicate");
+            log.info("Duplicate {} callback for payment {} ignored", provider, paymentId);
+            return existing.get();
+        }
+
+        Instant now = Instant.now();
+        PaymentCallbackInbox item = PaymentCallbackInbox.builder()
+                .idempotencyKey(idempotencyKey)
+                .provider(provider)
+                .paymentId(paymentId)
+                .payload(payload)
+                .receivedAt(now)
+                .nextAttemptAt(now)
+                .build();
+
+        try {
+            item = inboxRepository.saveAndFlush(item);
+        } catch (DataIntegrityViolationException e) {
+            // Concurrent retry of the same callback won the insert
+            countReceived(provider, "duplicate");
+            throw new DuplicateCallbackException(idempotencyKey);
+        }
+
+        countReceived(provider, "accepted");
+        eventPublisher.publishEvent(new PaymentCallbackReceivedEvent(item.getId()));
+        return item;
+    }
+
+    /**
+     * Claim due rows for this worker: lock with SKIP LOCKED and push nextAttemptAt by the lease
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<PaymentCallbackInbox> claimDue(int batchSize) {
+        List<PaymentCallbackInbox> due = inboxRepository.findDueForUpdate(
+                DUE_STATUSES, Instant.now(), PageRequest.of(0, batchSize));
+        due.forEach(item -> item.claim(Duration.ofSeconds(leaseSeconds)));
+        return due;
+    }
+
+    /**
+     * Claim one specific row (synchronous verification path)
+     *
+     * @return the claimed row, or empty if another worker holds it or it is not due
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<PaymentCallbackInbox> claim(Long inboxId) {
+        return inboxRepository.findDueByIdForUpdate(inboxId, DUE_STATUSES, Instant.now())
+                .map(item -> {
+                    item.claim(Duration.ofSeconds(leaseSeconds));
+                    return item;
+                });
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markProcessed(Long inboxId) {
+        findById(inboxId).markProcessed();
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public CallbackInboxStatus markFailed(Long inboxId, String error) {
+        PaymentCallbackInbox item = findById(inboxId);
+        item.markFailed(error, maxAttempts, Duration.ofSeconds(retryBackoffSeconds));
+        if (item.getStatus() == CallbackInboxStatus.DEAD) {
+            log.error("Payment callback {} for payment {} gave up after {} attempts: {}",
+                    inboxId, item.getPaymentId(), item.getAttempts(), error);
+        }
+        return item.getStatus();
+    }
+
+    private PaymentCallbackInbox findById(Long inboxId) {
+        return inboxRepository.findById(inboxId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment callback not found: " + inboxId));
+    }
+
+    private void countReceived(PaymentProvider provider, String result) {
+        meterRegistry.counter("lms.payment.callback.received",
+                "provider", provider.name(), "result", result).increment();
+    }
+
+    /**
+     * provider:paymentId:sha256(sorted payload) - identical gateway retries map to one key
+     */
+    static String buildIdempotencyKey(PaymentProvider provider, Long paymentId, Map<String, String> payload) {
+        StringBuilder canonical = new StringBuilder();
+        new TreeMap<>(payload).forEach((key, value) ->
+                canonical.append(key).append('=').append(value == null ? "" : value).append('&'));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return provider.name() + ":" + paymentId + ":" + HexStringUtil.byteArrayToHexString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Lost the insert race to an identical callback; the other request owns processing
+     */
+    public static class DuplicateCallbackException extends RuntimeException {
+        public DuplicateCallbackException(String idempotencyKey) {
+            super("Duplicate payment callback: " + idempotencyKey);
+        }
+    }
+}
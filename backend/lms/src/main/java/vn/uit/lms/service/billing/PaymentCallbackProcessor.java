@@ -0,0 +1,72 @@
+package vn.uit.lms.service.billing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.domain.billing.PaymentCallbackInbox;
+import vn.uit.lms.core.domain.billing.PaymentTransaction;
+import vn.uit.lms.core.repository.billing.PaymentCallbackInboxRepository;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+import vn.uit.lms.service.billing.gateway.CallbackEnvelope;
+import vn.uit.lms.service.billing.gateway.PaymentFactory;
+import vn.uit.lms.service.billing.gateway.PaymentGateway;
+import vn.uit.lms.shared.constant.PaymentProvider;
+import vn.uit.lms.shared.constant.PaymentStatus;
+import vn.uit.lms.shared.exception.ResourceNotFoundException;
+
+/**
+ * Applies an inbox callback to its payment
+ *
+ * Runs in its own transaction holding the payment row lock, so the status change
+ * and the inbox APPLIED mark commit together and at most once.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentCallbackProcessor {
+
+    private final PaymentCallbackInboxRepository inboxRepository;
+    private final PaymentTransactionRepository paymentRepository;
+    private final PaymentFactory paymentFactory;
+    private final PaymentCallbackDetector callbackDetector;
+    private final PaymentSettlementService settlementService;
+
+    /**
+     * Move the payment out of PENDING according to the callback
+     *
+     * Signature was verified when the callback entered the inbox. A payment that is no
+     * longer PENDING (duplicate or late callback) is left as is.
+     *
+     * @return the payment status after applying
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public PaymentStatus applyPayment(Long inboxId) {
+        PaymentCallbackInbox item = inboxRepository.findById(inboxId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment callback not found: " + inboxId));
+
+        PaymentTransaction payment = paymentRepository.findByIdForUpdate(item.getPaymentId())
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
+
+        if (payment.getStatus() != PaymentStatus.PENDING) {
+            log.warn("Payment {} is not in PENDING status: {}", payment.getId(), payment.getStatus());
+            item.markApplied();
+            return payment.getStatus();
+        }
+
+        PaymentProvider paymentProvider = item.getProvider();
+        PaymentGateway paymentGateway = paymentFactory.getProcessor(paymentProvider);
+        CallbackEnvelope callback = callbackDetector.parse(paymentProvider, item.getPayload());
+
+        if (paymentGateway.isPaymentSuccess(callback)) {
+            payment = settlementService.markPaid(payment, paymentGateway.getTransactionId(callback));
+        } else {
+            payment = settlementService.markFailed(payment,
+                    paymentGateway.getErrorMessage(callback), paymentGateway.getErrorCode(callback));
+        }
+
+        item.markApplied();
+        return payment.getStatus();
+    }
+}
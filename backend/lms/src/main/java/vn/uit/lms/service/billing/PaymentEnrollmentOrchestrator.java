@@ -6,11 +6,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import vn.uit.lms.core.domain.billing.PaymentTransaction;
+import vn.uit.lms.core.domain.learning.Enrollment;
 import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+import vn.uit.lms.core.repository.learning.EnrollmentRepository;
 import vn.uit.lms.service.learning.EnrollmentService;
+import vn.uit.lms.shared.constant.PaymentStatus;
 import vn.uit.lms.shared.dto.response.enrollment.EnrollmentDetailResponse;
 import vn.uit.lms.shared.exception.InvalidRequestException;
 
+import java.util.Optional;
+
 /**
  * Payment-Enrollment Orchestration Service
  * Manages the workflow between payment completion and student enrollment
@@ -25,6 +30,7 @@ public class PaymentEnrollmentOrchestrator {
 
     private final EnrollmentService enrollmentService;
     private final PaymentTransactionRepository paymentRepository;
+    private final EnrollmentRepository enrollmentRepository;
 
     /**
      * Process enrollment after successful payment
@@ -32,26 +38,50 @@ public class PaymentEnrollmentOrchestrator {
      * This method is called in a separate transaction to ensure payment is committed
      * even if enrollment fails. This prevents loss of payment records.
      *
+     * Idempotent: the payment row is locked for the duration of the call, so concurrent
+     * callback workers enroll the student at most once; a payment whose enrollment
+     * already succeeded (or whose enrollment already exists) is left untouched.
+     *
      * Preconditions:
      * - Payment must exist and be in SUCCESS status
-     * - Student must not be already enrolled
      *
      * Postconditions:
      * - Student enrolled in course (on success)
      * - Payment metadata updated with enrollment status
      * - Appropriate errors logged for manual intervention if needed
      *
-     * @param payment The successful payment transaction
-     * @return EnrollmentDetailResponse if enrollment successful, null otherwise
+     * @param paymentId The successful payment transaction id
+     * @return EnrollmentDetailResponse if enrollment happened in this call, null otherwise
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public EnrollmentDetailResponse processEnrollmentAfterPayment(PaymentTransaction payment) {
-        log.info("Processing enrollment for payment {}", payment.getId());
+    public EnrollmentDetailResponse processEnrollmentAfterPayment(Long paymentId) {
+        log.info("Processing enrollment for payment {}", paymentId);
+
+        PaymentTransaction payment = paymentRepository.findByIdForUpdate(paymentId)
+                .orElseThrow(() -> new InvalidRequestException("Payment not found"));
+
+        if (payment.getStatus() != PaymentStatus.SUCCESS) {
+            log.warn("Skipping enrollment for payment {} in status {}", paymentId, payment.getStatus());
+            return null;
+        }
+        if ("SUCCESS".equals(metadata(payment, "enrollment_status"))) {
+            log.debug("Enrollment already completed for payment {}", paymentId);
+            return null;
+        }
 
         Long studentId = payment.getStudent().getId();
         Long courseVersionId = payment.getCourseVersion().getId();
         Long courseId = payment.getCourse().getId();
 
+        Optional<Enrollment> existing = enrollmentRepository.findByStudentIdAndCourseVersionId(studentId, courseVersionId);
+        if (existing.isPresent()) {
+            // Enrolled by an earlier attempt whose metadata update was lost
+            payment.addMetadata("enrollment_id", existing.get().getId());
+            payment.addMetadata("enrollment_status", "SUCCESS");
+            paymentRepository.save(payment);
+            return null;
+        }
+
         try {
             // Attempt to enroll student
             EnrollmentDetailResponse enrollment = enrollmentService.enrollStudent(studentId, courseVersionId);
@@ -115,17 +145,17 @@ public class PaymentEnrollmentOrchestrator {
         PaymentTransaction payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new InvalidRequestException("Payment not found"));
 
-        if (payment.getStatus() != vn.uit.lms.shared.constant.PaymentStatus.SUCCESS) {
+        if (payment.getStatus() != PaymentStatus.SUCCESS) {
             throw new InvalidRequestException("Can only retry enrollment for successful payments");
         }
 
         // Check if already enrolled successfully
-        Object enrollmentStatus = payment.getMetadata().get("enrollment_status");
+        Object enrollmentStatus = metadata(payment, "enrollment_status");
         if ("SUCCESS".equals(enrollmentStatus)) {
             throw new InvalidRequestException("Student is already enrolled for this payment");
         }
 
-        return processEnrollmentAfterPayment(payment);
+        return processEnrollmentAfterPayment(paymentId);
     }
 
     /**
@@ -137,14 +167,34 @@ public class PaymentEnrollmentOrchestrator {
     public boolean isEnrollmentPending(Long paymentId) {
         return paymentRepository.findById(paymentId)
                 .map(payment -> {
-                    if (payment.getStatus() != vn.uit.lms.shared.constant.PaymentStatus.SUCCESS) {
+                    if (payment.getStatus() != PaymentStatus.SUCCESS) {
                         return false;
                     }
 
-                    Object enrollmentStatus = payment.getMetadata().get("enrollment_status");
+                    Object enrollmentStatus = metadata(payment, "enrollment_status");
                     return "FAILED".equals(enrollmentStatus) || enrollmentStatus == null;
                 })
                 .orElse(false);
     }
-}
 
+    /**
+     * Check if the last enrollment attempt hit a system error worth retrying automatically
+     *
+     * @param paymentId The payment ID to check
+     * @return true if enrollment failed with SYSTEM_ERROR
+     */
+    public boolean isEnrollmentRetryable(Long paymentId) {
+        return paymentRepository.findById(paymentId)
+                .map(payment -> payment.getStatus() == PaymentStatus.SUCCESS
+                        && "FAILED".equals(metadata(payment, "enrollment_status"))
+                        && "SYSTEM_ERROR".equals(metadata(payment, "enrollment_error_type")))
+                .orElse(false);
+    }
+
+    /**
+     * Metadata value, or null for payments created without metadata
+     */
+    private static Object metadata(PaymentTransaction payment, String key) {
+        return payment.getMetadata() != null ? payment.getMetadata().get(key) : null;
+    }
+}
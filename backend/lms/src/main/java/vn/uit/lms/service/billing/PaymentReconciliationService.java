@@ -0,0 +1,85 @@
+package vn.uit.lms.service.billing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.domain.billing.PaymentTransaction;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Applies gateway reconciliation verdicts to stale PENDING payments
+ *
+ * Each method locks the payment and commits on its own; a payment settled by a late
+ * callback in the meantime is no longer PENDING and is left untouched.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentReconciliationService {
+
+    private final PaymentTransactionRepository paymentRepository;
+    private final PaymentSettlementService settlementService;
+
+    /**
+     * Gateway reports the order paid
+     *
+     * @return true if this call moved the payment to SUCCESS
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean settle(Long paymentId, String providerTransactionId) {
+        return lockPending(paymentId)
+                .map(payment -> {
+                    payment.addMetadata("reconciled_at", Instant.now().toString());
+                    settlementService.markPaid(payment, providerTransactionId);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * Order was never paid within its lifetime
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void expire(Long paymentId, String reason) {
+        lockPending(paymentId).ifPresent(payment -> {
+            payment.addMetadata("reconciled_at", Instant.now().toString());
+            settlementService.markExpired(payment, reason);
+        });
+    }
+
+    /**
+     * Status still unknown; look again later
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void reschedule(Long paymentId, Instant nextAttemptAt) {
+        lockPending(paymentId).ifPresent(payment -> payment.scheduleReconcile(nextAttemptAt));
+    }
+
+    /**
+     * Status cannot be resolved automatically: flag for manual review, keep PENDING so a
+     * late callback can still settle it, and re-check at {@code recheckAt}
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void escalate(Long paymentId, String reason, Instant recheckAt) {
+        lockPending(paymentId).ifPresent(payment -> {
+            if (!"ESCALATED".equals(payment.getMetadata() != null
+                    ? payment.getMetadata().get("reconciliation_status") : null)) {
+                log.error("Payment {} escalated for manual review: {}", paymentId, reason);
+            }
+            payment.addMetadata("reconciliation_status", "ESCALATED");
+            payment.addMetadata("reconciliation_reason", reason);
+            payment.addMetadata("requires_manual_review", "true");
+            payment.scheduleReconcile(recheckAt);
+        });
+    }
+
+    private Optional<PaymentTransaction> lockPending(Long paymentId) {
+        return paymentRepository.findByIdForUpdate(paymentId)
+                .filter(PaymentTransaction::isPending);
+    }
+}
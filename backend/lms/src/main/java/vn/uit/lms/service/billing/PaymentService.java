@@ -6,28 +6,32 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vn.uit.lms.core.domain.Account;
 import vn.uit.lms.core.domain.Student;
 import vn.uit.lms.core.domain.Teacher;
+import vn.uit.lms.core.domain.billing.PaymentCallbackInbox;
 import vn.uit.lms.core.domain.billing.PaymentTransaction;
-import vn.uit.lms.core.domain.billing.RevenueShareConfig;
 import vn.uit.lms.core.domain.course.Course;
-import vn.uit.lms.core.domain.course.CourseVersion;
 import vn.uit.lms.core.domain.learning.Enrollment;
 import vn.uit.lms.core.repository.StudentRepository;
+import vn.uit.lms.core.repository.StudentRepository.CheckoutEligibility;
 import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
-import vn.uit.lms.core.repository.billing.RevenueShareConfigRepository;
 import vn.uit.lms.core.repository.course.CourseRepository;
 import vn.uit.lms.core.repository.course.CourseVersionRepository;
 import vn.uit.lms.core.repository.learning.EnrollmentRepository;
 import vn.uit.lms.service.AccountService;
+import vn.uit.lms.service.billing.CheckoutVersionCache.CheckoutVersion;
+import vn.uit.lms.service.billing.gateway.CallbackEnvelope;
 import vn.uit.lms.service.billing.gateway.PaymentFactory;
 import vn.uit.lms.service.billing.gateway.PaymentGateway;
+import vn.uit.lms.service.event.PaymentRefundedEvent;
 import vn.uit.lms.service.learning.EnrollmentService;
 import vn.uit.lms.service.learning.EnrollmentService;
-import vn.uit.lms.shared.constant.CourseStatus;
+import vn.uit.lms.service.schedule.PaymentCallbackWorker;
+import vn.uit.lms.shared.constant.AccountStatus;
 import vn.uit.lms.shared.constant.PaymentProvider;
 import vn.uit.lms.shared.constant.PaymentStatus;
 import vn.uit.lms.shared.dto.request.billing.CreatePaymentRequest;
@@ -37,12 +41,16 @@ import vn.uit.lms.shared.dto.response.billing.PaymentTransactionResponse;
 import vn.uit.lms.shared.dto.response.billing.PaymentUrlResponse;
 import vn.uit.lms.shared.exception.InvalidRequestException;
 import vn.uit.lms.shared.exception.ResourceNotFoundException;
+import vn.uit.lms.shared.exception.UnauthorizedException;
 import vn.uit.lms.shared.mapper.billing.BillingMapper;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Service
@@ -55,12 +63,16 @@ public class PaymentService {
     private final CourseVersionRepository courseVersionRepository;
     private final StudentRepository studentRepository;
     private final EnrollmentRepository enrollmentRepository;
-    private final RevenueShareConfigRepository revenueShareConfigRepository;
+    private final RevenueShareResolver revenueShareResolver;
     private final AccountService accountService;
     private final EnrollmentService enrollmentService;
     private final PaymentFactory paymentFactory; // Use factory for multi-gateway support
-    private final PaymentCallbackDetector callbackDetector;
-    private final PaymentEnrollmentOrchestrator enrollmentOrchestrator;
+    private final RevenueLedgerService revenueLedgerService;
+    private final PaymentCallbackInboxService callbackInboxService;
+    private final PaymentCallbackWorker callbackWorker;
+    private final CheckoutVersionCache checkoutVersionCache;
+    private final CheckoutIdempotencyRegistry checkoutIdempotencyRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
     private final String ORDER_ID_PREFIX = "PAY";
     private final String CREATE_PAYMENT_MESSAGE = "Please complete payment within 15 minutes";
@@ -79,65 +91,78 @@ public class PaymentService {
      * Postconditions:
      * - Payment transaction created with PENDING status
      * - Payment URL returned for user to complete payment
+     *
+     * Not transactional on purpose: the PENDING row is committed by save() before the
+     * gateway call, so no DB connection is held while waiting on the gateway, and the
+     * failure callback can see the row. The returned future completes off the request thread.
+     *
+     * Published version price and status come from {@link CheckoutVersionCache}, and a
+     * repeated checkout of the same version by the same student within a short window
+     * returns the first checkout's payment.
      */
-    @Transactional
-    public PaymentUrlResponse createPayment(CreatePaymentRequest request, HttpServletRequest httpRequest) {
-        // Precondition: Verify student
-        Account account = accountService.verifyCurrentAccount();
-        Student student = studentRepository.findByAccount(account)
+    public CompletableFuture<PaymentUrlResponse> createPayment(CreatePaymentRequest request, HttpServletRequest httpRequest) {
+        // Precondition: Verify student, with purchase and enrollment checks in one query
+        String login = accountService.getCurrentUserLogin();
+        CheckoutEligibility eligibility = studentRepository.findCheckoutEligibility(
+                        login, request.getCourseId(), request.getCourseVersionId())
                 .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
+        if (eligibility.getAccountStatus() != AccountStatus.ACTIVE) {
+            throw new UnauthorizedException("Account is not active");
+        }
 
-        // Precondition: Verify course and version exist
-        Course course = courseRepository.findById(request.getCourseId())
-                .orElseThrow(() -> new ResourceNotFoundException("Course not found"));
-
-        CourseVersion courseVersion = courseVersionRepository.findById(request.getCourseVersionId())
+        // Precondition: Verify version exists and belongs to the course
+        CheckoutVersion courseVersion = checkoutVersionCache.get(request.getCourseVersionId())
                 .orElseThrow(() -> new ResourceNotFoundException("Course version not found"));
+        if (!courseVersion.courseId().equals(request.getCourseId())) {
+            throw new InvalidRequestException("Version does not belong to the specified course");
+        }
 
         // Precondition: Check course is published
-        if (courseVersion.getStatus() != CourseStatus.PUBLISHED) {
+        if (!courseVersion.isPublished()) {
             throw new InvalidRequestException("Course is not published yet");
         }
 
         // Precondition: Check course price
-        if (courseVersion.getPrice() == null || courseVersion.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+        if (courseVersion.isFree()) {
             throw new InvalidRequestException("This course is free, no payment required");
         }
 
         // Precondition: Check if student already paid for this course
-        boolean alreadyPaid = paymentRepository.existsByStudentIdAndCourseIdAndStatus(
-                student.getId(),
-                course.getId(),
-                PaymentStatus.SUCCESS
-        );
-        if (alreadyPaid) {
+        if (Boolean.TRUE.equals(eligibility.getAlreadyPaid())) {
             throw new InvalidRequestException("You have already purchased this course");
         }
 
         // Precondition: Check if student already enrolled (free or by other means)
-        boolean alreadyEnrolled = enrollmentRepository.existsByStudentIdAndCourseVersionId(
-                student.getId(),
-                courseVersion.getId()
-        );
-        if (alreadyEnrolled) {
+        if (Boolean.TRUE.equals(eligibility.getAlreadyEnrolled())) {
             throw new InvalidRequestException("You are already enrolled in this course");
         }
 
-        // Create payment transaction
-        // Determine payment provider
-        PaymentProvider paymentProvider = request.getPaymentMethod();
-        if (paymentProvider == null) {
-            paymentProvider = PaymentProvider.ZALOPAY; // Default
-        }
+        // Determine payment provider and return URL
+        PaymentProvider paymentProvider = request.getPaymentMethod() != null ?
+                request.getPaymentMethod() :
+                PaymentProvider.ZALOPAY; // Default
+        String returnUrl = request.getReturnUrl() != null ?
+                request.getReturnUrl() :
+                "http://localhost:3000/payment/result";
+
+        // A repeated identical checkout within the idempotency window gets the first one's payment
+        return checkoutIdempotencyRegistry.deduplicate(eligibility.getStudentId(), courseVersion.versionId(),
+                paymentProvider, returnUrl,
+                () -> startPayment(eligibility.getStudentId(), courseVersion, paymentProvider, returnUrl, request, httpRequest));
+    }
 
+    private CompletableFuture<PaymentUrlResponse> startPayment(Long studentId, CheckoutVersion courseVersion,
+                                                               PaymentProvider paymentProvider, String returnUrl,
+                                                               CreatePaymentRequest request, HttpServletRequest httpRequest) {
         // Get appropriate payment gateway
         PaymentGateway paymentGateway = paymentFactory.getProcessor(paymentProvider);
 
+        // Preconditions were checked above: references avoid reloading the rows
         PaymentTransaction payment = PaymentTransaction.builder()
-                .student(student)
-                .course(course)
-                .courseVersion(courseVersion)
-                .amount(courseVersion.getPrice())
+                .student(studentRepository.getReferenceById(studentId))
+                .course(courseRepository.getReferenceById(courseVersion.courseId()))
+                .courseVersion(courseVersionRepository.getReferenceById(courseVersion.versionId()))
+                .amount(courseVersion.price())
                 .currency(CURRENCY_VND)
                 .paymentMethod(paymentProvider)
                 .status(PaymentStatus.PENDING)
@@ -146,163 +171,138 @@ public class PaymentService {
 
         payment = paymentRepository.save(payment);
         log.info("Created payment transaction ID: {} for student: {} course: {} using gateway: {}",
-                payment.getId(), student.getId(), course.getId(), paymentProvider);
+                payment.getId(), studentId, courseVersion.courseId(), paymentProvider);
 
         // Create payment URL
         String orderId = ORDER_ID_PREFIX + payment.getId();
-        String orderInfo = "Thanh toan khoa hoc: " + course.getTitle();
-        String returnUrl = request.getReturnUrl() != null ?
-                request.getReturnUrl() :
-                "http://localhost:3000/payment/result";
+        String orderInfo = "Thanh toan khoa hoc: " + courseVersion.courseTitle();
         String ipAddress = getClientIpAddress(httpRequest);
 
-        String paymentUrl = paymentGateway.createPaymentUrl(
-                orderId,
-                courseVersion.getPrice(),
-                orderInfo,
-                returnUrl,
-                ipAddress
-        );
-
         // Postcondition: Payment created with PENDING status
         assert payment.getStatus() == PaymentStatus.PENDING;
 
-        return PaymentUrlResponse.builder()
-                .paymentId(payment.getId())
-                .paymentUrl(paymentUrl)
-                .message(CREATE_PAYMENT_MESSAGE)
-                .build();
+        // The gateway order id is stored before the order exists, so reconciliation can always query it
+        Long paymentId = payment.getId();
+        String providerOrderId = paymentGateway.newProviderOrderId(orderId);
+        paymentRepository.updateProviderOrderId(paymentId, providerOrderId);
+
+        return paymentGateway.createPaymentUrlAsync(
+                        orderId,
+                        providerOrderId,
+                        courseVersion.price(),
+                        orderInfo,
+                        returnUrl,
+                        ipAddress
+                )
+                .thenApply(paymentUrl -> PaymentUrlResponse.builder()
+                        .paymentId(paymentId)
+                        .paymentUrl(paymentUrl)
+                        .message(CREATE_PAYMENT_MESSAGE)
+                        .build())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        markPaymentCreationFailed(paymentId, error);
+                    }
+                });
     }
 
     /**
-     * Verify payment from gateway callback (AUTO-DETECT)
-     * Automatically detects payment provider from callback data
-     *
-     * Preconditions:
-     * - Callback data must contain valid gateway-specific fields
-     * - Payment must exist and be in PENDING status
-     * - Payment data from gateway must be valid
-     *
-     * Postconditions:
-     * - Payment status updated (SUCCESS or FAILED)
-     * - If successful: Student enrolled in course
-     * - If failed: Failure reason recorded
+     * The gateway never issued a payment URL, so the PENDING row can never be paid
      */
-    @Transactional
-    public PaymentTransactionResponse verifyPaymentAutoDetect(Map<String, String> paymentData) {
-        log.info("Auto-detecting payment provider from callback data");
-
-        // Auto-detect payment provider
-        PaymentProvider paymentProvider;
+    private void markPaymentCreationFailed(Long paymentId, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
         try {
-            paymentProvider = callbackDetector.detectProvider(paymentData);
-        } catch (IllegalArgumentException e) {
-            log.error("Failed to detect payment provider", e);
-            throw new InvalidRequestException("Cannot determine payment gateway from callback data");
+            paymentRepository.findById(paymentId)
+                    .filter(PaymentTransaction::isPending)
+                    .ifPresent(payment -> {
+                        payment.markAsFailed("Payment gateway error: " + cause.getMessage(), "GATEWAY_UNAVAILABLE");
+                        paymentRepository.save(payment);
+                    });
+            log.warn("Payment {} marked as FAILED, gateway did not create an order: {}", paymentId, cause.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to mark payment {} as FAILED after gateway error", paymentId, e);
         }
-
-        // Validate callback structure
-        if (!callbackDetector.hasValidStructure(paymentData, paymentProvider)) {
-            log.warn("Invalid callback structure for provider: {}", paymentProvider);
-            throw new InvalidRequestException("Invalid callback data structure for " + paymentProvider);
-        }
-
-        log.info("Detected payment provider: {}, processing callback", paymentProvider);
-
-        // Use the existing verification logic
-        return verifyPayment(paymentData, paymentProvider);
     }
 
     /**
      * Verify payment from gateway callback
      *
+     * Goes through the same callback inbox as gateway notifications, then processes the
+     * callback on the caller's thread so the response reflects the applied status. If a
+     * worker already holds the callback, the current payment state is returned.
+     *
      * Preconditions:
-     * - Payment must exist and be in PENDING status
+     * - Payment must exist
      * - Payment data from gateway must be valid
      *
      * Postconditions:
-     * - Payment status updated (SUCCESS or FAILED)
+     * - Payment status updated (SUCCESS or FAILED) if it was PENDING
      * - If successful: Student enrolled in course
      * - If failed: Failure reason recorded
      */
-    @Transactional
-    public PaymentTransactionResponse verifyPayment(Map<String, String> paymentData, PaymentProvider paymentProvider) {
+    public PaymentTransactionResponse verifyPayment(CallbackEnvelope callback) {
+        PaymentCallbackInbox item = storeCallback(callback);
+        if (item != null) {
+            callbackWorker.processNow(item.getId());
+        }
 
-        // Get appropriate payment gateway
+        PaymentTransaction payment = paymentRepository.findById(extractPaymentId(callback))
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
+        return BillingMapper.toPaymentResponse(payment);
+    }
+
+    /**
+     * Accept a gateway callback into the inbox without processing it
+     *
+     * Only the signature check and one insert happen on the request path, so the gateway
+     * gets its acknowledgement quickly; the callback worker applies the payment and enrolls.
+     */
+    public void acceptCallback(CallbackEnvelope callback) {
+        storeCallback(callback);
+    }
+
+    /**
+     * Verify the callback signature and store it in the inbox
+     *
+     * @return the inbox row, or null when an identical callback is being stored concurrently
+     */
+    private PaymentCallbackInbox storeCallback(CallbackEnvelope callback) {
+        PaymentProvider paymentProvider = callback.getProvider();
         PaymentGateway paymentGateway = paymentFactory.getProcessor(paymentProvider);
 
         // Verify signature from payment gateway
-        if (!paymentGateway.verifyPayment(paymentData)) {
-            log.warn("Invalid payment signature from {}: {}", paymentProvider, paymentData);
+        if (!paymentGateway.verifyPayment(callback)) {
+            log.warn("Invalid payment signature from {}: {}", paymentProvider, callback.getParams());
             throw new InvalidRequestException("Invalid payment signature");
         }
 
-        // Extract order ID using detector (supports all gateways dynamically)
-        String orderId = callbackDetector.extractOrderId(paymentData, paymentProvider);
-
-        if (orderId == null || !orderId.startsWith(ORDER_ID_PREFIX)) {
-            throw new InvalidRequestException("Invalid order ID format");
-        }
-
-        Long paymentId = Long.parseLong(orderId.substring(ORDER_ID_PREFIX.length()));
+        Long paymentId = extractPaymentId(callback);
 
         // Precondition: Payment must exist
-        PaymentTransaction payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
-
-        // Precondition: Payment must be PENDING
-        if (payment.getStatus() != PaymentStatus.PENDING) {
-            log.warn("Payment {} is not in PENDING status: {}", paymentId, payment.getStatus());
-            return BillingMapper.toPaymentResponse(payment);
+        if (!paymentRepository.existsById(paymentId)) {
+            throw new ResourceNotFoundException("Payment not found");
         }
 
-        String providerTransactionId = paymentGateway.getTransactionId(paymentData);
-
-        if (paymentGateway.isPaymentSuccess(paymentData)) {
-            // Mark payment as successful using rich domain logic
-            payment.markAsSuccess(providerTransactionId);
-
-            // Calculate transaction fee (example: 2% of amount)
-            BigDecimal transactionFee = payment.getAmount().multiply(new BigDecimal("0.02"));
-            payment.setTransactionFee(transactionFee);
-
-            // Save payment first before enrollment
-            payment = paymentRepository.save(payment);
-            log.info("Payment {} marked as SUCCESS via {}", paymentId, paymentProvider);
-
-            // Postcondition: Enroll student in course using orchestrator
-            // Orchestrator handles enrollment in separate transaction for data consistency
-            try {
-                enrollmentOrchestrator.processEnrollmentAfterPayment(payment);
-                log.info("Enrollment processing completed for payment {}", paymentId);
-            } catch (Exception e) {
-                // All errors are logged by orchestrator
-                // Payment is already saved, so this won't affect payment status
-                log.error("Enrollment orchestration failed for payment {}: {}", paymentId, e.getMessage());
-            }
+        try {
+            return callbackInboxService.accept(paymentProvider, paymentId, callback.getParams());
+        } catch (PaymentCallbackInboxService.DuplicateCallbackException e) {
+            log.info("Concurrent duplicate {} callback for payment {}", paymentProvider, paymentId);
+            return null;
+        }
+    }
 
-            // Postcondition: Payment is SUCCESS (enrollment success is tracked in metadata)
-            assert payment.getStatus() == PaymentStatus.SUCCESS : "Payment must be SUCCESS after marking";
-            assert payment.getPaidAt() != null : "Payment must have paid_at timestamp";
-            assert payment.getProviderTransactionId() != null : "Payment must have provider transaction ID";
+    private Long extractPaymentId(CallbackEnvelope callback) {
+        String orderId = callback.getOrderId();
 
-        } else {
-            // Mark payment as failed using rich domain logic
-            String errorMessage = paymentGateway.getErrorMessage(paymentData);
-            String errorCode = paymentProvider == PaymentProvider.VNPAY ?
-                    paymentData.get("vnp_ResponseCode") : paymentData.get("return_code");
-            payment.markAsFailed(errorMessage, errorCode);
-
-            payment = paymentRepository.save(payment);
-            log.warn("Payment {} marked as FAILED: {} (error code: {})", paymentId, errorMessage, errorCode);
-
-            // Postcondition: Payment is FAILED
-            assert payment.getStatus() == PaymentStatus.FAILED : "Payment must be FAILED after marking";
-            assert payment.getFailedAt() != null : "Payment must have failed_at timestamp";
-            assert payment.getFailureReason() != null : "Payment must have failure reason";
+        if (orderId == null || !orderId.startsWith(ORDER_ID_PREFIX)) {
+            throw new InvalidRequestException("Invalid order ID format");
         }
 
-        return BillingMapper.toPaymentResponse(payment);
+        try {
+            return Long.parseLong(orderId.substring(ORDER_ID_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid order ID format");
+        }
     }
 
     /**
@@ -431,6 +431,11 @@ public class PaymentService {
         payment = paymentRepository.save(payment);
         log.info("Payment {} refunded: {}", paymentId, request.getReason());
 
+        // Reverse the booked revenue in the same transaction
+        revenueLedgerService.recordRefund(payment);
+        eventPublisher.publishEvent(new PaymentRefundedEvent(
+                payment.getId(), payment.getCourse().getId(), payment.getRefundAmount(), payment.getRefundedAt()));
+
         // Postcondition: Cancel enrollment
         if (enrollment != null) {
             enrollment.cancel(request.getReason());
@@ -481,14 +486,14 @@ public class PaymentService {
 
         BigDecimal netRevenue = totalRevenue.subtract(totalRefunded);
 
-        // Get revenue share config
-        RevenueShareConfig revenueConfig = getRevenueShareConfig(course.getCategory() != null ?
-                course.getCategory().getId() : null);
-        Float revenueSharePercentage = revenueConfig.getPercentage().floatValue();
+        // Current share for display; each payment earns the share in force on its payment date
+        Long categoryId = course.getCategory() != null ? course.getCategory().getId() : null;
+        Float revenueSharePercentage = revenueShareResolver.teacherPercentage(categoryId, LocalDate.now()).floatValue();
 
         BigDecimal teacherRevenue = payments.stream()
                 .filter(PaymentTransaction::isSuccess)
-                .map(p -> p.getTeacherRevenue(revenueSharePercentage))
+                .map(p -> p.getTeacherRevenue(revenueShareResolver.teacherPercentage(
+                        categoryId, LocalDate.ofInstant(p.getPaidAt(), ZoneId.systemDefault())).floatValue()))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         BigDecimal platformRevenue = netRevenue.subtract(teacherRevenue);
@@ -511,29 +516,6 @@ public class PaymentService {
                 .build();
     }
 
-    /**
-     * Get revenue share config for a category or default
-     */
-    private RevenueShareConfig getRevenueShareConfig(Long categoryId) {
-        if (categoryId != null) {
-            return revenueShareConfigRepository
-                    .findByCategoryAndDate(categoryId, LocalDate.now())
-                    .orElseGet(() -> getDefaultRevenueConfig());
-        }
-        return getDefaultRevenueConfig();
-    }
-
-    /**
-     * Get default revenue share config
-     */
-    private RevenueShareConfig getDefaultRevenueConfig() {
-        return revenueShareConfigRepository.findActiveOnDate(LocalDate.now())
-                .stream()
-                .filter(config -> config.getCategoryId() == null)
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("No active revenue share config found"));
-    }
-
     /**
      * Get client IP address from HTTP request
      */
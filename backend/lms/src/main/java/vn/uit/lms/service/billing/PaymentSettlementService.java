@@ -0,0 +1,69 @@
+package vn.uit.lms.service.billing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.domain.billing.PaymentTransaction;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+import vn.uit.lms.service.event.PaymentSucceededEvent;
+
+import java.math.BigDecimal;
+
+/**
+ * Moves a locked PENDING payment to its final status
+ *
+ * Shared by callback processing and gateway reconciliation so both settle payments
+ * the same way. Callers must hold the payment row lock in their transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentSettlementService {
+
+    private static final BigDecimal TRANSACTION_FEE_RATE = new BigDecimal("0.02");
+
+    private final PaymentTransactionRepository paymentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Mark paid and compute the fee in the caller's transaction
+     *
+     * Revenue is booked after commit ({@link RevenueLedgerBookingListener}), so a
+     * ledger problem can never roll back a payment the gateway already captured.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public PaymentTransaction markPaid(PaymentTransaction payment, String providerTransactionId) {
+        payment.markAsSuccess(providerTransactionId);
+
+        // Calculate transaction fee (example: 2% of amount)
+        payment.setTransactionFee(payment.getAmount().multiply(TRANSACTION_FEE_RATE));
+
+        payment = paymentRepository.save(payment);
+        log.info("Payment {} marked as SUCCESS via {}", payment.getId(), payment.getPaymentMethod());
+
+        eventPublisher.publishEvent(new PaymentSucceededEvent(
+                payment.getId(), payment.getCourse().getId(), payment.getAmount(), payment.getPaidAt()));
+        return payment;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public PaymentTransaction markFailed(PaymentTransaction payment, String errorMessage, String errorCode) {
+        payment.markAsFailed(errorMessage, errorCode);
+
+        payment = paymentRepository.save(payment);
+        log.warn("Payment {} marked as FAILED: {} (error code: {})", payment.getId(), errorMessage, errorCode);
+        return payment;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public PaymentTransaction markExpired(PaymentTransaction payment, String reason) {
+        payment.markAsExpired(reason);
+
+        payment = paymentRepository.save(payment);
+        log.info("Payment {} marked as EXPIRED: {}", payment.getId(), reason);
+        return payment;
+    }
+}
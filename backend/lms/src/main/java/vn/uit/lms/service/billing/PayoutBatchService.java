@@ -0,0 +1,245 @@
+package vn.uit.lms.service.billing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.domain.Teacher;
+import vn.uit.lms.core.domain.billing.Payout;
+import vn.uit.lms.core.repository.TeacherRepository;
+import vn.uit.lms.core.repository.billing.PayoutRepository;
+import vn.uit.lms.core.repository.billing.TeacherRevenueDailyRepository;
+import vn.uit.lms.core.repository.billing.TeacherRevenueDailyRepository.TeacherBalanceTotals;
+import vn.uit.lms.shared.constant.PayoutStatus;
+import vn.uit.lms.shared.exception.InvalidRequestException;
+import vn.uit.lms.shared.util.export.CsvExportUtil;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Monthly payout batch: drafts PENDING payouts for every teacher from the revenue
+ * rollups and writes the bank-transfer file for them
+ *
+ * Teachers are split into partitions by id (teacherId mod partitions). Each partition
+ * is computed with one aggregate query and written in its own transaction, so partitions
+ * can run in parallel. Teachers that already have a payout for the period are skipped and
+ * batch drafts carry a deterministic reference, so re-running a period never pays twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayoutBatchService {
+
+    private static final int EXPORT_PAGE_SIZE = 500;
+    private static final String BATCH_SOURCE = "MONTHLY_BATCH";
+
+    private final PayoutRepository payoutRepository;
+    private final TeacherRevenueDailyRepository revenueDailyRepository;
+    private final TeacherRepository teacherRepository;
+
+    /**
+     * Parse a YYYY-MM payout period; only completed months can be paid out
+     */
+    public YearMonth parsePeriod(String period) {
+        YearMonth payoutPeriod;
+        try {
+            payoutPeriod = YearMonth.parse(period);
+        } catch (Exception e) {
+            throw new InvalidRequestException("Invalid payout period format. Use YYYY-MM");
+        }
+        if (!payoutPeriod.isBefore(YearMonth.now())) {
+            throw new InvalidRequestException("Can only run payouts for completed months");
+        }
+        return payoutPeriod;
+    }
+
+    /**
+     * Draft payouts for one partition of teachers
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public PartitionResult draftPartition(YearMonth period, int partition, int partitions) {
+        String payoutPeriod = Payout.createPayoutPeriod(period);
+        List<TeacherBalanceTotals> balances = revenueDailyRepository.sumByTeacherBetween(
+                period.atDay(1),
+                period.atEndOfMonth(),
+                partition,
+                partitions,
+                PayoutService.MINIMUM_PAYOUT_AMOUNT
+        );
+        if (balances.isEmpty()) {
+            return PartitionResult.EMPTY;
+        }
+
+        List<Long> teacherIds = balances.stream().map(TeacherBalanceTotals::getTeacherId).toList();
+        Set<Long> alreadyPaid = new HashSet<>(payoutRepository.findTeacherIdsWithPayoutForPeriod(payoutPeriod, teacherIds));
+        Map<Long, Payout> bankAccounts = latestBankAccounts(teacherIds);
+
+        List<Payout> drafts = new ArrayList<>(balances.size());
+        int missingBankAccount = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (TeacherBalanceTotals balance : balances) {
+            if (alreadyPaid.contains(balance.getTeacherId())) {
+                continue;
+            }
+            Payout draft = draft(balance, payoutPeriod, bankAccounts.get(balance.getTeacherId()));
+            if (draft.getBankAccountNumber() == null) {
+                missingBankAccount++;
+            }
+            totalAmount = totalAmount.add(draft.getAmount());
+            drafts.add(draft);
+        }
+
+        payoutRepository.saveAll(drafts);
+        log.info("Payout batch {} partition {}/{}: {} eligible, {} drafted, {} missing bank account",
+                payoutPeriod, partition, partitions, balances.size(), drafts.size(), missingBankAccount);
+
+        return new PartitionResult(balances.size(), drafts.size(), balances.size() - drafts.size(),
+                missingBankAccount, totalAmount);
+    }
+
+    /**
+     * Write the bank-transfer CSV for the PENDING payouts of a period
+     *
+     * Payouts without bank details cannot be transferred and are left out.
+     *
+     * @return number of transfer lines written
+     */
+    @Transactional(readOnly = true)
+    public int exportBankTransferFile(YearMonth period, Writer writer) throws IOException {
+        String payoutPeriod = Payout.createPayoutPeriod(period);
+        writer.write("reference,teacher_code,beneficiary_name,bank_name,account_number,amount,currency,description\n");
+
+        int written = 0;
+        int skipped = 0;
+        long afterId = 0L;
+        List<Payout> page;
+        do {
+            page = payoutRepository.findPageByPeriodAndStatus(
+                    payoutPeriod, PayoutStatus.PENDING, afterId, PageRequest.of(0, EXPORT_PAGE_SIZE));
+
+            for (Payout payout : page) {
+                if (payout.getBankAccountNumber() == null || payout.getBankName() == null) {
+                    skipped++;
+                    continue;
+                }
+                BigDecimal amount = payout.getNetAmount() != null ? payout.getNetAmount() : payout.getAmount();
+                CsvExportUtil.writeRow(writer,
+                        payout.getReference(),
+                        payout.getTeacher().getTeacherCode(),
+                        payout.getAccountHolderName() != null
+                                ? payout.getAccountHolderName() : payout.getTeacher().getFullName(),
+                        payout.getBankName(),
+                        payout.getBankAccountNumber(),
+                        amount.setScale(2, RoundingMode.HALF_UP),
+                        payout.getCurrency(),
+                        "LMS payout " + payoutPeriod);
+                written++;
+            }
+
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == EXPORT_PAGE_SIZE);
+
+        writer.flush();
+        if (skipped > 0) {
+            log.warn("Bank transfer file {}: {} pending payout(s) skipped without bank details", payoutPeriod, skipped);
+        }
+        return written;
+    }
+
+    private Payout draft(TeacherBalanceTotals balance, String payoutPeriod, Payout bankSource) {
+        BigDecimal teacherEarnings = balance.getTeacherEarnings();
+        BigDecimal totalRevenue = balance.getNetAmount() != null ? balance.getNetAmount() : BigDecimal.ZERO;
+        BigDecimal transferFee = teacherEarnings.multiply(PayoutService.TRANSFER_FEE_PERCENTAGE)
+                .setScale(2, RoundingMode.HALF_UP);
+        BigDecimal taxAmount = teacherEarnings.multiply(PayoutService.TAX_PERCENTAGE)
+                .setScale(2, RoundingMode.HALF_UP);
+
+        // Shares may differ across the period: record the effective blended rate
+        Float revenueSharePercentage = totalRevenue.signum() > 0
+                ? teacherEarnings.multiply(new BigDecimal("100"))
+                        .divide(totalRevenue, 2, RoundingMode.HALF_UP).floatValue()
+                : null;
+
+        long sales = balance.getSalesCount() != null ? balance.getSalesCount() : 0L;
+        long refunds = balance.getRefundCount() != null ? balance.getRefundCount() : 0L;
+
+        Teacher teacher = teacherRepository.getReferenceById(balance.getTeacherId());
+        Payout payout = Payout.builder()
+                .teacher(teacher)
+                .amount(teacherEarnings)
+                .currency("VND")
+                .status(PayoutStatus.PENDING)
+                .payoutPeriod(payoutPeriod)
+                .reference(batchReference(payoutPeriod, balance.getTeacherId()))
+                .revenueSharePercentage(revenueSharePercentage)
+                .totalRevenue(totalRevenue)
+                .totalEnrollments((int) Math.max(0L, sales - refunds))
+                .transferFee(transferFee)
+                .taxAmount(taxAmount)
+                .netAmount(teacherEarnings.subtract(transferFee).subtract(taxAmount))
+                .build();
+        payout.addMetadata("source", BATCH_SOURCE);
+
+        if (bankSource != null) {
+            payout.setBankAccount(bankSource.getBankAccountNumber(), bankSource.getBankName(),
+                    bankSource.getAccountHolderName());
+        } else {
+            payout.setNotes("Bank account missing: add bank details before transfer");
+        }
+        return payout;
+    }
+
+    /**
+     * Bank details of each teacher's most recent payout that had them
+     */
+    private Map<Long, Payout> latestBankAccounts(List<Long> teacherIds) {
+        Map<Long, Payout> latest = new HashMap<>();
+        for (Payout payout : payoutRepository.findWithBankAccountByTeacherIds(teacherIds)) {
+            latest.putIfAbsent(payout.getTeacher().getId(), payout);
+        }
+        return latest;
+    }
+
+    /**
+     * One payout per teacher and period; the unique reference rejects a concurrent duplicate run
+     */
+    static String batchReference(String payoutPeriod, Long teacherId) {
+        return "PAYOUT-" + payoutPeriod + "-T" + teacherId;
+    }
+
+    /**
+     * Outcome of one partition, merged into the batch total
+     */
+    public record PartitionResult(
+            int eligibleTeachers,
+            int payoutsCreated,
+            int teachersSkipped,
+            int missingBankAccount,
+            BigDecimal totalAmount
+    ) {
+        public static final PartitionResult EMPTY = new PartitionResult(0, 0, 0, 0, BigDecimal.ZERO);
+
+        public PartitionResult merge(PartitionResult other) {
+            return new PartitionResult(
+                    eligibleTeachers + other.eligibleTeachers,
+                    payoutsCreated + other.payoutsCreated,
+                    teachersSkipped + other.teachersSkipped,
+                    missingBankAccount + other.missingBankAccount,
+                    totalAmount.add(other.totalAmount));
+        }
+    }
+}
@@ -11,11 +11,10 @@ import vn.uit.lms.core.domain.Account;
 import vn.uit.lms.core.domain.Teacher;
 import vn.uit.lms.core.domain.billing.PaymentTransaction;
 import vn.uit.lms.core.domain.billing.Payout;
-import vn.uit.lms.core.domain.billing.RevenueShareConfig;
 import vn.uit.lms.core.repository.TeacherRepository;
 import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
 import vn.uit.lms.core.repository.billing.PayoutRepository;
-import vn.uit.lms.core.repository.billing.RevenueShareConfigRepository;
+import vn.uit.lms.core.repository.billing.TeacherRevenueDailyRepository;
 import vn.uit.lms.service.AccountService;
 import vn.uit.lms.shared.constant.PaymentStatus;
 import vn.uit.lms.shared.constant.PayoutStatus;
@@ -28,6 +27,7 @@ import vn.uit.lms.shared.exception.ResourceNotFoundException;
 import vn.uit.lms.shared.mapper.billing.BillingMapper;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.YearMonth;
@@ -47,13 +47,14 @@ public class PayoutService {
 
     private final PayoutRepository payoutRepository;
     private final PaymentTransactionRepository paymentRepository;
-    private final RevenueShareConfigRepository revenueShareConfigRepository;
+    private final RevenueShareResolver revenueShareResolver;
+    private final TeacherRevenueDailyRepository revenueDailyRepository;
     private final TeacherRepository teacherRepository;
     private final AccountService accountService;
 
-    private static final BigDecimal MINIMUM_PAYOUT_AMOUNT = new BigDecimal("100000"); // 100,000 VND
-    private static final BigDecimal TRANSFER_FEE_PERCENTAGE = new BigDecimal("0.01"); // 1% transfer fee
-    private static final BigDecimal TAX_PERCENTAGE = new BigDecimal("0.10"); // 10% tax
+    static final BigDecimal MINIMUM_PAYOUT_AMOUNT = new BigDecimal("100000"); // 100,000 VND
+    static final BigDecimal TRANSFER_FEE_PERCENTAGE = new BigDecimal("0.01"); // 1% transfer fee
+    static final BigDecimal TAX_PERCENTAGE = new BigDecimal("0.10"); // 10% tax
 
     /**
      * Create payout request
@@ -120,19 +121,22 @@ public class PayoutService {
             throw new InvalidRequestException("No revenue found for this period");
         }
 
-        // Get revenue share config
-        RevenueShareConfig revenueConfig = getDefaultRevenueConfig();
-        Float revenueSharePercentage = revenueConfig.getPercentage().floatValue();
-
         BigDecimal totalRevenue = payments.stream()
                 .map(PaymentTransaction::getNetAmount)
                 .filter(amount -> amount != null)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
+        // Each payment earns the share that was in force when it was paid
         BigDecimal teacherEarnings = payments.stream()
-                .map(p -> p.getTeacherRevenue(revenueSharePercentage))
+                .map(this::teacherEarnings)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
+        // Shares may differ across the period: record the effective blended rate
+        Float revenueSharePercentage = totalRevenue.signum() > 0
+                ? teacherEarnings.multiply(new BigDecimal("100"))
+                        .divide(totalRevenue, 2, RoundingMode.HALF_UP).floatValue()
+                : revenueShareResolver.teacherPercentage(null, LocalDate.now()).floatValue();
+
         // Precondition: Check minimum payout amount
         if (teacherEarnings.compareTo(MINIMUM_PAYOUT_AMOUNT) < 0) {
             throw new InvalidRequestException(
@@ -344,46 +348,25 @@ public class PayoutService {
     }
 
     /**
-     * Get available payout amount for teacher in current month
+     * Get available payout amount for teacher for last month, read from the revenue rollups
      */
     public BigDecimal getAvailablePayoutAmount(Long teacherId) {
         Teacher teacher = teacherRepository.findById(teacherId)
                 .orElseThrow(() -> new ResourceNotFoundException("Teacher not found"));
 
         YearMonth lastMonth = YearMonth.now().minusMonths(1);
-        LocalDate startDate = lastMonth.atDay(1);
-        LocalDate endDate = lastMonth.atEndOfMonth();
-
-        Instant startInstant = startDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
-        Instant endInstant = endDate.atTime(23, 59, 59).atZone(ZoneId.systemDefault()).toInstant();
-
-        List<PaymentTransaction> payments = paymentRepository.findByTeacherIdAndDateRange(
-                teacher.getId(),
-                startInstant,
-                endInstant
-        );
-
-        payments = payments.stream()
-                .filter(p -> p.getStatus() == PaymentStatus.SUCCESS)
-                .collect(Collectors.toList());
 
-        if (payments.isEmpty()) {
+        // Already requested, or drafted by the monthly payout batch
+        if (payoutRepository.existsByTeacherIdAndPayoutPeriod(teacher.getId(), lastMonth.toString())) {
             return BigDecimal.ZERO;
         }
 
-        RevenueShareConfig revenueConfig = getDefaultRevenueConfig();
-        Float revenueSharePercentage = revenueConfig.getPercentage().floatValue();
-
-        BigDecimal teacherEarnings = payments.stream()
-                .map(p -> p.getTeacherRevenue(revenueSharePercentage))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Check if already requested payout for this period
-        boolean alreadyRequested = payoutRepository
-                .findByTeacherIdAndPayoutPeriod(teacher.getId(), lastMonth.toString())
-                .isPresent();
-
-        return alreadyRequested ? BigDecimal.ZERO : teacherEarnings;
+        BigDecimal teacherEarnings = revenueDailyRepository.sumTeacherEarningsBetween(
+                teacher.getId(),
+                lastMonth.atDay(1),
+                lastMonth.atEndOfMonth()
+        );
+        return teacherEarnings.signum() > 0 ? teacherEarnings : BigDecimal.ZERO;
     }
 
     /**
@@ -398,14 +381,14 @@ public class PayoutService {
     }
 
     /**
-     * Get default revenue share config
+     * Teacher share of a payment under the revenue share in force on its payment date
      */
-    private RevenueShareConfig getDefaultRevenueConfig() {
-        return revenueShareConfigRepository.findActiveOnDate(LocalDate.now())
-                .stream()
-                .filter(config -> config.getCategoryId() == null)
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("No active revenue share config found"));
+    private BigDecimal teacherEarnings(PaymentTransaction payment) {
+        Long categoryId = payment.getCourse().getCategory() != null
+                ? payment.getCourse().getCategory().getId()
+                : null;
+        LocalDate paidOn = LocalDate.ofInstant(payment.getPaidAt(), ZoneId.systemDefault());
+        return payment.getTeacherRevenue(revenueShareResolver.teacherPercentage(categoryId, paidOn).floatValue());
     }
 }
 
@@ -0,0 +1,162 @@
+package vn.uit.lms.service.billing;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.domain.Account;
+import vn.uit.lms.core.domain.Teacher;
+import vn.uit.lms.core.repository.TeacherRepository;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository.PaymentExportRow;
+import vn.uit.lms.service.AccountService;
+import vn.uit.lms.shared.constant.ExportFormat;
+import vn.uit.lms.shared.dto.request.billing.TransactionExportRequest;
+import vn.uit.lms.shared.exception.InvalidRequestException;
+import vn.uit.lms.shared.exception.ResourceNotFoundException;
+import vn.uit.lms.shared.util.export.CsvExportUtil;
+import vn.uit.lms.shared.util.export.ExcelExportUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Streams payment transactions to CSV or xlsx for finance exports
+ *
+ * Rows are read through a database cursor with a fixed fetch size and written straight
+ * to the response, so memory stays flat regardless of the range. CSV rows are in id
+ * order with the id first: an interrupted download resumes with {@code afterId} set to
+ * the last complete row's id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueExportService {
+
+    private static final List<String> HEADERS = List.of(
+            "id", "created_at", "paid_at", "status", "payment_method", "currency", "amount",
+            "transaction_fee", "net_amount", "refund_amount", "refunded_at", "provider_transaction_id",
+            "course_id", "course_title", "teacher_id", "teacher_name", "student_id", "student_name"
+    );
+
+    private final PaymentTransactionRepository paymentRepository;
+    private final TeacherRepository teacherRepository;
+    private final AccountService accountService;
+
+    /**
+     * Export transactions matching the filters (Admin)
+     */
+    @Transactional(readOnly = true)
+    public void exportTransactions(TransactionExportRequest request, HttpServletResponse response) throws IOException {
+        export(request, request.getTeacherId(), response);
+    }
+
+    /**
+     * Export the current teacher's transactions; any teacher filter is ignored
+     */
+    @Transactional(readOnly = true)
+    public void exportMyTransactions(TransactionExportRequest request, HttpServletResponse response) throws IOException {
+        Account account = accountService.verifyCurrentAccount();
+        Teacher teacher = teacherRepository.findByAccount(account)
+                .orElseThrow(() -> new ResourceNotFoundException("Teacher not found"));
+
+        export(request, teacher.getId(), response);
+    }
+
+    private void export(TransactionExportRequest request, Long teacherId, HttpServletResponse response) throws IOException {
+        LocalDate to = request.getTo() != null ? request.getTo() : LocalDate.now();
+        LocalDate from = request.getFrom() != null ? request.getFrom() : to.minusYears(1).plusDays(1);
+        if (from.isAfter(to)) {
+            throw new InvalidRequestException("'from' must not be after 'to'");
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        Instant fromInstant = from.atStartOfDay(zone).toInstant();
+        Instant toInstant = to.plusDays(1).atStartOfDay(zone).toInstant();
+        long afterId = request.getAfterId() != null ? request.getAfterId() : 0L;
+        ExportFormat format = request.getFormat() != null ? request.getFormat() : ExportFormat.CSV;
+        if (format == ExportFormat.PDF) {
+            throw new InvalidRequestException("Transaction exports support CSV and EXCEL only");
+        }
+
+        String filename = "payment_transactions_" + from + "_" + to;
+        long rows;
+        try (Stream<PaymentExportRow> stream = paymentRepository.streamForExport(
+                afterId, fromInstant, toInstant, teacherId, request.getStatus())) {
+
+            if (format == ExportFormat.CSV) {
+                response.setContentType("text/csv; charset=UTF-8");
+                response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + ".csv\"");
+                rows = writeCsv(stream.iterator(), new BufferedWriter(
+                        new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8)), afterId == 0L);
+            } else {
+                response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+                response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + ".xlsx\"");
+                rows = writeExcel(stream.iterator(), response);
+            }
+        }
+
+        log.info("Exported {} payment transaction(s) as {} (from={}, to={}, teacherId={}, afterId={})",
+                rows, format, from, to, teacherId, afterId);
+    }
+
+    private long writeCsv(Iterator<PaymentExportRow> rows, Writer writer, boolean withHeader) throws IOException {
+        // A resumed download is appended to the first part, so it carries no header
+        if (withHeader) {
+            CsvExportUtil.writeRow(writer, HEADERS);
+        }
+        long count = 0;
+        while (rows.hasNext()) {
+            CsvExportUtil.writeRow(writer, values(rows.next()));
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private long writeExcel(Iterator<PaymentExportRow> rows, HttpServletResponse response) throws IOException {
+        long count = 0;
+        try (ExcelExportUtil.SheetWriter sheet = ExcelExportUtil.open("Transactions", HEADERS)) {
+            while (rows.hasNext()) {
+                sheet.writeRow(values(rows.next()));
+                count++;
+            }
+            sheet.finish(response.getOutputStream());
+        }
+        return count;
+    }
+
+    private static List<Object> values(PaymentExportRow row) {
+        return Arrays.asList(
+                row.getId(),
+                row.getCreatedAt(),
+                row.getPaidAt(),
+                row.getStatus(),
+                row.getPaymentMethod(),
+                row.getCurrency(),
+                row.getAmount(),
+                row.getTransactionFee(),
+                row.getNetAmount(),
+                row.getRefundAmount(),
+                row.getRefundedAt(),
+                row.getProviderTransactionId(),
+                row.getCourseId(),
+                row.getCourseTitle(),
+                row.getTeacherId(),
+                row.getTeacherName(),
+                row.getStudentId(),
+                row.getStudentName()
+        );
+    }
+}
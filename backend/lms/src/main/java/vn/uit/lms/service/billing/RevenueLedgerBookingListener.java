@@ -0,0 +1,30 @@
+package vn.uit.lms.service.billing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vn.uit.lms.service.event.PaymentSucceededEvent;
+
+/**
+ * Books committed payments into the revenue ledger.
+ * A failure only leaves the payment unbooked; the ledger sweep retries it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueLedgerBookingListener {
+
+    private final RevenueLedgerService revenueLedgerService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPaymentSucceeded(PaymentSucceededEvent event) {
+        try {
+            revenueLedgerService.bookSale(event.paymentId());
+        } catch (RuntimeException e) {
+            log.warn("Payment {} settled but not booked in revenue ledger, left for the sweep: {}",
+                    event.paymentId(), e.getMessage());
+        }
+    }
+}
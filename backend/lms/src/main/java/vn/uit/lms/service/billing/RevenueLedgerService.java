@@ -0,0 +1,231 @@
+package vn.uit.lms.service.billing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.domain.billing.PaymentTransaction;
+import vn.uit.lms.core.domain.billing.RevenueLedgerEntry;
+import vn.uit.lms.core.domain.course.Course;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+import vn.uit.lms.core.repository.billing.RevenueLedgerEntryRepository;
+import vn.uit.lms.core.repository.billing.TeacherRevenueDailyRepository;
+import vn.uit.lms.shared.constant.LedgerAccount;
+import vn.uit.lms.shared.constant.LedgerEntryType;
+import vn.uit.lms.shared.constant.LedgerSide;
+import vn.uit.lms.shared.constant.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Double-entry revenue ledger
+ *
+ * Posts balanced ledger lines for each sale and refund and maintains the
+ * daily (teacher, course) rollups in the same transaction. Sales are booked after
+ * the payment commits; payments left unbooked are picked up by the ledger sweep.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueLedgerService {
+
+    private static final int MONEY_SCALE = 2;
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    private final RevenueLedgerEntryRepository ledgerEntryRepository;
+    private final TeacherRevenueDailyRepository revenueDailyRepository;
+    private final RevenueShareResolver revenueShareResolver;
+    private final PaymentTransactionRepository paymentRepository;
+
+    /**
+     * Book a settled payment in its own transaction, after the settlement committed
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void bookSale(Long paymentId) {
+        paymentRepository.findById(paymentId)
+                .filter(payment -> payment.getPaidAt() != null)
+                .ifPresent(this::recordSale);
+    }
+
+    /**
+     * Book a successful payment
+     *
+     * DEBIT GATEWAY_CLEARING amount = CREDIT GATEWAY_FEE fee + CREDIT TEACHER_PAYABLE share
+     * + CREDIT PLATFORM_REVENUE remainder. No-op if the payment is already booked.
+     */
+    @Transactional
+    public void recordSale(PaymentTransaction payment) {
+        if (payment.getPaidAt() == null) {
+            throw new IllegalStateException("Cannot book payment " + payment.getId() + " without paid_at");
+        }
+        if (ledgerEntryRepository.existsByPaymentIdAndEntryType(payment.getId(), LedgerEntryType.SALE)) {
+            log.debug("Payment {} already booked in revenue ledger", payment.getId());
+            return;
+        }
+
+        Course course = payment.getCourse();
+        LocalDate entryDate = toBusinessDate(payment.getPaidAt());
+
+        BigDecimal gross = money(payment.getAmount());
+        BigDecimal fee = money(payment.getTransactionFee());
+        BigDecimal net = payment.getNetAmount() != null ? money(payment.getNetAmount()) : gross.subtract(fee);
+        BigDecimal teacherShare = net.multiply(resolveTeacherPercentage(course, entryDate))
+                .divide(HUNDRED, MONEY_SCALE, RoundingMode.HALF_UP);
+        BigDecimal platformShare = net.subtract(teacherShare);
+
+        List<RevenueLedgerEntry> lines = new ArrayList<>();
+        lines.add(line(payment, LedgerEntryType.SALE, LedgerAccount.GATEWAY_CLEARING, LedgerSide.DEBIT, gross, entryDate, payment.getPaidAt()));
+        lines.add(line(payment, LedgerEntryType.SALE, LedgerAccount.GATEWAY_FEE, LedgerSide.CREDIT, fee, entryDate, payment.getPaidAt()));
+        lines.add(line(payment, LedgerEntryType.SALE, LedgerAccount.TEACHER_PAYABLE, LedgerSide.CREDIT, teacherShare, entryDate, payment.getPaidAt()));
+        lines.add(line(payment, LedgerEntryType.SALE, LedgerAccount.PLATFORM_REVENUE, LedgerSide.CREDIT, platformShare, entryDate, payment.getPaidAt()));
+        ledgerEntryRepository.saveAll(lines);
+
+        revenueDailyRepository.upsertDelta(
+                course.getTeacher().getId(), course.getId(), entryDate,
+                gross, fee, net, teacherShare, platformShare, BigDecimal.ZERO,
+                1, 0
+        );
+
+        log.info("Booked sale for payment {}: gross={}, teacherShare={}", payment.getId(), gross, teacherShare);
+    }
+
+    /**
+     * Book a refund by reversing the sale lines pro rata to the refunded amount
+     *
+     * Books the original sale first when it predates the ledger.
+     */
+    @Transactional
+    public void recordRefund(PaymentTransaction payment) {
+        if (payment.getRefundedAt() == null || payment.getRefundAmount() == null) {
+            throw new IllegalStateException("Cannot book refund for payment " + payment.getId() + " without refund data");
+        }
+        if (ledgerEntryRepository.existsByPaymentIdAndEntryType(payment.getId(), LedgerEntryType.REFUND)) {
+            log.debug("Refund for payment {} already booked in revenue ledger", payment.getId());
+            return;
+        }
+
+        List<RevenueLedgerEntry> saleLines = ledgerEntryRepository.findByPaymentIdAndEntryType(payment.getId(), LedgerEntryType.SALE);
+        if (saleLines.isEmpty()) {
+            recordSale(payment);
+            saleLines = ledgerEntryRepository.findByPaymentIdAndEntryType(payment.getId(), LedgerEntryType.SALE);
+        }
+
+        Map<LedgerAccount, BigDecimal> sale = new EnumMap<>(LedgerAccount.class);
+        saleLines.forEach(entry -> sale.put(entry.getAccount(), entry.getAmount()));
+
+        BigDecimal saleGross = sale.getOrDefault(LedgerAccount.GATEWAY_CLEARING, BigDecimal.ZERO);
+        BigDecimal refund = money(payment.getRefundAmount()).min(saleGross);
+        BigDecimal ratio = saleGross.signum() == 0
+                ? BigDecimal.ZERO
+                : refund.divide(saleGross, 10, RoundingMode.HALF_UP);
+
+        BigDecimal refundFee = prorate(sale.get(LedgerAccount.GATEWAY_FEE), ratio);
+        BigDecimal refundTeacher = prorate(sale.get(LedgerAccount.TEACHER_PAYABLE), ratio);
+        BigDecimal refundPlatform = refund.subtract(refundFee).subtract(refundTeacher);
+
+        Course course = payment.getCourse();
+        LocalDate entryDate = toBusinessDate(payment.getRefundedAt());
+
+        List<RevenueLedgerEntry> lines = new ArrayList<>();
+        lines.add(line(payment, LedgerEntryType.REFUND, LedgerAccount.GATEWAY_CLEARING, LedgerSide.CREDIT, refund, entryDate, payment.getRefundedAt()));
+        lines.add(line(payment, LedgerEntryType.REFUND, LedgerAccount.GATEWAY_FEE, LedgerSide.DEBIT, refundFee, entryDate, payment.getRefundedAt()));
+        lines.add(line(payment, LedgerEntryType.REFUND, LedgerAccount.TEACHER_PAYABLE, LedgerSide.DEBIT, refundTeacher, entryDate, payment.getRefundedAt()));
+        lines.add(line(payment, LedgerEntryType.REFUND, LedgerAccount.PLATFORM_REVENUE, LedgerSide.DEBIT, refundPlatform, entryDate, payment.getRefundedAt()));
+        ledgerEntryRepository.saveAll(lines);
+
+        revenueDailyRepository.upsertDelta(
+                course.getTeacher().getId(), course.getId(), entryDate,
+                BigDecimal.ZERO,
+                refundFee.negate(),
+                refund.subtract(refundFee).negate(),
+                refundTeacher.negate(),
+                refundPlatform.negate(),
+                refund,
+                0, 1
+        );
+
+        log.info("Booked refund for payment {}: refund={}, teacherShare={}", payment.getId(), refund, refundTeacher);
+    }
+
+    /**
+     * Book one page of settled payments that have no ledger lines yet
+     *
+     * @return id of the last payment processed, or null when nothing was left
+     */
+    @Transactional
+    public Long backfillPage(Long afterId, int pageSize) {
+        List<PaymentTransaction> payments = paymentRepository.findUnbookedSettledPayments(
+                afterId,
+                List.of(PaymentStatus.SUCCESS, PaymentStatus.REFUNDED),
+                PageRequest.of(0, pageSize)
+        );
+        if (payments.isEmpty()) {
+            return null;
+        }
+
+        for (PaymentTransaction payment : payments) {
+            try {
+                recordSale(payment);
+            } catch (IllegalStateException e) {
+                // No share config for the paid date yet: skip it, the next sweep retries
+                log.warn("Cannot book payment {} yet: {}", payment.getId(), e.getMessage());
+                continue;
+            }
+            if (payment.isRefunded() && payment.getRefundedAt() != null && payment.getRefundAmount() != null) {
+                recordRefund(payment);
+            }
+        }
+        return payments.get(payments.size() - 1).getId();
+    }
+
+    /**
+     * Teacher share (%) effective on the given date: category config, else the default
+     */
+    private BigDecimal resolveTeacherPercentage(Course course, LocalDate date) {
+        Long categoryId = course.getCategory() != null ? course.getCategory().getId() : null;
+        return revenueShareResolver.teacherPercentage(categoryId, date);
+    }
+
+    private RevenueLedgerEntry line(PaymentTransaction payment, LedgerEntryType type, LedgerAccount account,
+                                    LedgerSide side, BigDecimal amount, LocalDate entryDate, Instant occurredAt) {
+        return RevenueLedgerEntry.builder()
+                .paymentId(payment.getId())
+                .teacherId(payment.getCourse().getTeacher().getId())
+                .courseId(payment.getCourse().getId())
+                .entryType(type)
+                .account(account)
+                .side(side)
+                .amount(amount)
+                .currency(payment.getCurrency())
+                .entryDate(entryDate)
+                .occurredAt(occurredAt)
+                .build();
+    }
+
+    private static BigDecimal prorate(BigDecimal amount, BigDecimal ratio) {
+        if (amount == null) {
+            return BigDecimal.ZERO.setScale(MONEY_SCALE);
+        }
+        return amount.multiply(ratio).setScale(MONEY_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal money(BigDecimal amount) {
+        return amount == null
+                ? BigDecimal.ZERO.setScale(MONEY_SCALE)
+                : amount.setScale(MONEY_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static LocalDate toBusinessDate(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
@@ -7,13 +7,12 @@ import vn.uit.lms.core.domain.Account;
 import vn.uit.lms.core.domain.Teacher;
 import vn.uit.lms.core.domain.billing.PaymentTransaction;
 import vn.uit.lms.core.domain.billing.Payout;
-import vn.uit.lms.core.domain.billing.RevenueShareConfig;
 import vn.uit.lms.core.repository.TeacherRepository;
 import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
 import vn.uit.lms.core.repository.billing.PayoutRepository;
-import vn.uit.lms.core.repository.billing.RevenueShareConfigRepository;
+import vn.uit.lms.core.repository.billing.TeacherRevenueDailyRepository;
+import vn.uit.lms.core.repository.billing.TeacherRevenueDailyRepository.CourseRevenueTotals;
 import vn.uit.lms.service.AccountService;
-import vn.uit.lms.shared.constant.PaymentStatus;
 import vn.uit.lms.shared.dto.response.billing.MonthlyRevenueResponse;
 import vn.uit.lms.shared.dto.response.billing.PaymentTransactionResponse;
 import vn.uit.lms.shared.dto.response.billing.RevenueBreakdownResponse;
@@ -22,13 +21,12 @@ import vn.uit.lms.shared.exception.ResourceNotFoundException;
 import vn.uit.lms.shared.mapper.billing.BillingMapper;
 
 import java.math.BigDecimal;
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.time.ZoneId;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,42 +36,31 @@ public class RevenueService {
 
     private final PaymentTransactionRepository paymentRepository;
     private final PayoutRepository payoutRepository;
-    private final RevenueShareConfigRepository revenueShareConfigRepository;
+    private final RevenueShareResolver revenueShareResolver;
+    private final TeacherRevenueDailyRepository revenueDailyRepository;
     private final TeacherRepository teacherRepository;
     private final AccountService accountService;
 
     /**
-     * Get teacher's overall revenue summary
+     * Get teacher's overall revenue summary (read from daily revenue rollups)
      */
     public TeacherRevenueResponse getTeacherRevenue(Long teacherId) {
         Teacher teacher = teacherRepository.findById(teacherId)
                 .orElseThrow(() -> new ResourceNotFoundException("Teacher not found"));
 
-        List<PaymentTransaction> payments = paymentRepository.findByTeacherIdAndStatus(
-                teacherId,
-                PaymentStatus.SUCCESS
-        );
+        List<CourseRevenueTotals> courseTotals = revenueDailyRepository.sumByCourse(teacherId);
 
-        BigDecimal totalRevenue = payments.stream()
-                .map(PaymentTransaction::getNetAmount)
-                .filter(java.util.Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalRevenue = sum(courseTotals, CourseRevenueTotals::getNetAmount);
+        BigDecimal teacherEarnings = sum(courseTotals, CourseRevenueTotals::getTeacherEarnings);
+        BigDecimal platformFee = totalRevenue.subtract(teacherEarnings);
 
         // Get revenue share config
-        RevenueShareConfig revenueConfig = getDefaultRevenueConfig();
-        Float revenueSharePercentage = revenueConfig.getPercentage().floatValue();
+        Float revenueSharePercentage = currentDefaultPercentage();
 
-        BigDecimal teacherEarnings = payments.stream()
-                .map(p -> p.getTeacherRevenue(revenueSharePercentage))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal platformFee = totalRevenue.subtract(teacherEarnings);
-
-        long totalTransactions = payments.size();
-        long totalEnrollments = payments.stream()
-                .map(p -> p.getStudent().getId())
-                .distinct()
-                .count();
+        // One purchase per student and course, so settled sales equal enrollments
+        long totalTransactions = courseTotals.stream()
+                .mapToLong(RevenueService::settledSales)
+                .sum();
 
         // Calculate pending and completed payouts
         List<Payout> payouts = payoutRepository.findByTeacherId(teacherId);
@@ -88,17 +75,6 @@ public class RevenueService {
                 .map(Payout::getAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        // Revenue by course
-        Map<String, BigDecimal> revenueByCourse = payments.stream()
-                .collect(Collectors.groupingBy(
-                        p -> p.getCourse().getTitle(),
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                p -> p.getTeacherRevenue(revenueSharePercentage),
-                                BigDecimal::add
-                        )
-                ));
-
         return TeacherRevenueResponse.builder()
                 .teacherId(teacher.getId())
                 .teacherName(teacher.getAccount().getUsername())
@@ -107,10 +83,10 @@ public class RevenueService {
                 .platformFee(platformFee)
                 .revenueSharePercentage(revenueSharePercentage)
                 .totalTransactions(totalTransactions)
-                .totalEnrollments(totalEnrollments)
+                .totalEnrollments(totalTransactions)
                 .pendingPayout(pendingPayout)
                 .completedPayout(completedPayout)
-                .revenueByCourse(revenueByCourse)
+                .revenueByCourse(earningsByCourseTitle(courseTotals))
                 .build();
     }
 
@@ -126,62 +102,32 @@ public class RevenueService {
     }
 
     /**
-     * Get detailed revenue breakdown by courses
+     * Get detailed revenue breakdown by courses (read from daily revenue rollups)
      */
     public RevenueBreakdownResponse getRevenueBreakdown(Long teacherId) {
         Teacher teacher = teacherRepository.findById(teacherId)
                 .orElseThrow(() -> new ResourceNotFoundException("Teacher not found"));
 
-        List<PaymentTransaction> payments = paymentRepository.findByTeacherIdAndStatus(
-                teacherId,
-                PaymentStatus.SUCCESS
-        );
-
-        RevenueShareConfig revenueConfig = getDefaultRevenueConfig();
-        Float revenueSharePercentage = revenueConfig.getPercentage().floatValue();
-
-        // Group by course
-        Map<Long, List<PaymentTransaction>> paymentsByCourse = payments.stream()
-                .collect(Collectors.groupingBy(p -> p.getCourse().getId()));
+        Float revenueSharePercentage = currentDefaultPercentage();
 
         List<RevenueBreakdownResponse.CourseRevenueDetail> courseBreakdown =
-                paymentsByCourse.entrySet().stream()
-                .map(entry -> {
-                    Long courseId = entry.getKey();
-                    List<PaymentTransaction> coursePayments = entry.getValue();
-
-                    PaymentTransaction firstPayment = coursePayments.get(0);
-
-                    BigDecimal grossRevenue = coursePayments.stream()
-                            .map(PaymentTransaction::getAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    BigDecimal netRevenue = coursePayments.stream()
-                            .map(PaymentTransaction::getNetAmount)
-                            .filter(java.util.Objects::nonNull)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    BigDecimal teacherEarnings = coursePayments.stream()
-                            .map(p -> p.getTeacherRevenue(revenueSharePercentage))
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    BigDecimal platformFee = netRevenue.subtract(teacherEarnings);
-
-                    int totalEnrollments = (int) coursePayments.stream()
-                            .map(p -> p.getStudent().getId())
-                            .distinct()
-                            .count();
+                revenueDailyRepository.sumByCourse(teacherId).stream()
+                .map(totals -> {
+                    BigDecimal grossRevenue = orZero(totals.getGrossAmount()).subtract(orZero(totals.getRefundAmount()));
+                    BigDecimal netRevenue = orZero(totals.getNetAmount());
+                    BigDecimal teacherEarnings = orZero(totals.getTeacherEarnings());
+                    int settledSales = (int) settledSales(totals);
 
                     return RevenueBreakdownResponse.CourseRevenueDetail.builder()
-                            .courseId(courseId)
-                            .courseTitle(firstPayment.getCourse().getTitle())
-                            .courseThumbnail(firstPayment.getCourse().getThumbnailUrl())
+                            .courseId(totals.getCourseId())
+                            .courseTitle(totals.getCourseTitle())
+                            .courseThumbnail(totals.getCourseThumbnail())
                             .grossRevenue(grossRevenue)
                             .netRevenue(netRevenue)
                             .teacherEarnings(teacherEarnings)
-                            .platformFee(platformFee)
-                            .totalEnrollments(totalEnrollments)
-                            .totalTransactions(coursePayments.size())
+                            .platformFee(netRevenue.subtract(teacherEarnings))
+                            .totalEnrollments(settledSales)
+                            .totalTransactions(settledSales)
                             .revenueSharePercentage(revenueSharePercentage)
                             .build();
                 })
@@ -226,7 +172,7 @@ public class RevenueService {
     }
 
     /**
-     * Get monthly revenue for a specific period
+     * Get monthly revenue for a specific period (read from daily revenue rollups)
      */
     public MonthlyRevenueResponse getMonthlyRevenue(Long teacherId, YearMonth yearMonth) {
         Teacher teacher = teacherRepository.findById(teacherId)
@@ -236,59 +182,25 @@ public class RevenueService {
         LocalDate startDate = yearMonth.atDay(1);
         LocalDate endDate = yearMonth.atEndOfMonth();
 
-        Instant startInstant = startDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
-        Instant endInstant = endDate.atTime(23, 59, 59).atZone(ZoneId.systemDefault()).toInstant();
-
-        List<PaymentTransaction> payments = paymentRepository.findByTeacherIdAndDateRange(
-                teacherId,
-                startInstant,
-                endInstant
-        );
-
-        payments = payments.stream()
-                .filter(p -> p.getStatus() == PaymentStatus.SUCCESS)
-                .toList();
-
-        RevenueShareConfig revenueConfig = getDefaultRevenueConfig();
-        Float revenueSharePercentage = revenueConfig.getPercentage().floatValue();
-
-        BigDecimal totalRevenue = payments.stream()
-                .map(PaymentTransaction::getNetAmount)
-                .filter(java.util.Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal teacherEarnings = payments.stream()
-                .map(p -> p.getTeacherRevenue(revenueSharePercentage))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<CourseRevenueTotals> courseTotals =
+                revenueDailyRepository.sumByCourseBetween(teacherId, startDate, endDate);
 
+        BigDecimal totalRevenue = sum(courseTotals, CourseRevenueTotals::getNetAmount);
+        BigDecimal teacherEarnings = sum(courseTotals, CourseRevenueTotals::getTeacherEarnings);
         BigDecimal platformFee = totalRevenue.subtract(teacherEarnings);
 
-        int totalEnrollments = (int) payments.stream()
-                .map(p -> p.getStudent().getId())
-                .distinct()
-                .count();
+        int totalTransactions = (int) courseTotals.stream()
+                .mapToLong(RevenueService::settledSales)
+                .sum();
 
         // Daily revenue breakdown
-        Map<String, BigDecimal> dailyRevenue = payments.stream()
-                .collect(Collectors.groupingBy(
-                        p -> LocalDate.ofInstant(p.getPaidAt(), ZoneId.systemDefault()).toString(),
-                        LinkedHashMap::new,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                p -> p.getTeacherRevenue(revenueSharePercentage),
-                                BigDecimal::add
-                        )
-                ));
-
-        // Revenue by course for this month
-        Map<String, BigDecimal> revenueByCourse = payments.stream()
-                .collect(Collectors.groupingBy(
-                        p -> p.getCourse().getTitle(),
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                p -> p.getTeacherRevenue(revenueSharePercentage),
-                                BigDecimal::add
-                        )
+        Map<String, BigDecimal> dailyRevenue = revenueDailyRepository
+                .sumByDayBetween(teacherId, startDate, endDate).stream()
+                .collect(Collectors.toMap(
+                        day -> day.getRevenueDate().toString(),
+                        day -> orZero(day.getTeacherEarnings()),
+                        BigDecimal::add,
+                        LinkedHashMap::new
                 ));
 
         return MonthlyRevenueResponse.builder()
@@ -298,10 +210,10 @@ public class RevenueService {
                 .totalRevenue(totalRevenue)
                 .teacherEarnings(teacherEarnings)
                 .platformFee(platformFee)
-                .totalEnrollments(totalEnrollments)
-                .totalTransactions(payments.size())
+                .totalEnrollments(totalTransactions)
+                .totalTransactions(totalTransactions)
                 .dailyRevenue(dailyRevenue)
-                .revenueByCourse(revenueByCourse)
+                .revenueByCourse(earningsByCourseTitle(courseTotals))
                 .build();
     }
 
@@ -341,15 +253,39 @@ public class RevenueService {
         return getTeacherPaymentTransactions(teacher.getId());
     }
 
+    private static Map<String, BigDecimal> earningsByCourseTitle(List<CourseRevenueTotals> courseTotals) {
+        return courseTotals.stream()
+                .collect(Collectors.toMap(
+                        CourseRevenueTotals::getCourseTitle,
+                        totals -> orZero(totals.getTeacherEarnings()),
+                        BigDecimal::add
+                ));
+    }
+
+    private static long settledSales(CourseRevenueTotals totals) {
+        long sales = totals.getSalesCount() != null ? totals.getSalesCount() : 0L;
+        long refunds = totals.getRefundCount() != null ? totals.getRefundCount() : 0L;
+        return Math.max(0L, sales - refunds);
+    }
+
+    private static BigDecimal sum(List<CourseRevenueTotals> courseTotals,
+                                  Function<CourseRevenueTotals, BigDecimal> field) {
+        return courseTotals.stream()
+                .map(field)
+                .map(RevenueService::orZero)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
     /**
-     * Get default revenue share config
+     * Default share currently in force (informational; earnings come from the ledger,
+     * which applied the share in force on each payment date)
      */
-    private RevenueShareConfig getDefaultRevenueConfig() {
-        return revenueShareConfigRepository.findActiveOnDate(LocalDate.now())
-                .stream()
-                .filter(config -> config.getCategoryId() == null)
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("No active revenue share config found"));
+    private Float currentDefaultPercentage() {
+        return revenueShareResolver.teacherPercentage(null, LocalDate.now()).floatValue();
     }
 }
 
@@ -0,0 +1,209 @@
+package vn.uit.lms.service.billing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vn.uit.lms.core.domain.billing.RevenueShareConfig;
+import vn.uit.lms.core.repository.billing.RevenueShareConfigRepository;
+import vn.uit.lms.service.event.RevenueShareConfigChangedEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory index of revenue share configs by category and effective date
+ *
+ * Each category's configs are flattened into disjoint date segments, so resolving the
+ * config in force on a date is one floor lookup (O(log n)). Where configs overlap, the
+ * one that started latest wins. Deactivated configs keep their (closed) period, so
+ * historical payments resolve to the share that applied when they happened.
+ *
+ * The index is rebuilt after every change committed through {@link RevenueShareService}
+ * and periodically, to pick up changes made by other instances.
+ */
+@Service
+@Slf4j
+public class RevenueShareResolver {
+
+    private final RevenueShareConfigRepository revenueShareConfigRepository;
+
+    private volatile Index index;
+
+    public RevenueShareResolver(RevenueShareConfigRepository revenueShareConfigRepository) {
+        this.revenueShareConfigRepository = revenueShareConfigRepository;
+    }
+
+    /**
+     * Revenue share in force for a course category on a date: the category's own config,
+     * else the default (category-less) one
+     *
+     * @throws IllegalStateException if neither exists
+     */
+    public EffectiveShare resolve(Long categoryId, LocalDate date) {
+        Index current = currentIndex();
+        Optional<EffectiveShare> share = categoryId != null
+                ? current.find(categoryId, date)
+                : Optional.empty();
+        return share
+                .or(() -> current.find(null, date))
+                .orElseThrow(() -> new IllegalStateException("No active revenue share config found for " + date));
+    }
+
+    /**
+     * Teacher share (%) in force for a course category on a date
+     */
+    public BigDecimal teacherPercentage(Long categoryId, LocalDate date) {
+        return resolve(categoryId, date).percentage();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.revenue.share.refresh-interval-ms:600000}",
+            initialDelayString = "${app.revenue.share.refresh-interval-ms:600000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onConfigChanged(RevenueShareConfigChangedEvent event) {
+        log.debug("Revenue share config {} changed, rebuilding index", event.configId());
+        rebuild();
+    }
+
+    private Index currentIndex() {
+        Index current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = rebuild();
+                }
+            }
+        }
+        return current;
+    }
+
+    private synchronized Index rebuild() {
+        Index rebuilt = Index.build(revenueShareConfigRepository.findAll());
+        index = rebuilt;
+        log.debug("Revenue share index rebuilt: {} categories", rebuilt.categoryCount());
+        return rebuilt;
+    }
+
+    /**
+     * Immutable view of the config that applies in a period
+     */
+    public record EffectiveShare(
+            Long configId,
+            Long categoryId,
+            BigDecimal percentage,
+            BigDecimal minimumPayoutAmount,
+            LocalDate effectiveFrom,
+            LocalDate effectiveTo
+    ) {
+        static EffectiveShare of(RevenueShareConfig config) {
+            return new EffectiveShare(config.getId(), config.getCategoryId(), config.getPercentage(),
+                    config.getMinimumPayoutAmount(), config.getEffectiveFrom(), config.getEffectiveTo());
+        }
+
+        boolean covers(LocalDate date) {
+            return !date.isBefore(effectiveFrom) && (effectiveTo == null || !date.isAfter(effectiveTo));
+        }
+    }
+
+    /**
+     * Disjoint segment [start, end] (end null = open) with the share in force
+     */
+    private record Segment(LocalDate end, EffectiveShare share) {
+    }
+
+    private static final class Index {
+
+        private static final Long DEFAULT_SCOPE = Long.MIN_VALUE;
+
+        private final Map<Long, TreeMap<LocalDate, Segment>> segmentsByCategory;
+
+        private Index(Map<Long, TreeMap<LocalDate, Segment>> segmentsByCategory) {
+            this.segmentsByCategory = segmentsByCategory;
+        }
+
+        Optional<EffectiveShare> find(Long categoryId, LocalDate date) {
+            TreeMap<LocalDate, Segment> segments = segmentsByCategory.get(categoryId != null ? categoryId : DEFAULT_SCOPE);
+            if (segments == null) {
+                return Optional.empty();
+            }
+            Map.Entry<LocalDate, Segment> floor = segments.floorEntry(date);
+            if (floor == null) {
+                return Optional.empty();
+            }
+            Segment segment = floor.getValue();
+            return segment.end() == null || !date.isAfter(segment.end())
+                    ? Optional.of(segment.share())
+                    : Optional.empty();
+        }
+
+        int categoryCount() {
+            return segmentsByCategory.size();
+        }
+
+        static Index build(List<RevenueShareConfig> configs) {
+            Map<Long, List<EffectiveShare>> byScope = new HashMap<>();
+            for (RevenueShareConfig config : configs) {
+                // Inactive configs without an end date were switched off, not superseded
+                if (config.getEffectiveFrom() == null || config.getPercentage() == null
+                        || (!Boolean.TRUE.equals(config.getIsActive()) && config.getEffectiveTo() == null)) {
+                    continue;
+                }
+                Long scope = config.getCategoryId() != null ? config.getCategoryId() : DEFAULT_SCOPE;
+                byScope.computeIfAbsent(scope, k -> new ArrayList<>()).add(EffectiveShare.of(config));
+            }
+
+            Map<Long, TreeMap<LocalDate, Segment>> segments = new HashMap<>();
+            byScope.forEach((scope, shares) -> segments.put(scope, flatten(shares)));
+            return new Index(Collections.unmodifiableMap(segments));
+        }
+
+        /**
+         * Split the timeline at every config boundary and pick, per piece, the covering
+         * config with the latest start
+         */
+        private static TreeMap<LocalDate, Segment> flatten(List<EffectiveShare> shares) {
+            TreeSet<LocalDate> boundaries = new TreeSet<>();
+            for (EffectiveShare share : shares) {
+                boundaries.add(share.effectiveFrom());
+                if (share.effectiveTo() != null) {
+                    boundaries.add(share.effectiveTo().plusDays(1));
+                }
+            }
+
+            Comparator<EffectiveShare> newestFirst = Comparator
+                    .comparing(EffectiveShare::effectiveFrom)
+                    .thenComparing(EffectiveShare::configId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .reversed();
+
+            TreeMap<LocalDate, Segment> segments = new TreeMap<>();
+            for (LocalDate start : boundaries) {
+                LocalDate next = boundaries.higher(start);
+                LocalDate end = next != null ? next.minusDays(1) : null;
+
+                shares.stream()
+                        .filter(share -> share.covers(start))
+                        .min(newestFirst)
+                        .ifPresent(share -> segments.put(start, new Segment(end, share)));
+            }
+            return segments;
+        }
+    }
+}
@@ -2,12 +2,14 @@ package vn.uit.lms.service.billing;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vn.uit.lms.core.domain.billing.RevenueShareConfig;
 import vn.uit.lms.core.repository.billing.RevenueShareConfigRepository;
+import vn.uit.lms.service.event.RevenueShareConfigChangedEvent;
 import vn.uit.lms.shared.dto.request.billing.CreateRevenueShareConfigRequest;
 import vn.uit.lms.shared.dto.request.billing.UpdateRevenueShareConfigRequest;
 import vn.uit.lms.shared.dto.response.billing.RevenueShareConfigResponse;
@@ -29,6 +31,8 @@ import java.util.stream.Collectors;
 public class RevenueShareService {
 
     private final RevenueShareConfigRepository revenueShareConfigRepository;
+    private final RevenueShareResolver revenueShareResolver;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create revenue share configuration (Admin only)
@@ -93,6 +97,7 @@ public class RevenueShareService {
         config = revenueShareConfigRepository.save(config);
         log.info("Created revenue share config ID: {} with {}% for category: {}",
                 config.getId(), config.getPercentage(), config.getCategoryId());
+        eventPublisher.publishEvent(new RevenueShareConfigChangedEvent(config.getId()));
 
         // Postcondition: Config is active
         assert config.getIsActive();
@@ -148,13 +153,9 @@ public class RevenueShareService {
     public RevenueShareConfigResponse getActiveConfigForCategory(Long categoryId, LocalDate date) {
         LocalDate checkDate = date != null ? date : LocalDate.now();
 
-        RevenueShareConfig config;
-        if (categoryId != null) {
-            config = revenueShareConfigRepository.findByCategoryAndDate(categoryId, checkDate)
-                    .orElseGet(() -> getDefaultConfig(checkDate));
-        } else {
-            config = getDefaultConfig(checkDate);
-        }
+        Long configId = revenueShareResolver.resolve(categoryId, checkDate).configId();
+        RevenueShareConfig config = revenueShareConfigRepository.findById(configId)
+                .orElseThrow(() -> new ResourceNotFoundException("Revenue share config not found"));
 
         return BillingMapper.toRevenueShareConfigResponse(config);
     }
@@ -212,6 +213,7 @@ public class RevenueShareService {
 
         config = revenueShareConfigRepository.save(config);
         log.info("Updated revenue share config ID: {}", id);
+        eventPublisher.publishEvent(new RevenueShareConfigChangedEvent(id));
 
         return BillingMapper.toRevenueShareConfigResponse(config);
     }
@@ -242,6 +244,7 @@ public class RevenueShareService {
 
         config = revenueShareConfigRepository.save(config);
         log.info("Deactivated revenue share config ID: {}", id);
+        eventPublisher.publishEvent(new RevenueShareConfigChangedEvent(id));
 
         // Postcondition: Config is inactive
         assert !config.getIsActive();
@@ -265,18 +268,6 @@ public class RevenueShareService {
 
         revenueShareConfigRepository.delete(config);
         log.info("Deleted revenue share config ID: {}", id);
-    }
-
-    /**
-     * Get default revenue share config (no category filter)
-     */
-    private RevenueShareConfig getDefaultConfig(LocalDate date) {
-        return revenueShareConfigRepository.findActiveOnDate(date)
-                .stream()
-                .filter(config -> config.getCategoryId() == null)
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException(
-                    "No default revenue share config found. Please create one."
-                ));
+        eventPublisher.publishEvent(new RevenueShareConfigChangedEvent(id));
     }
 }
@@ -9,6 +9,7 @@ import vn.uit.lms.shared.constant.PaymentProvider;
 import vn.uit.lms.shared.dto.response.billing.ZaloPayQueryResponse;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ZaloPay Service
@@ -28,10 +29,40 @@ public class ZaloPayService {
      * @return Query response with order status
      */
     public ZaloPayQueryResponse queryOrderStatus(String appTransId) {
-        ZaloPayGateway gateway = (ZaloPayGateway) paymentFactory.getProcessor(PaymentProvider.ZALOPAY);
+        return toOrderStatusResponse(getGateway().queryOrderStatus(appTransId));
+    }
 
-        Map<String, Object> response = gateway.queryOrderStatus(appTransId);
+    /**
+     * Query order status from ZaloPay without blocking the caller
+     */
+    public CompletableFuture<ZaloPayQueryResponse> queryOrderStatusAsync(String appTransId) {
+        return getGateway().queryOrderStatusAsync(appTransId)
+                .thenApply(this::toOrderStatusResponse);
+    }
 
+    /**
+     * Query refund status from ZaloPay
+     *
+     * @param mRefundId Merchant refund ID
+     * @return Query response with refund status
+     */
+    public ZaloPayQueryResponse queryRefundStatus(String mRefundId) {
+        return toRefundStatusResponse(getGateway().queryRefundStatus(mRefundId));
+    }
+
+    /**
+     * Query refund status from ZaloPay without blocking the caller
+     */
+    public CompletableFuture<ZaloPayQueryResponse> queryRefundStatusAsync(String mRefundId) {
+        return getGateway().queryRefundStatusAsync(mRefundId)
+                .thenApply(this::toRefundStatusResponse);
+    }
+
+    private ZaloPayGateway getGateway() {
+        return (ZaloPayGateway) paymentFactory.getProcessor(PaymentProvider.ZALOPAY);
+    }
+
+    private ZaloPayQueryResponse toOrderStatusResponse(Map<String, Object> response) {
         return ZaloPayQueryResponse.builder()
                 .returnCode((Integer) response.get("return_code"))
                 .returnMessage((String) response.get("return_message"))
@@ -44,17 +75,7 @@ public class ZaloPayService {
                 .build();
     }
 
-    /**
-     * Query refund status from ZaloPay
-     *
-     * @param mRefundId Merchant refund ID
-     * @return Query response with refund status
-     */
-    public ZaloPayQueryResponse queryRefundStatus(String mRefundId) {
-        ZaloPayGateway gateway = (ZaloPayGateway) paymentFactory.getProcessor(PaymentProvider.ZALOPAY);
-
-        Map<String, Object> response = gateway.queryRefundStatus(mRefundId);
-
+    private ZaloPayQueryResponse toRefundStatusResponse(Map<String, Object> response) {
         return ZaloPayQueryResponse.builder()
                 .returnCode((Integer) response.get("return_code"))
                 .returnMessage((String) response.get("return_message"))
@@ -63,4 +84,3 @@ public class ZaloPayService {
                 .build();
     }
 }
-
@@ -0,0 +1,88 @@
+package vn.uit.lms.service.billing.gateway;
+
+import vn.uit.lms.shared.constant.PaymentProvider;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Payment gateway callback, parsed once at the request boundary
+ *
+ * Holds the raw parameters in key order (VNPay signs them sorted), the decoded JSON
+ * payload for gateways that nest one (ZaloPay {@code data}) and the internal order id.
+ * Detection, signature verification and field extraction all read from this object
+ * instead of re-parsing the request. Immutable.
+ */
+public final class CallbackEnvelope {
+
+    private final PaymentProvider provider;
+    private final SortedMap<String, String> params;
+    private final Map<String, Object> data;
+    private final String orderId;
+
+    private CallbackEnvelope(PaymentProvider provider, SortedMap<String, String> params,
+                             Map<String, Object> data, String orderId) {
+        this.provider = provider;
+        this.params = params;
+        this.data = data;
+        this.orderId = orderId;
+    }
+
+    /**
+     * @param params raw callback parameters (copied)
+     * @param data   decoded nested payload, or null if the gateway has none
+     */
+    public static CallbackEnvelope of(PaymentProvider provider, Map<String, String> params,
+                                      Map<String, Object> data, String orderId) {
+        return new CallbackEnvelope(
+                provider,
+                Collections.unmodifiableSortedMap(new TreeMap<>(params)),
+                data != null ? Collections.unmodifiableMap(data) : Map.of(),
+                orderId
+        );
+    }
+
+    public PaymentProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Raw parameters, sorted by key
+     */
+    public SortedMap<String, String> getParams() {
+        return params;
+    }
+
+    public String get(String key) {
+        return params.get(key);
+    }
+
+    public boolean has(String key) {
+        return params.containsKey(key);
+    }
+
+    /**
+     * Decoded nested payload (ZaloPay {@code data}); empty for flat callbacks
+     */
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    public Object getDataValue(String key) {
+        return data.get(key);
+    }
+
+    /**
+     * Internal order id ({@code PAY<paymentId>}), or null if the callback does not carry one
+     */
+    public String getOrderId() {
+        return orderId;
+    }
+
+    @Override
+    public String toString() {
+        return "CallbackEnvelope{provider=" + provider + ", orderId=" + orderId + ", params=" + params.keySet() + "}";
+    }
+}
@@ -0,0 +1,109 @@
+package vn.uit.lms.service.billing.gateway;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Minimal consecutive-failure circuit breaker for outbound gateway calls.
+ *
+ * CLOSED: calls pass; after {@code failureThreshold} consecutive failures the circuit opens.
+ * OPEN: calls are rejected until {@code openDuration} elapses.
+ * HALF_OPEN: a single trial call is let through; success closes, failure re-opens.
+ *
+ * Only transport-level failures (timeouts, connection errors, 5xx) should be recorded;
+ * business return codes from the gateway are successes from the breaker's point of view.
+ */
+@Slf4j
+public class GatewayCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAtMillis = new AtomicLong();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+
+    public GatewayCircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        this(name, failureThreshold, openDuration, Clock.systemUTC());
+    }
+
+    GatewayCircuitBreaker(String name, int failureThreshold, Duration openDuration, Clock clock) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * @return true if a call may proceed; the caller must then report
+     * {@link #onSuccess()} or {@link #onFailure()}
+     */
+    public boolean tryAcquirePermission() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+
+        if (current == State.OPEN) {
+            if (clock.millis() - openedAtMillis.get() < openDuration.toMillis()) {
+                return false;
+            }
+            if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                log.info("Circuit '{}' half-open, allowing trial call", name);
+            }
+        }
+
+        // HALF_OPEN: exactly one trial call at a time
+        return trialInFlight.compareAndSet(false, true);
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        trialInFlight.set(false);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            log.info("Circuit '{}' closed", name);
+        }
+    }
+
+    public void onFailure() {
+        trialInFlight.set(false);
+        if (state.get() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Release a permission that ended without a verdict (e.g. cancelled call)
+     */
+    public void onIgnored() {
+        trialInFlight.set(false);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void open() {
+        openedAtMillis.set(clock.millis());
+        if (state.getAndSet(State.OPEN) != State.OPEN) {
+            log.warn("Circuit '{}' opened after {} consecutive failures", name, consecutiveFailures.get());
+        }
+    }
+}
@@ -3,11 +3,15 @@ package vn.uit.lms.service.billing.gateway;
 import vn.uit.lms.shared.constant.PaymentProvider;
 
 import java.math.BigDecimal;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Payment Gateway Interface (Strategy Pattern)
  * Allows for easy integration with multiple payment providers
+ *
+ * Gateways that call a remote API should override the *Async variants with a
+ * non-blocking implementation; the defaults wrap the synchronous methods for
+ * gateways that only compute locally (e.g. signing a redirect URL).
  */
 public interface PaymentGateway {
 
@@ -35,27 +39,42 @@ public interface PaymentGateway {
     );
 
     /**
-     * Verify payment from gateway callback
+     * Id the gateway will know a new order by
      *
-     * @param params Parameters from payment gateway callback
-     * @return true if payment is valid and successful
+     * Issued once before the payment URL is created and stored on the payment, so the order
+     * can be looked up at the gateway later. Gateways that use the order id as is keep the default.
      */
-    boolean verifyPayment(Map<String, String> params);
+    default String newProviderOrderId(String orderId) {
+        return orderId;
+    }
 
     /**
-     * Get transaction ID from gateway response
+     * Verify the signature of a gateway callback
+     *
+     * @param callback Callback parsed by {@code PaymentCallbackDetector}
+     * @return true if the callback was signed by the gateway
+     */
+    boolean verifyPayment(CallbackEnvelope callback);
+
+    /**
+     * Get transaction ID from gateway callback
      */
-    String getTransactionId(Map<String, String> params);
+    String getTransactionId(CallbackEnvelope callback);
 
     /**
      * Check if payment was successful
      */
-    boolean isPaymentSuccess(Map<String, String> params);
+    boolean isPaymentSuccess(CallbackEnvelope callback);
 
     /**
      * Get error message if payment failed
      */
-    String getErrorMessage(Map<String, String> params);
+    String getErrorMessage(CallbackEnvelope callback);
+
+    /**
+     * Gateway-specific result code of the callback, recorded on failed payments
+     */
+    String getErrorCode(CallbackEnvelope callback);
 
     /**
      * Request a refund (if supported)
@@ -66,5 +85,48 @@ public interface PaymentGateway {
      * @return Refund transaction ID
      */
     String requestRefund(String transactionId, BigDecimal amount, String reason);
-}
 
+    /**
+     * Asynchronous variant of {@link #createPaymentUrl}; must not block the calling thread
+     */
+    default CompletableFuture<String> createPaymentUrlAsync(
+            String orderId,
+            BigDecimal amount,
+            String orderInfo,
+            String returnUrl,
+            String ipAddress
+    ) {
+        try {
+            return CompletableFuture.completedFuture(
+                    createPaymentUrl(orderId, amount, orderInfo, returnUrl, ipAddress));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Asynchronous variant of {@link #createPaymentUrl} that creates the gateway order under
+     * an id issued by {@link #newProviderOrderId}
+     */
+    default CompletableFuture<String> createPaymentUrlAsync(
+            String orderId,
+            String providerOrderId,
+            BigDecimal amount,
+            String orderInfo,
+            String returnUrl,
+            String ipAddress
+    ) {
+        return createPaymentUrlAsync(orderId, amount, orderInfo, returnUrl, ipAddress);
+    }
+
+    /**
+     * Asynchronous variant of {@link #requestRefund}; must not block the calling thread
+     */
+    default CompletableFuture<String> requestRefundAsync(String transactionId, BigDecimal amount, String reason) {
+        try {
+            return CompletableFuture.completedFuture(requestRefund(transactionId, amount, reason));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
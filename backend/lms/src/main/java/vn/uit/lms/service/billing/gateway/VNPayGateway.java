@@ -4,9 +4,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import vn.uit.lms.shared.constant.PaymentProvider;
+import vn.uit.lms.shared.util.crypto.HMACUtil;
+import vn.uit.lms.shared.util.crypto.HmacSigner;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.math.BigDecimal;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -45,6 +45,9 @@ public class VNPayGateway implements PaymentGateway {
     @Value("${vnpay.locale:vn}")
     private String locale;
 
+    // Built on first use, once hashSecret is injected
+    private volatile HmacSigner signer;
+
     @Override
     public PaymentProvider getGatewayName() {
         return PaymentProvider.VNPAY;
@@ -95,7 +98,7 @@ public class VNPayGateway implements PaymentGateway {
                      .append(URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8));
             }
 
-            String vnpSecureHash = hmacSHA512(hashSecret, hashData.toString());
+            String vnpSecureHash = signer().signHex(hashData.toString());
             query.append("&vnp_SecureHash=").append(vnpSecureHash);
 
             String paymentUrl = vnpUrl + "?" + query;
@@ -110,23 +113,21 @@ public class VNPayGateway implements PaymentGateway {
     }
 
     @Override
-    public boolean verifyPayment(Map<String, String> params) {
+    public boolean verifyPayment(CallbackEnvelope callback) {
         try {
-            String vnpSecureHash = params.get("vnp_SecureHash");
+            String vnpSecureHash = callback.get("vnp_SecureHash");
             if (vnpSecureHash == null) {
                 return false;
             }
 
-            // Remove hash params
-            Map<String, String> fields = new TreeMap<>(params);
-            fields.remove("vnp_SecureHash");
-            fields.remove("vnp_SecureHashType");
-
-            // Build hash data
+            // Envelope params are already sorted; skip the hash params while building hash data
             StringBuilder hashData = new StringBuilder();
-            for (Map.Entry<String, String> entry : fields.entrySet()) {
+            for (Map.Entry<String, String> entry : callback.getParams().entrySet()) {
                 String fieldName = entry.getKey();
                 String fieldValue = entry.getValue();
+                if (fieldName.equals("vnp_SecureHash") || fieldName.equals("vnp_SecureHashType")) {
+                    continue;
+                }
                 if (fieldValue != null && !fieldValue.isEmpty()) {
                     if (hashData.length() > 0) {
                         hashData.append('&');
@@ -136,8 +137,7 @@ public class VNPayGateway implements PaymentGateway {
                 }
             }
 
-            String calculatedHash = hmacSHA512(hashSecret, hashData.toString());
-            return vnpSecureHash.equals(calculatedHash);
+            return signer().verifyHex(hashData.toString(), vnpSecureHash);
 
         } catch (Exception e) {
             log.error("Error verifying VNPay payment", e);
@@ -146,22 +146,27 @@ public class VNPayGateway implements PaymentGateway {
     }
 
     @Override
-    public String getTransactionId(Map<String, String> params) {
-        return params.get("vnp_TransactionNo");
+    public String getTransactionId(CallbackEnvelope callback) {
+        return callback.get("vnp_TransactionNo");
     }
 
     @Override
-    public boolean isPaymentSuccess(Map<String, String> params) {
-        String responseCode = params.get("vnp_ResponseCode");
+    public boolean isPaymentSuccess(CallbackEnvelope callback) {
+        String responseCode = callback.get("vnp_ResponseCode");
         return "00".equals(responseCode);
     }
 
     @Override
-    public String getErrorMessage(Map<String, String> params) {
-        String responseCode = params.get("vnp_ResponseCode");
+    public String getErrorMessage(CallbackEnvelope callback) {
+        String responseCode = callback.get("vnp_ResponseCode");
         return getVNPayErrorMessage(responseCode);
     }
 
+    @Override
+    public String getErrorCode(CallbackEnvelope callback) {
+        return callback.get("vnp_ResponseCode");
+    }
+
     @Override
     public String requestRefund(String transactionId, BigDecimal amount, String reason) {
         // VNPay refund requires API call to their refund endpoint
@@ -171,24 +176,15 @@ public class VNPayGateway implements PaymentGateway {
     }
 
     /**
-     * HMAC SHA512 encryption
+     * HMAC SHA512 signer for hashSecret
      */
-    private String hmacSHA512(String key, String data) {
-        try {
-            Mac hmac512 = Mac.getInstance("HmacSHA512");
-            SecretKeySpec secretKey = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA512");
-            hmac512.init(secretKey);
-            byte[] result = hmac512.doFinal(data.getBytes(StandardCharsets.UTF_8));
-
-            StringBuilder sb = new StringBuilder();
-            for (byte b : result) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating HMAC SHA512", e);
+    private HmacSigner signer() {
+        HmacSigner current = signer;
+        if (current == null) {
+            current = HmacSigner.of(HMACUtil.HMACSHA512, hashSecret);
+            signer = current;
         }
+        return current;
     }
 
     /**
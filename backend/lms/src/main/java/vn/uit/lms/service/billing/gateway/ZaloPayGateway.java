@@ -1,6 +1,9 @@
 package vn.uit.lms.service.billing.gateway;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.ParameterizedTypeReference;
@@ -10,15 +13,26 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import vn.uit.lms.config.gateway.ZaloPayConfig;
 import vn.uit.lms.shared.constant.PaymentProvider;
 import vn.uit.lms.shared.constant.ZaloPaymentMethod;
+import vn.uit.lms.shared.exception.PaymentGatewayException;
+import vn.uit.lms.shared.util.crypto.HmacSigner;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.math.BigDecimal;
-import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
@@ -31,14 +45,14 @@ import java.util.stream.Collectors;
 public class ZaloPayGateway implements PaymentGateway {
 
     // Constants
-    private static final String DATE_FORMAT_PATTERN = "yyMMdd";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyMMdd");
+    private static final ZoneId ZALOPAY_ZONE = ZoneId.of("Asia/Ho_Chi_Minh");
     private static final String TRANSACTION_ID_SEPARATOR = "_";
     private static final String USER_PREFIX = "user_";
     private static final String EMPTY_ITEMS_JSON = "[]";
     private static final String EMPTY_BANK_CODE = "";
     private static final String MAC_ALGORITHM = "HmacSHA256";
     private static final String MAC_FIELD_SEPARATOR = "|";
-    private static final String HEX_FORMAT = "%02x";
     private static final int UUID_SUBSTRING_LENGTH = 10;
 
     // Response field names
@@ -68,16 +82,54 @@ public class ZaloPayGateway implements PaymentGateway {
     private static final String STATUS_PROCESSING = "PROCESSING";
     private static final String DEFAULT_ERROR_MESSAGE = "Payment failed";
 
+    // Operations and outcomes (metric tags)
+    private static final String OPERATION_CREATE = "create";
+    private static final String OPERATION_REFUND = "refund";
+    private static final String OPERATION_QUERY = "query";
+    private static final String OPERATION_REFUND_QUERY = "refund_query";
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_ERROR = "error";
+    private static final String OUTCOME_TIMEOUT = "timeout";
+    private static final String OUTCOME_REJECTED = "rejected";
+
     private final ZaloPayConfig config;
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final GatewayCircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+
+    // Built on first use so an unconfigured gateway does not fail startup
+    private volatile HmacSigner key1Signer;
+    private volatile HmacSigner key2Signer;
 
     public ZaloPayGateway(ZaloPayConfig config,
                           @Qualifier("zaloPayWebClient") WebClient webClient,
-                          ObjectMapper objectMapper) {
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry) {
         this.config = config;
         this.webClient = webClient;
         this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+
+        ZaloPayConfig.Client client = config.getClient();
+        this.circuitBreaker = new GatewayCircuitBreaker("zalopay",
+                client.getCircuitFailureThreshold(),
+                Duration.ofSeconds(client.getCircuitOpenSeconds()));
+        this.bulkhead = new Semaphore(client.getMaxConcurrentCalls());
+
+        Gauge.builder("lms.payment.gateway.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("Circuit state: 0=closed, 1=open, 2=half-open")
+                .tag("gateway", PaymentProvider.ZALOPAY.name())
+                .register(meterRegistry);
+        Gauge.builder("lms.payment.gateway.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Free concurrent call slots")
+                .tag("gateway", PaymentProvider.ZALOPAY.name())
+                .register(meterRegistry);
+    }
+
+    public GatewayCircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
     }
 
     @Override
@@ -88,16 +140,49 @@ public class ZaloPayGateway implements PaymentGateway {
     @Override
     public String createPaymentUrl(String orderId, BigDecimal amount, String orderInfo,
                                    String returnUrl, String ipAddress) {
-        return createPaymentUrl(orderId, amount, orderInfo, returnUrl, ipAddress,
-                Collections.singletonList(ZaloPaymentMethod.ALL));
+        return await(createPaymentUrlAsync(orderId, amount, orderInfo, returnUrl, ipAddress));
     }
 
     public String createPaymentUrl(String orderId, BigDecimal amount, String orderInfo,
                                    String returnUrl, String ipAddress,
                                    List<ZaloPaymentMethod> paymentMethods) {
+        return await(createPaymentUrlAsync(orderId, amount, orderInfo, returnUrl, ipAddress, paymentMethods));
+    }
+
+    @Override
+    public CompletableFuture<String> createPaymentUrlAsync(String orderId, BigDecimal amount, String orderInfo,
+                                                           String returnUrl, String ipAddress) {
+        return createPaymentUrlAsync(orderId, newProviderOrderId(orderId), amount, orderInfo, returnUrl, ipAddress);
+    }
+
+    @Override
+    public CompletableFuture<String> createPaymentUrlAsync(String orderId, String providerOrderId, BigDecimal amount,
+                                                           String orderInfo, String returnUrl, String ipAddress) {
+        return createOrderAsync(orderId, providerOrderId, amount, orderInfo, returnUrl, ipAddress,
+                Collections.singletonList(ZaloPaymentMethod.ALL));
+    }
+
+    public CompletableFuture<String> createPaymentUrlAsync(String orderId, BigDecimal amount, String orderInfo,
+                                                           String returnUrl, String ipAddress,
+                                                           List<ZaloPaymentMethod> paymentMethods) {
+        return createOrderAsync(orderId, newProviderOrderId(orderId), amount, orderInfo, returnUrl, ipAddress,
+                paymentMethods);
+    }
+
+    /**
+     * app_trans_id of a new order: its date prefix must be the current date in Vietnam time
+     */
+    @Override
+    public String newProviderOrderId(String orderId) {
+        return LocalDate.now(ZALOPAY_ZONE).format(DATE_FORMAT) + TRANSACTION_ID_SEPARATOR +
+                config.getAppid() + TRANSACTION_ID_SEPARATOR + orderId;
+    }
+
+    private CompletableFuture<String> createOrderAsync(String orderId, String transId, BigDecimal amount,
+                                                       String orderInfo, String returnUrl, String ipAddress,
+                                                       List<ZaloPaymentMethod> paymentMethods) {
         try {
             long appTime = System.currentTimeMillis();
-            String transId = generateTransactionId(orderId);
             String embedDataJson = buildEmbedData(returnUrl, paymentMethods);
             String appUser = generateAppUser(orderId);
             String mac = calculateCreateOrderMac(transId, appUser, amount, appTime, embedDataJson);
@@ -107,34 +192,35 @@ public class ZaloPayGateway implements PaymentGateway {
 
             logCreateOrderRequest(transId, amount, appUser, paymentMethods, embedDataJson, mac);
 
-            Map<String, Object> response = callZaloPayApi(
+            return callZaloPayApi(OPERATION_CREATE,
                     config.getEndpoints().getBase() + config.getEndpoints().getCreate(),
-                    formData);
-
-            return handleCreateOrderResponse(response, transId);
+                    formData, Duration.ofMillis(config.getClient().getCreateTimeoutMs()))
+                    .map(response -> handleCreateOrderResponse(response, transId))
+                    .toFuture();
 
         } catch (Exception e) {
             log.error("Error creating ZaloPay payment URL", e);
-            throw new RuntimeException("Failed to create ZaloPay payment URL: " + e.getMessage(), e);
+            return CompletableFuture.failedFuture(
+                    new PaymentGatewayException("Failed to create ZaloPay payment URL: " + e.getMessage(), e));
         }
     }
 
     @Override
-    public boolean verifyPayment(Map<String, String> params) {
+    public boolean verifyPayment(CallbackEnvelope callback) {
         try {
-            String receivedMac = params.get(FIELD_MAC);
-            String data = params.get(FIELD_DATA);
+            String receivedMac = callback.get(FIELD_MAC);
+            String data = callback.get(FIELD_DATA);
 
             if (receivedMac == null || data == null) {
                 log.warn("Missing mac or data in callback");
                 return false;
             }
 
-            String calculatedMac = hmacSHA256(config.getKey2(), data);
-            boolean isValid = receivedMac.equals(calculatedMac);
+            // MAC is computed over the raw data string, not the decoded payload
+            boolean isValid = key2Signer().verifyHex(data, receivedMac);
 
             if (!isValid) {
-                log.warn("Invalid MAC signature. Expected: {}, Received: {}", calculatedMac, receivedMac);
+                log.warn("Invalid MAC signature. Received: {}", receivedMac);
             }
 
             return isValid;
@@ -146,126 +232,95 @@ public class ZaloPayGateway implements PaymentGateway {
     }
 
     @Override
-    public String getTransactionId(Map<String, String> params) {
-        try {
-            String data = params.get(FIELD_DATA);
-            if (data == null) {
-                return null;
-            }
-
-            Map<String, Object> dataMap = objectMapper.readValue(data, Map.class);
-            Object zpTransId = dataMap.get(FIELD_ZP_TRANS_ID);
-
-            return zpTransId != null ? String.valueOf(zpTransId) : null;
-
-        } catch (Exception e) {
-            log.error("Error extracting transaction ID", e);
-            return null;
-        }
+    public String getTransactionId(CallbackEnvelope callback) {
+        Object zpTransId = callback.getDataValue(FIELD_ZP_TRANS_ID);
+        return zpTransId != null ? String.valueOf(zpTransId) : null;
     }
 
     @Override
-    public boolean isPaymentSuccess(Map<String, String> params) {
-        try {
-            String data = params.get(FIELD_DATA);
-            if (data == null) {
-                return false;
-            }
-
-            Map<String, Object> dataMap = objectMapper.readValue(data, Map.class);
-            return dataMap.containsKey(FIELD_AMOUNT) && dataMap.get(FIELD_AMOUNT) != null;
+    public boolean isPaymentSuccess(CallbackEnvelope callback) {
+        return callback.getDataValue(FIELD_AMOUNT) != null;
+    }
 
-        } catch (Exception e) {
-            log.error("Error checking payment success", e);
-            return false;
-        }
+    @Override
+    public String getErrorMessage(CallbackEnvelope callback) {
+        String message = callback.get(FIELD_ERROR_MESSAGE);
+        return message != null ? message : DEFAULT_ERROR_MESSAGE;
     }
 
     @Override
-    public String getErrorMessage(Map<String, String> params) {
-        return params.getOrDefault(FIELD_ERROR_MESSAGE, DEFAULT_ERROR_MESSAGE);
+    public String getErrorCode(CallbackEnvelope callback) {
+        return callback.get(FIELD_RETURN_CODE);
     }
 
     @Override
     public String requestRefund(String transactionId, BigDecimal amount, String reason) {
-        try {
-            long timestamp = System.currentTimeMillis();
-            String mRefundId = generateRefundId();
-            String mac = calculateRefundMac(transactionId, amount, reason, timestamp);
-
-            MultiValueMap<String, String> formData = buildRefundFormData(
-                    mRefundId, transactionId, amount, timestamp, reason, mac);
+        return await(requestRefundAsync(transactionId, amount, reason));
+    }
 
-            logRefundRequest(mRefundId, transactionId, amount, mac);
+    @Override
+    public CompletableFuture<String> requestRefundAsync(String transactionId, BigDecimal amount, String reason) {
+        long timestamp = System.currentTimeMillis();
+        String mRefundId = generateRefundId();
+        String mac = calculateRefundMac(transactionId, amount, reason, timestamp);
 
-            Map<String, Object> response = callZaloPayApi(
-                    config.getEndpoints().getBase() + config.getEndpoints().getRefund(),
-                    formData);
+        MultiValueMap<String, String> formData = buildRefundFormData(
+                mRefundId, transactionId, amount, timestamp, reason, mac);
 
-            return handleRefundResponse(response, mRefundId);
+        logRefundRequest(mRefundId, transactionId, amount, mac);
 
-        } catch (Exception e) {
-            log.error("Error requesting ZaloPay refund", e);
-            throw new RuntimeException("Failed to request ZaloPay refund: " + e.getMessage(), e);
-        }
+        return callZaloPayApi(OPERATION_REFUND,
+                config.getEndpoints().getBase() + config.getEndpoints().getRefund(),
+                formData, Duration.ofMillis(config.getClient().getRefundTimeoutMs()))
+                .map(response -> handleRefundResponse(response, mRefundId))
+                .toFuture();
     }
 
     public Map<String, Object> queryOrderStatus(String appTransId) {
-        try {
-            String macData = buildQueryMacData(appTransId);
-            String mac = hmacSHA256(config.getKey1(), macData);
-
-            MultiValueMap<String, String> formData = buildQueryFormData(appTransId, mac);
+        return await(queryOrderStatusAsync(appTransId));
+    }
 
-            logQueryRequest(appTransId, macData, mac);
+    public CompletableFuture<Map<String, Object>> queryOrderStatusAsync(String appTransId) {
+        String macData = buildQueryMacData(appTransId);
+        String mac = hmacSHA256(macData);
 
-            Map<String, Object> response = callZaloPayApi(
-                    config.getEndpoints().getBase() + config.getEndpoints().getQuery(),
-                    formData);
+        MultiValueMap<String, String> formData = buildQueryFormData(appTransId, mac);
 
-            return handleQueryResponse(response, appTransId);
+        logQueryRequest(appTransId, macData, mac);
 
-        } catch (Exception e) {
-            log.error("Error querying ZaloPay order status", e);
-            throw new RuntimeException("Failed to query order status: " + e.getMessage(), e);
-        }
+        return callZaloPayApi(OPERATION_QUERY,
+                config.getEndpoints().getBase() + config.getEndpoints().getQuery(),
+                formData, Duration.ofMillis(config.getClient().getQueryTimeoutMs()))
+                .map(response -> handleQueryResponse(response, appTransId))
+                .toFuture();
     }
 
     public Map<String, Object> queryRefundStatus(String mRefundId) {
-        try {
-            long timestamp = System.currentTimeMillis();
-            String macData = buildRefundQueryMacData(mRefundId, timestamp);
-            String mac = hmacSHA256(config.getKey1(), macData);
-
-            MultiValueMap<String, String> formData = buildRefundQueryFormData(
-                    mRefundId, timestamp, mac);
+        return await(queryRefundStatusAsync(mRefundId));
+    }
 
-            logRefundQueryRequest(mRefundId, macData, mac);
+    public CompletableFuture<Map<String, Object>> queryRefundStatusAsync(String mRefundId) {
+        long timestamp = System.currentTimeMillis();
+        String macData = buildRefundQueryMacData(mRefundId, timestamp);
+        String mac = hmacSHA256(macData);
 
-            Map<String, Object> response = callZaloPayApi(
-                    config.getEndpoints().getBase() + config.getEndpoints().getRefundQuery(),
-                    formData);
+        MultiValueMap<String, String> formData = buildRefundQueryFormData(
+                mRefundId, timestamp, mac);
 
-            return handleRefundQueryResponse(response, mRefundId);
+        logRefundQueryRequest(mRefundId, macData, mac);
 
-        } catch (Exception e) {
-            log.error("Error querying ZaloPay refund status", e);
-            throw new RuntimeException("Failed to query refund status: " + e.getMessage(), e);
-        }
+        return callZaloPayApi(OPERATION_REFUND_QUERY,
+                config.getEndpoints().getBase() + config.getEndpoints().getRefundQuery(),
+                formData, Duration.ofMillis(config.getClient().getQueryTimeoutMs()))
+                .map(response -> handleRefundQueryResponse(response, mRefundId))
+                .toFuture();
     }
 
     // Helper methods for ID generation
-    private String generateTransactionId(String orderId) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT_PATTERN);
-        return dateFormat.format(new Date()) + TRANSACTION_ID_SEPARATOR +
-                config.getAppid() + TRANSACTION_ID_SEPARATOR + orderId;
-    }
-
     private String generateRefundId() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT_PATTERN);
         String uuid = UUID.randomUUID().toString().replace("-", "")
                 .substring(0, UUID_SUBSTRING_LENGTH);
-        return dateFormat.format(new Date()) + TRANSACTION_ID_SEPARATOR +
+        return LocalDate.now(ZALOPAY_ZONE).format(DATE_FORMAT) + TRANSACTION_ID_SEPARATOR +
                 config.getAppid() + TRANSACTION_ID_SEPARATOR + uuid;
     }
 
@@ -314,7 +369,7 @@ public class ZaloPayGateway implements PaymentGateway {
                 String.valueOf(appTime),
                 embedDataJson,
                 EMPTY_ITEMS_JSON);
-        return hmacSHA256(config.getKey1(), macData);
+        return hmacSHA256(macData);
     }
 
     private String calculateRefundMac(String transactionId, BigDecimal amount,
@@ -325,7 +380,7 @@ public class ZaloPayGateway implements PaymentGateway {
                 String.valueOf(amount.longValue()),
                 reason,
                 String.valueOf(timestamp));
-        return hmacSHA256(config.getKey1(), macData);
+        return hmacSHA256(macData);
     }
 
     private String buildQueryMacData(String appTransId) {
@@ -392,25 +447,89 @@ public class ZaloPayGateway implements PaymentGateway {
     }
 
     // Helper methods for API calls
-    private Map<String, Object> callZaloPayApi(String endpoint,
-                                               MultiValueMap<String, String> formData) {
-        log.debug("Calling ZaloPay endpoint: {}", endpoint);
-
-        Map<String, Object> response = webClient.post()
-                .uri(endpoint)
-                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
-                .body(BodyInserters.fromFormData(formData))
-                .retrieve()
-                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
-                .block();
-
-        if (response == null) {
-            log.error("No response from ZaloPay");
-            throw new RuntimeException("No response from ZaloPay");
-        }
 
-        log.info("ZaloPay response: {}", response);
-        return response;
+    /**
+     * Non-blocking call guarded by bulkhead, circuit breaker and timeout.
+     * Completion is moved off the Netty event loop so callers may do blocking work
+     * (e.g. JPA) in their continuations.
+     */
+    private Mono<Map<String, Object>> callZaloPayApi(String operation, String endpoint,
+                                                     MultiValueMap<String, String> formData,
+                                                     Duration timeout) {
+        return Mono.defer(() -> {
+            log.debug("Calling ZaloPay endpoint: {}", endpoint);
+
+            if (!bulkhead.tryAcquire()) {
+                recordCall(operation, OUTCOME_REJECTED, 0);
+                return Mono.error(new PaymentGatewayException("ZaloPay is busy, please retry shortly"));
+            }
+            if (!circuitBreaker.tryAcquirePermission()) {
+                bulkhead.release();
+                recordCall(operation, OUTCOME_REJECTED, 0);
+                return Mono.error(new PaymentGatewayException("ZaloPay is temporarily unavailable, please retry later"));
+            }
+
+            long start = System.nanoTime();
+
+            return webClient.post()
+                    .uri(endpoint)
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                    .body(BodyInserters.fromFormData(formData))
+                    .retrieve()
+                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                    .switchIfEmpty(Mono.error(new PaymentGatewayException("No response from ZaloPay")))
+                    .timeout(timeout)
+                    .doOnSuccess(response -> {
+                        circuitBreaker.onSuccess();
+                        recordCall(operation, OUTCOME_SUCCESS, System.nanoTime() - start);
+                        log.info("ZaloPay {} response: {}", operation, response);
+                    })
+                    .onErrorMap(error -> {
+                        // 4xx means our request was wrong, not that ZaloPay is unhealthy
+                        if (error instanceof WebClientResponseException responseError
+                                && responseError.getStatusCode().is4xxClientError()) {
+                            circuitBreaker.onSuccess();
+                        } else {
+                            circuitBreaker.onFailure();
+                        }
+                        boolean timedOut = error instanceof TimeoutException;
+                        recordCall(operation, timedOut ? OUTCOME_TIMEOUT : OUTCOME_ERROR, System.nanoTime() - start);
+                        log.error("ZaloPay {} call failed: {}", operation, error.toString());
+                        if (error instanceof PaymentGatewayException) {
+                            return error;
+                        }
+                        return new PaymentGatewayException(timedOut
+                                ? "ZaloPay " + operation + " timed out after " + timeout.toMillis() + " ms"
+                                : "ZaloPay " + operation + " failed: " + error.getMessage(), error);
+                    })
+                    .doOnCancel(circuitBreaker::onIgnored)
+                    .doFinally(signal -> bulkhead.release());
+        }).publishOn(Schedulers.boundedElastic());
+    }
+
+    private void recordCall(String operation, String outcome, long elapsedNanos) {
+        Timer.builder("lms.payment.gateway.call")
+                .description("Outbound payment gateway call latency")
+                .tag("gateway", PaymentProvider.ZALOPAY.name())
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wait for an async result on behalf of legacy synchronous callers.
+     * Bounded by the per-operation timeout applied in {@link #callZaloPayApi}.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new PaymentGatewayException("ZaloPay call failed: " + e.getMessage(), e);
+        }
     }
 
     // Helper methods for response handling
@@ -458,6 +577,9 @@ public class ZaloPayGateway implements PaymentGateway {
             log.warn("ZaloPay order not found or unpaid: appTransId={}, message={}",
                     appTransId, returnMessage);
             return response;
+        } else if (returnCode == RETURN_CODE_PROCESSING) {
+            log.info("ZaloPay order still processing: appTransId={}", appTransId);
+            return response;
         } else {
             throwZaloPayException(returnCode, returnMessage, response, "query");
             return null;
@@ -491,7 +613,7 @@ public class ZaloPayGateway implements PaymentGateway {
                         "sub_return_code={}, sub_return_message={}",
                 operation, returnCode, returnMessage, subReturnCode, subReturnMessage);
 
-        throw new RuntimeException(String.format("ZaloPay %s error [%d]: %s - %s",
+        throw new PaymentGatewayException(String.format("ZaloPay %s error [%d]: %s - %s",
                 operation,
                 subReturnCode != null ? subReturnCode : returnCode,
                 returnMessage,
@@ -526,22 +648,26 @@ public class ZaloPayGateway implements PaymentGateway {
         log.debug("ZaloPay refund query MAC result: {}", mac);
     }
 
-    // Core cryptographic function
-    private String hmacSHA256(String key, String data) {
-        try {
-            Mac hmac256 = Mac.getInstance(MAC_ALGORITHM);
-            SecretKeySpec secretKey = new SecretKeySpec(key.getBytes(), MAC_ALGORITHM);
-            hmac256.init(secretKey);
-            byte[] result = hmac256.doFinal(data.getBytes());
-
-            StringBuilder sb = new StringBuilder();
-            for (byte b : result) {
-                sb.append(String.format(HEX_FORMAT, b));
-            }
-            return sb.toString();
+    // Core cryptographic functions
+    private String hmacSHA256(String data) {
+        return key1Signer().signHex(data);
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating HMAC SHA256", e);
+    private HmacSigner key1Signer() {
+        HmacSigner signer = key1Signer;
+        if (signer == null) {
+            signer = HmacSigner.of(MAC_ALGORITHM, config.getKey1());
+            key1Signer = signer;
+        }
+        return signer;
+    }
+
+    private HmacSigner key2Signer() {
+        HmacSigner signer = key2Signer;
+        if (signer == null) {
+            signer = HmacSigner.of(MAC_ALGORITHM, config.getKey2());
+            key2Signer = signer;
         }
+        return signer;
     }
 }
\ No newline at end of file
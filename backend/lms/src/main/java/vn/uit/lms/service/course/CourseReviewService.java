@@ -1,6 +1,7 @@
 package vn.uit.lms.service.course;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,6 +15,7 @@ import vn.uit.lms.core.repository.StudentRepository;
 import vn.uit.lms.core.repository.course.CourseRepository;
 import vn.uit.lms.core.repository.course.CourseReviewRepository;
 import vn.uit.lms.service.AccountService;
+import vn.uit.lms.service.event.CourseReviewChangedEvent;
 import vn.uit.lms.service.learning.EnrollmentAccessService;
 import vn.uit.lms.shared.dto.PageResponse;
 import vn.uit.lms.shared.dto.request.course.CourseReviewRequest;
@@ -43,17 +45,20 @@ public class CourseReviewService {
     private final EnrollmentAccessService enrollmentAccessService;
     private final AccountService accountService;
     private final StudentRepository studentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CourseReviewService(CourseReviewRepository courseReviewRepository,
                                CourseRepository courseRepository,
                                EnrollmentAccessService enrollmentAccessService,
                                AccountService accountService,
-                               StudentRepository studentRepository) {
+                               StudentRepository studentRepository,
+                               ApplicationEventPublisher eventPublisher) {
         this.courseReviewRepository = courseReviewRepository;
         this.courseRepository = courseRepository;
         this.enrollmentAccessService = enrollmentAccessService;
         this.accountService = accountService;
         this.studentRepository = studentRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -108,6 +113,7 @@ public class CourseReviewService {
         try {
             CourseReview savedReview = courseReviewRepository.save(courseReview);
             log.info("Review created successfully for course {} by student {}", courseId, student.getId());
+            eventPublisher.publishEvent(new CourseReviewChangedEvent(course.getId()));
 
             // TODO: Update course average rating
             // courseService.updateAverageRating(course);
@@ -167,6 +173,7 @@ public class CourseReviewService {
 
         CourseReview saved = courseReviewRepository.save(review);
         log.info("Review {} updated successfully", reviewId);
+        eventPublisher.publishEvent(new CourseReviewChangedEvent(review.getCourse().getId()));
 
         // TODO: Recalculate course average rating
         // courseService.updateAverageRating(course);
@@ -199,6 +206,7 @@ public class CourseReviewService {
         // STEP 3: Delete review
         courseReviewRepository.delete(review);
         log.info("Review {} deleted successfully", reviewId);
+        eventPublisher.publishEvent(new CourseReviewChangedEvent(review.getCourse().getId()));
 
         // TODO: Recalculate course average rating
         // courseService.updateAverageRating(course);
@@ -5,6 +5,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vn.uit.lms.core.domain.Account;
@@ -16,6 +17,7 @@ import vn.uit.lms.core.repository.course.CourseRepository;
 import vn.uit.lms.core.repository.course.TagRepository;
 import vn.uit.lms.core.repository.learning.EnrollmentRepository;
 import vn.uit.lms.service.AccountService;
+import vn.uit.lms.service.event.CourseChangedEvent;
 import vn.uit.lms.service.helper.SEOHelper;
 import vn.uit.lms.service.storage.CloudinaryStorageService;
 import vn.uit.lms.shared.annotation.Audit;
@@ -58,6 +60,7 @@ public class CourseService {
     private final AccountService accountService;
     private final CloudinaryStorageService cloudinaryStorageService;
     private final EnrollmentRepository enrollmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CourseService(CourseRepository courseRepository,
                          CategoryRepository categoryRepository,
@@ -66,7 +69,8 @@ public class CourseService {
                          SEOHelper seoHelper,
                          AccountService accountService,
                          CloudinaryStorageService cloudinaryStorageService,
-                         EnrollmentRepository enrollmentRepository) {
+                         EnrollmentRepository enrollmentRepository,
+                         ApplicationEventPublisher eventPublisher) {
         this.seoHelper = seoHelper;
         this.courseRepository = courseRepository;
         this.categoryRepository = categoryRepository;
@@ -75,6 +79,7 @@ public class CourseService {
         this.accountService = accountService;
         this.cloudinaryStorageService = cloudinaryStorageService;
         this.enrollmentRepository = enrollmentRepository;
+        this.eventPublisher = eventPublisher;
     }
     public Course validateCourse(Long courseId) {
         return courseRepository.findByIdAndDeletedAtIsNull(courseId)
@@ -219,6 +224,7 @@ public class CourseService {
         newCourse.addVersion(firstVersion);
 
         Course savedCourse = courseRepository.save(newCourse);
+        eventPublisher.publishEvent(new CourseChangedEvent(savedCourse.getId(), teacher.getId()));
 
         return CourseMapper.toCourseDetailResponse(savedCourse);
 
@@ -463,6 +469,7 @@ public class CourseService {
         }
 
         courseRepository.delete(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(course.getId(), course.getTeacher().getId()));
     }
 
     @Transactional
@@ -475,6 +482,7 @@ public class CourseService {
 
         course.setDeletedAt(null);
         Course savedCourse = courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(savedCourse.getId(), savedCourse.getTeacher().getId()));
         return CourseMapper.toCourseDetailResponse(savedCourse);
     }
 
@@ -3,23 +3,42 @@ package vn.uit.lms.service.course.content;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import vn.uit.lms.config.MinioBucketProperties;
 import vn.uit.lms.core.domain.course.content.FileStorage;
+import vn.uit.lms.core.domain.course.content.StoredObject;
 import vn.uit.lms.core.repository.course.content.FileStorageRepository;
 import vn.uit.lms.service.storage.MinioService;
+import vn.uit.lms.service.storage.UploadTaskExecutor;
 import vn.uit.lms.shared.constant.StorageProvider;
 import vn.uit.lms.shared.dto.response.storage.FileStorageResponse;
+import vn.uit.lms.shared.exception.InvalidFileException;
 import vn.uit.lms.shared.exception.InvalidRequestException;
 import vn.uit.lms.shared.exception.ResourceNotFoundException;
+import vn.uit.lms.shared.exception.UploadFileException;
 import vn.uit.lms.shared.mapper.storage.FileStorageMapper;
+import vn.uit.lms.shared.util.FileSignatureUtil;
+import vn.uit.lms.shared.util.SizeLimitedInputStream;
+import vn.uit.lms.shared.util.crypto.HexStringUtil;
 
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for managing file storage operations
@@ -30,8 +49,10 @@ import java.util.Set;
 public class FileStorageService {
 
     private final FileStorageRepository fileStorageRepository;
+    private final StoredObjectService storedObjectService;
     private final MinioService minioService;
     private final MinioBucketProperties minioBucketProperties;
+    private final UploadTaskExecutor uploadTaskExecutor;
 
     @Value("${app.file.max-size-bytes:104857600}") // 100MB default
     private long maxFileSize;
@@ -71,27 +92,55 @@ public class FileStorageService {
 
     /**
      * Validate file type
+     *
+     * @return the declared type without parameters
      */
-    public void validateFileType(MultipartFile file) {
-        String contentType = file.getContentType();
+    public String validateFileType(MultipartFile file) {
+        return validateContentType(file.getContentType());
+    }
 
+    /**
+     * Validate declared content type against the allow-list
+     *
+     * Parameters such as {@code charset} are ignored, so {@code text/plain;charset=UTF-8}
+     * is accepted as {@code text/plain}.
+     *
+     * @return the type/subtype without parameters
+     */
+    public String validateContentType(String contentType) {
         if (contentType == null) {
             throw new InvalidRequestException("File content type cannot be determined");
         }
 
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            throw new InvalidRequestException("Invalid file content type: " + contentType);
+        }
+        String baseType = mediaType.getType() + "/" + mediaType.getSubtype();
+
         // Check if it's an allowed type
-        if (!ALLOWED_DOCUMENT_TYPES.contains(contentType) &&
-            !ALLOWED_IMAGE_TYPES.contains(contentType) &&
-            !contentType.startsWith("video/")) {
+        if (!ALLOWED_DOCUMENT_TYPES.contains(baseType) &&
+            !ALLOWED_IMAGE_TYPES.contains(baseType) &&
+            !baseType.startsWith("video/")) {
             throw new InvalidRequestException("File type not allowed: " + contentType);
         }
+        return baseType;
     }
 
     /**
      * Validate file size
      */
     public void validateFileSize(MultipartFile file) {
-        if (file.getSize() > maxFileSize) {
+        validateFileSize(file.getSize());
+    }
+
+    /**
+     * Validate declared file size (-1 when unknown, enforced while streaming)
+     */
+    public void validateFileSize(long sizeBytes) {
+        if (sizeBytes > maxFileSize) {
             throw new InvalidRequestException(
                 String.format("File size exceeds maximum limit of %d MB", maxFileSize / (1024 * 1024))
             );
@@ -99,30 +148,38 @@ public class FileStorageService {
     }
 
     /**
-     * Calculate file checksum (MD5)
+     * Calculate SHA-256 content hash of a spooled upload (constant memory)
+     *
+     * This is a separate local read before the transfer, so a duplicate is never sent
+     * to storage at all.
      */
-    private String calculateChecksum(MultipartFile file) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] digest = md.digest(file.getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (byte b : digest) {
-                sb.append(String.format("%02x", b));
+    private String calculateContentHash(MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                md.update(buffer, 0, read);
             }
-            return sb.toString();
+            return HexStringUtil.byteArrayToHexString(md.digest());
         } catch (Exception e) {
-            log.warn("Failed to calculate file checksum", e);
+            log.warn("Failed to calculate file content hash", e);
             return null;
         }
     }
 
     /**
      * Upload file to storage
+     *
+     * Content-addressed deduplication: when an object with the same SHA-256 and size
+     * already exists in the same bucket, its reference count is incremented instead of
+     * uploading another copy. The upload always gets its own record, so owner, name and
+     * type are never shared between uploaders. Not transactional, so no DB connection is
+     * held during the transfer; the record is written in a short transaction afterwards.
      */
-    @Transactional
     public FileStorageResponse uploadFile(MultipartFile file, String folderPath, StorageProvider provider) {
         // Validations
-        validateFileType(file);
+        String mediaType = validateFileType(file);
         validateFileSize(file);
 
         // Determine provider if not specified
@@ -130,34 +187,265 @@ public class FileStorageService {
             provider = determineStorageProvider(file);
         }
 
-        // Generate unique object key
-        String objectKey = minioService.generateObjectKey(folderPath, file.getOriginalFilename());
-
         // Determine bucket based on file type
-        String bucket = getBucketForFileType(file.getContentType());
+        String bucket = getBucketForFileType(mediaType);
+
+        // Hash content and try to reuse an existing object
+        String contentHash = calculateContentHash(file);
+        StoredObject content = storedObjectService.acquire(contentHash, file.getSize(), provider, bucket, 1).orElse(null);
+        boolean reused = content != null;
+        if (reused) {
+            log.info("Reused stored object for duplicate upload: object={}, key={}", content.getId(), content.getStorageKey());
+        } else {
+            // Generate unique object key and upload to MinIO
+            String objectKey = minioService.generateObjectKey(folderPath, file.getOriginalFilename());
+            minioService.uploadFile(file, bucket, objectKey);
+            content = newContent(objectKey, provider, bucket, file.getSize(), contentHash);
+        }
+
+        FileStorage fileStorage = saveUpload(content, reused, file.getOriginalFilename(), mediaType);
+
+        log.info("File uploaded successfully: id={}, key={}", fileStorage.getId(), fileStorage.getStorageKey());
+
+        return FileStorageMapper.toResponse(fileStorage);
+    }
+
+    /**
+     * Upload file by piping a raw request body straight to storage
+     *
+     * Nothing is spooled to disk or memory: the declared type is checked against the
+     * leading magic bytes, the size limit is enforced while bytes flow, and the SHA-256
+     * is computed on the same pass. Duplicates are detected after the transfer and the
+     * fresh copy is dropped in favour of the existing object. Like {@link #uploadFiles},
+     * no transaction spans the transfer; the record is written in a short one afterwards.
+     *
+     * @param contentLength declared length, or -1 when unknown (chunked transfer)
+     */
+    public FileStorageResponse uploadFileStream(InputStream body, long contentLength, String contentType,
+                                                String originalFilename, String folderPath, StorageProvider provider) {
+        if (originalFilename == null || originalFilename.isBlank()) {
+            throw new InvalidRequestException("File name is required");
+        }
+        if (contentLength == 0) {
+            throw new InvalidRequestException("File is empty");
+        }
+        String mediaType = validateContentType(contentType);
+        validateFileSize(contentLength);
+
+        if (provider == null) {
+            provider = StorageProvider.MINIO;
+        }
+
+        String bucket = getBucketForFileType(mediaType);
+        String objectKey = minioService.generateObjectKey(folderPath, originalFilename);
+
+        MessageDigest digest;
+        SizeLimitedInputStream limited;
+        try {
+            BufferedInputStream buffered = new BufferedInputStream(body, 64 * 1024);
+            buffered.mark(FileSignatureUtil.HEADER_BYTES);
+            byte[] header = buffered.readNBytes(FileSignatureUtil.HEADER_BYTES);
+            buffered.reset();
+
+            if (!FileSignatureUtil.matchesDeclaredType(mediaType, header, header.length)) {
+                throw new InvalidFileException("File content does not match declared type: " + contentType);
+            }
+
+            digest = MessageDigest.getInstance("SHA-256");
+            limited = new SizeLimitedInputStream(buffered, maxFileSize);
+            minioService.uploadStream(new DigestInputStream(limited, digest), contentLength, contentType, bucket, objectKey);
+        } catch (InvalidFileException e) {
+            throw e;
+        } catch (Exception e) {
+            // Size limit violations surface wrapped by the MinIO client
+            InvalidFileException cause = findCause(e, InvalidFileException.class);
+            deleteQuietly(objectKey, bucket);
+            if (cause != null) {
+                throw cause;
+            }
+            throw new UploadFileException("Failed to upload file: " + e.getMessage());
+        }
+
+        long size = limited.getBytesRead();
+        String contentHash = HexStringUtil.byteArrayToHexString(digest.digest());
+
+        StoredObject content = storedObjectService.acquire(contentHash, size, provider, bucket, 1).orElse(null);
+        boolean reused = content != null;
+        if (reused) {
+            deleteQuietly(objectKey, bucket);
+            log.info("Reused stored object for duplicate stream upload: object={}, key={}", content.getId(), content.getStorageKey());
+        } else {
+            content = newContent(objectKey, provider, bucket, size, contentHash);
+        }
 
-        // Upload to MinIO
-        minioService.uploadFile(file, bucket, objectKey);
+        FileStorage fileStorage = saveUpload(content, reused, originalFilename, mediaType);
 
-        // Calculate checksum
-        String checksum = calculateChecksum(file);
+        log.info("File streamed successfully: id={}, key={}, size={}", fileStorage.getId(), fileStorage.getStorageKey(), size);
 
-        // Create FileStorage entity
-        FileStorage fileStorage = FileStorage.builder()
+        return FileStorageMapper.toResponse(fileStorage);
+    }
+
+    /**
+     * Upload several files with transfers running in parallel
+     *
+     * Not transactional on purpose, so no DB connection is held during the transfers:
+     * references on existing identical objects are reserved first, new objects are
+     * transferred on the upload pool, and all records are written in one short
+     * transaction at the end. Identical files within one batch are stored once, but
+     * each file gets its own record. Results keep the input order.
+     */
+    public List<FileStorageResponse> uploadFiles(List<MultipartFile> files, String folderPath, StorageProvider provider) {
+        List<String> mediaTypes = new ArrayList<>(files.size());
+        List<String> originalNames = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            mediaTypes.add(validateFileType(file));
+            validateFileSize(file);
+            originalNames.add(file.getOriginalFilename());
+        }
+
+        // 1. Hash all files in parallel
+        List<CompletableFuture<String>> hashFutures = files.stream()
+                .map(file -> uploadTaskExecutor.supply(() -> calculateContentHash(file)))
+                .toList();
+        List<String> hashes = joinAll(hashFutures);
+
+        // 2. Group identical files of the batch
+        List<StoredObject> contents = new ArrayList<>(Collections.nCopies(files.size(), null));
+        Map<String, StoredObject> batchObjects = new HashMap<>();
+        Map<StoredObject, Integer> firstIndex = new IdentityHashMap<>();
+
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            StorageProvider fileProvider = provider != null ? provider : determineStorageProvider(file);
+            String bucket = getBucketForFileType(mediaTypes.get(i));
+            String contentHash = hashes.get(i);
+            String batchKey = contentHash != null ? bucket + ":" + contentHash + ":" + file.getSize() : null;
+
+            StoredObject content = batchKey != null ? batchObjects.get(batchKey) : null;
+            if (content != null) {
+                content.setReferenceCount(content.getReferenceCount() + 1);
+            } else {
+                content = newContent(minioService.generateObjectKey(folderPath, file.getOriginalFilename()),
+                        fileProvider, bucket, file.getSize(), contentHash);
+                firstIndex.put(content, i);
+                if (batchKey != null) {
+                    batchObjects.put(batchKey, content);
+                }
+            }
+            contents.set(i, content);
+        }
+
+        // 3. Reserve references on stored objects with identical content (one short transaction each)
+        Map<StoredObject, StoredObject> reserved = new IdentityHashMap<>();
+        Map<StoredObject, Integer> pendingUploads = new IdentityHashMap<>();
+        for (Map.Entry<StoredObject, Integer> entry : firstIndex.entrySet()) {
+            StoredObject planned = entry.getKey();
+            storedObjectService.acquire(planned.getChecksum(), planned.getSizeBytes(), planned.getStorageProvider(),
+                            planned.getBucket(), planned.getReferenceCount())
+                    .ifPresentOrElse(existing -> reserved.put(planned, existing),
+                            () -> pendingUploads.put(planned, entry.getValue()));
+        }
+        for (int i = 0; i < contents.size(); i++) {
+            contents.set(i, reserved.getOrDefault(contents.get(i), contents.get(i)));
+        }
+
+        // 4. Transfer new objects in parallel, outside any transaction
+        List<CompletableFuture<String>> uploads = pendingUploads.entrySet().stream()
+                .map(entry -> {
+                    MultipartFile file = files.get(entry.getValue());
+                    StoredObject content = entry.getKey();
+                    return uploadTaskExecutor.supply(() ->
+                            minioService.uploadFile(file, content.getBucket(), content.getStorageKey()));
+                })
+                .toList();
+
+        List<FileStorage> records;
+        try {
+            joinAll(uploads);
+
+            // 5. Persist new objects and one record per file in one short transaction
+            records = storedObjectService.saveUploads(contents, originalNames, mediaTypes);
+        } catch (RuntimeException e) {
+            // Roll back transfers that did succeed and give back reserved references
+            pendingUploads.keySet().forEach(content -> deleteQuietly(content.getStorageKey(), content.getBucket()));
+            reserved.forEach((planned, existing) -> releaseQuietly(existing, planned.getReferenceCount()));
+            throw new UploadFileException("Failed to upload files: " + e.getMessage());
+        }
+
+        log.info("Uploaded {} files ({} transferred, {} deduplicated)",
+                files.size(), pendingUploads.size(), files.size() - pendingUploads.size());
+
+        return records.stream()
+                .map(FileStorageMapper::toResponse)
+                .toList();
+    }
+
+    private static <T> List<T> joinAll(List<CompletableFuture<T>> futures) {
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static <T extends Throwable> T findCause(Throwable throwable, Class<T> type) {
+        Throwable current = throwable;
+        while (current != null) {
+            if (type.isInstance(current)) {
+                return type.cast(current);
+            }
+            current = current.getCause();
+        }
+        return null;
+    }
+
+    private void deleteQuietly(String objectKey, String bucket) {
+        try {
+            minioService.deleteObject(objectKey, bucket);
+        } catch (Exception e) {
+            log.warn("Failed to remove object after aborted upload: key={}", objectKey);
+        }
+    }
+
+    private static StoredObject newContent(String objectKey, StorageProvider provider, String bucket,
+                                           long size, String contentHash) {
+        return StoredObject.builder()
                 .storageKey(objectKey)
                 .storageProvider(provider)
-                .originalName(file.getOriginalFilename())
-                .mimeType(file.getContentType())
-                .sizeBytes(file.getSize())
-                .checksum(checksum)
+                .bucket(bucket)
+                .sizeBytes(size)
+                .checksum(contentHash)
+                .referenceCount(1)
                 .build();
+    }
 
-        fileStorage.validateFileStorage();
-        fileStorage = fileStorageRepository.save(fileStorage);
+    /**
+     * Write one upload's record in a short transaction; on failure give back the
+     * reserved reference or remove the freshly transferred object
+     */
+    private FileStorage saveUpload(StoredObject content, boolean reused, String originalName, String mediaType) {
+        try {
+            return storedObjectService.saveUploads(List.of(content), List.of(originalName), List.of(mediaType)).get(0);
+        } catch (RuntimeException e) {
+            if (reused) {
+                releaseQuietly(content, 1);
+            } else {
+                deleteQuietly(content.getStorageKey(), content.getBucket());
+            }
+            throw e;
+        }
+    }
 
-        log.info("File uploaded successfully: id={}, key={}", fileStorage.getId(), objectKey);
+    private void releaseQuietly(StoredObject content, int references) {
+        try {
+            if (storedObjectService.release(content.getId(), references)) {
+                deleteQuietly(content.getStorageKey(), content.getBucket());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to release stored object after aborted upload: object={}", content.getId(), e);
+        }
+    }
 
-        return FileStorageMapper.toResponse(fileStorage);
+    private String bucketOf(FileStorage fileStorage) {
+        StoredObject content = fileStorage.getContent();
+        return content != null ? content.getBucket() : getBucketForFileType(fileStorage.getMimeType());
     }
 
     /**
@@ -191,7 +479,7 @@ public class FileStorageService {
      * Get file storage by storage key
      */
     public FileStorage getFileStorageByKey(String storageKey) {
-        return fileStorageRepository.findByStorageKey(storageKey)
+        return fileStorageRepository.findFirstByStorageKeyOrderByIdAsc(storageKey)
                 .orElseThrow(() -> new ResourceNotFoundException("File storage not found with key: " + storageKey));
     }
 
@@ -202,7 +490,7 @@ public class FileStorageService {
         FileStorage fileStorage = fileStorageRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("File storage not found with id: " + id));
 
-        String bucket = getBucketForFileType(fileStorage.getMimeType());
+        String bucket = bucketOf(fileStorage);
 
         return minioService.generatePresignedGetUrl(
                 fileStorage.getStorageKey(),
@@ -225,13 +513,25 @@ public class FileStorageService {
 
     /**
      * Delete file from storage
+     *
+     * Removes the upload's record and releases its reference on the stored object;
+     * the MinIO object is removed only when the last reference goes.
      */
     @Transactional
     public void deleteFile(Long id) {
         FileStorage fileStorage = fileStorageRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("File storage not found with id: " + id));
 
-        String bucket = getBucketForFileType(fileStorage.getMimeType());
+        String bucket = bucketOf(fileStorage);
+        StoredObject content = fileStorage.getContent();
+
+        // Delete from database
+        fileStorageRepository.delete(fileStorage);
+        log.info("Deleted file storage record: id={}", id);
+
+        if (content != null && !storedObjectService.release(content.getId(), 1)) {
+            return;
+        }
 
         // Delete from MinIO
         try {
@@ -240,10 +540,6 @@ public class FileStorageService {
         } catch (Exception e) {
             log.warn("Failed to delete file from MinIO: key={}", fileStorage.getStorageKey(), e);
         }
-
-        // Delete from database
-        fileStorageRepository.delete(fileStorage);
-        log.info("Deleted file storage record: id={}", id);
     }
 
     /**
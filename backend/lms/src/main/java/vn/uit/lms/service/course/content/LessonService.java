@@ -13,6 +13,7 @@ import vn.uit.lms.core.domain.course.content.LessonResource;
 import vn.uit.lms.core.repository.course.content.ChapterRepository;
 import vn.uit.lms.core.repository.course.content.LessonRepository;
 import vn.uit.lms.core.repository.course.content.LessonResourceRepository;
+import vn.uit.lms.core.repository.course.content.VideoUploadSessionRepository;
 import vn.uit.lms.service.event.VideoConvertMessage;
 import vn.uit.lms.service.learning.EnrollmentAccessService;
 import vn.uit.lms.service.storage.MinioService;
@@ -22,11 +23,14 @@ import vn.uit.lms.shared.dto.request.course.content.UpdateLessonRequest;
 import vn.uit.lms.shared.dto.request.course.content.UpdateVideoRequest;
 import vn.uit.lms.shared.dto.response.course.content.LessonDTO;
 import vn.uit.lms.shared.dto.response.course.content.RequestUploadUrlResponse;
+import vn.uit.lms.shared.dto.response.course.content.VideoProcessingStatusResponse;
+import vn.uit.lms.shared.dto.response.course.content.VideoThumbnailsResponse;
 import vn.uit.lms.shared.exception.DuplicateResourceException;
 import vn.uit.lms.shared.exception.InvalidRequestException;
 import vn.uit.lms.shared.exception.ResourceNotFoundException;
 import vn.uit.lms.shared.mapper.course.content.LessonMapper;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Service
@@ -34,6 +38,11 @@ import java.util.List;
 @Slf4j
 public class LessonService {
 
+    /**
+     * Poster and sprite sheets are immutable per transcode, let browsers keep them
+     */
+    private static final String THUMBNAIL_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
     private final LessonRepository lessonRepository;
     private final LessonResourceRepository lessonResourceRepository;
     private final MinioService minioService;
@@ -42,6 +51,7 @@ public class LessonService {
     private final MinioBucketProperties minioBucketProperties;
     private final RabbitTemplate rabbitTemplate;
     private final EnrollmentAccessService enrollmentAccessService;
+    private final VideoUploadSessionRepository videoUploadSessionRepository;
 
     public Lesson validateLessonEditable(Long lessonId) {
         Lesson lesson = lessonRepository.findById(lessonId)
@@ -76,6 +86,10 @@ public class LessonService {
         return LessonMapper.toResponse(savedLesson);
     }
 
+    /**
+     * Single presigned PUT for small videos.
+     * Large videos should use resumable upload sessions (VideoUploadSessionService).
+     */
     public RequestUploadUrlResponse requestUploadUrl(Long lessonId) {
 
         validateLessonEditable(lessonId);
@@ -158,6 +172,18 @@ public class LessonService {
             }
         }
 
+        // Abort unfinished multipart uploads and drop upload sessions
+        videoUploadSessionRepository.findByLessonId(lessonId).forEach(session -> {
+            if (!session.getStatus().isTerminal()) {
+                try {
+                    minioService.abortMultipartUpload(session.getBucket(), session.getObjectKey(), session.getUploadId());
+                } catch (Exception e) {
+                    log.warn("Failed to abort upload session {} for lesson: {}", session.getId(), lessonId);
+                }
+            }
+            videoUploadSessionRepository.delete(session);
+        });
+
         Chapter chapter = lesson.getChapter();
         Integer deletedOrderIndex = lesson.getOrderIndex();
 
@@ -301,6 +327,23 @@ public class LessonService {
         return LessonMapper.toResponse(updatedLesson);
     }
 
+    /**
+     * Get transcoding status and progress of a lesson video
+     *
+     * Progress is written by the video worker while FFmpeg runs,
+     * so teachers can see the job moving instead of re-uploading.
+     */
+    public VideoProcessingStatusResponse getVideoProcessingStatus(Long lessonId) {
+        Lesson lesson = lessonRepository.findById(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Lesson not found with id: " + lessonId));
+
+        if (!lesson.isVideoLesson()) {
+            throw new InvalidRequestException("Only VIDEO type lessons have video processing status");
+        }
+
+        return LessonMapper.toProcessingStatusResponse(lesson);
+    }
+
     /**
      * Get video streaming URL (HLS playlist with presigned URLs)
      *
@@ -334,6 +377,47 @@ public class LessonService {
                java.util.Base64.getEncoder().encodeToString(modifiedPlaylist.getBytes());
     }
 
+    /**
+     * Get poster and scrubbing thumbnail track of a lesson video
+     *
+     * The thumbnail track is returned as a data URI (same approach as the HLS playlist),
+     * with every sprite sheet presigned once and served with long cache headers,
+     * so scrubbing costs one small image fetch instead of full segments.
+     */
+    public VideoThumbnailsResponse getVideoThumbnails(Long lessonId) {
+        Lesson lesson = lessonRepository.findById(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Lesson not found with id: " + lessonId));
+
+        return buildVideoThumbnails(lesson);
+    }
+
+    private VideoThumbnailsResponse buildVideoThumbnails(Lesson lesson) {
+        if (!lesson.isVideoReady()) {
+            throw new InvalidRequestException("Video is not ready for streaming");
+        }
+
+        int expirySeconds = 3600; // 1 hour, same as streaming URLs
+        String bucket = minioBucketProperties.getVideos();
+
+        String posterUrl = lesson.getPosterObjectKey() == null ? null
+                : minioService.generatePresignedGetUrl(
+                        lesson.getPosterObjectKey(), bucket, expirySeconds, THUMBNAIL_CACHE_CONTROL);
+
+        String vttUrl = null;
+        if (lesson.getThumbnailsVttKey() != null) {
+            String vtt = minioService.generateThumbnailVttWithPresignedUrls(
+                    lesson.getThumbnailsVttKey(), bucket, expirySeconds, THUMBNAIL_CACHE_CONTROL);
+            vttUrl = "data:text/vtt;base64," +
+                    java.util.Base64.getEncoder().encodeToString(vtt.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return VideoThumbnailsResponse.builder()
+                .posterUrl(posterUrl)
+                .thumbnailsVttUrl(vttUrl)
+                .expiresInSeconds((long) expirySeconds)
+                .build();
+    }
+
     /**
      * Delete video from lesson (including raw video and HLS files)
      */
@@ -421,6 +505,22 @@ public class LessonService {
                 .toList();
     }
 
+    /**
+     * Get poster and thumbnail track for student (with enrollment verification).
+     *
+     * Access Control: Student must be enrolled (or lesson is preview).
+     */
+    public VideoThumbnailsResponse getVideoThumbnailsForStudent(Long lessonId) {
+        Lesson lesson = lessonRepository.findById(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Lesson not found with id: " + lessonId));
+
+        if (lesson.getIsPreview() == null || !lesson.getIsPreview()) {
+            enrollmentAccessService.verifyCurrentStudentLessonAccess(lessonId);
+        }
+
+        return buildVideoThumbnails(lesson);
+    }
+
     /**
      * Get video streaming URL for student (with enrollment verification).
      * Returns HLS playlist with presigned URLs.
@@ -0,0 +1,105 @@
+package vn.uit.lms.service.course.content;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.domain.course.content.FileStorage;
+import vn.uit.lms.core.domain.course.content.StoredObject;
+import vn.uit.lms.core.repository.course.content.FileStorageRepository;
+import vn.uit.lms.core.repository.course.content.StoredObjectRepository;
+import vn.uit.lms.shared.constant.StorageProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reference counting of shared stored objects and creation of upload records.
+ *
+ * Separate from {@link FileStorageService} so callers that transfer bytes outside a
+ * transaction can still reserve, release and record in short transactions of their own.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StoredObjectService {
+
+    private final StoredObjectRepository storedObjectRepository;
+    private final FileStorageRepository fileStorageRepository;
+
+    /**
+     * Find a stored object with identical content and take {@code references} references on it
+     */
+    @Transactional
+    public Optional<StoredObject> acquire(String contentHash, long size, StorageProvider provider, String bucket,
+                                          int references) {
+        if (contentHash == null) {
+            return Optional.empty();
+        }
+
+        return storedObjectRepository
+                .findFirstByChecksumAndSizeBytesAndStorageProviderAndBucketOrderByIdAsc(contentHash, size, provider, bucket)
+                // Row may have been released concurrently by its last owner
+                .filter(existing -> storedObjectRepository.incrementReferenceCount(existing.getId(), references) > 0);
+    }
+
+    /**
+     * Give back {@code references} references; the row is deleted when none remain
+     *
+     * @return true if the last reference went and the caller must remove the object from storage
+     */
+    @Transactional
+    public boolean release(Long objectId, int references) {
+        StoredObject locked = storedObjectRepository.findByIdForUpdate(objectId).orElse(null);
+        if (locked == null) {
+            return false;
+        }
+
+        int remaining = locked.releaseReferences(references);
+        if (remaining > 0) {
+            log.info("Released stored object reference: object={}, remaining={}", objectId, remaining);
+            return false;
+        }
+
+        storedObjectRepository.delete(locked);
+        return true;
+    }
+
+    /**
+     * Save the new stored objects among {@code contents}, then one record per upload
+     *
+     * @param contents stored object of each upload; new objects (no id yet) already carry
+     *                 their reference count
+     */
+    @Transactional
+    public List<FileStorage> saveUploads(List<StoredObject> contents, List<String> originalNames, List<String> mimeTypes) {
+        Set<StoredObject> created = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (StoredObject content : contents) {
+            if (content.getId() == null) {
+                created.add(content);
+            }
+        }
+        storedObjectRepository.saveAll(created);
+
+        List<FileStorage> records = new ArrayList<>(contents.size());
+        for (int i = 0; i < contents.size(); i++) {
+            StoredObject content = contents.get(i);
+            FileStorage fileStorage = FileStorage.builder()
+                    .storageKey(content.getStorageKey())
+                    .storageProvider(content.getStorageProvider())
+                    .originalName(originalNames.get(i))
+                    .mimeType(mimeTypes.get(i))
+                    .sizeBytes(content.getSizeBytes())
+                    .checksum(content.getChecksum())
+                    .content(content)
+                    .build();
+            fileStorage.validateFileStorage();
+            records.add(fileStorage);
+        }
+        return fileStorageRepository.saveAll(records);
+    }
+}
@@ -0,0 +1,329 @@
+package vn.uit.lms.service.course.content;
+
+import io.minio.messages.Part;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.config.MinioBucketProperties;
+import vn.uit.lms.core.domain.course.content.Lesson;
+import vn.uit.lms.core.domain.course.content.VideoUploadPart;
+import vn.uit.lms.core.domain.course.content.VideoUploadSession;
+import vn.uit.lms.core.repository.course.content.VideoUploadSessionRepository;
+import vn.uit.lms.service.storage.MinioService;
+import vn.uit.lms.shared.constant.UploadSessionStatus;
+import vn.uit.lms.shared.dto.request.course.content.CompleteUploadSessionRequest;
+import vn.uit.lms.shared.dto.request.course.content.CreateUploadSessionRequest;
+import vn.uit.lms.shared.dto.request.course.content.UpdateVideoRequest;
+import vn.uit.lms.shared.dto.request.course.content.UploadPartCompletedRequest;
+import vn.uit.lms.shared.dto.request.course.content.UploadPartUrlsRequest;
+import vn.uit.lms.shared.dto.response.course.content.LessonDTO;
+import vn.uit.lms.shared.dto.response.course.content.UploadPartUrlsResponse;
+import vn.uit.lms.shared.dto.response.course.content.UploadSessionResponse;
+import vn.uit.lms.shared.exception.InvalidRequestException;
+import vn.uit.lms.shared.exception.ResourceNotFoundException;
+import vn.uit.lms.shared.exception.UploadFileException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Resumable, chunked video uploads backed by S3 multipart uploads in MinIO.
+ *
+ * Flow:
+ * 1. Teacher creates a session → server starts a multipart upload and fixes the part layout
+ * 2. Client requests presigned URLs for a batch of parts and PUTs them in parallel
+ * 3. Client reports each finished part (partNumber + ETag), tracked in video_upload_parts
+ * 4. After a failure, GET session returns missing parts → client re-uploads only those
+ * 5. Complete → parts are checked against MinIO, the object is assembled atomically
+ *    and only then is the regular upload-complete / transcoding flow triggered
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VideoUploadSessionService {
+
+    /**
+     * S3 lower bound for every part except the last one
+     */
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final int MAX_PARTS = 10_000;
+    private static final int MAX_URLS_PER_REQUEST = 100;
+    private static final int CLEANUP_BATCH_SIZE = 100;
+
+    private final VideoUploadSessionRepository sessionRepository;
+    private final LessonService lessonService;
+    private final MinioService minioService;
+    private final MinioBucketProperties minioBucketProperties;
+
+    @Value("${app.upload.multipart.part-size-bytes:16777216}") // 16MB default
+    private long defaultPartSize;
+
+    @Value("${app.upload.multipart.max-file-size-bytes:21474836480}") // 20GB default
+    private long maxFileSize;
+
+    @Value("${app.upload.multipart.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    @Value("${app.upload.multipart.part-url-expiry-seconds:3600}")
+    private int partUrlExpirySeconds;
+
+    /**
+     * Start a new multipart upload for a video lesson.
+     * Any previous unfinished session of the lesson is aborted.
+     */
+    @Transactional
+    public UploadSessionResponse createSession(Long lessonId, CreateUploadSessionRequest request) {
+        Lesson lesson = lessonService.validateLessonEditable(lessonId);
+
+        if (!lesson.isVideoLesson()) {
+            throw new InvalidRequestException("Only VIDEO type lessons can have videos");
+        }
+
+        long fileSize = request.getFileSize();
+        if (fileSize > maxFileSize) {
+            throw new InvalidRequestException(
+                    String.format("File size exceeds maximum limit of %d MB", maxFileSize / (1024 * 1024)));
+        }
+
+        String contentType = request.getContentType();
+        if (contentType != null && !contentType.startsWith("video/")) {
+            throw new InvalidRequestException("File type not allowed: " + contentType);
+        }
+
+        long partSize = resolvePartSize(fileSize, request.getPartSize());
+        int totalParts = (int) ((fileSize + partSize - 1) / partSize);
+
+        // Only one active upload per lesson
+        sessionRepository.findByLessonIdAndStatus(lessonId, UploadSessionStatus.IN_PROGRESS)
+                .forEach(this::abortQuietly);
+
+        String bucket = minioBucketProperties.getVideos();
+        String objectKey = minioService.generateObjectKeyLessons(lessonId);
+        String uploadId = minioService.createMultipartUpload(bucket, objectKey, contentType);
+
+        VideoUploadSession session = VideoUploadSession.builder()
+                .lesson(lesson)
+                .bucket(bucket)
+                .objectKey(objectKey)
+                .uploadId(uploadId)
+                .contentType(contentType)
+                .fileSize(fileSize)
+                .partSize(partSize)
+                .totalParts(totalParts)
+                .expiresAt(Instant.now().plus(Duration.ofHours(sessionTtlHours)))
+                .build();
+
+        session = sessionRepository.save(session);
+        log.info("Created upload session {} for lesson {}: {} parts of {} bytes",
+                session.getId(), lessonId, totalParts, partSize);
+
+        return toResponse(session);
+    }
+
+    /**
+     * Get session state, including the parts still missing (used to resume)
+     */
+    @Transactional(readOnly = true)
+    public UploadSessionResponse getSession(Long lessonId, Long sessionId) {
+        return toResponse(findSession(lessonId, sessionId));
+    }
+
+    /**
+     * Generate presigned PUT URLs for a batch of parts.
+     * When no part numbers are given, URLs for the first missing parts are returned.
+     */
+    @Transactional(readOnly = true)
+    public UploadPartUrlsResponse generatePartUrls(Long lessonId, Long sessionId, UploadPartUrlsRequest request) {
+        VideoUploadSession session = findSession(lessonId, sessionId);
+        session.ensureActive();
+
+        List<Integer> partNumbers = request != null && request.getPartNumbers() != null
+                && !request.getPartNumbers().isEmpty()
+                ? request.getPartNumbers().stream().distinct().sorted().toList()
+                : session.getMissingPartNumbers();
+
+        if (partNumbers.size() > MAX_URLS_PER_REQUEST) {
+            partNumbers = partNumbers.subList(0, MAX_URLS_PER_REQUEST);
+        }
+        partNumbers.forEach(session::validatePartNumber);
+
+        List<UploadPartUrlsResponse.PartUrl> urls = partNumbers.stream()
+                .map(partNumber -> new UploadPartUrlsResponse.PartUrl(
+                        partNumber,
+                        minioService.generatePresignedPartUploadUrl(
+                                session.getBucket(),
+                                session.getObjectKey(),
+                                session.getUploadId(),
+                                partNumber,
+                                partUrlExpirySeconds
+                        )))
+                .toList();
+
+        return UploadPartUrlsResponse.builder()
+                .sessionId(session.getId())
+                .parts(urls)
+                .expiresInSeconds((long) partUrlExpirySeconds)
+                .build();
+    }
+
+    /**
+     * Record a part the client finished uploading
+     */
+    @Transactional
+    public UploadSessionResponse recordPart(Long lessonId, Long sessionId, UploadPartCompletedRequest request) {
+        VideoUploadSession session = findSession(lessonId, sessionId);
+        session.ensureActive();
+
+        session.recordPart(request.getPartNumber(), request.getEtag(), request.getSizeBytes());
+        session = sessionRepository.save(session);
+
+        log.debug("Upload session {}: part {} uploaded", sessionId, request.getPartNumber());
+        return toResponse(session);
+    }
+
+    /**
+     * Assemble all parts into the final object and trigger video processing.
+     *
+     * The part list sent to MinIO comes from MinIO itself (authoritative ETags),
+     * so a lost part report from the client cannot corrupt the video.
+     */
+    @Transactional
+    public LessonDTO completeSession(Long lessonId, Long sessionId, CompleteUploadSessionRequest request) {
+        VideoUploadSession session = sessionRepository.findForUpdate(sessionId, lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session not found with id: " + sessionId));
+        session.ensureActive();
+
+        List<Part> uploadedParts = minioService.listUploadedParts(
+                session.getBucket(), session.getObjectKey(), session.getUploadId());
+
+        Map<Integer, Part> partsByNumber = uploadedParts.stream()
+                .collect(Collectors.toMap(Part::partNumber, Function.identity(), (a, b) -> b));
+
+        List<Integer> missing = IntStream.rangeClosed(1, session.getTotalParts())
+                .filter(n -> !partsByNumber.containsKey(n))
+                .boxed()
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new UploadFileException("Upload is incomplete, missing parts: " + missing);
+        }
+
+        List<Part> parts = partsByNumber.values().stream()
+                .filter(p -> p.partNumber() <= session.getTotalParts())
+                .sorted(Comparator.comparingInt(Part::partNumber))
+                .map(p -> new Part(p.partNumber(), p.etag()))
+                .toList();
+
+        minioService.completeMultipartUpload(session.getBucket(), session.getObjectKey(), session.getUploadId(), parts);
+
+        // Keep the tracking table in sync with what MinIO assembled
+        for (Part part : parts) {
+            Part uploaded = partsByNumber.get(part.partNumber());
+            session.recordPart(part.partNumber(), part.etag(), uploaded.partSize());
+        }
+        session.markCompleted();
+        sessionRepository.save(session);
+
+        log.info("Upload session {} completed for lesson {}, object {}", sessionId, lessonId, session.getObjectKey());
+
+        UpdateVideoRequest videoRequest = new UpdateVideoRequest();
+        videoRequest.setObjectKey(session.getObjectKey());
+        videoRequest.setDurationSeconds(request.getDurationSeconds());
+        return lessonService.uploadVideoLessonComplete(lessonId, videoRequest);
+    }
+
+    /**
+     * Cancel an upload and discard uploaded parts
+     */
+    @Transactional
+    public void abortSession(Long lessonId, Long sessionId) {
+        lessonService.validateLessonEditable(lessonId);
+
+        VideoUploadSession session = sessionRepository.findForUpdate(sessionId, lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session not found with id: " + sessionId));
+
+        if (session.getStatus().isTerminal()) {
+            throw new InvalidRequestException("Upload session is already " + session.getStatus());
+        }
+
+        minioService.abortMultipartUpload(session.getBucket(), session.getObjectKey(), session.getUploadId());
+        session.markAborted();
+        sessionRepository.save(session);
+
+        log.info("Aborted upload session {} for lesson {}", sessionId, lessonId);
+    }
+
+    /**
+     * Abort sessions past their TTL so MinIO can reclaim abandoned parts.
+     *
+     * @return number of sessions expired
+     */
+    @Transactional
+    public int expireAbandonedSessions() {
+        List<VideoUploadSession> expired = sessionRepository.findExpired(
+                UploadSessionStatus.IN_PROGRESS, Instant.now(), PageRequest.of(0, CLEANUP_BATCH_SIZE));
+
+        for (VideoUploadSession session : expired) {
+            try {
+                minioService.abortMultipartUpload(session.getBucket(), session.getObjectKey(), session.getUploadId());
+            } catch (Exception e) {
+                log.warn("Failed to abort expired upload session {}: {}", session.getId(), e.getMessage());
+            }
+            session.markExpired();
+        }
+        sessionRepository.saveAll(expired);
+
+        return expired.size();
+    }
+
+    private VideoUploadSession findSession(Long lessonId, Long sessionId) {
+        lessonService.validateLessonEditable(lessonId);
+        return sessionRepository.findByIdAndLessonId(sessionId, lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session not found with id: " + sessionId));
+    }
+
+    private void abortQuietly(VideoUploadSession session) {
+        try {
+            minioService.abortMultipartUpload(session.getBucket(), session.getObjectKey(), session.getUploadId());
+        } catch (Exception e) {
+            log.warn("Failed to abort previous upload session {}: {}", session.getId(), e.getMessage());
+        }
+        session.markAborted();
+        sessionRepository.save(session);
+    }
+
+    /**
+     * Pick a part size that respects S3 limits (>= 5MB, <= 10,000 parts)
+     */
+    private long resolvePartSize(long fileSize, Long requestedPartSize) {
+        long partSize = requestedPartSize != null ? requestedPartSize : defaultPartSize;
+        partSize = Math.max(partSize, MIN_PART_SIZE);
+
+        long minForFile = (fileSize + MAX_PARTS - 1) / MAX_PARTS;
+        return Math.max(partSize, minForFile);
+    }
+
+    private UploadSessionResponse toResponse(VideoUploadSession session) {
+        return UploadSessionResponse.builder()
+                .sessionId(session.getId())
+                .lessonId(session.getLesson().getId())
+                .objectKey(session.getObjectKey())
+                .status(session.getStatus())
+                .fileSize(session.getFileSize())
+                .partSize(session.getPartSize())
+                .totalParts(session.getTotalParts())
+                .uploadedBytes(session.getUploadedBytes())
+                .completedParts(session.getParts().stream().map(VideoUploadPart::getPartNumber).toList())
+                .missingParts(session.getMissingPartNumbers())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+}
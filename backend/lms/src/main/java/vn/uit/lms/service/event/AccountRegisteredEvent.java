@@ -0,0 +1,12 @@
+package vn.uit.lms.service.event;
+
+import vn.uit.lms.shared.constant.AccountStatus;
+import vn.uit.lms.shared.constant.Role;
+
+import java.time.Instant;
+
+/**
+ * A new account was registered
+ */
+public record AccountRegisteredEvent(Long accountId, Role role, AccountStatus status, Instant registeredAt) {
+}
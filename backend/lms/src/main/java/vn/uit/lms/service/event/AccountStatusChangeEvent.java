@@ -2,9 +2,11 @@ package vn.uit.lms.service.event;
 
 import vn.uit.lms.core.domain.Account;
 import vn.uit.lms.shared.constant.AccountActionType;
+import vn.uit.lms.shared.constant.AccountStatus;
 
 public record AccountStatusChangeEvent (
      Account account,
      AccountActionType actionType,
-     String reason
+     String reason,
+     AccountStatus previousStatus
 ){}
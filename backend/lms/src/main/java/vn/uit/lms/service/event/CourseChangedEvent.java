@@ -0,0 +1,7 @@
+package vn.uit.lms.service.event;
+
+/**
+ * A course was created, deleted or restored
+ */
+public record CourseChangedEvent(Long courseId, Long teacherId) {
+}
@@ -0,0 +1,7 @@
+package vn.uit.lms.service.event;
+
+/**
+ * A review of the course was created, edited or deleted
+ */
+public record CourseReviewChangedEvent(Long courseId) {
+}
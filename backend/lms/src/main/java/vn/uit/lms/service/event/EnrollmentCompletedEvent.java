@@ -0,0 +1,9 @@
+package vn.uit.lms.service.event;
+
+import java.time.Instant;
+
+/**
+ * An enrollment was completed; averageScore is null when the course has no graded work
+ */
+public record EnrollmentCompletedEvent(Long enrollmentId, Long courseId, Float averageScore, Instant completedAt) {
+}
@@ -0,0 +1,9 @@
+package vn.uit.lms.service.event;
+
+import java.time.Instant;
+
+/**
+ * A student was enrolled in a course (free or paid)
+ */
+public record EnrollmentCreatedEvent(Long enrollmentId, Long courseId, Instant enrolledAt) {
+}
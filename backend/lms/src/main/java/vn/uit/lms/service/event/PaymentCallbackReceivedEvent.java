@@ -0,0 +1,5 @@
+package vn.uit.lms.service.event;
+
+public record PaymentCallbackReceivedEvent(
+        Long inboxId
+) {}
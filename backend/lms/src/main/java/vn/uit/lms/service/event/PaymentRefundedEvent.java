@@ -0,0 +1,10 @@
+package vn.uit.lms.service.event;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A settled payment was refunded
+ */
+public record PaymentRefundedEvent(Long paymentId, Long courseId, BigDecimal refundAmount, Instant refundedAt) {
+}
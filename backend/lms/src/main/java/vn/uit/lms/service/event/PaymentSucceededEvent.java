@@ -0,0 +1,10 @@
+package vn.uit.lms.service.event;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A payment was settled as SUCCESS
+ */
+public record PaymentSucceededEvent(Long paymentId, Long courseId, BigDecimal amount, Instant paidAt) {
+}
@@ -0,0 +1,7 @@
+package vn.uit.lms.service.event;
+
+/**
+ * A revenue share config was created, updated, deactivated or deleted
+ */
+public record RevenueShareConfigChangedEvent(Long configId) {
+}
@@ -0,0 +1,7 @@
+package vn.uit.lms.service.event;
+
+/**
+ * A teacher profile was approved or had its approval withdrawn
+ */
+public record TeacherApprovalChangedEvent(Long teacherId, boolean wasApproved, boolean approved) {
+}
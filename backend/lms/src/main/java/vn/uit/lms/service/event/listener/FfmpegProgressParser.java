@@ -0,0 +1,167 @@
+package vn.uit.lms.service.event.listener;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental parser for FFmpeg output produced with {@code -progress pipe:1}.
+ *
+ * FFmpeg writes a block of key=value lines for every progress tick, terminated by
+ * {@code progress=continue} or {@code progress=end}:
+ * <pre>
+ * out_time_us=12345678
+ * total_size=1048576
+ * speed=2.35x
+ * progress=continue
+ * </pre>
+ * The total media duration is taken from the input banner ("Duration: HH:MM:SS.xx")
+ * which is interleaved on the same stream because stderr is redirected.
+ *
+ * One instance per transcoding job, not thread-safe.
+ */
+public class FfmpegProgressParser {
+
+    private static final Pattern DURATION_PATTERN =
+            Pattern.compile("Duration:\\s*(\\d+):(\\d{2}):(\\d{2}(?:\\.\\d+)?)");
+
+    private double totalSeconds;
+    private double processedSeconds;
+    private double speed;
+    private long outputBytes;
+    private boolean finished;
+
+    /**
+     * Feed one line of FFmpeg output.
+     *
+     * @return true when the line closes a progress block, i.e. a new snapshot is available
+     */
+    public boolean accept(String line) {
+        if (line == null || line.isBlank()) {
+            return false;
+        }
+
+        String trimmed = line.trim();
+
+        if (totalSeconds <= 0 && trimmed.startsWith("Duration:")) {
+            Matcher matcher = DURATION_PATTERN.matcher(trimmed);
+            if (matcher.find()) {
+                totalSeconds = Integer.parseInt(matcher.group(1)) * 3600
+                        + Integer.parseInt(matcher.group(2)) * 60
+                        + Double.parseDouble(matcher.group(3));
+            }
+            return false;
+        }
+
+        int separator = trimmed.indexOf('=');
+        if (separator <= 0) {
+            return false;
+        }
+
+        String key = trimmed.substring(0, separator);
+        String value = trimmed.substring(separator + 1).trim();
+
+        switch (key) {
+            // out_time_ms is reported in microseconds as well (historical FFmpeg quirk)
+            case "out_time_us", "out_time_ms" -> {
+                long micros = parseLong(value);
+                if (micros >= 0) {
+                    processedSeconds = micros / 1_000_000.0;
+                }
+            }
+            case "total_size" -> {
+                long size = parseLong(value);
+                if (size >= 0) {
+                    outputBytes = size;
+                }
+            }
+            case "speed" -> speed = parseSpeed(value);
+            case "progress" -> {
+                finished = "end".equals(value);
+                return true;
+            }
+            default -> {
+                // Other keys (frame, fps, bitrate, ...) are not needed
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Override the total duration when it is known up front (e.g. from the upload request).
+     */
+    public void setTotalSeconds(double totalSeconds) {
+        if (totalSeconds > 0) {
+            this.totalSeconds = totalSeconds;
+        }
+    }
+
+    public boolean hasTotalDuration() {
+        return totalSeconds > 0;
+    }
+
+    /**
+     * Percent complete (0-100). Stays at 99 until FFmpeg reports {@code progress=end}.
+     */
+    public int getPercent() {
+        if (finished) {
+            return 100;
+        }
+        if (totalSeconds <= 0) {
+            return 0;
+        }
+        int percent = (int) Math.floor(processedSeconds * 100.0 / totalSeconds);
+        return Math.max(0, Math.min(99, percent));
+    }
+
+    /**
+     * Estimated seconds remaining, or null when it cannot be estimated yet.
+     */
+    public Integer getEtaSeconds() {
+        if (finished) {
+            return 0;
+        }
+        if (totalSeconds <= 0 || speed <= 0) {
+            return null;
+        }
+        double remaining = Math.max(0, totalSeconds - processedSeconds);
+        return (int) Math.ceil(remaining / speed);
+    }
+
+    public double getTotalSeconds() {
+        return totalSeconds;
+    }
+
+    public double getProcessedSeconds() {
+        return processedSeconds;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            // FFmpeg reports "N/A" before the first frame is encoded
+            return -1;
+        }
+    }
+
+    private static double parseSpeed(String value) {
+        String number = value.endsWith("x") ? value.substring(0, value.length() - 1) : value;
+        try {
+            return Double.parseDouble(number.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
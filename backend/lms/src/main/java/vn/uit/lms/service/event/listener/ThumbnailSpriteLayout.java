@@ -0,0 +1,85 @@
+package vn.uit.lms.service.event.listener;
+
+import java.util.Locale;
+
+/**
+ * Layout of the scrubbing thumbnail sprite sheets produced by FFmpeg's tile filter,
+ * and the matching WebVTT track.
+ *
+ * One tile is captured every {@code intervalSeconds}; tiles are packed row by row into
+ * sheets of {@code columns x rows}. FFmpeg numbers sheets from 1 (sprite_001.jpg, ...).
+ * Each VTT cue points at a tile with a media fragment, e.g. {@code sprite_001.jpg#xywh=160,0,160,90}.
+ */
+public record ThumbnailSpriteLayout(
+        int intervalSeconds,
+        int tileWidth,
+        int tileHeight,
+        int columns,
+        int rows
+) {
+
+    public static final String SPRITE_PATTERN = "sprite_%03d.jpg";
+    public static final String VTT_FILE_NAME = "thumbnails.vtt";
+
+    public ThumbnailSpriteLayout {
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("Thumbnail interval must be positive, got " + intervalSeconds);
+        }
+        if (tileWidth <= 0 || tileHeight <= 0 || columns <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Tile size and sheet grid must be positive");
+        }
+    }
+
+    public int tilesPerSheet() {
+        return columns * rows;
+    }
+
+    public int tileCount(double durationSeconds) {
+        if (durationSeconds <= 0) {
+            return 0;
+        }
+        return (int) Math.ceil(durationSeconds / intervalSeconds);
+    }
+
+    /**
+     * FFmpeg video filter producing the sprite sheets (letterboxed to a fixed tile size)
+     */
+    public String ffmpegFilter() {
+        return String.format(Locale.ROOT,
+                "fps=1/%d,scale=%d:%d:force_original_aspect_ratio=decrease," +
+                        "pad=%d:%d:(ow-iw)/2:(oh-ih)/2,tile=%dx%d",
+                intervalSeconds, tileWidth, tileHeight, tileWidth, tileHeight, columns, rows);
+    }
+
+    /**
+     * Build the WebVTT thumbnail track for a video of the given duration
+     */
+    public String buildVtt(double durationSeconds) {
+        int tiles = tileCount(durationSeconds);
+        StringBuilder vtt = new StringBuilder(32 + tiles * 72);
+        vtt.append("WEBVTT\n\n");
+
+        for (int i = 0; i < tiles; i++) {
+            double start = (double) i * intervalSeconds;
+            double end = Math.min((double) (i + 1) * intervalSeconds, durationSeconds);
+
+            int sheet = i / tilesPerSheet() + 1;
+            int index = i % tilesPerSheet();
+            int x = (index % columns) * tileWidth;
+            int y = (index / columns) * tileHeight;
+
+            vtt.append(formatTimestamp(start)).append(" --> ").append(formatTimestamp(end)).append('\n')
+                    .append(String.format(Locale.ROOT, SPRITE_PATTERN, sheet))
+                    .append("#xywh=").append(x).append(',').append(y).append(',')
+                    .append(tileWidth).append(',').append(tileHeight)
+                    .append("\n\n");
+        }
+        return vtt.toString();
+    }
+
+    private static String formatTimestamp(double seconds) {
+        long millis = Math.round(seconds * 1000);
+        return String.format(Locale.ROOT, "%02d:%02d:%02d.%03d",
+                millis / 3_600_000, (millis / 60_000) % 60, (millis / 1000) % 60, millis % 1000);
+    }
+}
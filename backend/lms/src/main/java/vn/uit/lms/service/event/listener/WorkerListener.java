@@ -1,12 +1,17 @@
 package vn.uit.lms.service.event.listener;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.minio.GetObjectArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
 import io.minio.UploadObjectArgs;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import vn.uit.lms.config.RabbitMQConfig;
 import vn.uit.lms.core.domain.course.content.Lesson;
@@ -16,6 +21,9 @@ import vn.uit.lms.shared.constant.VideoStatus;
 
 import java.io.*;
 import java.nio.file.*;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -26,10 +34,49 @@ public class WorkerListener {
 
     private final MinioClient minioClient;
     private final LessonRepository lessonRepository;
+    private final MeterRegistry meterRegistry;
 
     // Configuration
     private static final int SEGMENT_DURATION = 10; // 10 seconds per segment
     private static final String HLS_PREFIX = "hls/";
+    private static final String POSTER_FILE_NAME = "poster.jpg";
+
+    /**
+     * Poster and sprite sheets never change for a given transcode (a new upload wipes the folder)
+     */
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    // Metrics
+    private static final String METRIC_DURATION = "lms.video.transcode.duration";
+    private static final String METRIC_SPEED = "lms.video.transcode.speed";
+    private static final String METRIC_OUTPUT_SIZE = "lms.video.transcode.output.size";
+
+    /**
+     * Minimum interval between two progress writes for the same lesson
+     */
+    @Value("${app.ffmpeg.progress-update-interval-seconds:5}")
+    private long progressUpdateIntervalSeconds;
+
+    /**
+     * One scrubbing thumbnail every N seconds
+     */
+    @Value("${app.ffmpeg.thumbnail-interval-seconds:10}")
+    private int thumbnailIntervalSeconds;
+
+    private ThumbnailSpriteLayout thumbnailLayout;
+
+    /**
+     * Fail at startup on a bad interval instead of on the first transcode
+     * (an interval of 0 would ask for an unbounded number of tiles)
+     */
+    @PostConstruct
+    void initThumbnailLayout() {
+        if (thumbnailIntervalSeconds <= 0) {
+            throw new IllegalStateException(
+                    "app.ffmpeg.thumbnail-interval-seconds must be > 0, got " + thumbnailIntervalSeconds);
+        }
+        thumbnailLayout = new ThumbnailSpriteLayout(thumbnailIntervalSeconds, 160, 90, 10, 10);
+    }
 
     @RabbitListener(queues = RabbitMQConfig.VIDEO_CONVERT_QUEUE)
     public void handleVideoConvert(VideoConvertMessage message) {
@@ -40,9 +87,12 @@ public class WorkerListener {
         log.info("Starting FFmpeg conversion for lesson {}: {}/{}", lessonId, bucket, objectKey);
 
         Path workDir = null;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
         try {
             // Update status to PROCESSING
             updateLessonStatus(lessonId, VideoStatus.PROCESSING);
+            lessonRepository.updateProcessingProgress(lessonId, 0, null, Instant.now());
 
             // STEP 1: Create temp directory
             workDir = Files.createTempDirectory("video-" + lessonId);
@@ -55,15 +105,27 @@ public class WorkerListener {
             // STEP 3: Convert with FFmpeg
             Path outputDir = workDir.resolve("hls");
             Files.createDirectories(outputDir);
-            convertToHLS(inputVideo, outputDir);
+            FfmpegProgressParser progress = convertToHLS(inputVideo, outputDir, lessonId);
             log.info("FFmpeg conversion completed");
+            recordOutputMetrics(progress, outputDir);
+
+            // STEP 3b: Poster frame + thumbnail sprites (best-effort, video stays playable without them)
+            boolean hasPoster = generatePoster(inputVideo, outputDir, progress.getTotalSeconds());
+            boolean hasThumbnails = generateThumbnailSprites(inputVideo, outputDir, progress.getTotalSeconds());
 
             // STEP 4: Upload HLS files to MinIO
             String playlistKey = uploadHLSFiles(bucket, outputDir, lessonId);
             log.info("Uploaded HLS files to MinIO");
 
             // STEP 5: Update lesson
-            updateLessonWithHLS(lessonId, playlistKey);
+            String hlsPrefix = playlistKey.substring(0, playlistKey.lastIndexOf('/') + 1);
+            updateLessonWithHLS(
+                    lessonId,
+                    playlistKey,
+                    hasPoster ? hlsPrefix + POSTER_FILE_NAME : null,
+                    hasThumbnails ? hlsPrefix + ThumbnailSpriteLayout.VTT_FILE_NAME : null
+            );
+            outcome = "success";
 
             log.info("Video conversion completed successfully for lesson {}", lessonId);
 
@@ -71,6 +133,11 @@ public class WorkerListener {
             log.error("Error processing video for lesson {}: {}", lessonId, e.getMessage(), e);
             updateLessonStatus(lessonId, VideoStatus.FAILED);
         } finally {
+            sample.stop(Timer.builder(METRIC_DURATION)
+                    .description("Wall-clock time of a video transcoding job")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+
             // STEP 6: Cleanup temp files
             if (workDir != null) {
                 cleanup(workDir);
@@ -106,6 +173,7 @@ public class WorkerListener {
      *
      * Command:
      * ffmpeg -i input.mp4 \
+     *   -progress pipe:1 -nostats \  (machine-readable progress on stdout)
      *   -c:v libx264 -c:a aac \
      *   -hls_time 10 \
      *   -hls_list_size 0 \
@@ -113,14 +181,19 @@ public class WorkerListener {
      *   -hls_base_url "" \  (IMPORTANT: Keep relative paths)
      *   -f hls \
      *   index.m3u8
+     *
+     * Progress blocks are parsed as they arrive and written to the lesson,
+     * throttled to one update per progressUpdateIntervalSeconds.
      */
-    private void convertToHLS(Path inputVideo, Path outputDir) throws Exception {
+    private FfmpegProgressParser convertToHLS(Path inputVideo, Path outputDir, Long lessonId) throws Exception {
         String playlistPath = outputDir.resolve("index.m3u8").toString();
         String segmentPattern = outputDir.resolve("segment_%03d.ts").toString();
 
         ProcessBuilder processBuilder = new ProcessBuilder(
                 "ffmpeg",
                 "-i", inputVideo.toString(),
+                "-progress", "pipe:1",       // key=value progress blocks on stdout
+                "-nostats",                  // suppress the human-readable stats line
                 "-c:v", "libx264",           // H.264 video codec
                 "-c:a", "aac",               // AAC audio codec
                 "-hls_time", String.valueOf(SEGMENT_DURATION),  // 10s segments
@@ -134,11 +207,28 @@ public class WorkerListener {
         processBuilder.redirectErrorStream(true);
         Process process = processBuilder.start();
 
-        // Log FFmpeg output
+        FfmpegProgressParser progress = new FfmpegProgressParser();
+        long intervalMillis = progressUpdateIntervalSeconds * 1000;
+        long lastReportedAt = 0;
+        int lastReportedPercent = -1;
+
+        // Parse FFmpeg output
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 log.debug("FFmpeg: {}", line);
+
+                if (!progress.accept(line) || progress.isFinished()) {
+                    continue;
+                }
+
+                long now = System.currentTimeMillis();
+                int percent = progress.getPercent();
+                if (percent != lastReportedPercent && now - lastReportedAt >= intervalMillis) {
+                    reportProgress(lessonId, percent, progress.getEtaSeconds());
+                    lastReportedAt = now;
+                    lastReportedPercent = percent;
+                }
             }
         }
 
@@ -146,10 +236,125 @@ public class WorkerListener {
         if (exitCode != 0) {
             throw new RuntimeException("FFmpeg conversion failed with exit code: " + exitCode);
         }
+        return progress;
+    }
+
+    /**
+     * Persist transcoding progress. Failures are logged only, progress is best-effort.
+     */
+    private void reportProgress(Long lessonId, int percent, Integer etaSeconds) {
+        try {
+            lessonRepository.updateProcessingProgress(lessonId, percent, etaSeconds, Instant.now());
+            log.debug("Lesson {} transcoding progress: {}% (eta {}s)", lessonId, percent, etaSeconds);
+        } catch (Exception e) {
+            log.warn("Failed to update transcoding progress for lesson {}: {}", lessonId, e.getMessage());
+        }
     }
 
     /**
-     * Upload all HLS files (playlist + segments) to MinIO
+     * Publish speed factor and output size of a finished job for capacity planning
+     */
+    private void recordOutputMetrics(FfmpegProgressParser progress, Path outputDir) {
+        if (progress.getSpeed() > 0) {
+            DistributionSummary.builder(METRIC_SPEED)
+                    .description("FFmpeg speed factor (media seconds encoded per wall-clock second)")
+                    .register(meterRegistry)
+                    .record(progress.getSpeed());
+        }
+
+        long outputBytes;
+        try (Stream<Path> files = Files.walk(outputDir)) {
+            outputBytes = files.filter(Files::isRegularFile)
+                    .mapToLong(file -> file.toFile().length())
+                    .sum();
+        } catch (IOException e) {
+            outputBytes = progress.getOutputBytes();
+        }
+
+        DistributionSummary.builder(METRIC_OUTPUT_SIZE)
+                .description("Total size of HLS output per transcoding job")
+                .baseUnit("bytes")
+                .register(meterRegistry)
+                .record(outputBytes);
+    }
+
+    /**
+     * Extract a single poster frame at 10% of the video (capped at 10s)
+     *
+     * Command: ffmpeg -ss T -i input.mp4 -frames:v 1 -q:v 2 poster.jpg
+     */
+    private boolean generatePoster(Path inputVideo, Path outputDir, double durationSeconds) {
+        double position = durationSeconds > 0 ? Math.min(durationSeconds * 0.1, 10.0) : 0;
+        try {
+            runFFmpeg(new ProcessBuilder(
+                    "ffmpeg", "-y",
+                    "-ss", String.format(Locale.ROOT, "%.3f", position),
+                    "-i", inputVideo.toString(),
+                    "-frames:v", "1",
+                    "-q:v", "2",
+                    outputDir.resolve(POSTER_FILE_NAME).toString()
+            ));
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to generate poster frame: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Build thumbnail sprite sheets (one tile every thumbnailIntervalSeconds) and the WebVTT track
+     *
+     * Command:
+     * ffmpeg -i input.mp4 \
+     *   -vf "fps=1/10,scale=160:90:force_original_aspect_ratio=decrease,pad=160:90:...,tile=10x10" \
+     *   -q:v 5 sprite_%03d.jpg
+     */
+    private boolean generateThumbnailSprites(Path inputVideo, Path outputDir, double durationSeconds) {
+        if (durationSeconds <= 0) {
+            log.warn("Unknown video duration, skipping thumbnail sprites");
+            return false;
+        }
+
+        ThumbnailSpriteLayout layout = thumbnailLayout;
+        try {
+            runFFmpeg(new ProcessBuilder(
+                    "ffmpeg", "-y",
+                    "-i", inputVideo.toString(),
+                    "-vf", layout.ffmpegFilter(),
+                    "-an",
+                    "-q:v", "5",
+                    outputDir.resolve(ThumbnailSpriteLayout.SPRITE_PATTERN).toString()
+            ));
+            Files.writeString(outputDir.resolve(ThumbnailSpriteLayout.VTT_FILE_NAME), layout.buildVtt(durationSeconds));
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to generate thumbnail sprites: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Run a short FFmpeg command, draining its output
+     */
+    private void runFFmpeg(ProcessBuilder processBuilder) throws Exception {
+        processBuilder.redirectErrorStream(true);
+        Process process = processBuilder.start();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                log.trace("FFmpeg: {}", line);
+            }
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new RuntimeException("FFmpeg failed with exit code: " + exitCode);
+        }
+    }
+
+    /**
+     * Upload all HLS files (playlist + segments + poster/sprites) to MinIO
      */
     private String uploadHLSFiles(String bucket, Path hlsDir, Long lessonId) throws Exception {
         String hlsPrefix = HLS_PREFIX + "lessons/" + lessonId + "/";
@@ -161,14 +366,16 @@ public class WorkerListener {
                             String fileName = file.getFileName().toString();
                             String objectKey = hlsPrefix + fileName;
 
-                            minioClient.uploadObject(
-                                    UploadObjectArgs.builder()
-                                            .bucket(bucket)
-                                            .object(objectKey)
-                                            .filename(file.toString())
-                                            .contentType(getContentType(fileName))
-                                            .build()
-                            );
+                            UploadObjectArgs.Builder args = UploadObjectArgs.builder()
+                                    .bucket(bucket)
+                                    .object(objectKey)
+                                    .filename(file.toString())
+                                    .contentType(getContentType(fileName));
+                            if (fileName.endsWith(".jpg")) {
+                                args.headers(Map.of("Cache-Control", IMMUTABLE_CACHE_CONTROL));
+                            }
+
+                            minioClient.uploadObject(args.build());
 
                             log.debug("Uploaded: {}", objectKey);
                         } catch (Exception e) {
@@ -189,19 +396,28 @@ public class WorkerListener {
             return "application/vnd.apple.mpegurl";
         } else if (fileName.endsWith(".ts")) {
             return "video/mp2t";
+        } else if (fileName.endsWith(".jpg")) {
+            return "image/jpeg";
+        } else if (fileName.endsWith(".vtt")) {
+            return "text/vtt";
         }
         return "application/octet-stream";
     }
 
     /**
-     * Update lesson with HLS playlist URL
+     * Update lesson with HLS playlist URL, poster and thumbnail track
      */
-    private void updateLessonWithHLS(Long lessonId, String playlistKey) {
+    private void updateLessonWithHLS(Long lessonId, String playlistKey, String posterKey, String thumbnailsVttKey) {
         Optional<Lesson> lessonOpt = lessonRepository.findById(lessonId);
         if (lessonOpt.isPresent()) {
             Lesson lesson = lessonOpt.get();
             lesson.setVideoObjectKey(playlistKey);
+            lesson.setPosterObjectKey(posterKey);
+            lesson.setThumbnailsVttKey(thumbnailsVttKey);
             lesson.setVideoStatus(VideoStatus.READY);
+            lesson.setProcessingProgress(100);
+            lesson.setProcessingEtaSeconds(0);
+            lesson.setProcessingUpdatedAt(Instant.now());
             lessonRepository.save(lesson);
             log.info("Lesson {} updated with HLS URL: {}", lessonId, playlistKey);
         } else {
@@ -217,6 +433,9 @@ public class WorkerListener {
         if (lessonOpt.isPresent()) {
             Lesson lesson = lessonOpt.get();
             lesson.setVideoStatus(status);
+            if (status == VideoStatus.FAILED) {
+                lesson.setProcessingEtaSeconds(null);
+            }
             lessonRepository.save(lesson);
             log.info("Lesson {} status: {}", lessonId, status);
         }
@@ -2,6 +2,7 @@ package vn.uit.lms.service.learning;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -16,6 +17,8 @@ import vn.uit.lms.core.repository.course.CourseRepository;
 import vn.uit.lms.core.repository.course.CourseVersionRepository;
 import vn.uit.lms.core.repository.learning.EnrollmentRepository;
 import vn.uit.lms.service.AccountService;
+import vn.uit.lms.service.event.EnrollmentCompletedEvent;
+import vn.uit.lms.service.event.EnrollmentCreatedEvent;
 import vn.uit.lms.shared.constant.CourseStatus;
 import vn.uit.lms.shared.constant.EnrollmentStatus;
 import vn.uit.lms.shared.constant.Role;
@@ -49,6 +52,7 @@ public class EnrollmentService {
     private final EnrollmentMapper enrollmentMapper;
     private final AccountService accountService;
     private final CertificateService certificateService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Student enrolls in a FREE course
@@ -546,6 +550,8 @@ public class EnrollmentService {
         try {
             enrollment.complete();
             enrollmentRepository.save(enrollment);
+            eventPublisher.publishEvent(new EnrollmentCompletedEvent(enrollment.getId(),
+                    enrollment.getCourse().getId(), enrollment.getAverageScore(), enrollment.getCompletedAt()));
             log.info("Successfully completed enrollment: {}", enrollmentId);
         } catch (IllegalStateException e) {
             throw new InvalidRequestException(e.getMessage());
@@ -664,6 +670,8 @@ public class EnrollmentService {
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
         log.debug("Created enrollment {} for student {} in course {}",
                 savedEnrollment.getId(), student.getId(), course.getId());
+        eventPublisher.publishEvent(new EnrollmentCreatedEvent(savedEnrollment.getId(), course.getId(),
+                savedEnrollment.getEnrolledAt()));
 
         return savedEnrollment;
     }
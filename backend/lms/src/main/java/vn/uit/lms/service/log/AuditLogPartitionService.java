@@ -0,0 +1,192 @@
+package vn.uit.lms.service.log;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.shared.util.export.CsvExportUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly range partitions of {@code audit_log} on {@code created_at}.
+ *
+ * The partitioned table and its {@code audit_log_default} partition are created by the
+ * {@code V2__partition_audit_log} migration. Monthly partitions are named
+ * {@code audit_log_pYYYYMM}. Expired partitions are written out with
+ * {@link #writeArchive} before {@link #dropPartition} removes them.
+ */
+@Service
+@Slf4j
+public class AuditLogPartitionService {
+
+    private static final String TABLE = "audit_log";
+    private static final String DEFAULT_PARTITION = "audit_log_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile("audit_log_p(\\d{4})(\\d{2})");
+
+    static final List<String> ARCHIVE_HEADERS = List.of(
+            "id", "table_name", "record_id", "action", "changed_data", "user_account_id", "ip_address", "created_at");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate cursorTemplate;
+
+    public AuditLogPartitionService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.cursorTemplate.setFetchSize(1000);
+    }
+
+    /**
+     * Create the monthly partitions from {@code from} to {@code to} (inclusive) that are missing
+     */
+    @Transactional
+    public int ensurePartitions(YearMonth from, YearMonth to) {
+        int created = 0;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            LocalDate start = month.atDay(1);
+            LocalDate end = month.plusMonths(1).atDay(1);
+            Boolean exists = jdbcTemplate.queryForObject(
+                    "SELECT to_regclass(?) IS NOT NULL", Boolean.class, partitionName(month));
+            if (Boolean.TRUE.equals(exists)) {
+                continue;
+            }
+            createPartition(month, start, end);
+            created++;
+        }
+        if (created > 0) {
+            log.info("Created {} audit_log partition(s) between {} and {}", created, from, to);
+        }
+        return created;
+    }
+
+    /**
+     * Month of the oldest row that fell into the default partition because its month had
+     * no partition, null if the default partition is empty
+     */
+    @Transactional(readOnly = true)
+    public YearMonth oldestDefaultMonth() {
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM " + DEFAULT_PARTITION, Timestamp.class);
+        return oldest != null ? YearMonth.from(oldest.toLocalDateTime()) : null;
+    }
+
+    private void createPartition(YearMonth month, LocalDate start, LocalDate end) {
+        String name = partitionName(month);
+        String range = " FOR VALUES FROM ('" + start + "') TO ('" + end + "')";
+        Boolean stranded = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION
+                + " WHERE created_at >= ? AND created_at < ?)", Boolean.class, start, end);
+        if (!Boolean.TRUE.equals(stranded)) {
+            jdbcTemplate.execute("CREATE TABLE " + name + " PARTITION OF " + TABLE + range);
+            return;
+        }
+
+        // Phân vùng mặc định đang giữ dòng của tháng này: chuyển sang bảng mới rồi gắn vào
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                + " WHERE created_at >= ? AND created_at < ? RETURNING *) INSERT INTO " + name
+                + " SELECT * FROM moved", start, end);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + name + range);
+        log.warn("Moved {} audit_log row(s) of {} out of the default partition", moved, month);
+    }
+
+    /**
+     * Months that currently have a partition, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<YearMonth> listPartitions() {
+        List<String> names = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ?
+                """, String.class, TABLE);
+
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : names) {
+            YearMonth month = parsePartitionName(name);
+            if (month != null) {
+                months.add(month);
+            }
+        }
+        months.sort(null);
+        return months;
+    }
+
+    /**
+     * Write every row of one partition as CSV, read through a cursor
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long writeArchive(YearMonth month, Writer writer) throws IOException {
+        CsvExportUtil.writeRow(writer, ARCHIVE_HEADERS);
+        long[] count = {0};
+        try {
+            cursorTemplate.query("SELECT id, table_name, record_id, action, changed_data::text, user_account_id, "
+                    + "ip_address, created_at FROM " + partitionName(month) + " ORDER BY created_at, id", rs -> {
+                try {
+                    CsvExportUtil.writeRow(writer, Arrays.asList(
+                            rs.getLong(1),
+                            rs.getString(2),
+                            rs.getString(3),
+                            rs.getString(4),
+                            rs.getString(5),
+                            rs.getObject(6),
+                            rs.getString(7),
+                            rs.getTimestamp(8).toLocalDateTime()
+                    ));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return count[0];
+    }
+
+    /**
+     * Detach and drop one partition; its rows are gone afterwards
+     */
+    @Transactional
+    public void dropPartition(YearMonth month) {
+        String name = partitionName(month);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+        log.info("Dropped audit_log partition {}", name);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt
+                               JOIN pg_class c ON c.oid = pt.partrelid
+                               WHERE c.relname = ? AND pg_table_is_visible(c.oid))
+                """, Boolean.class, TABLE);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("%s_p%04d%02d", TABLE, month.getYear(), month.getMonthValue());
+    }
+
+    static YearMonth parsePartitionName(String name) {
+        Matcher matcher = PARTITION_NAME.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+}
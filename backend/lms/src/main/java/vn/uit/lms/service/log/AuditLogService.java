@@ -1,88 +1,141 @@
 package vn.uit.lms.service.log;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import vn.uit.lms.core.domain.log.AuditLog;
 import vn.uit.lms.core.repository.log.AuditLogRepository;
-import vn.uit.lms.shared.dto.PageResponse;
+import vn.uit.lms.core.repository.log.AuditLogRepository.AuditLogRow;
+import vn.uit.lms.shared.dto.CursorPageResponse;
+import vn.uit.lms.shared.dto.request.log.AuditLogSearchRequest;
 import vn.uit.lms.shared.dto.response.log.AuditLogResponse;
+import vn.uit.lms.shared.exception.InvalidRequestException;
 import vn.uit.lms.shared.mapper.log.AuditLogMapper;
-
-import java.io.PrintWriter;
+import vn.uit.lms.shared.util.export.CsvExportUtil;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AuditLogService {
 
+    private static final List<String> HEADERS = List.of(
+            "id", "table_name", "record_id", "action", "changed_data", "user_account_id", "ip_address", "created_at");
+
+    private static final int DEFAULT_WINDOW_DAYS = 30;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     private final AuditLogRepository repo;
     private final AuditLogMapper mapper;
 
-    // 1) Tìm kiếm audit log theo keyword
-    public PageResponse<AuditLogResponse> search(String keyword, Pageable pageable) {
-
-        Page<AuditLog> page = repo.findByTableNameContainingIgnoreCase(keyword, pageable);
-
-        return PageResponse.<AuditLogResponse>builder()
-                .items(page.getContent().stream()
-                        .map(mapper::toDto)
-                        .collect(Collectors.toList()))
-                .page(page.getNumber())
-                .size(page.getSize())
-                .totalItems(page.getTotalElements())
-                .totalPages(page.getTotalPages())
-                .hasNext(page.hasNext())
-                .hasPrevious(page.hasPrevious())
-                .build();
-    }
+    // 1) Tìm kiếm audit log theo bộ lọc, phân trang keyset theo (createdAt, id)
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AuditLogResponse> search(AuditLogSearchRequest request) {
+        LocalDateTime[] range = range(request);
+        int size = request.getSize() != null ? request.getSize() : DEFAULT_PAGE_SIZE;
+
+        LocalDateTime cursorAt = null;
+        Long cursorId = null;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            Cursor cursor = decodeCursor(request.getCursor());
+            cursorAt = cursor.createdAt();
+            cursorId = cursor.id();
+        }
+
+        // Đọc thêm 1 dòng để biết còn trang sau hay không
+        List<AuditLog> logs = repo.search(range[0], range[1],
+                blankToNull(request.getTableName()), request.getAction(), request.getUserAccountId(),
+                blankToNull(request.getRecordId()), cursorAt, cursorId, PageRequest.of(0, size + 1));
+
+        boolean hasNext = logs.size() > size;
+        List<AuditLog> page = hasNext ? logs.subList(0, size) : logs;
+        String nextCursor = null;
+        if (hasNext) {
+            AuditLog last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
 
-    // 2) Lấy tất cả audit logs (paging)
-    public PageResponse<AuditLogResponse> getAll(Pageable pageable) {
-
-        Page<AuditLog> page = repo.findAll(pageable);
-
-        return PageResponse.<AuditLogResponse>builder()
-                .items(page.getContent().stream()
-                        .map(mapper::toDto)
-                        .collect(Collectors.toList()))
-                .page(page.getNumber())
-                .size(page.getSize())
-                .totalItems(page.getTotalElements())
-                .totalPages(page.getTotalPages())
-                .hasNext(page.hasNext())
-                .hasPrevious(page.hasPrevious())
+        return CursorPageResponse.<AuditLogResponse>builder()
+                .items(page.stream().map(mapper::toDto).toList())
+                .size(size)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
                 .build();
     }
 
-    // 3) Xuất CSV
-    public void exportCsv(PrintWriter writer) {
-
-        List<AuditLog> logs = repo.findAll();
+    // 2) Xuất CSV: đọc bằng cursor và ghi từng dòng ra response
+    @Transactional(readOnly = true)
+    public long exportCsv(AuditLogSearchRequest request, Writer writer) throws IOException {
+        LocalDateTime[] range = range(request);
+
+        long count = 0;
+        try (Stream<AuditLogRow> stream = repo.streamForExport(range[0], range[1],
+                blankToNull(request.getTableName()), request.getAction(), request.getUserAccountId(),
+                blankToNull(request.getRecordId()))) {
+
+            CsvExportUtil.writeRow(writer, HEADERS);
+            Iterator<AuditLogRow> rows = stream.iterator();
+            while (rows.hasNext()) {
+                AuditLogRow row = rows.next();
+                CsvExportUtil.writeRow(writer, Arrays.asList(
+                        row.getId(),
+                        row.getTableName(),
+                        row.getRecordId(),
+                        row.getAction(),
+                        row.getChangedData(),
+                        row.getUserAccountId(),
+                        row.getIpAddress(),
+                        row.getCreatedAt()
+                ));
+                count++;
+            }
+        }
+        writer.flush();
 
-        writer.println("ID,Table Name,Record ID,Action,Changed Data,User Account ID,IP Address,Created At");
+        log.info("Exported {} audit log(s) from {} to {}", count, range[0], range[1]);
+        return count;
+    }
 
-        for (AuditLog log : logs) {
-            writer.printf("%d,%s,%s,%s,%s,%d,%s,%s\n",
-                    log.getId(),
-                    safe(log.getTableName()),
-                    safe(log.getRecordId()),
-                    log.getAction().name(),
-                    safe(String.valueOf(log.getChangedData())),
-                    log.getUserAccountId(),
-                    safe(log.getIpAddress()),
-                    log.getCreatedAt()
-            );
+    private static LocalDateTime[] range(AuditLogSearchRequest request) {
+        LocalDateTime to = request.getTo() != null ? request.getTo() : LocalDateTime.now();
+        LocalDateTime from = request.getFrom() != null ? request.getFrom() : to.minusDays(DEFAULT_WINDOW_DAYS);
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("'from' must be before 'to'");
         }
+        return new LocalDateTime[]{from, to};
+    }
 
-        writer.flush();
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
     }
 
-    // Escape ký tự CSV tránh lỗi format
-    private String safe(String text) {
-        if (text == null) return "";
-        return text.replace(",", ";").replace("\n", " ");
+    record Cursor(LocalDateTime createdAt, Long id) {
+    }
+
+    static String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
     }
 }
@@ -0,0 +1,203 @@
+package vn.uit.lms.service.log;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.shared.constant.AuditAction;
+import vn.uit.lms.shared.constant.AuditOverflowPolicy;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes audit entries off the request thread.
+ *
+ * Entries go into a bounded lock-free queue and are inserted with JDBC batches on a
+ * short interval and on shutdown. When the queue is full the overflow policy decides
+ * whether the caller writes its entry directly or the entry is dropped. A batch that
+ * fails is queued again and given up after a few attempts.
+ */
+@Service
+@Slf4j
+public class AuditLogWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO audit_log (table_name, record_id, action, changed_data, user_account_id, ip_address, created_at)
+            VALUES (?, ?, ?, CAST(? AS jsonb), ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+    private final AuditOverflowPolicy overflowPolicy;
+
+    private final Counter enqueued;
+    private final Counter written;
+    private final Counter callerWrites;
+    private final Counter dropped;
+    private final Counter failedBatches;
+    private final Timer flushTimer;
+
+    @Value("${app.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.audit.max-attempts:3}")
+    private int maxAttempts;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.audit.queue-capacity:10000}") int capacity,
+                          @Value("${app.audit.overflow-policy:CALLER_WRITES}") AuditOverflowPolicy overflowPolicy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+
+        this.enqueued = meterRegistry.counter("lms.audit.enqueued");
+        this.written = meterRegistry.counter("lms.audit.written");
+        this.callerWrites = meterRegistry.counter("lms.audit.caller_writes");
+        this.dropped = meterRegistry.counter("lms.audit.dropped");
+        this.failedBatches = meterRegistry.counter("lms.audit.batch.failures");
+        this.flushTimer = meterRegistry.timer("lms.audit.flush");
+        Gauge.builder("lms.audit.queue.size", size, AtomicInteger::get)
+                .description("Audit entries waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * One audit row, captured when the audited call returns
+     */
+    public record Entry(String tableName,
+                        String recordId,
+                        AuditAction action,
+                        String changedData,
+                        Long userAccountId,
+                        String ipAddress,
+                        LocalDateTime createdAt,
+                        int attempts) {
+
+        public Entry(String tableName, String recordId, AuditAction action, String changedData,
+                     Long userAccountId, String ipAddress, LocalDateTime createdAt) {
+            this(tableName, recordId, action, changedData, userAccountId, ipAddress, createdAt, 0);
+        }
+
+        Entry retried() {
+            return new Entry(tableName, recordId, action, changedData, userAccountId, ipAddress, createdAt, attempts + 1);
+        }
+    }
+
+    /**
+     * Queue an entry; applies the overflow policy when the queue is full
+     */
+    public void submit(Entry entry) {
+        if (offer(entry)) {
+            enqueued.increment();
+            return;
+        }
+
+        if (overflowPolicy == AuditOverflowPolicy.CALLER_WRITES) {
+            try {
+                insert(List.of(entry));
+                callerWrites.increment();
+                return;
+            } catch (Exception e) {
+                log.error("Audit queue full and direct write failed for {} {}", entry.action(), entry.tableName(), e);
+            }
+        }
+        dropped.increment();
+        log.warn("Audit queue full, dropped {} on {} record {}", entry.action(), entry.tableName(), entry.recordId());
+    }
+
+    /**
+     * Insert queued entries in batches until the queue is empty or a batch fails
+     */
+    @Scheduled(fixedDelayString = "${app.audit.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            Entry entry;
+            while (batch.size() < batchSize && (entry = poll()) != null) {
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                flushTimer.record(() -> insert(batch));
+                written.increment(batch.size());
+            } catch (Exception e) {
+                failedBatches.increment();
+                requeue(batch);
+                log.warn("Audit batch of {} entries failed, will retry: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void insert(List<Entry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setString(1, entry.tableName());
+            ps.setString(2, entry.recordId());
+            ps.setString(3, entry.action() != null ? entry.action().name() : null);
+            ps.setString(4, entry.changedData());
+            if (entry.userAccountId() != null) {
+                ps.setLong(5, entry.userAccountId());
+            } else {
+                ps.setNull(5, Types.BIGINT);
+            }
+            ps.setString(6, entry.ipAddress());
+            ps.setTimestamp(7, entry.createdAt() != null ? Timestamp.valueOf(entry.createdAt()) : null);
+        });
+    }
+
+    private void requeue(List<Entry> batch) {
+        for (Entry entry : batch) {
+            Entry retry = entry.retried();
+            if (retry.attempts() < maxAttempts && offer(retry)) {
+                continue;
+            }
+            dropped.increment();
+            log.error("Giving up on audit entry {} on {} record {} after {} attempt(s)",
+                    entry.action(), entry.tableName(), entry.recordId(), retry.attempts());
+        }
+    }
+
+    private boolean offer(Entry entry) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        queue.offer(entry);
+        return true;
+    }
+
+    private Entry poll() {
+        Entry entry = queue.poll();
+        if (entry != null) {
+            size.decrementAndGet();
+        }
+        return entry;
+    }
+}
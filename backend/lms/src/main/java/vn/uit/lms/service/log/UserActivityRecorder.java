@@ -0,0 +1,120 @@
+package vn.uit.lms.service.log;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.shared.constant.ActivityType;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Buffers user activity events and writes them in JDBC batches.
+ *
+ * Recording never blocks or touches the database: events go into a fixed-size ring,
+ * and when it is full the oldest event is overwritten. Activity feeds engagement
+ * statistics only, so losing the oldest events under a burst is preferred over
+ * slowing requests down. A failed batch is dropped and counted.
+ */
+@Service
+@Slf4j
+public class UserActivityRecorder {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO user_activity_log (account_id, action_type, reference_type, reference_id, created_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArrayBlockingQueue<Event> ring;
+
+    private final Counter recorded;
+    private final Counter written;
+    private final Counter overwritten;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    @Value("${app.activity.batch-size:1000}")
+    private int batchSize;
+
+    public UserActivityRecorder(JdbcTemplate jdbcTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.activity.buffer-capacity:50000}") int capacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ring = new ArrayBlockingQueue<>(capacity);
+
+        this.recorded = meterRegistry.counter("lms.activity.recorded");
+        this.written = meterRegistry.counter("lms.activity.written");
+        this.overwritten = meterRegistry.counter("lms.activity.overwritten");
+        this.failed = meterRegistry.counter("lms.activity.failed");
+        this.flushTimer = meterRegistry.timer("lms.activity.flush");
+        Gauge.builder("lms.activity.buffer.size", ring, ArrayBlockingQueue::size)
+                .description("Activity events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * One raw activity event
+     */
+    public record Event(Long accountId, ActivityType type, String referenceType, String referenceId, Instant at) {
+    }
+
+    public void record(Long accountId, ActivityType type, String referenceType, String referenceId) {
+        if (accountId == null) {
+            return;
+        }
+        Event event = new Event(accountId, type, referenceType, referenceId, Instant.now());
+        while (!ring.offer(event)) {
+            // Bộ đệm đầy: ghi đè sự kiện cũ nhất
+            if (ring.poll() != null) {
+                overwritten.increment();
+            }
+        }
+        recorded.increment();
+    }
+
+    /**
+     * Write buffered events in batches until the buffer is empty or a batch fails
+     */
+    @Scheduled(fixedDelayString = "${app.activity.flush-interval-ms:2000}")
+    public synchronized void flush() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (ring.drainTo(batch, batchSize) > 0) {
+            try {
+                flushTimer.record(() -> insert(batch));
+                written.increment(batch.size());
+            } catch (Exception e) {
+                failed.increment(batch.size());
+                log.warn("Dropped a batch of {} activity event(s): {}", batch.size(), e.getMessage());
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void insert(List<Event> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setLong(1, event.accountId());
+            ps.setString(2, event.type().name());
+            ps.setString(3, event.referenceType());
+            ps.setString(4, event.referenceId());
+            ps.setTimestamp(5, Timestamp.from(event.at()));
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package vn.uit.lms.service.log;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Rolls raw {@code user_activity_log} events into {@code user_activity_daily}.
+ *
+ * A day is summarized with one set-based statement: events are ordered per user,
+ * a gap longer than the session timeout starts a new session, and shorter gaps add
+ * up to the active time. Re-running a day overwrites its rows, so today can be
+ * summarized repeatedly while it is still filling up.
+ */
+@Service
+@Slf4j
+public class UserActivitySessionizer {
+
+    private static final String SUMMARIZE_SQL = """
+            INSERT INTO user_activity_daily (account_id, activity_date, event_count, session_count, active_seconds,
+                                             logins, lesson_opens, quiz_starts, downloads,
+                                             first_seen_at, last_seen_at, updated_at)
+            SELECT account_id, :day, COUNT(*),
+                   COUNT(*) FILTER (WHERE gap IS NULL OR gap > :timeout),
+                   CAST(COALESCE(SUM(gap) FILTER (WHERE gap <= :timeout), 0) AS bigint),
+                   COUNT(*) FILTER (WHERE action_type = 'LOGIN'),
+                   COUNT(*) FILTER (WHERE action_type = 'LESSON_OPEN'),
+                   COUNT(*) FILTER (WHERE action_type = 'QUIZ_START'),
+                   COUNT(*) FILTER (WHERE action_type = 'DOWNLOAD'),
+                   MIN(created_at), MAX(created_at), CURRENT_TIMESTAMP
+            FROM (SELECT account_id, action_type, created_at,
+                         EXTRACT(EPOCH FROM created_at
+                                 - LAG(created_at) OVER (PARTITION BY account_id ORDER BY created_at)) AS gap
+                  FROM user_activity_log
+                  WHERE created_at >= :start AND created_at < :end AND account_id IS NOT NULL) e
+            GROUP BY account_id
+            ON CONFLICT (account_id, activity_date) DO UPDATE SET
+                event_count = EXCLUDED.event_count,
+                session_count = EXCLUDED.session_count,
+                active_seconds = EXCLUDED.active_seconds,
+                logins = EXCLUDED.logins,
+                lesson_opens = EXCLUDED.lesson_opens,
+                quiz_starts = EXCLUDED.quiz_starts,
+                downloads = EXCLUDED.downloads,
+                first_seen_at = EXCLUDED.first_seen_at,
+                last_seen_at = EXCLUDED.last_seen_at,
+                updated_at = CURRENT_TIMESTAMP
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedTemplate;
+
+    @Value("${app.activity.session-timeout-minutes:30}")
+    private long sessionTimeoutMinutes;
+
+    public UserActivitySessionizer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Summarize one day (server time zone)
+     *
+     * @return number of users active that day
+     */
+    @Transactional
+    public int summarize(LocalDate day) {
+        ZoneId zone = ZoneId.systemDefault();
+        int users = namedTemplate.update(SUMMARIZE_SQL, new MapSqlParameterSource()
+                .addValue("day", Date.valueOf(day))
+                .addValue("timeout", sessionTimeoutMinutes * 60)
+                .addValue("start", Timestamp.from(day.atStartOfDay(zone).toInstant()))
+                .addValue("end", Timestamp.from(day.plusDays(1).atStartOfDay(zone).toInstant())));
+        log.debug("Summarized activity of {} user(s) on {}", users, day);
+        return users;
+    }
+
+    /**
+     * Delete up to {@code limit} raw events older than {@code before}
+     *
+     * @return number of events deleted
+     */
+    @Transactional
+    public int purgeRaw(Instant before, int limit) {
+        return jdbcTemplate.update("DELETE FROM user_activity_log WHERE id IN "
+                + "(SELECT id FROM user_activity_log WHERE created_at < ? LIMIT ?)", Timestamp.from(before), limit);
+    }
+}
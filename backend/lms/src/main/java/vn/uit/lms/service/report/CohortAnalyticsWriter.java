@@ -0,0 +1,125 @@
+package vn.uit.lms.service.report;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Set-based SQL of the cohort analytics job.
+ *
+ * One statement classifies every enrollment of a course since the first cohort week
+ * by funnel stage and latest activity, then writes both the funnel and the retention
+ * rows of each weekly cohort from that single pass.
+ */
+@Service
+public class CohortAnalyticsWriter {
+
+    static final String REFRESH_SQL = """
+            WITH final_quiz AS (
+                SELECT DISTINCT ON (ch.course_version_id) ch.course_version_id, q.id AS quiz_id
+                FROM quizzes q
+                JOIN lessons l ON l.id = q.lesson_id
+                JOIN chapters ch ON ch.id = l.chapter_id
+                JOIN course_versions cv ON cv.id = ch.course_version_id
+                WHERE cv.course_id = :courseId
+                ORDER BY ch.course_version_id, ch.order_index DESC, l.order_index DESC, q.id DESC
+            ),
+            stages AS (
+                SELECT CAST(date_trunc('week', e.enrolled_at) AS date) AS cohort_week,
+                       e.enrolled_at,
+                       lesson.last_at IS NOT NULL AS first_lesson,
+                       e.status = 'COMPLETED' OR e.completion_percentage >= 50 AS half_completed,
+                       CASE WHEN fq.quiz_id IS NULL THEN e.status = 'COMPLETED'
+                            ELSE EXISTS (SELECT 1 FROM quiz_attempts qa
+                                         WHERE qa.quiz_id = fq.quiz_id AND qa.student_id = e.student_id
+                                         AND qa.status = 'COMPLETED') END AS final_quiz,
+                       EXISTS (SELECT 1 FROM certificates c
+                               WHERE c.student_id = e.student_id AND c.course_id = e.course_id
+                               AND c.is_revoked = false) AS certified,
+                       GREATEST(lesson.last_at, quiz.last_at) AS last_active_at
+                FROM enrollments e
+                LEFT JOIN final_quiz fq ON fq.course_version_id = e.course_version_id
+                LEFT JOIN LATERAL (
+                    SELECT MAX(GREATEST(p.viewed_at, p.completed_at)) AS last_at FROM progress p
+                    WHERE p.student_id = e.student_id AND p.course_id = e.course_id
+                ) lesson ON true
+                LEFT JOIN LATERAL (
+                    SELECT MAX(qa.started_at) AS last_at FROM quiz_attempts qa
+                    JOIN quizzes q ON q.id = qa.quiz_id
+                    JOIN lessons l ON l.id = q.lesson_id
+                    JOIN chapters ch ON ch.id = l.chapter_id
+                    JOIN course_versions cv ON cv.id = ch.course_version_id
+                    WHERE qa.student_id = e.student_id AND cv.course_id = e.course_id
+                ) quiz ON true
+                WHERE e.course_id = :courseId AND e.deleted_at IS NULL AND e.enrolled_at >= :since
+            ),
+            funnel AS (
+                INSERT INTO course_funnel_cohorts (course_id, cohort_week, enrolled, first_lesson,
+                                                   half_completed, final_quiz, certified, computed_at)
+                SELECT :courseId, cohort_week, COUNT(*),
+                       COUNT(*) FILTER (WHERE first_lesson),
+                       COUNT(*) FILTER (WHERE first_lesson AND half_completed),
+                       COUNT(*) FILTER (WHERE first_lesson AND half_completed AND final_quiz),
+                       COUNT(*) FILTER (WHERE first_lesson AND half_completed AND final_quiz AND certified),
+                       CURRENT_TIMESTAMP
+                FROM stages
+                GROUP BY cohort_week
+            )
+            INSERT INTO course_cohort_retention (course_id, cohort_week, week_offset, retained, computed_at)
+            SELECT :courseId, s.cohort_week, w.n,
+                   COUNT(*) FILTER (WHERE s.last_active_at >= s.enrolled_at + w.n * INTERVAL '7 days'),
+                   CURRENT_TIMESTAMP
+            FROM stages s
+            CROSS JOIN generate_series(0, :weeks) AS w(n)
+            WHERE s.cohort_week + 7 * w.n <= CURRENT_DATE
+            GROUP BY s.cohort_week, w.n
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedTemplate;
+
+    public CohortAnalyticsWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Courses with enrollments in a cohort week starting on or after {@code firstWeek}
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findCourseIds(LocalDate firstWeek) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT course_id FROM enrollments WHERE enrolled_at >= ? AND deleted_at IS NULL",
+                Long.class, since(firstWeek));
+    }
+
+    /**
+     * Replace the funnel and retention rows of one course from {@code firstWeek} on
+     *
+     * @return number of retention rows written
+     */
+    @Transactional
+    public int refreshCourse(Long courseId, LocalDate firstWeek, int retentionWeeks) {
+        jdbcTemplate.update("DELETE FROM course_funnel_cohorts WHERE course_id = ? AND cohort_week >= ?",
+                courseId, Date.valueOf(firstWeek));
+        jdbcTemplate.update("DELETE FROM course_cohort_retention WHERE course_id = ? AND cohort_week >= ?",
+                courseId, Date.valueOf(firstWeek));
+
+        return namedTemplate.update(REFRESH_SQL, new MapSqlParameterSource()
+                .addValue("courseId", courseId)
+                .addValue("since", since(firstWeek))
+                .addValue("weeks", retentionWeeks));
+    }
+
+    private static Timestamp since(LocalDate firstWeek) {
+        return Timestamp.from(firstWeek.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
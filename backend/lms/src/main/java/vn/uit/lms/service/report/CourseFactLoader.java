@@ -0,0 +1,184 @@
+package vn.uit.lms.service.report;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.repository.system.EtlWatermarkRepository;
+import vn.uit.lms.shared.constant.CourseFactSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL of the course fact ETL steps.
+ *
+ * A step finds the (course, day) cells that source rows changed in a watermark window
+ * point at, and recomputes its own columns of those cells from the source tables. Cells
+ * are overwritten rather than incremented, so a window can be loaded twice safely.
+ */
+@Service
+public class CourseFactLoader {
+
+    private static final List<String> MEASURES = List.of(
+            "enrollments", "completions", "revenue", "refunds", "sales_count", "active_learners",
+            "quiz_attempts", "quiz_score_sum", "review_count", "rating_sum");
+
+    private static final String QUIZ_COURSE = "quiz_attempts qa JOIN quizzes q ON q.id = qa.quiz_id "
+            + "JOIN lessons l ON l.id = q.lesson_id JOIN chapters ch ON ch.id = l.chapter_id "
+            + "JOIN course_versions cv ON cv.id = ch.course_version_id";
+
+    private static final Map<CourseFactSource, Step> STEPS = new EnumMap<>(CourseFactSource.class);
+
+    static {
+        STEPS.put(CourseFactSource.ENROLLMENTS, new Step(
+                List.of("enrollments"),
+                "SELECT course_id, CAST(enrolled_at AS date) AS fact_date FROM enrollments "
+                        + "WHERE " + changed("updated_at") + " AND enrolled_at IS NOT NULL "
+                        + "UNION SELECT course_id, CAST(completed_at AS date) FROM enrollments "
+                        + "WHERE " + changed("updated_at") + " AND completed_at IS NOT NULL",
+                measures(
+                        "enrollments", "(SELECT COUNT(*) FROM enrollments e WHERE e.course_id = d.course_id "
+                                + "AND e.deleted_at IS NULL AND " + onDay("e.enrolled_at") + ")",
+                        "completions", "(SELECT COUNT(*) FROM enrollments e WHERE e.course_id = d.course_id "
+                                + "AND e.deleted_at IS NULL AND " + onDay("e.completed_at") + ")")));
+
+        STEPS.put(CourseFactSource.PAYMENTS, new Step(
+                List.of("payment_transactions"),
+                "SELECT course_id, CAST(paid_at AS date) AS fact_date FROM payment_transactions "
+                        + "WHERE " + changed("updated_at") + " AND paid_at IS NOT NULL "
+                        + "UNION SELECT course_id, CAST(refunded_at AS date) FROM payment_transactions "
+                        + "WHERE " + changed("updated_at") + " AND refunded_at IS NOT NULL",
+                measures(
+                        "revenue", "(SELECT COALESCE(SUM(p.amount), 0) FROM payment_transactions p "
+                                + "WHERE p.course_id = d.course_id AND p.status IN ('SUCCESS', 'REFUNDED') "
+                                + "AND " + onDay("p.paid_at") + ")",
+                        "sales_count", "(SELECT COUNT(*) FROM payment_transactions p "
+                                + "WHERE p.course_id = d.course_id AND p.status IN ('SUCCESS', 'REFUNDED') "
+                                + "AND " + onDay("p.paid_at") + ")",
+                        "refunds", "(SELECT COALESCE(SUM(COALESCE(p.refund_amount, p.amount)), 0) "
+                                + "FROM payment_transactions p WHERE p.course_id = d.course_id "
+                                + "AND " + onDay("p.refunded_at") + ")")));
+
+        String completedQuiz = "qa.status = 'COMPLETED' AND qa.total_score IS NOT NULL AND " + onDay("qa.finished_at");
+        STEPS.put(CourseFactSource.LEARNING_ACTIVITY, new Step(
+                List.of("progress", "quiz_attempts"),
+                "SELECT course_id, CAST(viewed_at AS date) AS fact_date FROM progress "
+                        + "WHERE " + changed("updated_at") + " AND viewed_at IS NOT NULL "
+                        + "UNION SELECT course_id, CAST(completed_at AS date) FROM progress "
+                        + "WHERE " + changed("updated_at") + " AND completed_at IS NOT NULL "
+                        + "UNION SELECT cv.course_id, CAST(qa.started_at AS date) FROM " + QUIZ_COURSE
+                        + " WHERE " + changed("qa.updated_at") + " AND qa.started_at IS NOT NULL "
+                        + "UNION SELECT cv.course_id, CAST(qa.finished_at AS date) FROM " + QUIZ_COURSE
+                        + " WHERE " + changed("qa.updated_at") + " AND qa.finished_at IS NOT NULL",
+                measures(
+                        "active_learners", "(SELECT COUNT(DISTINCT a.student_id) FROM ("
+                                + "SELECT p.student_id FROM progress p WHERE p.course_id = d.course_id "
+                                + "AND (" + onDay("p.viewed_at") + " OR " + onDay("p.completed_at") + ") "
+                                + "UNION ALL SELECT qa.student_id FROM " + QUIZ_COURSE
+                                + " WHERE cv.course_id = d.course_id AND " + onDay("qa.started_at") + ") a)",
+                        "quiz_attempts", "(SELECT COUNT(*) FROM " + QUIZ_COURSE
+                                + " WHERE cv.course_id = d.course_id AND " + completedQuiz + ")",
+                        "quiz_score_sum", "(SELECT COALESCE(SUM(qa.total_score), 0) FROM " + QUIZ_COURSE
+                                + " WHERE cv.course_id = d.course_id AND " + completedQuiz + ")")));
+
+        STEPS.put(CourseFactSource.REVIEWS, new Step(
+                List.of("course_review"),
+                "SELECT course_id, CAST(created_at AS date) AS fact_date FROM course_review WHERE " + changed("updated_at"),
+                measures(
+                        "review_count", "(SELECT COUNT(*) FROM course_review r WHERE r.course_id = d.course_id "
+                                + "AND r.deleted_at IS NULL AND " + onDay("r.created_at") + ")",
+                        "rating_sum", "(SELECT COALESCE(SUM(r.rating), 0) FROM course_review r "
+                                + "WHERE r.course_id = d.course_id AND r.deleted_at IS NULL "
+                                + "AND " + onDay("r.created_at") + ")")));
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedTemplate;
+    private final EtlWatermarkRepository watermarkRepository;
+
+    public CourseFactLoader(JdbcTemplate jdbcTemplate, EtlWatermarkRepository watermarkRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.watermarkRepository = watermarkRepository;
+    }
+
+    /**
+     * Recompute the cells touched by rows of {@code source} changed in (from, to] and
+     * move its watermark to {@code to}, in one transaction
+     *
+     * @return number of cells written
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int load(CourseFactSource source, Instant from, Instant to) {
+        int cells = namedTemplate.update(STEPS.get(source).sql(), new MapSqlParameterSource()
+                .addValue("from", Timestamp.from(from))
+                .addValue("to", Timestamp.from(to)));
+        watermarkRepository.upsert(source.name(), to);
+        return cells;
+    }
+
+    /**
+     * Oldest {@code updated_at} among the source rows of a step, null if they are all empty
+     */
+    @Transactional(readOnly = true)
+    public Instant earliestChange(CourseFactSource source) {
+        Instant earliest = null;
+        for (String table : STEPS.get(source).tables()) {
+            Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(updated_at) FROM " + table, Timestamp.class);
+            if (oldest != null && (earliest == null || oldest.toInstant().isBefore(earliest))) {
+                earliest = oldest.toInstant();
+            }
+        }
+        return earliest;
+    }
+
+    static String changed(String column) {
+        return column + " > :from AND " + column + " <= :to";
+    }
+
+    static String onDay(String column) {
+        return column + " >= d.fact_date AND " + column + " < d.fact_date + 1";
+    }
+
+    private static Map<String, String> measures(String... columnAndExpression) {
+        Map<String, String> measures = new LinkedHashMap<>();
+        for (int i = 0; i < columnAndExpression.length; i += 2) {
+            measures.put(columnAndExpression[i], columnAndExpression[i + 1]);
+        }
+        return measures;
+    }
+
+    /**
+     * One ETL step: the tables it watches, the query of its changed cells, and the
+     * expressions of the columns it owns; other columns are left untouched
+     */
+    record Step(List<String> tables, String changedCells, Map<String, String> measures) {
+
+        String sql() {
+            List<String> values = new ArrayList<>();
+            List<String> updates = new ArrayList<>();
+            for (String column : MEASURES) {
+                String expression = measures.get(column);
+                values.add(expression != null ? expression : "0");
+                if (expression != null) {
+                    updates.add(column + " = EXCLUDED." + column);
+                }
+            }
+            return "WITH d AS (" + changedCells + ") "
+                    + "INSERT INTO course_daily_facts (course_id, teacher_id, fact_date, "
+                    + String.join(", ", MEASURES) + ", updated_at) "
+                    + "SELECT d.course_id, c.teacher_id, d.fact_date, " + String.join(", ", values)
+                    + ", CURRENT_TIMESTAMP FROM d JOIN courses c ON c.id = d.course_id "
+                    + "ON CONFLICT (course_id, fact_date) DO UPDATE SET teacher_id = EXCLUDED.teacher_id, "
+                    + String.join(", ", updates) + ", updated_at = CURRENT_TIMESTAMP";
+        }
+    }
+}
@@ -1 +1,146 @@
+package vn.uit.lms.service.report;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vn.uit.lms.core.domain.Account;
+import vn.uit.lms.core.domain.Teacher;
+import vn.uit.lms.core.domain.course.Course;
+import vn.uit.lms.core.repository.TeacherRepository;
+import vn.uit.lms.core.repository.course.CourseRepository;
+import vn.uit.lms.core.repository.system.CourseDailyFactRepository;
+import vn.uit.lms.core.repository.system.CourseDailyFactRepository.FactTotals;
+import vn.uit.lms.service.AccountService;
+import vn.uit.lms.shared.dto.request.report.TeacherReportRequest;
+import vn.uit.lms.shared.dto.response.report.TeacherCourseReportResponse;
+import vn.uit.lms.shared.dto.response.report.TeacherCourseReportResponse.CourseMetrics;
+import vn.uit.lms.shared.dto.response.report.TeacherCourseReportResponse.DailyMetrics;
+import vn.uit.lms.shared.dto.response.report.TeacherCourseReportResponse.Metrics;
+import vn.uit.lms.shared.exception.InvalidRequestException;
+import vn.uit.lms.shared.exception.ResourceNotFoundException;
+import vn.uit.lms.shared.exception.UnauthorizedException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * Teacher course reports, read from the {@code course_daily_facts} cube.
+ *
+ * Every report is three grouped range reads over the teacher's fact rows, so the cost
+ * depends on the number of courses and days shown, not on the source table sizes.
+ * Figures lag the live data by up to one ETL run.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TeacherReportService {
+
+    private final CourseDailyFactRepository factRepository;
+    private final CourseAnalyticsEtlService etlService;
+    private final CourseRepository courseRepository;
+    private final TeacherRepository teacherRepository;
+    private final AccountService accountService;
+
+    @Value("${app.analytics.report.max-days:366}")
+    private long maxDays;
+
+    /**
+     * Report of the current teacher's courses
+     */
+    public TeacherCourseReportResponse getMyCourseReport(TeacherReportRequest request) {
+        Account account = accountService.verifyCurrentAccount();
+        Teacher teacher = teacherRepository.findByAccount(account)
+                .orElseThrow(() -> new ResourceNotFoundException("Teacher not found"));
+
+        return getCourseReport(teacher.getId(), request);
+    }
+
+    public TeacherCourseReportResponse getCourseReport(Long teacherId, TeacherReportRequest request) {
+        LocalDate to = request.getTo() != null ? request.getTo() : LocalDate.now();
+        LocalDate from = request.getFrom() != null ? request.getFrom() : to.minusDays(29);
+        if (from.isAfter(to)) {
+            throw new InvalidRequestException("'from' must not be after 'to'");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > maxDays) {
+            throw new InvalidRequestException("Report range must not exceed " + maxDays + " days");
+        }
+
+        Long courseId = request.getCourseId();
+        if (courseId != null) {
+            Course course = courseRepository.findByIdAndDeletedAtIsNull(courseId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
+            if (!Objects.equals(course.getTeacher().getId(), teacherId)) {
+                throw new UnauthorizedException("Teacher does not own this course");
+            }
+        }
+
+        return TeacherCourseReportResponse.builder()
+                .teacherId(teacherId)
+                .from(from)
+                .to(to)
+                .dataThrough(etlService.loadedThrough())
+                .totals(toMetrics(factRepository.sumTotals(teacherId, courseId, from, to), days))
+                .courses(factRepository.sumByCourse(teacherId, courseId, from, to).stream()
+                        .map(row -> CourseMetrics.builder()
+                                .courseId(row.getCourseId())
+                                .courseTitle(row.getCourseTitle())
+                                .metrics(toMetrics(row, days))
+                                .build())
+                        .toList())
+                .daily(factRepository.sumByDay(teacherId, courseId, from, to).stream()
+                        .map(row -> DailyMetrics.builder()
+                                .date(row.getFactDate())
+                                .metrics(toMetrics(row, 1))
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    /**
+     * Derive the report figures of summed fact rows spanning {@code days} days
+     */
+    static Metrics toMetrics(FactTotals totals, long days) {
+        long enrollments = orZero(totals.getEnrollments());
+        long completions = orZero(totals.getCompletions());
+        BigDecimal revenue = orZero(totals.getRevenue());
+        BigDecimal refunds = orZero(totals.getRefunds());
+        long sales = orZero(totals.getSalesCount());
+        long activeLearnerDays = orZero(totals.getActiveLearners());
+        long quizAttempts = orZero(totals.getQuizAttempts());
+        double quizScoreSum = totals.getQuizScoreSum() == null ? 0 : totals.getQuizScoreSum();
+        long reviews = orZero(totals.getReviewCount());
+        long ratingSum = orZero(totals.getRatingSum());
+
+        return Metrics.builder()
+                .enrollments(enrollments)
+                .completions(completions)
+                .revenue(revenue)
+                .refunds(refunds)
+                .netRevenue(revenue.subtract(refunds))
+                .salesCount(sales)
+                .activeLearnerDays(activeLearnerDays)
+                .averageDailyActiveLearners(ratio(activeLearnerDays, days))
+                .quizAttempts(quizAttempts)
+                .averageQuizScore(quizAttempts > 0 ? ratio(quizScoreSum, quizAttempts) : null)
+                .reviewCount(reviews)
+                .averageRating(reviews > 0 ? ratio(ratingSum, reviews) : null)
+                .build();
+    }
+
+    private static double ratio(double sum, long count) {
+        return BigDecimal.valueOf(sum / count).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,130 @@
+package vn.uit.lms.service.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.config.MinioBucketProperties;
+import vn.uit.lms.service.log.AuditLogPartitionService;
+import vn.uit.lms.service.storage.MinioService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly audit_log partitions in shape.
+ *
+ * Creates partitions ahead of time so inserts rarely land in the default partition,
+ * re-creates missed months whose rows did land there, and archives partitions
+ * older than the retention period as gzipped CSV in object storage before dropping
+ * them. A partition is only dropped after its archive was uploaded.
+ */
+@Service
+@Slf4j
+public class AuditLogMaintenanceJob {
+
+    private final AuditLogPartitionService partitionService;
+    private final MinioService minioService;
+    private final MinioBucketProperties bucketProperties;
+
+    @Value("${app.audit.partitions-ahead:3}")
+    private int partitionsAhead;
+
+    @Value("${app.audit.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${app.audit.archive-enabled:true}")
+    private boolean archiveEnabled;
+
+    public AuditLogMaintenanceJob(AuditLogPartitionService partitionService,
+                                  MinioService minioService,
+                                  MinioBucketProperties bucketProperties) {
+        this.partitionService = partitionService;
+        this.minioService = minioService;
+        this.bucketProperties = bucketProperties;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareOnStartup() {
+        try {
+            if (partitionService.isPartitioned()) {
+                ensureAhead();
+            }
+        } catch (Exception e) {
+            log.error("Could not prepare audit_log partitions", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.audit.maintenance-cron:0 15 2 * * *}")
+    public void maintain() {
+        if (!partitionService.isPartitioned()) {
+            return;
+        }
+        ensureAhead();
+        if (archiveEnabled) {
+            archiveExpired();
+        }
+    }
+
+    private void ensureAhead() {
+        YearMonth now = YearMonth.now();
+        YearMonth from = now;
+        YearMonth stranded = partitionService.oldestDefaultMonth();
+        if (stranded != null && stranded.isBefore(now)) {
+            // Có tháng bị bỏ lỡ: tạo lại phân vùng để dời dòng khỏi phân vùng mặc định
+            log.warn("audit_log default partition holds rows since {}", stranded);
+            from = stranded;
+        }
+        partitionService.ensurePartitions(from, now.plusMonths(partitionsAhead));
+    }
+
+    private void archiveExpired() {
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths);
+        for (YearMonth month : partitionService.listPartitions()) {
+            if (!month.isBefore(oldestKept)) {
+                break;
+            }
+            try {
+                archive(month);
+            } catch (Exception e) {
+                // Phân vùng được giữ lại, lần chạy sau thử lại
+                log.error("Archiving audit_log partition {} failed", month, e);
+                return;
+            }
+        }
+    }
+
+    private void archive(YearMonth month) throws IOException {
+        Path file = Files.createTempFile("audit-log-" + month + "-", ".csv.gz");
+        try {
+            long rows;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8))) {
+                rows = partitionService.writeArchive(month, writer);
+            }
+
+            long size = Files.size(file);
+            String objectKey = String.format("archive/audit-log/%d/audit_log_%s.csv.gz", month.getYear(), month);
+            try (InputStream in = Files.newInputStream(file)) {
+                minioService.uploadStream(in, size, "application/gzip", bucketProperties.getDocuments(), objectKey);
+            }
+
+            partitionService.dropPartition(month);
+            log.info("Archived audit_log {} ({} rows, {} bytes) to {}", month, rows, size, objectKey);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package vn.uit.lms.service.schedule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.service.report.CohortAnalyticsWriter;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Recomputes the weekly enrollment cohorts (funnel and retention) nightly.
+ *
+ * Only cohorts within the lookback window are rebuilt; older ones keep their last
+ * figures. Courses are processed in parallel on a bounded pool, each in its own
+ * transaction, so a failing course leaves the others and its own previous rows intact.
+ * The cron fires on every instance, but only the holder of the job lock refreshes.
+ */
+@Service
+@Slf4j
+public class CohortAnalyticsJob {
+
+    private static final String LOCK_NAME = "cohort-analytics";
+
+    private final CohortAnalyticsWriter writer;
+    private final ScheduledJobLock jobLock;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor threadPool;
+
+    @Value("${app.analytics.cohort.lookback-weeks:26}")
+    private int lookbackWeeks;
+
+    @Value("${app.analytics.cohort.retention-weeks:12}")
+    private int retentionWeeks;
+
+    public CohortAnalyticsJob(CohortAnalyticsWriter writer,
+                              ScheduledJobLock jobLock,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.analytics.cohort.parallelism:4}") int parallelism) {
+        this.writer = writer;
+        this.jobLock = jobLock;
+        this.meterRegistry = meterRegistry;
+
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(Math.max(1, parallelism));
+        pool.setMaxPoolSize(Math.max(1, parallelism));
+        pool.setThreadNamePrefix("cohort-analytics-");
+        pool.initialize();
+        this.threadPool = pool;
+    }
+
+    @Scheduled(cron = "${app.analytics.cohort.cron:0 30 4 * * *}")
+    public void run() {
+        try {
+            if (!jobLock.runExclusively(LOCK_NAME, this::refreshCohorts)) {
+                log.info("Cohort analytics is running on another instance, skipped");
+            }
+        } catch (Exception e) {
+            log.error("Cohort analytics run failed", e);
+        }
+    }
+
+    private void refreshCohorts() {
+        LocalDate firstWeek = LocalDate.now()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .minusWeeks(lookbackWeeks);
+        List<Long> courseIds = writer.findCourseIds(firstWeek);
+
+        List<CompletableFuture<Boolean>> tasks = new ArrayList<>(courseIds.size());
+        for (Long courseId : courseIds) {
+            tasks.add(CompletableFuture
+                    .supplyAsync(() -> {
+                        writer.refreshCourse(courseId, firstWeek, retentionWeeks);
+                        return true;
+                    }, threadPool)
+                    .exceptionally(e -> {
+                        log.error("Cohort analytics failed for course {}", courseId, e);
+                        return false;
+                    }));
+        }
+
+        int failed = 0;
+        for (CompletableFuture<Boolean> task : tasks) {
+            if (!task.join()) {
+                failed++;
+            }
+        }
+
+        if (failed > 0) {
+            meterRegistry.counter("lms.analytics.cohort.course.failed").increment(failed);
+        }
+        log.info("Cohort analytics refreshed {} course(s) since {}, {} failed",
+                courseIds.size() - failed, firstWeek, failed);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdown();
+    }
+}
@@ -0,0 +1,45 @@
+package vn.uit.lms.service.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.service.report.CourseAnalyticsEtlService;
+
+/**
+ * Runs the course fact ETL nightly, and once on startup until the initial load is done
+ * so teacher reports are not empty on a fresh database.
+ */
+@Service
+@Slf4j
+public class CourseAnalyticsEtlJob {
+
+    private final CourseAnalyticsEtlService etlService;
+
+    public CourseAnalyticsEtlJob(CourseAnalyticsEtlService etlService) {
+        this.etlService = etlService;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            if (!etlService.isInitialized()) {
+                etlService.run();
+            }
+        } catch (Exception e) {
+            log.error("Initial course fact load failed", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.analytics.etl-cron:0 0 2 * * *}")
+    public void loadNightly() {
+        try {
+            etlService.run();
+        } catch (Exception e) {
+            log.error("Nightly course fact ETL failed", e);
+        }
+    }
+}
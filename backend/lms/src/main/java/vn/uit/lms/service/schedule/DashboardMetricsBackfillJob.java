@@ -0,0 +1,81 @@
+package vn.uit.lms.service.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.service.admin.DashboardMetricsBackfillService;
+import vn.uit.lms.service.admin.DashboardMetricsStore;
+import vn.uit.lms.service.admin.MetricRollupWriter;
+import vn.uit.lms.shared.constant.DashboardMetric;
+
+import java.time.Instant;
+
+/**
+ * Seeds the dashboard rollups with history recorded before they existed.
+ *
+ * Runs once per database. The cutoff is the earliest live-recording start of any
+ * instance, kept in the rollup table, so a retry after a failed or interrupted replay
+ * covers exactly the same history. The replay is buffered and written in one
+ * transaction together with the backfill marker: a failure writes nothing and the next
+ * start tries again.
+ */
+@Service
+@Slf4j
+public class DashboardMetricsBackfillJob {
+
+    private static final String LOCK_NAME = "dashboard-metrics-backfill";
+
+    private final DashboardMetricsBackfillService backfillService;
+    private final DashboardMetricsStore store;
+    private final MetricRollupWriter rollupWriter;
+    private final ScheduledJobLock jobLock;
+
+    @Value("${app.dashboard.metrics.backfill-enabled:true}")
+    private boolean backfillEnabled;
+
+    public DashboardMetricsBackfillJob(DashboardMetricsBackfillService backfillService,
+                                       DashboardMetricsStore store,
+                                       MetricRollupWriter rollupWriter,
+                                       ScheduledJobLock jobLock) {
+        this.backfillService = backfillService;
+        this.store = store;
+        this.rollupWriter = rollupWriter;
+        this.jobLock = jobLock;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            if (rollupWriter.isMarked(DashboardMetric.BACKFILL_MARKER)) {
+                return;
+            }
+            // Registered even with the backfill disabled, so enabling it later keeps the right cutoff
+            Instant cutoff = rollupWriter.registerRecordingSince(DashboardMetric.BACKFILL_MARKER, store.getRecordingSince());
+            if (backfillEnabled && !jobLock.runExclusively(LOCK_NAME, () -> backfill(cutoff))) {
+                log.info("Dashboard metrics backfill is running on another instance");
+            }
+        } catch (Exception e) {
+            log.error("Dashboard metrics backfill failed; nothing was written, it is retried on the next start", e);
+        }
+    }
+
+    private void backfill(Instant cutoff) {
+        if (rollupWriter.isMarked(DashboardMetric.BACKFILL_MARKER)) {
+            return;
+        }
+
+        DashboardMetricsStore.Batch batch = store.newBatch();
+        long accounts = backfillService.replayRegistrations(cutoff, batch);
+        long enrollments = backfillService.replayEnrollments(cutoff, batch);
+        long payments = backfillService.replayPayments(cutoff, batch);
+
+        if (rollupWriter.applyWithMarker(DashboardMetric.BACKFILL_MARKER, batch)) {
+            log.info("Dashboard metrics backfilled from {} account(s), {} enrollment(s) and {} payment(s) before {}",
+                    accounts, enrollments, payments, cutoff);
+        }
+    }
+}
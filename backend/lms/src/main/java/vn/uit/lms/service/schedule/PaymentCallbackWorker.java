@@ -0,0 +1,167 @@
+package vn.uit.lms.service.schedule;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vn.uit.lms.core.domain.billing.PaymentCallbackInbox;
+import vn.uit.lms.core.repository.billing.PaymentCallbackInboxRepository;
+import vn.uit.lms.service.billing.PaymentCallbackInboxService;
+import vn.uit.lms.service.billing.PaymentCallbackProcessor;
+import vn.uit.lms.service.billing.PaymentEnrollmentOrchestrator;
+import vn.uit.lms.service.event.PaymentCallbackReceivedEvent;
+import vn.uit.lms.shared.constant.CallbackInboxStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the payment callback inbox: apply payment status, then enroll.
+ *
+ * Triggered right after a callback is accepted and by a fixed-delay poll that picks up
+ * retries and rows whose lease expired (crashed worker). Rows are claimed under
+ * SKIP LOCKED, so several instances can drain the inbox concurrently.
+ *
+ * The backlog/dead gauges read counts cached by the poll loop, refreshed with one
+ * grouped query at most every {@code app.payment.callback.gauge-refresh-ms}.
+ */
+@Service
+@Slf4j
+public class PaymentCallbackWorker {
+
+    private final PaymentCallbackInboxService inboxService;
+    private final PaymentCallbackProcessor callbackProcessor;
+    private final PaymentEnrollmentOrchestrator enrollmentOrchestrator;
+    private final PaymentCallbackInboxRepository inboxRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong dead = new AtomicLong();
+    private volatile long countsRefreshedAt;
+
+    @Value("${app.payment.callback.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.payment.callback.gauge-refresh-ms:15000}")
+    private long gaugeRefreshMs;
+
+    public PaymentCallbackWorker(PaymentCallbackInboxService inboxService,
+                                 PaymentCallbackProcessor callbackProcessor,
+                                 PaymentEnrollmentOrchestrator enrollmentOrchestrator,
+                                 PaymentCallbackInboxRepository inboxRepository,
+                                 MeterRegistry meterRegistry) {
+        this.inboxService = inboxService;
+        this.callbackProcessor = callbackProcessor;
+        this.enrollmentOrchestrator = enrollmentOrchestrator;
+        this.inboxRepository = inboxRepository;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("lms.payment.callback.backlog", backlog, AtomicLong::get)
+                .description("Payment callbacks not yet fully processed")
+                .register(meterRegistry);
+        Gauge.builder("lms.payment.callback.dead", dead, AtomicLong::get)
+                .description("Payment callbacks that exhausted their retries")
+                .register(meterRegistry);
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCallbackReceived(PaymentCallbackReceivedEvent event) {
+        drain();
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.callback.poll-interval-ms:2000}")
+    public void poll() {
+        drain();
+        refreshCountsIfStale();
+    }
+
+    /**
+     * Process one callback on the caller's thread if no other worker holds it
+     */
+    public void processNow(Long inboxId) {
+        inboxService.claim(inboxId).ifPresent(this::process);
+    }
+
+    private void drain() {
+        List<PaymentCallbackInbox> claimed;
+        do {
+            claimed = inboxService.claimDue(batchSize);
+            claimed.forEach(this::process);
+        } while (claimed.size() == batchSize);
+    }
+
+    private void process(PaymentCallbackInbox item) {
+        Long inboxId = item.getId();
+        try {
+            if (item.getStatus() != CallbackInboxStatus.APPLIED) {
+                callbackProcessor.applyPayment(inboxId);
+                recordLatency("applied", item.getReceivedAt());
+            }
+
+            enrollmentOrchestrator.processEnrollmentAfterPayment(item.getPaymentId());
+            if (enrollmentOrchestrator.isEnrollmentRetryable(item.getPaymentId())) {
+                fail(item, "Enrollment failed with a system error");
+                return;
+            }
+
+            inboxService.markProcessed(inboxId);
+            recordLatency("processed", item.getReceivedAt());
+        } catch (Exception e) {
+            log.error("Failed to process payment callback {} for payment {}", inboxId, item.getPaymentId(), e);
+            fail(item, e.getMessage());
+        }
+    }
+
+    void refreshCountsIfStale() {
+        long now = System.currentTimeMillis();
+        if (now - countsRefreshedAt < gaugeRefreshMs) {
+            return;
+        }
+        countsRefreshedAt = now;
+        try {
+            long unfinished = 0;
+            long deadCount = 0;
+            for (PaymentCallbackInboxRepository.StatusCount row : inboxRepository.countUnfinishedGroupedByStatus()) {
+                if (row.getStatus() == CallbackInboxStatus.DEAD) {
+                    deadCount += row.getTotal();
+                } else {
+                    unfinished += row.getTotal();
+                }
+            }
+            backlog.set(unfinished);
+            dead.set(deadCount);
+        } catch (Exception e) {
+            // Keep the last values; the next poll after the interval tries again
+            log.warn("Failed to refresh payment callback gauges", e);
+        }
+    }
+
+    private void fail(PaymentCallbackInbox item, String error) {
+        try {
+            CallbackInboxStatus status = inboxService.markFailed(item.getId(), error);
+            meterRegistry.counter("lms.payment.callback.failures",
+                    "provider", item.getProvider().name(), "result", status.name()).increment();
+        } catch (Exception e) {
+            // Lease expiry makes the row claimable again
+            log.error("Failed to record failure for payment callback {}", item.getId(), e);
+        }
+    }
+
+    private void recordLatency(String stage, Instant receivedAt) {
+        Timer.builder("lms.payment.callback.latency")
+                .description("Time from callback receipt to each processing stage")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.between(receivedAt, Instant.now()));
+    }
+}
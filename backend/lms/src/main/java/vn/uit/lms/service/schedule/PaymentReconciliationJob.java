@@ -0,0 +1,246 @@
+package vn.uit.lms.service.schedule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository.PendingPaymentRef;
+import vn.uit.lms.service.billing.PaymentEnrollmentOrchestrator;
+import vn.uit.lms.service.billing.PaymentReconciliationService;
+import vn.uit.lms.service.billing.ZaloPayService;
+import vn.uit.lms.shared.constant.PaymentProvider;
+import vn.uit.lms.shared.dto.response.billing.ZaloPayQueryResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconciles PENDING payments whose gateway callback never arrived.
+ *
+ * Scans stale PENDING payments in keyset pages and asks the gateway for their status,
+ * with at most {@code max-concurrency} queries in flight and at most {@code rate-per-second}
+ * started per second, using the gateway order id stored on the payment. Paid orders are
+ * settled and enrolled, orders still unpaid after their lifetime are expired, and anything
+ * that cannot be resolved is escalated for manual review.
+ */
+@Service
+@Slf4j
+public class PaymentReconciliationJob {
+
+    private static final int ZALOPAY_PAID = 1;
+
+    private final PaymentTransactionRepository paymentRepository;
+    private final PaymentReconciliationService reconciliationService;
+    private final PaymentEnrollmentOrchestrator enrollmentOrchestrator;
+    private final ZaloPayService zaloPayService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.payment.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.payment.reconcile.page-size:100}")
+    private int pageSize;
+
+    @Value("${app.payment.reconcile.stale-after-minutes:20}")
+    private long staleAfterMinutes;
+
+    @Value("${app.payment.reconcile.order-ttl-minutes:60}")
+    private long orderTtlMinutes;
+
+    @Value("${app.payment.reconcile.escalate-after-hours:24}")
+    private long escalateAfterHours;
+
+    @Value("${app.payment.reconcile.retry-backoff-minutes:10}")
+    private long retryBackoffMinutes;
+
+    @Value("${app.payment.reconcile.max-query-failures:6}")
+    private int maxQueryFailures;
+
+    @Value("${app.payment.reconcile.rate-per-second:5}")
+    private int ratePerSecond;
+
+    private final Semaphore inFlight;
+    private long nextPermitNanos = System.nanoTime();
+
+    public PaymentReconciliationJob(PaymentTransactionRepository paymentRepository,
+                                    PaymentReconciliationService reconciliationService,
+                                    PaymentEnrollmentOrchestrator enrollmentOrchestrator,
+                                    ZaloPayService zaloPayService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.payment.reconcile.max-concurrency:8}") int maxConcurrency) {
+        this.paymentRepository = paymentRepository;
+        this.reconciliationService = reconciliationService;
+        this.enrollmentOrchestrator = enrollmentOrchestrator;
+        this.zaloPayService = zaloPayService;
+        this.meterRegistry = meterRegistry;
+        this.inFlight = new Semaphore(Math.max(1, maxConcurrency));
+    }
+
+    @Scheduled(fixedDelayString = "${app.payment.reconcile.interval-ms:300000}",
+            initialDelayString = "${app.payment.reconcile.initial-delay-ms:60000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        Instant staleBefore = now.minus(Duration.ofMinutes(staleAfterMinutes));
+        long afterId = 0L;
+        int scanned = 0;
+
+        try {
+            List<PendingPaymentRef> page;
+            do {
+                page = paymentRepository.findPendingForReconciliation(
+                        afterId, staleBefore, now, PageRequest.of(0, pageSize));
+
+                List<CompletableFuture<Void>> checks = new ArrayList<>(page.size());
+                for (PendingPaymentRef ref : page) {
+                    checks.add(reconcileOne(ref, now));
+                }
+                // Finish the page before reading the next one so in-flight work stays bounded
+                CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new)).join();
+
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                    scanned += page.size();
+                }
+            } while (page.size() == pageSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Payment reconciliation interrupted after {} payment(s)", scanned);
+            return;
+        }
+
+        if (scanned > 0) {
+            log.info("Payment reconciliation checked {} stale pending payment(s)", scanned);
+        }
+    }
+
+    private CompletableFuture<Void> reconcileOne(PendingPaymentRef ref, Instant now) throws InterruptedException {
+        Duration age = Duration.between(ref.getCreatedAt(), now);
+
+        if (ref.getPaymentMethod() != PaymentProvider.ZALOPAY || ref.getProviderOrderId() == null) {
+            // No status query API for this gateway, or no gateway order id recorded to query:
+            // wait for the callback, then hand over to support
+            guarded(ref, () -> {
+                if (age.compareTo(Duration.ofHours(escalateAfterHours)) > 0) {
+                    escalate(ref, now, ref.getPaymentMethod() != PaymentProvider.ZALOPAY
+                            ? "No status query available for " + ref.getPaymentMethod()
+                            : "No gateway order id recorded");
+                } else {
+                    reschedule(ref, now);
+                }
+            });
+            return CompletableFuture.completedFuture(null);
+        }
+
+        inFlight.acquire();
+        try {
+            throttle();
+            return zaloPayService.queryOrderStatusAsync(ref.getProviderOrderId())
+                    .handle((response, error) -> {
+                        try {
+                            guarded(ref, () -> apply(ref, age, now, response, error));
+                        } finally {
+                            inFlight.release();
+                        }
+                        return null;
+                    });
+        } catch (InterruptedException e) {
+            inFlight.release();
+            throw e;
+        } catch (RuntimeException e) {
+            inFlight.release();
+            guarded(ref, () -> apply(ref, age, now, null, e));
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void apply(PendingPaymentRef ref, Duration age, Instant now,
+                       ZaloPayQueryResponse response, Throwable error) {
+        Long paymentId = ref.getId();
+
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (ref.getReconcileAttempts() + 1 >= maxQueryFailures) {
+                escalate(ref, now, "Gateway status query failed: " + cause.getMessage());
+            } else {
+                log.warn("Status query for payment {} failed: {}", paymentId, cause.getMessage());
+                reschedule(ref, now);
+            }
+            return;
+        }
+
+        int returnCode = response.getReturnCode() != null ? response.getReturnCode() : 0;
+        if (returnCode == ZALOPAY_PAID) {
+            String zpTransId = response.getZpTransId() != null ? String.valueOf(response.getZpTransId()) : null;
+            if (reconciliationService.settle(paymentId, zpTransId)) {
+                count("settled");
+                enrollmentOrchestrator.processEnrollmentAfterPayment(paymentId);
+            }
+        } else if (Boolean.TRUE.equals(response.getIsProcessing())) {
+            // Money may be moving: never expire, escalate if it stays stuck
+            if (age.compareTo(Duration.ofHours(escalateAfterHours)) > 0) {
+                escalate(ref, now, "Order still processing at gateway after " + age.toHours() + "h");
+            } else {
+                reschedule(ref, now);
+            }
+        } else if (age.compareTo(Duration.ofMinutes(orderTtlMinutes)) > 0) {
+            // Not found or unpaid (return_code 2) is only final once the order can no longer be paid
+            reconciliationService.expire(paymentId, "Order was not paid before it expired");
+            count("expired");
+        } else {
+            reschedule(ref, now);
+        }
+    }
+
+    private void reschedule(PendingPaymentRef ref, Instant now) {
+        long factor = 1L << Math.min(ref.getReconcileAttempts(), 6);
+        reconciliationService.reschedule(ref.getId(), now.plus(Duration.ofMinutes(retryBackoffMinutes * factor)));
+        count("rescheduled");
+    }
+
+    private void escalate(PendingPaymentRef ref, Instant now, String reason) {
+        reconciliationService.escalate(ref.getId(), reason, now.plus(Duration.ofHours(escalateAfterHours)));
+        count("escalated");
+    }
+
+    /**
+     * One payment's failure must not stop the rest of the run
+     */
+    private void guarded(PendingPaymentRef ref, Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.error("Reconciliation failed for payment {}", ref.getId(), e);
+            count("error");
+        }
+    }
+
+    /**
+     * Space query starts at least 1/rate apart; only the scheduler thread calls this
+     */
+    private void throttle() throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, ratePerSecond);
+        long now = System.nanoTime();
+        long wait = nextPermitNanos - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        nextPermitNanos = Math.max(now, nextPermitNanos) + interval;
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("lms.payment.reconcile", "outcome", outcome).increment();
+    }
+}
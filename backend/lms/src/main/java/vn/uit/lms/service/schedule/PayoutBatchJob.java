@@ -0,0 +1,133 @@
+package vn.uit.lms.service.schedule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.service.billing.PayoutBatchService;
+import vn.uit.lms.service.billing.PayoutBatchService.PartitionResult;
+import vn.uit.lms.shared.dto.response.billing.PayoutBatchResponse;
+import vn.uit.lms.shared.exception.InvalidRequestException;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the monthly payout batch for the previous month.
+ *
+ * Partitions are drafted in parallel on a bounded pool; a failed partition rolls back
+ * alone and is picked up by the next run, since re-running skips teachers already drafted.
+ * Admins can trigger a period on demand through {@link #run(YearMonth)}. A period runs on
+ * one instance at a time: the cron fires everywhere, but only the lock holder drafts.
+ */
+@Service
+@Slf4j
+public class PayoutBatchJob {
+
+    private static final String LOCK_PREFIX = "payout-batch:";
+
+    private final PayoutBatchService payoutBatchService;
+    private final ScheduledJobLock jobLock;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor threadPool;
+    private final Executor executor;
+
+    @Value("${app.payout.batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.payout.batch.partitions:8}")
+    private int partitions;
+
+    public PayoutBatchJob(PayoutBatchService payoutBatchService,
+                          ScheduledJobLock jobLock,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.payout.batch.parallelism:4}") int parallelism) {
+        this.payoutBatchService = payoutBatchService;
+        this.jobLock = jobLock;
+        this.meterRegistry = meterRegistry;
+
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(Math.max(1, parallelism));
+        pool.setMaxPoolSize(Math.max(1, parallelism));
+        pool.setThreadNamePrefix("payout-batch-");
+        pool.initialize();
+
+        this.threadPool = pool;
+        this.executor = new DelegatingSecurityContextExecutor(pool);
+    }
+
+    @Scheduled(cron = "${app.payout.batch.cron:0 0 2 1 * *}")
+    public void runMonthly() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            run(YearMonth.now().minusMonths(1));
+        } catch (InvalidRequestException e) {
+            log.warn("Monthly payout batch skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Draft payouts for every teacher with earnings in a completed month
+     */
+    public PayoutBatchResponse run(YearMonth period) {
+        return jobLock.runExclusively(LOCK_PREFIX + period, () -> draftPeriod(period))
+                .orElseThrow(() -> new InvalidRequestException("Payout batch for " + period + " is already running"));
+    }
+
+    private PayoutBatchResponse draftPeriod(YearMonth period) {
+        int partitionCount = Math.max(1, partitions);
+        List<CompletableFuture<PartitionResult>> drafts = new ArrayList<>(partitionCount);
+        for (int partition = 0; partition < partitionCount; partition++) {
+            int current = partition;
+            drafts.add(CompletableFuture
+                    .supplyAsync(() -> payoutBatchService.draftPartition(period, current, partitionCount), executor)
+                    .exceptionally(e -> {
+                        log.error("Payout batch {} partition {}/{} failed", period, current, partitionCount, e);
+                        return null;
+                    }));
+        }
+
+        PartitionResult total = PartitionResult.EMPTY;
+        int failed = 0;
+        for (CompletableFuture<PartitionResult> draft : drafts) {
+            PartitionResult result = draft.join();
+            if (result == null) {
+                failed++;
+            } else {
+                total = total.merge(result);
+            }
+        }
+
+        meterRegistry.counter("lms.payout.batch.drafted").increment(total.payoutsCreated());
+        if (failed > 0) {
+            meterRegistry.counter("lms.payout.batch.partition.failed").increment(failed);
+        }
+        log.info("Payout batch {}: {} payout(s) drafted for {} eligible teacher(s), {} skipped, {} partition(s) failed",
+                period, total.payoutsCreated(), total.eligibleTeachers(), total.teachersSkipped(), failed);
+
+        return PayoutBatchResponse.builder()
+                .period(period.toString())
+                .partitions(partitionCount)
+                .failedPartitions(failed)
+                .eligibleTeachers(total.eligibleTeachers())
+                .payoutsCreated(total.payoutsCreated())
+                .teachersSkipped(total.teachersSkipped())
+                .missingBankAccount(total.missingBankAccount())
+                .totalAmount(total.totalAmount())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        threadPool.shutdown();
+    }
+}
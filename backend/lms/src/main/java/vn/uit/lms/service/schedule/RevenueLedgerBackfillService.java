@@ -0,0 +1,63 @@
+package vn.uit.lms.service.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.service.billing.RevenueLedgerService;
+
+/**
+ * Books settled payments that have no ledger lines: those created before the
+ * revenue ledger existed, and those whose after-commit booking failed.
+ * Each page commits on its own so a restart resumes where it stopped.
+ */
+@Service
+@Slf4j
+public class RevenueLedgerBackfillService {
+
+    private final RevenueLedgerService revenueLedgerService;
+
+    @Value("${app.revenue.ledger.backfill-enabled:true}")
+    private boolean backfillEnabled;
+
+    @Value("${app.revenue.ledger.backfill-page-size:500}")
+    private int pageSize;
+
+    public RevenueLedgerBackfillService(RevenueLedgerService revenueLedgerService) {
+        this.revenueLedgerService = revenueLedgerService;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillEnabled) {
+            bookUnbookedPayments();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.revenue.ledger.sweep-interval-ms:900000}",
+            initialDelayString = "${app.revenue.ledger.sweep-interval-ms:900000}")
+    public void sweep() {
+        bookUnbookedPayments();
+    }
+
+    private void bookUnbookedPayments() {
+        long pages = 0;
+        Long lastId = 0L;
+        try {
+            while ((lastId = revenueLedgerService.backfillPage(lastId, pageSize)) != null) {
+                pages++;
+            }
+        } catch (Exception e) {
+            log.error("Revenue ledger backfill stopped after {} pages", pages, e);
+            return;
+        }
+
+        if (pages > 0) {
+            log.info("Revenue ledger backfill went through {} page(s) of unbooked payments", pages);
+        }
+    }
+}
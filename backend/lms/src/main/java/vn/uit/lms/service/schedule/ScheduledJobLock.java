@@ -0,0 +1,69 @@
+package vn.uit.lms.service.schedule;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Cluster-wide mutual exclusion for batch jobs through Postgres session advisory locks.
+ *
+ * The lock is taken and released on one pooled connection held for the whole run, so
+ * it also goes away if the instance dies mid-run (the session ends with the connection).
+ * Work done by the task on other connections is not affected.
+ */
+@Component
+public class ScheduledJobLock {
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext(?))";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext(?))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduledJobLock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Run the task unless another instance holds the lock
+     *
+     * @return the task result, or empty if the lock was held elsewhere
+     */
+    public <T> Optional<T> runExclusively(String lockName, Supplier<T> task) {
+        return jdbcTemplate.execute((ConnectionCallback<Optional<T>>) connection -> {
+            if (!select(connection, TRY_LOCK_SQL, lockName)) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.ofNullable(task.get());
+            } finally {
+                select(connection, UNLOCK_SQL, lockName);
+            }
+        });
+    }
+
+    /**
+     * @return false if the lock was held elsewhere and the task was skipped
+     */
+    public boolean runExclusively(String lockName, Runnable task) {
+        return runExclusively(lockName, () -> {
+            task.run();
+            return Boolean.TRUE;
+        }).isPresent();
+    }
+
+    private static boolean select(Connection connection, String sql, String lockName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, lockName);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
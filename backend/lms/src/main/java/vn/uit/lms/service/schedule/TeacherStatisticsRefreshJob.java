@@ -0,0 +1,74 @@
+package vn.uit.lms.service.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.core.repository.TeacherRepository;
+import vn.uit.lms.service.TeacherStatisticsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps {@code teacher_statistics} current: dirty teachers are recomputed every few
+ * seconds, and every teacher is recomputed nightly to pick up changes that publish no
+ * event (cancelled enrollments, direct data fixes).
+ */
+@Service
+@Slf4j
+public class TeacherStatisticsRefreshJob {
+
+    private final TeacherStatisticsService statisticsService;
+    private final TeacherRepository teacherRepository;
+
+    @Value("${app.teacher.statistics.batch-size:500}")
+    private int batchSize;
+
+    public TeacherStatisticsRefreshJob(TeacherStatisticsService statisticsService,
+                                       TeacherRepository teacherRepository) {
+        this.statisticsService = statisticsService;
+        this.teacherRepository = teacherRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${app.teacher.statistics.refresh-interval-ms:30000}")
+    public void refreshDirty() {
+        Set<Long> dirty = statisticsService.drainDirtyTeachers();
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(dirty);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            try {
+                statisticsService.refresh(batch);
+            } catch (Exception e) {
+                // Retried on the next run
+                statisticsService.markDirty(batch);
+                log.warn("Teacher statistics refresh failed for {} teacher(s): {}", batch.size(), e.getMessage());
+            }
+        }
+        log.debug("Refreshed statistics of {} teacher(s)", ids.size());
+    }
+
+    @Scheduled(cron = "${app.teacher.statistics.recompute-cron:0 30 3 * * *}")
+    public void recomputeAll() {
+        long teachers = 0;
+        Long lastId = 0L;
+        try {
+            List<Long> batch;
+            while (!(batch = teacherRepository.findIdsAfter(lastId, PageRequest.of(0, batchSize))).isEmpty()) {
+                statisticsService.refresh(batch);
+                teachers += batch.size();
+                lastId = batch.get(batch.size() - 1);
+            }
+        } catch (Exception e) {
+            log.error("Teacher statistics recompute stopped after {} teacher(s)", teachers, e);
+            return;
+        }
+        log.info("Recomputed statistics of {} teacher(s)", teachers);
+    }
+}
@@ -0,0 +1,69 @@
+package vn.uit.lms.service.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.service.log.UserActivitySessionizer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Keeps {@code user_activity_daily} current: today is re-summarized every few minutes,
+ * yesterday is finalized after midnight, and raw events past the retention period are
+ * purged in small batches so the log stays short.
+ */
+@Service
+@Slf4j
+public class UserActivityRollupJob {
+
+    private final UserActivitySessionizer sessionizer;
+
+    @Value("${app.activity.raw-retention-days:90}")
+    private long rawRetentionDays;
+
+    @Value("${app.activity.purge-batch-size:5000}")
+    private int purgeBatchSize;
+
+    public UserActivityRollupJob(UserActivitySessionizer sessionizer) {
+        this.sessionizer = sessionizer;
+    }
+
+    @Scheduled(fixedDelayString = "${app.activity.sessionize-interval-ms:600000}")
+    public void summarizeToday() {
+        try {
+            sessionizer.summarize(LocalDate.now());
+        } catch (Exception e) {
+            log.warn("Summarizing today's activity failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.activity.rollup-cron:0 20 0 * * *}")
+    public void finalizeYesterday() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        try {
+            int users = sessionizer.summarize(yesterday);
+            log.info("Summarized activity of {} user(s) on {}", users, yesterday);
+        } catch (Exception e) {
+            log.error("Summarizing activity of {} failed", yesterday, e);
+            return;
+        }
+
+        Instant before = Instant.now().minus(Duration.ofDays(rawRetentionDays));
+        long purged = 0;
+        try {
+            int deleted;
+            while ((deleted = sessionizer.purgeRaw(before, purgeBatchSize)) > 0) {
+                purged += deleted;
+            }
+        } catch (Exception e) {
+            log.error("Purging raw activity stopped after {} event(s)", purged, e);
+            return;
+        }
+        if (purged > 0) {
+            log.info("Purged {} raw activity event(s) older than {}", purged, before);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package vn.uit.lms.service.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.service.admin.UserStatsStore;
+
+/**
+ * Seeds the user stats counters on first start and re-counts them nightly.
+ *
+ * Counters only move with lifecycle events; the nightly pass corrects drift from
+ * changes that bypass them (bulk edits, direct SQL, lost deltas of a crashed instance).
+ */
+@Service
+@Slf4j
+public class UserStatsRecomputeJob {
+
+    private final UserStatsStore store;
+
+    public UserStatsRecomputeJob(UserStatsStore store) {
+        this.store = store;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        try {
+            if (!store.reload()) {
+                store.recompute();
+            }
+        } catch (Exception e) {
+            log.error("Could not load user stats counters", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.user-stats.recompute-cron:0 45 3 * * *}")
+    public void recomputeNightly() {
+        try {
+            store.recompute();
+        } catch (Exception e) {
+            log.error("Nightly user stats recompute failed", e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package vn.uit.lms.service.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import vn.uit.lms.service.course.content.VideoUploadSessionService;
+
+@Service
+@Slf4j
+public class VideoUploadSessionCleanupService {
+
+    private final VideoUploadSessionService videoUploadSessionService;
+
+    public VideoUploadSessionCleanupService(VideoUploadSessionService videoUploadSessionService) {
+        this.videoUploadSessionService = videoUploadSessionService;
+    }
+
+    @Scheduled(cron = "0 15 * * * ?")
+    public void abortExpiredUploads() {
+        int expired = videoUploadSessionService.expireAbandonedSessions();
+        if (expired > 0) {
+            log.info("Expired {} abandoned video upload sessions", expired);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package vn.uit.lms.service.storage;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.messages.ListPartsResult;
+import io.minio.messages.Part;
+
+/**
+ * Exposes the S3 multipart upload primitives that MinioClient keeps protected.
+ *
+ * Used for resumable video uploads: the server creates the upload and completes it,
+ * while the browser PUTs each part directly to MinIO through presigned URLs.
+ */
+public class MinioMultipartClient extends MinioAsyncClient {
+
+    private static final int LIST_PARTS_PAGE_SIZE = 1000;
+
+    public MinioMultipartClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    /**
+     * Start a multipart upload and return its upload id
+     */
+    public String createMultipartUpload(String bucket, String objectKey, String contentType) throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null) {
+            headers.put("Content-Type", contentType);
+        }
+        return createMultipartUploadAsync(bucket, null, objectKey, headers, null)
+                .get()
+                .result()
+                .uploadId();
+    }
+
+    /**
+     * List one page of the parts MinIO has received for an upload, starting after
+     * {@code partNumberMarker}; S3 and MinIO return at most 1,000 parts per page
+     */
+    public ListPartsResult listParts(String bucket, String objectKey, String uploadId, int partNumberMarker)
+            throws Exception {
+        return listPartsAsync(bucket, null, objectKey, LIST_PARTS_PAGE_SIZE, partNumberMarker, uploadId, null, null)
+                .get()
+                .result();
+    }
+
+    /**
+     * Atomically assemble uploaded parts into the final object
+     */
+    public ObjectWriteResponse completeMultipartUpload(String bucket, String objectKey, String uploadId, Part[] parts)
+            throws Exception {
+        return completeMultipartUploadAsync(bucket, null, objectKey, uploadId, parts, null, null).get();
+    }
+
+    /**
+     * Abort an upload and let MinIO discard its parts
+     */
+    public void abortMultipartUpload(String bucket, String objectKey, String uploadId) throws Exception {
+        abortMultipartUploadAsync(bucket, null, objectKey, uploadId, null, null).get();
+    }
+}
@@ -2,13 +2,21 @@ package vn.uit.lms.service.storage;
 
 import io.minio.*;
 import io.minio.http.Method;
+import io.minio.messages.ListPartsResult;
+import io.minio.messages.Part;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -18,6 +26,12 @@ import java.util.concurrent.TimeUnit;
 public class MinioService {
 
     private final MinioClient minioClient;
+    private final MinioMultipartClient minioMultipartClient;
+
+    /**
+     * Part size used when streaming bodies of unknown length
+     */
+    private static final long STREAM_PART_SIZE = 10L * 1024 * 1024;
 
     @Value("${minio.url}")
     private String minioUrl;
@@ -27,18 +41,32 @@ public class MinioService {
      */
     public String uploadFile(MultipartFile file, String bucket, String objectKey) {
         try (InputStream inputStream = file.getInputStream()) {
+            return uploadStream(inputStream, file.getSize(), file.getContentType(), bucket, objectKey);
+        } catch (IOException e) {
+            log.error("Failed to read upload: bucket={}, key={}", bucket, objectKey, e);
+            throw new RuntimeException("Failed to upload file to MinIO", e);
+        }
+    }
+
+    /**
+     * Upload from a stream without buffering the whole file.
+     * When size is unknown (-1), MinIO switches to multipart with 10MB parts.
+     */
+    public String uploadStream(InputStream inputStream, long size, String contentType, String bucket, String objectKey) {
+        try {
+            long partSize = size < 0 ? STREAM_PART_SIZE : -1;
             minioClient.putObject(
                     PutObjectArgs.builder()
                             .bucket(bucket)
                             .object(objectKey)
-                            .stream(inputStream, file.getSize(), -1)
-                            .contentType(file.getContentType())
+                            .stream(inputStream, size, partSize)
+                            .contentType(contentType)
                             .build()
             );
-            log.info("Uploaded file to MinIO: bucket={}, key={}", bucket, objectKey);
+            log.info("Streamed file to MinIO: bucket={}, key={}", bucket, objectKey);
             return objectKey;
         } catch (Exception e) {
-            log.error("Failed to upload file to MinIO: bucket={}, key={}", bucket, objectKey, e);
+            log.error("Failed to stream file to MinIO: bucket={}, key={}", bucket, objectKey, e);
             throw new RuntimeException("Failed to upload file to MinIO", e);
         }
     }
@@ -99,6 +127,94 @@ public class MinioService {
         }
     }
 
+    /**
+     * Start a multipart upload for a large object, returns the MinIO upload id
+     */
+    public String createMultipartUpload(String bucket, String objectKey, String contentType) {
+        try {
+            String uploadId = minioMultipartClient.createMultipartUpload(bucket, objectKey, contentType);
+            log.info("Created multipart upload: bucket={}, key={}, uploadId={}", bucket, objectKey, uploadId);
+            return uploadId;
+        } catch (Exception e) {
+            log.error("Failed to create multipart upload: bucket={}, key={}", bucket, objectKey, e);
+            throw new RuntimeException("Failed to create multipart upload", e);
+        }
+    }
+
+    /**
+     * Generate presigned PUT URL for a single part of a multipart upload
+     */
+    public String generatePresignedPartUploadUrl(String bucket, String objectKey, String uploadId,
+                                                 int partNumber, int expirySeconds) {
+        try {
+            return minioClient.getPresignedObjectUrl(
+                    GetPresignedObjectUrlArgs.builder()
+                            .method(Method.PUT)
+                            .bucket(bucket)
+                            .object(objectKey)
+                            .expiry(expirySeconds, TimeUnit.SECONDS)
+                            .extraQueryParams(Map.of(
+                                    "uploadId", uploadId,
+                                    "partNumber", String.valueOf(partNumber)
+                            ))
+                            .build()
+            );
+        } catch (Exception e) {
+            log.error("Failed to generate presigned part URL: key={}, part={}", objectKey, partNumber, e);
+            throw new RuntimeException("Failed to generate part upload URL", e);
+        }
+    }
+
+    /**
+     * List parts MinIO has actually received for a multipart upload, following every page
+     */
+    public List<Part> listUploadedParts(String bucket, String objectKey, String uploadId) {
+        try {
+            List<Part> parts = new ArrayList<>();
+            int marker = 0;
+            while (true) {
+                ListPartsResult page = minioMultipartClient.listParts(bucket, objectKey, uploadId, marker);
+                parts.addAll(page.partList());
+                if (!page.isTruncated()) {
+                    return parts;
+                }
+                if (page.nextPartNumberMarker() <= marker) {
+                    throw new IllegalStateException("Part listing did not advance past part " + marker);
+                }
+                marker = page.nextPartNumberMarker();
+            }
+        } catch (Exception e) {
+            log.error("Failed to list parts: bucket={}, key={}, uploadId={}", bucket, objectKey, uploadId, e);
+            throw new RuntimeException("Failed to list uploaded parts", e);
+        }
+    }
+
+    /**
+     * Complete a multipart upload. Parts must be sorted by part number.
+     */
+    public void completeMultipartUpload(String bucket, String objectKey, String uploadId, List<Part> parts) {
+        try {
+            minioMultipartClient.completeMultipartUpload(bucket, objectKey, uploadId, parts.toArray(new Part[0]));
+            log.info("Completed multipart upload: bucket={}, key={}, parts={}", bucket, objectKey, parts.size());
+        } catch (Exception e) {
+            log.error("Failed to complete multipart upload: bucket={}, key={}", bucket, objectKey, e);
+            throw new RuntimeException("Failed to complete multipart upload", e);
+        }
+    }
+
+    /**
+     * Abort a multipart upload so MinIO can discard already uploaded parts
+     */
+    public void abortMultipartUpload(String bucket, String objectKey, String uploadId) {
+        try {
+            minioMultipartClient.abortMultipartUpload(bucket, objectKey, uploadId);
+            log.info("Aborted multipart upload: bucket={}, key={}, uploadId={}", bucket, objectKey, uploadId);
+        } catch (Exception e) {
+            log.error("Failed to abort multipart upload: bucket={}, key={}", bucket, objectKey, e);
+            throw new RuntimeException("Failed to abort multipart upload", e);
+        }
+    }
+
     public String generatePresignedUrl(String bucket, String objectKey) {
         try {
             String presignedUrl = minioClient.getPresignedObjectUrl(
@@ -149,6 +265,68 @@ public class MinioService {
         }
     }
 
+    /**
+     * Generate presigned GET URL that instructs the browser to cache the response.
+     * Used for immutable artifacts (poster, thumbnail sprites).
+     */
+    public String generatePresignedGetUrl(String objectKey, String bucket, int expirySeconds, String cacheControl) {
+        try {
+            return minioClient.getPresignedObjectUrl(
+                    GetPresignedObjectUrlArgs.builder()
+                            .method(Method.GET)
+                            .bucket(bucket)
+                            .object(objectKey)
+                            .expiry(expirySeconds, TimeUnit.SECONDS)
+                            .extraQueryParams(Map.of("response-cache-control", cacheControl))
+                            .build()
+            );
+        } catch (Exception e) {
+            log.error("Failed to generate presigned GET URL for object {}", objectKey, e);
+            throw new RuntimeException("Failed to generate download URL", e);
+        }
+    }
+
+    /**
+     * Generate thumbnail WebVTT track with presigned sprite URLs
+     *
+     * Cue payloads look like "sprite_001.jpg#xywh=0,0,160,90"; every distinct sprite
+     * sheet is signed once and the media fragment is kept.
+     */
+    public String generateThumbnailVttWithPresignedUrls(String vttKey, String bucket, int expirySeconds,
+                                                        String cacheControl) {
+        try {
+            String vttContent;
+            try (InputStream inputStream = minioClient.getObject(
+                    GetObjectArgs.builder()
+                            .bucket(bucket)
+                            .object(vttKey)
+                            .build())) {
+                vttContent = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            String baseDir = vttKey.substring(0, vttKey.lastIndexOf("/") + 1);
+            Map<String, String> signedSheets = new HashMap<>();
+            StringBuilder modifiedVtt = new StringBuilder(vttContent.length() * 2);
+
+            for (String line : vttContent.split("\n")) {
+                int fragment = line.indexOf("#xywh=");
+                if (fragment > 0) {
+                    String sheet = line.substring(0, fragment).trim();
+                    String url = signedSheets.computeIfAbsent(sheet,
+                            name -> generatePresignedGetUrl(baseDir + name, bucket, expirySeconds, cacheControl));
+                    modifiedVtt.append(url).append(line.substring(fragment)).append("\n");
+                } else {
+                    modifiedVtt.append(line).append("\n");
+                }
+            }
+
+            return modifiedVtt.toString();
+        } catch (Exception e) {
+            log.error("Failed to generate thumbnail track with presigned URLs for: {}", vttKey, e);
+            throw new RuntimeException("Failed to generate thumbnail track", e);
+        }
+    }
+
     /**
      * Generate HLS playlist with presigned URLs for all segments
      *
@@ -0,0 +1,59 @@
+package vn.uit.lms.service.storage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated, bounded pool for storage transfers.
+ *
+ * Keeps large uploads off servlet request threads and lets multi-file uploads
+ * run in parallel. The caller's security context is propagated so audit fields
+ * (createdBy) are filled in on worker threads.
+ *
+ * Deliberately not exposed as an Executor bean so Spring Boot's default
+ * application task executor (used by @Async listeners) stays in place.
+ */
+@Component
+@Slf4j
+public class UploadTaskExecutor {
+
+    private final ThreadPoolTaskExecutor threadPool;
+    private final Executor executor;
+
+    public UploadTaskExecutor(
+            @Value("${app.upload.executor.core-size:4}") int coreSize,
+            @Value("${app.upload.executor.max-size:16}") int maxSize,
+            @Value("${app.upload.executor.queue-capacity:100}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(coreSize);
+        pool.setMaxPoolSize(maxSize);
+        pool.setQueueCapacity(queueCapacity);
+        pool.setThreadNamePrefix("upload-");
+        pool.initialize();
+
+        this.threadPool = pool;
+        this.executor = new DelegatingSecurityContextExecutor(pool);
+    }
+
+    /**
+     * Run a storage task on the upload pool
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Shutting down upload executor");
+        threadPool.shutdown();
+    }
+}
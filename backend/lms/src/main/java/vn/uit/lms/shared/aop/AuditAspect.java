@@ -7,8 +7,12 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
-import vn.uit.lms.core.domain.log.AuditLog;
-import vn.uit.lms.core.repository.log.AuditLogRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import vn.uit.lms.service.log.AuditLogWriter;
 import vn.uit.lms.shared.annotation.Audit;
 import vn.uit.lms.shared.constant.AuditAction;
 import vn.uit.lms.shared.util.SecurityUtils;
@@ -22,9 +26,8 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class AuditAspect {
 
-    private final AuditLogRepository auditRepo;
+    private final AuditLogWriter auditWriter;
     private final AuditHelper helper;
-    private final HttpServletRequest request;
 
     @Around("@annotation(vn.uit.lms.shared.annotation.Audit)")
     public Object audit(ProceedingJoinPoint joinPoint) throws Throwable {
@@ -41,23 +44,32 @@ public class AuditAspect {
         Object result = joinPoint.proceed();
 
         // GET RECORD ID FROM RESULT
-        String recordId = extractRecordId(result);
+        String recordId = helper.extractRecordId(result);
 
-        String ip = request.getRemoteAddr();
         Optional<Long> userId = SecurityUtils.getCurrentUserId();
 
-        AuditLog logEntry = new AuditLog();
-        logEntry.setAction(action);
-        logEntry.setIpAddress(ip);
-        logEntry.setTableName(table);
-        logEntry.setRecordId(recordId);
-        logEntry.setUserAccountId(userId.orElse(null));
-        logEntry.setCreatedAt(LocalDateTime.now());
-
         // SAVE JSON FOR REQUEST BODY ONLY
-        logEntry.setChangedData(helper.toJson(requestBody));
-
-        auditRepo.save(logEntry);
+        AuditLogWriter.Entry entry = new AuditLogWriter.Entry(
+                table,
+                recordId,
+                action,
+                helper.toJson(requestBody),
+                userId.orElse(null),
+                currentIp(),
+                LocalDateTime.now()
+        );
+
+        // Chỉ ghi log khi transaction commit thành công; việc ghi DB chạy nền
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    auditWriter.submit(entry);
+                }
+            });
+        } else {
+            auditWriter.submit(entry);
+        }
 
         return result;
     }
@@ -80,16 +92,13 @@ public class AuditAspect {
         return null;
     }
 
-    // ----------- LẤY recordId từ RESPONSE -------------
-    private String extractRecordId(Object result) {
-        if (result == null) return null;
-
-        try {
-            var idField = result.getClass().getDeclaredField("id");
-            idField.setAccessible(true);
-            return String.valueOf(idField.get(result));
-        } catch (Exception e) {
-            return null;
+    // ----------- IP CỦA REQUEST HIỆN TẠI (null nếu chạy ngoài HTTP request) -------------
+    private String currentIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            return request.getRemoteAddr();
         }
+        return null;
     }
 }
@@ -1,12 +1,28 @@
 package vn.uit.lms.shared.aop;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.function.Function;
+
 @Component
+@RequiredArgsConstructor
 public class AuditHelper {
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    // Resolved once per result class, reflection lookups are not repeated per call
+    private static final ClassValue<Function<Object, Object>> ID_EXTRACTORS = new ClassValue<>() {
+        @Override
+        protected Function<Object, Object> computeValue(Class<?> type) {
+            return idExtractor(type);
+        }
+    };
+
+    private final ObjectMapper mapper;
 
     public String toJson(Object obj) {
         try {
@@ -15,4 +31,72 @@ public class AuditHelper {
             return "{}";
         }
     }
+
+    /**
+     * Id of the returned object: record component, getId() or an "id" field
+     */
+    public String extractRecordId(Object result) {
+        return recordId(result);
+    }
+
+    static String recordId(Object result) {
+        if (result == null) return null;
+
+        try {
+            Object id = ID_EXTRACTORS.get(result.getClass()).apply(result);
+            return id != null ? String.valueOf(id) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Function<Object, Object> idExtractor(Class<?> type) {
+        if (type.isRecord()) {
+            for (RecordComponent component : type.getRecordComponents()) {
+                if (component.getName().equals("id")) {
+                    return invoker(component.getAccessor());
+                }
+            }
+        }
+
+        try {
+            Method getter = type.getMethod("getId");
+            if (getter.getParameterCount() == 0 && !Modifier.isStatic(getter.getModifiers())) {
+                return invoker(getter);
+            }
+        } catch (NoSuchMethodException | SecurityException ignored) {
+            // fall back to the field
+        }
+
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField("id");
+                if (!Modifier.isStatic(field.getModifiers()) && field.trySetAccessible()) {
+                    return target -> {
+                        try {
+                            return field.get(target);
+                        } catch (IllegalAccessException e) {
+                            return null;
+                        }
+                    };
+                }
+            } catch (NoSuchFieldException ignored) {
+                // keep looking in the superclass
+            }
+        }
+        return target -> null;
+    }
+
+    private static Function<Object, Object> invoker(Method method) {
+        if (!method.trySetAccessible()) {
+            return target -> null;
+        }
+        return target -> {
+            try {
+                return method.invoke(target);
+            } catch (ReflectiveOperationException e) {
+                return null;
+            }
+        };
+    }
 }
@@ -0,0 +1,16 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Loại hoạt động người dùng được ghi vào user_activity_log
+ *
+ * LOGIN - Đăng nhập thành công
+ * LESSON_OPEN - Mở một bài học
+ * QUIZ_START - Bắt đầu một lượt làm quiz
+ * DOWNLOAD - Tải tệp hoặc tài liệu bài học
+ */
+public enum ActivityType {
+    LOGIN,
+    LESSON_OPEN,
+    QUIZ_START,
+    DOWNLOAD
+}
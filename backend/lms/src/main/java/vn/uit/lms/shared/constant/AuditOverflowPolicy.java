@@ -0,0 +1,12 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Cách xử lý bản ghi audit khi hàng đợi ghi nền đã đầy
+ *
+ * CALLER_WRITES - Luồng gọi tự ghi bản ghi xuống DB (chậm hơn nhưng không mất log)
+ * DROP - Bỏ bản ghi và tăng bộ đếm lms.audit.dropped
+ */
+public enum AuditOverflowPolicy {
+    CALLER_WRITES,
+    DROP
+}
@@ -0,0 +1,18 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Trạng thái xử lý callback thanh toán trong inbox
+ *
+ * RECEIVED - Đã nhận và xác thực chữ ký, chờ xử lý
+ * APPLIED - Đã cập nhật trạng thái thanh toán, chờ ghi danh
+ * PROCESSED - Hoàn tất (thanh toán + ghi danh)
+ * FAILED - Lỗi tạm thời, sẽ thử lại
+ * DEAD - Vượt quá số lần thử, cần xử lý thủ công
+ */
+public enum CallbackInboxStatus {
+    RECEIVED,
+    APPLIED,
+    PROCESSED,
+    FAILED,
+    DEAD
+}
@@ -0,0 +1,16 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Các bước ETL nạp bảng course_daily_facts, mỗi bước có watermark riêng
+ *
+ * ENROLLMENTS - Lượt ghi danh và hoàn thành khóa học (enrollments)
+ * PAYMENTS - Doanh thu và hoàn tiền (payment_transactions)
+ * LEARNING_ACTIVITY - Học viên hoạt động và điểm quiz (progress, quiz_attempts)
+ * REVIEWS - Số đánh giá và tổng điểm đánh giá (course_review)
+ */
+public enum CourseFactSource {
+    ENROLLMENTS,
+    PAYMENTS,
+    LEARNING_ACTIVITY,
+    REVIEWS
+}
@@ -0,0 +1,27 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Các chỉ số được đếm tăng dần cho dashboard quản trị
+ *
+ * REGISTRATIONS - Tài khoản mới đăng ký (STUDENT_/TEACHER_REGISTRATIONS theo vai trò)
+ * ENROLLMENTS - Lượt ghi danh mới
+ * COMPLETIONS - Lượt hoàn thành khóa học
+ * SCORED_COMPLETIONS / SCORE_SUM - Số lượt hoàn thành có điểm và tổng điểm (x100) để tính điểm trung bình
+ * PAYMENTS / REVENUE - Số giao dịch thành công và doanh thu (VND)
+ * REFUNDS / REFUNDED_AMOUNT - Số giao dịch và số tiền hoàn lại (VND)
+ * BACKFILL_MARKER - Đánh dấu đã nạp dữ liệu lịch sử
+ */
+public enum DashboardMetric {
+    REGISTRATIONS,
+    STUDENT_REGISTRATIONS,
+    TEACHER_REGISTRATIONS,
+    ENROLLMENTS,
+    COMPLETIONS,
+    SCORED_COMPLETIONS,
+    SCORE_SUM,
+    PAYMENTS,
+    REVENUE,
+    REFUNDS,
+    REFUNDED_AMOUNT,
+    BACKFILL_MARKER
+}
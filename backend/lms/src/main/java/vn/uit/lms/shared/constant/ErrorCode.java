@@ -25,5 +25,8 @@ public class ErrorCode {
     public static final String INTERNAL_ERROR = "INTERNAL_ERROR";
     public static final String DATABASE_ERROR = "DATABASE_ERROR";
 
+    // 503 - Service Unavailable
+    public static final String PAYMENT_GATEWAY_UNAVAILABLE = "PAYMENT_GATEWAY_UNAVAILABLE";
+
     private ErrorCode() {}
 }
@@ -0,0 +1,30 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Định dạng file xuất dữ liệu
+ *
+ * CSV - Văn bản phân cách bằng dấu phẩy, hỗ trợ tải tiếp (resume)
+ * EXCEL - Bảng tính xlsx
+ * PDF - Tài liệu PDF dạng bảng (chỉ dùng cho báo cáo)
+ */
+public enum ExportFormat {
+    CSV("text/csv; charset=UTF-8", "csv"),
+    EXCEL("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx"),
+    PDF("application/pdf", "pdf");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,20 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Trạng thái của một yêu cầu xuất báo cáo chạy nền
+ *
+ * QUEUED - Đã nhận, chờ luồng xử lý
+ * RUNNING - Đang ghi file
+ * COMPLETED - Hoàn tất, có thể tải về
+ * FAILED - Lỗi, xem errorMessage
+ */
+public enum ExportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
@@ -0,0 +1,18 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Các bước của phễu học tập, mỗi bước yêu cầu đã qua các bước trước
+ *
+ * ENROLLED - Đã ghi danh
+ * FIRST_LESSON - Đã mở hoặc hoàn thành ít nhất một bài học
+ * HALF_COMPLETED - Đã hoàn thành từ 50% khóa học
+ * FINAL_QUIZ - Đã hoàn thành quiz cuối của phiên bản khóa học (khóa không có quiz: đã hoàn thành khóa)
+ * CERTIFIED - Đã được cấp chứng chỉ (chưa bị thu hồi)
+ */
+public enum FunnelStage {
+    ENROLLED,
+    FIRST_LESSON,
+    HALF_COMPLETED,
+    FINAL_QUIZ,
+    CERTIFIED
+}
@@ -0,0 +1,16 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Tài khoản sổ cái doanh thu
+ *
+ * GATEWAY_CLEARING - Tiền thu qua cổng thanh toán
+ * GATEWAY_FEE - Phí cổng thanh toán
+ * TEACHER_PAYABLE - Phải trả giảng viên
+ * PLATFORM_REVENUE - Doanh thu nền tảng
+ */
+public enum LedgerAccount {
+    GATEWAY_CLEARING,
+    GATEWAY_FEE,
+    TEACHER_PAYABLE,
+    PLATFORM_REVENUE
+}
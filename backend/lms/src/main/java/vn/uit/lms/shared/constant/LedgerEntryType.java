@@ -0,0 +1,12 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Loại bút toán sổ cái doanh thu
+ *
+ * SALE - Ghi nhận bán khóa học
+ * REFUND - Đảo bút toán khi hoàn tiền
+ */
+public enum LedgerEntryType {
+    SALE,
+    REFUND
+}
@@ -0,0 +1,9 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Bên Nợ / Có của bút toán kép
+ */
+public enum LedgerSide {
+    DEBIT,
+    CREDIT
+}
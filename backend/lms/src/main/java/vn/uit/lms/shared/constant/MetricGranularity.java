@@ -0,0 +1,18 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Độ chi tiết thời gian của bucket thống kê
+ *
+ * HOUR - Theo giờ
+ * DAY - Theo ngày
+ * WEEK - Theo tuần (bắt đầu thứ Hai)
+ * MONTH - Theo tháng
+ * TOTAL - Một bucket duy nhất cho toàn bộ thời gian (dùng làm cờ đánh dấu)
+ */
+public enum MetricGranularity {
+    HOUR,
+    DAY,
+    WEEK,
+    MONTH,
+    TOTAL
+}
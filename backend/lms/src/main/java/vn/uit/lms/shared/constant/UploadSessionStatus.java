@@ -0,0 +1,29 @@
+package vn.uit.lms.shared.constant;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Lifecycle of a resumable multipart video upload session
+ */
+@Schema(description = "Multipart upload session status")
+public enum UploadSessionStatus {
+
+    @Schema(description = "Parts are being uploaded")
+    IN_PROGRESS,
+
+    @Schema(description = "All parts assembled into the final object")
+    COMPLETED,
+
+    @Schema(description = "Upload cancelled by the teacher")
+    ABORTED,
+
+    @Schema(description = "Upload abandoned and cleaned up after expiry")
+    EXPIRED;
+
+    /**
+     * Check if session no longer accepts parts
+     */
+    public boolean isTerminal() {
+        return this != IN_PROGRESS;
+    }
+}
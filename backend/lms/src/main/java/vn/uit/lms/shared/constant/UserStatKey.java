@@ -0,0 +1,32 @@
+package vn.uit.lms.shared.constant;
+
+/**
+ * Các bộ đếm tài khoản cho thống kê người dùng của admin
+ *
+ * TOTAL - Tổng số tài khoản (kể cả đã xóa mềm)
+ * ROLE_* - Số tài khoản theo vai trò
+ * STATUS_* - Số tài khoản theo trạng thái
+ * TEACHERS_APPROVED / TEACHERS_PENDING - Hồ sơ giảng viên đã duyệt / chưa duyệt
+ */
+public enum UserStatKey {
+    TOTAL,
+    ROLE_STUDENT,
+    ROLE_TEACHER,
+    ROLE_ADMIN,
+    STATUS_PENDING_EMAIL,
+    STATUS_PENDING_APPROVAL,
+    STATUS_ACTIVE,
+    STATUS_REJECTED,
+    STATUS_SUSPENDED,
+    STATUS_DEACTIVATED,
+    TEACHERS_APPROVED,
+    TEACHERS_PENDING;
+
+    public static UserStatKey of(Role role) {
+        return valueOf("ROLE_" + role.name());
+    }
+
+    public static UserStatKey of(AccountStatus status) {
+        return valueOf("STATUS_" + status.name());
+    }
+}
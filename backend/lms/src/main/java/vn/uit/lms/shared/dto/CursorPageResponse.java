@@ -0,0 +1,28 @@
+package vn.uit.lms.shared.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Schema(description = "Keyset-paginated response wrapper")
+public class CursorPageResponse<T> {
+    @Schema(description = "List of items in current page")
+    private List<T> items;
+
+    @Schema(description = "Number of items requested per page", example = "50")
+    private int size;
+
+    @Schema(description = "Pass as 'cursor' to fetch the next page; null on the last page")
+    private String nextCursor;
+
+    @Schema(description = "Whether there is a next page", example = "true")
+    private boolean hasNext;
+}
@@ -2,10 +2,11 @@ package vn.uit.lms.shared.dto.request.admin;
 
 import java.time.LocalDate;
 
+import jakarta.validation.constraints.NotNull;
 import vn.uit.lms.shared.constant.ReportPeriod;
 
 public record ReportPeriodRequest(
-    ReportPeriod period,
-    LocalDate from,
-    LocalDate to
-) {}
\ No newline at end of file
+    @NotNull ReportPeriod period,
+    LocalDate from, // CUSTOM only, inclusive
+    LocalDate to // CUSTOM only, inclusive
+) {}
@@ -0,0 +1,46 @@
+package vn.uit.lms.shared.dto.request.billing;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import vn.uit.lms.shared.constant.ExportFormat;
+import vn.uit.lms.shared.constant.PaymentStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Filters for the streaming payment transaction export
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Filters for exporting payment transactions")
+public class TransactionExportRequest {
+
+    @Schema(description = "Export format", example = "CSV", allowableValues = {"CSV", "EXCEL"})
+    @Builder.Default
+    private ExportFormat format = ExportFormat.CSV;
+
+    @Schema(description = "First day included (defaults to one year before 'to')", example = "2024-01-01")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @Schema(description = "Last day included (defaults to today)", example = "2024-12-31")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    @Schema(description = "Only transactions of this teacher's courses")
+    private Long teacherId;
+
+    @Schema(description = "Only transactions in this status", example = "SUCCESS")
+    private PaymentStatus status;
+
+    @Schema(description = "Resume a CSV download after this transaction id (last id received)", example = "0")
+    @PositiveOrZero
+    private Long afterId;
+}
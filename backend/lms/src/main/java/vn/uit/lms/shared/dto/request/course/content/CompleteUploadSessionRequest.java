@@ -0,0 +1,22 @@
+package vn.uit.lms.shared.dto.request.course.content;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Schema(description = "Request DTO for completing a multipart video upload")
+public class CompleteUploadSessionRequest {
+    @NotNull(message = "Duration is required")
+    @Positive(message = "Duration must be positive")
+    @Schema(
+        description = "Video duration in seconds",
+        example = "1800",
+        requiredMode = Schema.RequiredMode.REQUIRED,
+        minimum = "1"
+    )
+    private Integer durationSeconds;
+}
@@ -0,0 +1,28 @@
+package vn.uit.lms.shared.dto.request.course.content;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Schema(description = "Request DTO for starting a resumable multipart video upload")
+public class CreateUploadSessionRequest {
+    @NotNull(message = "File size is required")
+    @Positive(message = "File size must be positive")
+    @Schema(
+        description = "Total size of the video file in bytes",
+        example = "4294967296",
+        requiredMode = Schema.RequiredMode.REQUIRED
+    )
+    private Long fileSize;
+
+    @Schema(description = "MIME type of the video file", example = "video/mp4")
+    private String contentType;
+
+    @Positive(message = "Part size must be positive")
+    @Schema(description = "Preferred part size in bytes (min 5MB), server default is used when omitted", example = "16777216")
+    private Long partSize;
+}
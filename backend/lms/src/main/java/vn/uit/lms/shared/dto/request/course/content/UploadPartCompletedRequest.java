@@ -0,0 +1,27 @@
+package vn.uit.lms.shared.dto.request.course.content;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Schema(description = "Request DTO for reporting an uploaded part")
+public class UploadPartCompletedRequest {
+    @NotNull(message = "Part number is required")
+    @Positive(message = "Part number must be positive")
+    @Schema(description = "Part number (1-based)", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Integer partNumber;
+
+    @NotBlank(message = "ETag is required")
+    @Schema(description = "ETag returned by storage for the part", example = "\"9b2cf535f27731c974343645a3985328\"",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    private String etag;
+
+    @Positive(message = "Size must be positive")
+    @Schema(description = "Size of the part in bytes", example = "16777216")
+    private Long sizeBytes;
+}
@@ -0,0 +1,15 @@
+package vn.uit.lms.shared.dto.request.course.content;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Schema(description = "Request DTO for presigned part upload URLs")
+public class UploadPartUrlsRequest {
+    @Schema(description = "Part numbers to sign (1-based). When empty, URLs for all missing parts are returned", example = "[1, 2, 3]")
+    private List<Integer> partNumbers;
+}
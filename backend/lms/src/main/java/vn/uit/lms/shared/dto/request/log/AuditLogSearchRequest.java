@@ -0,0 +1,53 @@
+package vn.uit.lms.shared.dto.request.log;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import vn.uit.lms.shared.constant.AuditAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters for audit log search and export
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Filters for searching audit logs")
+public class AuditLogSearchRequest {
+
+    @Schema(description = "Exact table name", example = "courses")
+    private String tableName;
+
+    @Schema(description = "Audited action", example = "UPDATE")
+    private AuditAction action;
+
+    @Schema(description = "Account that made the change")
+    private Long userAccountId;
+
+    @Schema(description = "Id of the changed record", example = "42")
+    private String recordId;
+
+    @Schema(description = "Entries at or after this time (defaults to 30 days before 'to')", example = "2026-10-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @Schema(description = "Entries before this time (defaults to now)", example = "2026-11-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    @Schema(description = "Cursor returned as nextCursor by the previous page")
+    private String cursor;
+
+    @Schema(description = "Page size", example = "50")
+    @Min(1)
+    @Max(200)
+    @Builder.Default
+    private Integer size = 50;
+}
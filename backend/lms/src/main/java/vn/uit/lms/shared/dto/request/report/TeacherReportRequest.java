@@ -0,0 +1,32 @@
+package vn.uit.lms.shared.dto.request.report;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Slice of the course facts shown in a teacher report
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Date range and course of a teacher report")
+public class TeacherReportRequest {
+
+    @Schema(description = "First day included (defaults to 29 days before 'to')", example = "2026-09-01")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @Schema(description = "Last day included (defaults to today)", example = "2026-09-30")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    @Schema(description = "Only this course (must belong to the teacher)")
+    private Long courseId;
+}
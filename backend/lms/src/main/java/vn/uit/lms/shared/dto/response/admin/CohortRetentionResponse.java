@@ -0,0 +1,36 @@
+package vn.uit.lms.shared.dto.response.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter @Setter
+public class CohortRetentionResponse {
+
+    private String period;
+    private Long courseId;
+    private Instant computedAt;
+
+    private List<CohortItem> cohorts;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class CohortItem {
+
+        /**
+         * Monday of the enrollment week
+         */
+        private LocalDate cohortWeek;
+        private long enrolled;
+
+        /**
+         * Percentage still active N weeks after enrolling, index N; only elapsed weeks are listed
+         */
+        private List<Double> retention;
+    }
+}
@@ -0,0 +1,39 @@
+package vn.uit.lms.shared.dto.response.admin;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter @Setter
+public class EngagementReportResponse {
+
+    private String period;
+
+    /**
+     * Distinct users active during the period
+     */
+    private Long activeUsers;
+
+    /**
+     * Users active on the last day of the period (today for current periods)
+     */
+    private Long dailyActiveUsers;
+
+    /**
+     * Distinct users active in the 30 days ending on that day
+     */
+    private Long monthlyActiveUsers;
+
+    private Double averageDailyActiveUsers;
+
+    /**
+     * Average DAU as a percentage of MAU
+     */
+    private Double stickiness;
+
+    private Long totalSessions;
+    private Double averageSessionMinutes;
+
+    private List<TimeSeriesItem> dailyActiveSeries;
+}
@@ -0,0 +1,41 @@
+package vn.uit.lms.shared.dto.response.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import vn.uit.lms.shared.constant.FunnelStage;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter @Setter
+public class FunnelReportResponse {
+
+    private String period;
+    private Long courseId;
+
+    /**
+     * Last time the cohort analytics job wrote results (null if it never ran)
+     */
+    private Instant computedAt;
+
+    private List<StageItem> stages;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class StageItem {
+        private FunnelStage stage;
+        private long learners;
+
+        /**
+         * Percentage of the previous stage that reached this one
+         */
+        private double stepConversion;
+
+        /**
+         * Percentage of enrolled learners that reached this stage
+         */
+        private double overallConversion;
+    }
+}
@@ -0,0 +1,33 @@
+package vn.uit.lms.shared.dto.response.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import vn.uit.lms.shared.constant.ExportFormat;
+import vn.uit.lms.shared.constant.ExportJobStatus;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportExportJobResponse {
+
+    private Long id;
+    private ExportJobStatus status;
+    private ExportFormat format;
+
+    private String period;
+    private Instant rangeStart;
+    private Instant rangeEnd; // exclusive
+
+    private Long rowCount;
+    private Long fileSize;
+    private String downloadUrl; // presigned, only when COMPLETED
+    private String errorMessage;
+
+    private Instant createdAt;
+    private Instant completedAt;
+}
@@ -0,0 +1,26 @@
+package vn.uit.lms.shared.dto.response.billing;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayoutBatchResponse {
+
+    private String period; // YYYY-MM
+    private Integer partitions;
+    private Integer failedPartitions;
+
+    private Integer eligibleTeachers;
+    private Integer payoutsCreated;
+    private Integer teachersSkipped; // already had a payout for the period
+    private Integer missingBankAccount;
+
+    private BigDecimal totalAmount;
+}
@@ -39,6 +39,15 @@ public class LessonDTO {
     @Schema(description = "Duration in seconds (for video lessons)", example = "1800")
     private Integer durationSeconds;
 
+    @Schema(description = "Transcoding progress in percent while the video is processing", example = "42")
+    private Integer processingProgress;
+
+    @Schema(description = "Estimated seconds until transcoding completes", example = "95")
+    private Integer processingEtaSeconds;
+
+    @Schema(description = "Indicates if a poster frame and scrubbing thumbnails were generated", example = "true")
+    private Boolean hasThumbnails;
+
     @Schema(description = "Order index in the chapter", example = "1")
     private Integer orderIndex;
 }
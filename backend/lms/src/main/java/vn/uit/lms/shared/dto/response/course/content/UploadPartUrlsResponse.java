@@ -0,0 +1,36 @@
+package vn.uit.lms.shared.dto.response.course.content;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@Schema(description = "Response DTO with presigned URLs for uploading parts in parallel")
+public class UploadPartUrlsResponse {
+    @Schema(description = "Upload session ID", example = "12")
+    private Long sessionId;
+
+    @Schema(description = "Presigned PUT URL per part")
+    private List<PartUrl> parts;
+
+    @Schema(description = "URL expiration time in seconds", example = "3600")
+    private Long expiresInSeconds;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @Schema(description = "Presigned upload URL of a single part")
+    public static class PartUrl {
+        @Schema(description = "Part number (1-based)", example = "1")
+        private Integer partNumber;
+
+        @Schema(description = "Presigned PUT URL", example = "https://minio.example.com/bucket/key?uploadId=...&partNumber=1")
+        private String uploadUrl;
+    }
+}
@@ -0,0 +1,49 @@
+package vn.uit.lms.shared.dto.response.course.content;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import vn.uit.lms.shared.constant.UploadSessionStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@Schema(description = "Response DTO for a multipart video upload session")
+public class UploadSessionResponse {
+    @Schema(description = "Upload session ID", example = "12")
+    private Long sessionId;
+
+    @Schema(description = "Lesson ID", example = "1")
+    private Long lessonId;
+
+    @Schema(description = "Object key of the final video in storage", example = "lessons/1/5f1c...mp4")
+    private String objectKey;
+
+    @Schema(description = "Session status", example = "IN_PROGRESS")
+    private UploadSessionStatus status;
+
+    @Schema(description = "Total file size in bytes", example = "4294967296")
+    private Long fileSize;
+
+    @Schema(description = "Size of every part except the last, in bytes", example = "16777216")
+    private Long partSize;
+
+    @Schema(description = "Total number of parts", example = "256")
+    private Integer totalParts;
+
+    @Schema(description = "Bytes reported as uploaded so far", example = "1073741824")
+    private Long uploadedBytes;
+
+    @Schema(description = "Part numbers already uploaded")
+    private List<Integer> completedParts;
+
+    @Schema(description = "Part numbers still to upload")
+    private List<Integer> missingParts;
+
+    @Schema(description = "Time after which the session is aborted", example = "2025-01-02T10:00:00Z")
+    private Instant expiresAt;
+}
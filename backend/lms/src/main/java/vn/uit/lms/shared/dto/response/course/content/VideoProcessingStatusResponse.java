@@ -0,0 +1,30 @@
+package vn.uit.lms.shared.dto.response.course.content;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import vn.uit.lms.shared.constant.VideoStatus;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Builder
+@Schema(description = "Response DTO for video transcoding progress")
+public class VideoProcessingStatusResponse {
+    @Schema(description = "Lesson ID", example = "1")
+    private Long lessonId;
+
+    @Schema(description = "Status of the video processing", example = "PROCESSING")
+    private VideoStatus videoStatus;
+
+    @Schema(description = "Transcoding progress in percent", example = "42")
+    private Integer progressPercent;
+
+    @Schema(description = "Estimated seconds until transcoding completes", example = "95")
+    private Integer etaSeconds;
+
+    @Schema(description = "Time of the last progress update", example = "2025-01-01T10:00:00Z")
+    private Instant updatedAt;
+}
@@ -0,0 +1,21 @@
+package vn.uit.lms.shared.dto.response.course.content;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@Schema(description = "Response DTO for video poster and scrubbing thumbnails")
+public class VideoThumbnailsResponse {
+    @Schema(description = "Presigned URL of the poster image, null if not generated", example = "https://minio.example.com/lms-videos/hls/lessons/1/poster.jpg?...")
+    private String posterUrl;
+
+    @Schema(description = "WebVTT thumbnail track as data URI with presigned sprite URLs, null if not generated", example = "data:text/vtt;base64,V0VCVlRU...")
+    private String thumbnailsVttUrl;
+
+    @Schema(description = "URL expiration time in seconds", example = "3600")
+    private Long expiresInSeconds;
+}
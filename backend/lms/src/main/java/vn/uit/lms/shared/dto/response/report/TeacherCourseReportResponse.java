@@ -1 +1,76 @@
+package vn.uit.lms.shared.dto.response.report;
 
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeacherCourseReportResponse {
+
+    private Long teacherId;
+    private LocalDate from;
+    private LocalDate to;
+
+    /**
+     * Facts include source changes up to this instant (null before the first ETL run)
+     */
+    private Instant dataThrough;
+
+    private Metrics totals;
+    private List<CourseMetrics> courses;
+    private List<DailyMetrics> daily;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Metrics {
+        private Long enrollments;
+        private Long completions;
+
+        private BigDecimal revenue;
+        private BigDecimal refunds;
+        private BigDecimal netRevenue;
+        private Long salesCount;
+
+        /**
+         * Sum of daily active learners; a learner active on two days counts twice
+         */
+        private Long activeLearnerDays;
+        private Double averageDailyActiveLearners;
+
+        private Long quizAttempts;
+        private Double averageQuizScore;
+
+        private Long reviewCount;
+        private Double averageRating;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CourseMetrics {
+        private Long courseId;
+        private String courseTitle;
+        private Metrics metrics;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyMetrics {
+        private LocalDate date;
+        private Metrics metrics;
+    }
+}
@@ -0,0 +1,15 @@
+package vn.uit.lms.shared.exception;
+
+/**
+ * Payment gateway could not be reached or rejected the call
+ * (timeout, open circuit, saturated bulkhead, transport or gateway error).
+ */
+public class PaymentGatewayException extends RuntimeException {
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
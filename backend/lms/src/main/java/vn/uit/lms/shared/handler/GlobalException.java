@@ -162,6 +162,23 @@ public class GlobalException {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(res);
     }
 
+    /**
+     * Handle payment gateway failures (503) so clients can retry later
+     */
+    @ExceptionHandler(PaymentGatewayException.class)
+    public ResponseEntity<ApiResponse<Object>> handlePaymentGatewayException(PaymentGatewayException ex) {
+        log.warn("Payment gateway unavailable: {}", ex.getMessage());
+
+        ApiResponse<Object> res = new ApiResponse<>();
+        res.setSuccess(false);
+        res.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        res.setMessage(ex.getMessage());
+        res.setCode(ErrorCode.PAYMENT_GATEWAY_UNAVAILABLE);
+        res.setTimestamp(Instant.now());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(res);
+    }
+
     @ExceptionHandler(value = {
             NoResourceFoundException.class
     })
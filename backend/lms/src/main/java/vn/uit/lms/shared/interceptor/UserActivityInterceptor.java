@@ -0,0 +1,51 @@
+package vn.uit.lms.shared.interceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import vn.uit.lms.service.log.UserActivityRecorder;
+import vn.uit.lms.shared.constant.ActivityType;
+import vn.uit.lms.shared.util.SecurityUtils;
+
+import java.util.Map;
+
+/**
+ * Records one activity type for successful requests to the paths it is registered on.
+ *
+ * Runs after the response is complete and only hands the event to the in-memory
+ * {@link UserActivityRecorder}, so it adds no database work to the request.
+ */
+public class UserActivityInterceptor implements HandlerInterceptor {
+
+    private final UserActivityRecorder recorder;
+    private final String method;
+    private final ActivityType type;
+    private final String referenceType;
+    private final String pathVariable;
+
+    public UserActivityInterceptor(UserActivityRecorder recorder, String method, ActivityType type,
+                                   String referenceType, String pathVariable) {
+        this.recorder = recorder;
+        this.method = method;
+        this.type = type;
+        this.referenceType = referenceType;
+        this.pathVariable = pathVariable;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        if (ex != null || response.getStatus() >= 400 || !method.equalsIgnoreCase(request.getMethod())) {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String referenceId = variables != null ? variables.get(pathVariable) : null;
+
+        SecurityUtils.getCurrentUserId()
+                .ifPresent(accountId -> recorder.record(accountId, type, referenceType, referenceId));
+    }
+}
@@ -3,6 +3,7 @@ package vn.uit.lms.shared.mapper.course.content;
 import vn.uit.lms.core.domain.course.content.Lesson;
 import vn.uit.lms.shared.dto.request.course.content.CreateLessonRequest;
 import vn.uit.lms.shared.dto.response.course.content.LessonDTO;
+import vn.uit.lms.shared.dto.response.course.content.VideoProcessingStatusResponse;
 
 public class LessonMapper {
 
@@ -26,8 +27,20 @@ public class LessonMapper {
                 .videoStatus(lesson.getVideoStatus() != null ? lesson.getVideoStatus() : null)
                 .isPreview(lesson.getIsPreview())
                 .durationSeconds(lesson.getDurationSeconds())
+                .processingProgress(lesson.getProcessingProgress())
+                .processingEtaSeconds(lesson.getProcessingEtaSeconds())
+                .hasThumbnails(lesson.getThumbnailsVttKey() != null)
                 .orderIndex(lesson.getOrderIndex())
                 .build();
     }
-}
 
+    public static VideoProcessingStatusResponse toProcessingStatusResponse(Lesson lesson) {
+        return VideoProcessingStatusResponse.builder()
+                .lessonId(lesson.getId())
+                .videoStatus(lesson.getVideoStatus())
+                .progressPercent(lesson.getProcessingProgress())
+                .etaSeconds(lesson.getProcessingEtaSeconds())
+                .updatedAt(lesson.getProcessingUpdatedAt())
+                .build();
+    }
+}
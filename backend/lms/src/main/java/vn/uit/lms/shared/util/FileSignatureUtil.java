@@ -0,0 +1,96 @@
+package vn.uit.lms.shared.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Magic-byte checks for uploaded content.
+ *
+ * Streaming uploads never see the whole file, so the declared Content-Type is
+ * verified against the first bytes of the body before anything is stored.
+ */
+public final class FileSignatureUtil {
+
+    /**
+     * Number of leading bytes needed by {@link #matchesDeclaredType(String, byte[], int)}
+     */
+    public static final int HEADER_BYTES = 16;
+
+    private static final byte[] PDF = "%PDF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G'};
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] GIF = "GIF8".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RIFF = "RIFF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WEBP = "WEBP".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ZIP = {'P', 'K', 0x03, 0x04};
+    private static final byte[] OLE2 = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0};
+    private static final byte[] FTYP = "ftyp".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EBML = {0x1A, 0x45, (byte) 0xDF, (byte) 0xA3};
+
+    private FileSignatureUtil() {
+    }
+
+    /**
+     * Check that the leading bytes are consistent with the declared MIME type
+     *
+     * @param contentType declared MIME type (already checked against the allow-list)
+     * @param header      first bytes of the content
+     * @param length      number of valid bytes in header
+     */
+    public static boolean matchesDeclaredType(String contentType, byte[] header, int length) {
+        if (contentType == null || length <= 0) {
+            return false;
+        }
+
+        String type = contentType.toLowerCase();
+
+        return switch (type) {
+            case "application/pdf" -> startsWith(header, length, 0, PDF);
+            case "image/png" -> startsWith(header, length, 0, PNG);
+            case "image/jpeg" -> startsWith(header, length, 0, JPEG);
+            case "image/gif" -> startsWith(header, length, 0, GIF);
+            case "image/webp" -> startsWith(header, length, 0, RIFF) && startsWith(header, length, 8, WEBP);
+            case "application/msword",
+                 "application/vnd.ms-excel",
+                 "application/vnd.ms-powerpoint" -> startsWith(header, length, 0, OLE2);
+            case "text/plain" -> !isKnownBinary(header, length) && !containsNul(header, length);
+            default -> {
+                if (type.startsWith("application/vnd.openxmlformats")) {
+                    yield startsWith(header, length, 0, ZIP);
+                }
+                if (type.startsWith("video/")) {
+                    // Containers vary (MP4/MOV, WebM/MKV, AVI, MPEG-TS); only reject obvious non-video content
+                    yield startsWith(header, length, 4, FTYP)
+                            || startsWith(header, length, 0, EBML)
+                            || !isKnownBinary(header, length);
+                }
+                yield false;
+            }
+        };
+    }
+
+    private static boolean isKnownBinary(byte[] header, int length) {
+        return startsWith(header, length, 0, PDF)
+                || startsWith(header, length, 0, PNG)
+                || startsWith(header, length, 0, JPEG)
+                || startsWith(header, length, 0, GIF)
+                || startsWith(header, length, 0, ZIP)
+                || startsWith(header, length, 0, OLE2);
+    }
+
+    private static boolean containsNul(byte[] header, int length) {
+        for (int i = 0; i < length; i++) {
+            if (header[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, byte[] signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        return Arrays.equals(header, offset, offset + signature.length, signature, 0, signature.length);
+    }
+}
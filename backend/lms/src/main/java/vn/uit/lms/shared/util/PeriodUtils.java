@@ -1,11 +1,102 @@
 package vn.uit.lms.shared.util;
 
+import vn.uit.lms.shared.constant.ReportPeriod;
+import vn.uit.lms.shared.exception.InvalidRequestException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class PeriodUtils {
 
+    private static final Pattern QUARTER = Pattern.compile("Q([1-4])_(\\d{4})");
+    private static final Pattern YEAR = Pattern.compile("YEAR_(\\d{4})");
+
+    /**
+     * Resolve a named period to its half-open range [start, end) in the server time zone
+     *
+     * Accepts TODAY, THIS_WEEK, THIS_MONTH, LAST_MONTH, THIS_QUARTER, THIS_YEAR,
+     * Q1_2026 and YEAR_2025 (case-insensitive).
+     *
+     * @throws InvalidRequestException if the period is unknown
+     */
     public static LocalDateTime[] resolve(String period) {
-        return null;
-        // THIS_MONTH, LAST_MONTH, Q1_2026, YEAR_2025
+        return resolve(period, LocalDate.now());
+    }
+
+    public static LocalDateTime[] resolve(String period, LocalDate today) {
+        if (period == null || period.isBlank()) {
+            throw new InvalidRequestException("Period is required");
+        }
+        String name = period.trim().toUpperCase();
+
+        LocalDate start;
+        LocalDate end;
+        switch (name) {
+            case "TODAY" -> {
+                start = today;
+                end = today.plusDays(1);
+            }
+            case "THIS_WEEK" -> {
+                start = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                end = start.plusWeeks(1);
+            }
+            case "THIS_MONTH" -> {
+                start = today.withDayOfMonth(1);
+                end = start.plusMonths(1);
+            }
+            case "LAST_MONTH" -> {
+                start = today.withDayOfMonth(1).minusMonths(1);
+                end = start.plusMonths(1);
+            }
+            case "THIS_QUARTER" -> {
+                start = quarterStart(today.getYear(), (today.getMonthValue() - 1) / 3 + 1);
+                end = start.plusMonths(3);
+            }
+            case "THIS_YEAR" -> {
+                start = today.withDayOfYear(1);
+                end = start.plusYears(1);
+            }
+            default -> {
+                Matcher quarter = QUARTER.matcher(name);
+                Matcher year = YEAR.matcher(name);
+                if (quarter.matches()) {
+                    start = quarterStart(Integer.parseInt(quarter.group(2)), Integer.parseInt(quarter.group(1)));
+                    end = start.plusMonths(3);
+                } else if (year.matches()) {
+                    start = LocalDate.of(Integer.parseInt(year.group(1)), 1, 1);
+                    end = start.plusYears(1);
+                } else {
+                    throw new InvalidRequestException("Unsupported period: " + period);
+                }
+            }
+        }
+        return new LocalDateTime[]{start.atStartOfDay(), end.atStartOfDay()};
+    }
+
+    /**
+     * Resolve a report period; CUSTOM takes the inclusive dates {@code from} and {@code to}
+     */
+    public static LocalDateTime[] resolve(ReportPeriod period, LocalDate from, LocalDate to) {
+        if (period == null) {
+            throw new InvalidRequestException("Period is required");
+        }
+        if (period != ReportPeriod.CUSTOM) {
+            return resolve(period.name());
+        }
+        if (from == null || to == null) {
+            throw new InvalidRequestException("'from' and 'to' are required for a CUSTOM period");
+        }
+        if (from.isAfter(to)) {
+            throw new InvalidRequestException("'from' must not be after 'to'");
+        }
+        return new LocalDateTime[]{from.atStartOfDay(), to.plusDays(1).atStartOfDay()};
+    }
+
+    private static LocalDate quarterStart(int year, int quarter) {
+        return LocalDate.of(year, (quarter - 1) * 3 + 1, 1);
     }
 }
@@ -0,0 +1,66 @@
+package vn.uit.lms.shared.util;
+
+import vn.uit.lms.shared.exception.InvalidFileException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream that counts bytes and fails as soon as a limit is exceeded.
+ *
+ * Used on streaming upload paths where the size is only known while the body
+ * is being piped to storage, so oversized uploads are cut off on the fly.
+ */
+public class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long bytesRead;
+
+    public SizeLimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    private void count(long n) {
+        bytesRead += n;
+        if (bytesRead > maxBytes) {
+            throw new InvalidFileException(
+                    String.format("File size exceeds maximum limit of %d MB", maxBytes / (1024 * 1024)));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package vn.uit.lms.shared.util.crypto;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * Reusable HMAC signer for a fixed algorithm and key.
+ *
+ * {@link HMACUtil} looks up the provider and initializes a {@link Mac} on every call.
+ * A signer initializes one prototype {@code Mac} and hands each thread its own clone,
+ * so signing only pays for the digest itself. Instances are thread-safe; each owner
+ * (e.g. a payment gateway) keeps the signers for its own keys, so secrets are not held
+ * in a process-wide cache.
+ */
+public final class HmacSigner {
+
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+    private final String algorithm;
+    private final SecretKeySpec keySpec;
+    private final Mac prototype;
+    private final ThreadLocal<Mac> macs;
+
+    private HmacSigner(String algorithm, String key) {
+        if (key == null || key.isEmpty()) {
+            throw new IllegalArgumentException("HMAC key must not be empty");
+        }
+        this.algorithm = algorithm;
+        this.keySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), algorithm);
+        this.prototype = newMac();
+        this.macs = ThreadLocal.withInitial(this::copyPrototype);
+    }
+
+    /**
+     * New signer for the algorithm and key; keep it for as long as the key is in use
+     *
+     * @param algorithm e.g. {@link HMACUtil#HMACSHA256}
+     * @param key       secret key (UTF-8)
+     */
+    public static HmacSigner of(String algorithm, String key) {
+        return new HmacSigner(algorithm, key);
+    }
+
+    /**
+     * @return raw MAC of the UTF-8 bytes of {@code data}
+     */
+    public byte[] sign(String data) {
+        // doFinal resets the Mac, so the thread's instance is ready for the next call
+        return macs.get().doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return MAC as lowercase hex
+     */
+    public String signHex(String data) {
+        return toHex(sign(data));
+    }
+
+    /**
+     * Check a hex signature (either case) in constant time
+     *
+     * @return false if the signature is null, malformed or does not match
+     */
+    public boolean verifyHex(String data, String signatureHex) {
+        if (signatureHex == null) {
+            return false;
+        }
+        byte[] expected = fromHex(signatureHex);
+        return expected != null && MessageDigest.isEqual(sign(data), expected);
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Lowercase hex encoding through a lookup table
+     */
+    public static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0, j = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xFF;
+            out[j++] = HEX_CHARS[v >>> 4];
+            out[j++] = HEX_CHARS[v & 0x0F];
+        }
+        return new String(out);
+    }
+
+    private static byte[] fromHex(String hex) {
+        int length = hex.length();
+        if ((length & 1) != 0) {
+            return null;
+        }
+        byte[] out = new byte[length / 2];
+        for (int i = 0; i < out.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            out[i] = (byte) ((high << 4) | low);
+        }
+        return out;
+    }
+
+    private Mac copyPrototype() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            // Provider without clone support: initialize a fresh instance for this thread
+            return newMac();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(algorithm);
+            mac.init(keySpec);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize " + algorithm, e);
+        }
+    }
+}
@@ -1 +1,57 @@
+package vn.uit.lms.shared.util.export;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV writing helpers for streaming exports.
+ *
+ * Rows are written straight to the target {@link Writer}; nothing is buffered
+ * beyond the writer's own buffer.
+ */
+public final class CsvExportUtil {
+
+    private CsvExportUtil() {
+    }
+
+    /**
+     * Quote a value if it contains a separator, quote or line break
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    public static void writeRow(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(format(values.get(i))));
+        }
+        writer.write('\n');
+    }
+
+    public static void writeRow(Writer writer, Object... values) throws IOException {
+        writeRow(writer, Arrays.asList(values));
+    }
+
+    static String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+}
@@ -1 +1,129 @@
+package vn.uit.lms.shared.util.export;
 
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming xlsx writing on top of POI's SXSSF.
+ *
+ * Only the last {@value #ROW_WINDOW} rows stay in memory; older rows are flushed to a
+ * temporary file, so exports of any size run in bounded heap. Always close the writer
+ * to delete the temporary files.
+ */
+public final class ExcelExportUtil {
+
+    /**
+     * Excel's hard row limit per sheet, header included
+     */
+    public static final int MAX_ROWS_PER_SHEET = 1_048_576;
+
+    private static final int ROW_WINDOW = 100;
+
+    private ExcelExportUtil() {
+    }
+
+    public static SheetWriter open(String sheetName, List<String> headers) {
+        return new SheetWriter(sheetName, headers);
+    }
+
+    /**
+     * Appends rows to a workbook, rolling over to a new sheet when one is full
+     */
+    public static final class SheetWriter implements Closeable {
+
+        private final SXSSFWorkbook workbook;
+        private final CellStyle headerStyle;
+
+        private String sheetName;
+        private List<String> headers;
+
+        private Sheet sheet;
+        private int sheetCount;
+        private int rowIndex;
+
+        private SheetWriter(String sheetName, List<String> headers) {
+            this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+            this.workbook.setCompressTempFiles(true);
+            this.sheetName = sheetName;
+            this.headers = headers;
+
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            this.headerStyle = workbook.createCellStyle();
+            this.headerStyle.setFont(bold);
+
+            nextSheet();
+        }
+
+        public void writeRow(List<?> values) {
+            if (rowIndex >= MAX_ROWS_PER_SHEET) {
+                nextSheet();
+            }
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < values.size(); i++) {
+                Object value = values.get(i);
+                if (value == null) {
+                    continue;
+                }
+                if (value instanceof BigDecimal decimal) {
+                    row.createCell(i).setCellValue(decimal.doubleValue());
+                } else if (value instanceof Number number) {
+                    row.createCell(i).setCellValue(number.doubleValue());
+                } else {
+                    // Dates and instants as ISO text: Excel dates carry no zone
+                    row.createCell(i).setCellValue(value.toString());
+                }
+            }
+        }
+
+        public void writeRow(Object... values) {
+            writeRow(Arrays.asList(values));
+        }
+
+        /**
+         * Continue on a new sheet with its own name and headers
+         */
+        public void startSheet(String sheetName, List<String> headers) {
+            this.sheetName = sheetName;
+            this.headers = headers;
+            this.sheetCount = 0;
+            nextSheet();
+        }
+
+        /**
+         * Write the finished workbook; the stream is left open
+         */
+        public void finish(OutputStream out) throws IOException {
+            workbook.write(out);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            workbook.dispose();
+            workbook.close();
+        }
+
+        private void nextSheet() {
+            sheetCount++;
+            sheet = workbook.createSheet(sheetCount == 1 ? sheetName : sheetName + " (" + sheetCount + ")");
+            rowIndex = 0;
+
+            Row header = sheet.createRow(rowIndex++);
+            for (int i = 0; i < headers.size(); i++) {
+                header.createCell(i).setCellValue(headers.get(i));
+                header.getCell(i).setCellStyle(headerStyle);
+            }
+        }
+    }
+}
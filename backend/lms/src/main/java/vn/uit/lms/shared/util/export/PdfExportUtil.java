@@ -1 +1,284 @@
+package vn.uit.lms.shared.util.export;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Minimal streaming PDF writer for tabular exports.
+ *
+ * Each page is compressed and written as soon as it is full, so only the current
+ * page and one offset per object are held in memory. Text uses the built-in
+ * Helvetica font: Vietnamese diacritics are stripped and other characters outside
+ * Latin-1 print as '?'.
+ */
+public final class PdfExportUtil {
+
+    // A4 landscape, in points
+    private static final float PAGE_WIDTH = 842f;
+    private static final float PAGE_HEIGHT = 595f;
+    private static final float MARGIN = 28f;
+
+    private static final float FONT_SIZE = 7f;
+    private static final float TITLE_SIZE = 11f;
+    private static final float LINE_HEIGHT = 10f;
+
+    // Average Helvetica glyph width as a fraction of the font size
+    private static final float CHAR_WIDTH = 0.52f;
+
+    private static final int CATALOG_ID = 1;
+    private static final int PAGES_ID = 2;
+    private static final int FONT_ID = 3;
+    private static final int BOLD_FONT_ID = 4;
+
+    private PdfExportUtil() {
+    }
+
+    /**
+     * Start a document on {@code out}; the stream is left open by {@link TableWriter#finish()}
+     */
+    public static TableWriter open(OutputStream out, String title) throws IOException {
+        return new TableWriter(out, title);
+    }
+
+    /**
+     * Writes titled sections of rows, breaking pages as needed
+     */
+    public static final class TableWriter implements Closeable {
+
+        private final CountingOutputStream out;
+        private final String title;
+        private final List<Long> offsets = new ArrayList<>();
+        private final List<Integer> pageIds = new ArrayList<>();
+
+        private ByteArrayOutputStream page;
+        private float y;
+        private List<String> headers = List.of();
+        private String sectionTitle;
+        private boolean finished;
+
+        private TableWriter(OutputStream target, String title) throws IOException {
+            this.out = new CountingOutputStream(target);
+            this.title = title;
+
+            // Object ids 1-4 are fixed; catalog and page tree are written at the end
+            offsets.addAll(Arrays.asList(0L, 0L, 0L, 0L));
+            write("%PDF-1.4\n%âãÏÓ\n");
+            writeObject(FONT_ID, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+            writeObject(BOLD_FONT_ID, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>");
+        }
+
+        /**
+         * Start a new section with its own heading and column headers
+         */
+        public void section(String sectionTitle, List<String> headers) throws IOException {
+            this.sectionTitle = sectionTitle;
+            this.headers = headers;
+            if (page == null || y - 3 * LINE_HEIGHT < MARGIN) {
+                newPage();
+            } else {
+                y -= LINE_HEIGHT;
+                writeSectionHeading();
+            }
+        }
+
+        public void writeRow(List<?> values) throws IOException {
+            if (page == null) {
+                newPage();
+            }
+            if (y < MARGIN) {
+                newPage();
+            }
+            writeCells(values, "/F1");
+        }
+
+        public void writeRow(Object... values) throws IOException {
+            writeRow(Arrays.asList(values));
+        }
+
+        /**
+         * Write the page tree, cross-reference table and trailer; the stream is left open
+         */
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (page == null) {
+                newPage();
+            }
+            flushPage();
+
+            StringBuilder kids = new StringBuilder();
+            for (Integer id : pageIds) {
+                kids.append(id).append(" 0 R ");
+            }
+            writeObject(PAGES_ID, "<< /Type /Pages /Count " + pageIds.size() + " /Kids [" + kids + "] >>");
+            writeObject(CATALOG_ID, "<< /Type /Catalog /Pages " + PAGES_ID + " 0 R >>");
+
+            long xref = out.count();
+            StringBuilder table = new StringBuilder();
+            table.append("xref\n0 ").append(offsets.size() + 1).append('\n');
+            table.append("0000000000 65535 f \n");
+            for (Long offset : offsets) {
+                table.append(String.format(Locale.ROOT, "%010d 00000 n \n", offset));
+            }
+            table.append("trailer\n<< /Size ").append(offsets.size() + 1)
+                    .append(" /Root ").append(CATALOG_ID).append(" 0 R >>\n")
+                    .append("startxref\n").append(xref).append("\n%%EOF\n");
+            write(table.toString());
+            out.flush();
+            finished = true;
+        }
+
+        @Override
+        public void close() {
+            page = null;
+        }
+
+        private void newPage() throws IOException {
+            if (page != null) {
+                flushPage();
+            }
+            page = new ByteArrayOutputStream(16 * 1024);
+            y = PAGE_HEIGHT - MARGIN;
+
+            text("/F2", TITLE_SIZE, MARGIN, y, title);
+            y -= LINE_HEIGHT * 1.6f;
+            if (sectionTitle != null) {
+                writeSectionHeading();
+            }
+        }
+
+        private void writeSectionHeading() throws IOException {
+            text("/F2", FONT_SIZE + 1, MARGIN, y, sectionTitle);
+            y -= LINE_HEIGHT;
+            if (!headers.isEmpty()) {
+                writeCells(headers, "/F2");
+            }
+        }
+
+        private void writeCells(List<?> values, String font) throws IOException {
+            int columns = Math.max(1, Math.max(values.size(), headers.size()));
+            float columnWidth = (PAGE_WIDTH - 2 * MARGIN) / columns;
+            int maxChars = Math.max(1, (int) (columnWidth / (FONT_SIZE * CHAR_WIDTH)) - 1);
+
+            for (int i = 0; i < values.size(); i++) {
+                String value = format(values.get(i));
+                if (value.length() > maxChars) {
+                    value = value.substring(0, Math.max(0, maxChars - 1)) + "~";
+                }
+                if (!value.isEmpty()) {
+                    text(font, FONT_SIZE, MARGIN + i * columnWidth, y, value);
+                }
+            }
+            y -= LINE_HEIGHT;
+        }
+
+        private void text(String font, float size, float x, float baseline, String value) throws IOException {
+            String op = "BT " + font + " " + size + " Tf " + x + " " + baseline + " Td (" + escape(value) + ") Tj ET\n";
+            page.write(op.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        private void flushPage() throws IOException {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(page.size() / 3 + 64);
+            try (DeflaterOutputStream deflater = new DeflaterOutputStream(compressed)) {
+                page.writeTo(deflater);
+            }
+
+            int contentId = nextId();
+            offsets.set(contentId - 1, out.count());
+            write(contentId + " 0 obj\n<< /Length " + compressed.size() + " /Filter /FlateDecode >>\nstream\n");
+            compressed.writeTo(out);
+            write("\nendstream\nendobj\n");
+
+            int pageId = nextId();
+            writeObject(pageId, "<< /Type /Page /Parent " + PAGES_ID + " 0 R"
+                    + " /MediaBox [0 0 " + PAGE_WIDTH + " " + PAGE_HEIGHT + "]"
+                    + " /Resources << /Font << /F1 " + FONT_ID + " 0 R /F2 " + BOLD_FONT_ID + " 0 R >> >>"
+                    + " /Contents " + contentId + " 0 R >>");
+            pageIds.add(pageId);
+            page = null;
+        }
+
+        private int nextId() {
+            offsets.add(0L);
+            return offsets.size();
+        }
+
+        private void writeObject(int id, String body) throws IOException {
+            offsets.set(id - 1, out.count());
+            write(id + " 0 obj\n" + body + "\nendobj\n");
+        }
+
+        private void write(String value) throws IOException {
+            out.write(value.getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    static String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * Escape a string literal and fold it into the WinAnsi range
+     */
+    static String escape(String value) {
+        String folded = Normalizer.normalize(value, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            switch (c) {
+                case '\\', '(', ')' -> sb.append('\\').append(c);
+                case 'đ' -> sb.append('d');
+                case 'Đ' -> sb.append('D');
+                case '\n', '\r', '\t' -> sb.append(' ');
+                default -> sb.append(c < 32 || c > 255 ? '?' : c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long count() {
+            return count;
+        }
+    }
+}
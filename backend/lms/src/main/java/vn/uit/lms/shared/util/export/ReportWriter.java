@@ -0,0 +1,180 @@
+package vn.uit.lms.shared.util.export;
+
+import vn.uit.lms.shared.constant.ExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Format-independent writer for multi-section tabular reports.
+ *
+ * CSV separates sections with a blank line and a title row, Excel puts each section
+ * on its own sheet, PDF prints a heading. All implementations stream rows and keep
+ * memory flat; call {@link #finish()} once, then {@link #close()}.
+ */
+public interface ReportWriter extends Closeable {
+
+    void section(String title, List<String> headers) throws IOException;
+
+    void writeRow(List<?> values) throws IOException;
+
+    /**
+     * Complete the document; the output stream is flushed but left open
+     */
+    void finish() throws IOException;
+
+    static ReportWriter open(ExportFormat format, OutputStream out, String title) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(out, true);
+            case EXCEL -> new Excel(out);
+            case PDF -> new Pdf(PdfExportUtil.open(out, title));
+        };
+    }
+
+    /**
+     * Writer for a single table; CSV output has no title row, only the headers
+     */
+    static ReportWriter openTable(ExportFormat format, OutputStream out, String title, List<String> headers)
+            throws IOException {
+        ReportWriter writer = switch (format) {
+            case CSV -> new Csv(out, false);
+            case EXCEL -> new Excel(out);
+            case PDF -> new Pdf(PdfExportUtil.open(out, title));
+        };
+        writer.section(title, headers);
+        return writer;
+    }
+
+    /**
+     * Write every row of {@code source} and close it
+     *
+     * @return number of rows written
+     */
+    static <T> long writeAll(ReportWriter writer, Stream<T> source, Function<T, List<?>> values) throws IOException {
+        long count = 0;
+        try (source) {
+            Iterator<T> rows = source.iterator();
+            while (rows.hasNext()) {
+                writer.writeRow(values.apply(rows.next()));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    final class Csv implements ReportWriter {
+
+        private final Writer writer;
+        private final boolean sectionTitles;
+        private boolean first = true;
+
+        private Csv(OutputStream out, boolean sectionTitles) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.sectionTitles = sectionTitles;
+        }
+
+        @Override
+        public void section(String title, List<String> headers) throws IOException {
+            if (sectionTitles) {
+                if (!first) {
+                    writer.write('\n');
+                }
+                CsvExportUtil.writeRow(writer, List.of(title));
+            }
+            first = false;
+            CsvExportUtil.writeRow(writer, headers);
+        }
+
+        @Override
+        public void writeRow(List<?> values) throws IOException {
+            CsvExportUtil.writeRow(writer, values);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() {
+            // The caller owns the output stream
+        }
+    }
+
+    final class Excel implements ReportWriter {
+
+        private final OutputStream out;
+        private ExcelExportUtil.SheetWriter sheet;
+
+        private Excel(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void section(String title, List<String> headers) {
+            if (sheet == null) {
+                sheet = ExcelExportUtil.open(title, headers);
+            } else {
+                sheet.startSheet(title, headers);
+            }
+        }
+
+        @Override
+        public void writeRow(List<?> values) {
+            sheet.writeRow(values);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (sheet == null) {
+                sheet = ExcelExportUtil.open("Report", List.of());
+            }
+            sheet.finish(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (sheet != null) {
+                sheet.close();
+            }
+        }
+    }
+
+    final class Pdf implements ReportWriter {
+
+        private final PdfExportUtil.TableWriter table;
+
+        private Pdf(PdfExportUtil.TableWriter table) {
+            this.table = table;
+        }
+
+        @Override
+        public void section(String title, List<String> headers) throws IOException {
+            table.section(title, headers);
+        }
+
+        @Override
+        public void writeRow(List<?> values) throws IOException {
+            table.writeRow(values);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            table.finish();
+        }
+
+        @Override
+        public void close() {
+            table.close();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+-- file_storages rows become per-upload records; uploads with identical content share
+-- one stored_objects row (created by Hibernate) and therefore the same storage_key.
+-- Drop the unique constraint Hibernate put on file_storages.storage_key.
+--
+-- Databases created before Flyway was introduced are baselined at version 1
+-- (spring.flyway.baseline-on-migrate), so this is version 2. On an empty database
+-- Flyway runs before Hibernate and the table does not exist yet: nothing to do.
+
+DO $$
+DECLARE
+    con record;
+BEGIN
+    IF to_regclass('file_storages') IS NULL THEN
+        RETURN;
+    END IF;
+
+    FOR con IN
+        SELECT c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = 'file_storages'::regclass
+          AND c.contype = 'u'
+          AND array_length(c.conkey, 1) = 1
+          AND a.attname = 'storage_key'
+    LOOP
+        EXECUTE format('ALTER TABLE file_storages DROP CONSTRAINT %I', con.conname);
+    END LOOP;
+END $$;
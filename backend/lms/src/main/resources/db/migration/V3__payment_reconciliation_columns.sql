@@ -0,0 +1,11 @@
+-- Reconciliation state of payment_transactions.
+--
+-- reconcile_attempts is NOT NULL on a table that already has rows, so it is added here
+-- with its default instead of relying on ddl-auto; the two nullable columns come along
+-- so the reconciliation schema is in one place. On an empty database Flyway runs before
+-- Hibernate and the table does not exist yet: Hibernate creates it with these columns.
+
+ALTER TABLE IF EXISTS payment_transactions
+    ADD COLUMN IF NOT EXISTS reconcile_attempts integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS next_reconcile_at timestamp(6) with time zone,
+    ADD COLUMN IF NOT EXISTS provider_order_id varchar(64);
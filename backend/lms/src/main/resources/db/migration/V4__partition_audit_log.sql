@@ -0,0 +1,73 @@
+-- Range-partition audit_log by month on created_at.
+--
+-- An existing plain audit_log (created by Hibernate) is renamed, its rows are copied
+-- into the partitioned table and the old table is dropped. Flyway runs this before the
+-- application serves traffic, so the exclusive lock blocks no requests. On an empty
+-- database the partitioned table is simply created. Databases created before Flyway
+-- need spring.flyway.baseline-on-migrate (see README-BACKEND.md).
+--
+-- audit_log_default catches rows whose month has no partition yet, so inserts never
+-- fail when the maintenance job falls behind; the job moves such rows out again when
+-- it creates the missing partition.
+
+DO $$
+DECLARE
+    legacy      boolean;
+    max_id      bigint := 0;
+    part_month  date;
+    last_month  date := date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months';
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table pt
+               JOIN pg_class c ON c.oid = pt.partrelid
+               WHERE c.relname = 'audit_log' AND pg_table_is_visible(c.oid)) THEN
+        RETURN;
+    END IF;
+
+    legacy := to_regclass('audit_log') IS NOT NULL;
+    IF legacy THEN
+        ALTER TABLE audit_log RENAME TO audit_log_legacy;
+        SELECT COALESCE(MAX(id), 0) INTO max_id FROM audit_log_legacy;
+        SELECT COALESCE(date_trunc('month', MIN(created_at)), date_trunc('month', LOCALTIMESTAMP))
+        INTO part_month FROM audit_log_legacy;
+    ELSE
+        part_month := date_trunc('month', LOCALTIMESTAMP);
+    END IF;
+
+    CREATE SEQUENCE IF NOT EXISTS audit_log_partitioned_id_seq;
+    PERFORM setval('audit_log_partitioned_id_seq', max_id + 1, false);
+
+    CREATE TABLE audit_log (
+        id bigint NOT NULL DEFAULT nextval('audit_log_partitioned_id_seq'),
+        table_name varchar(255),
+        record_id varchar(255),
+        action varchar(255),
+        changed_data jsonb,
+        user_account_id bigint,
+        ip_address varchar(255),
+        created_at timestamp(6) NOT NULL,
+        PRIMARY KEY (id, created_at)
+    ) PARTITION BY RANGE (created_at);
+    ALTER SEQUENCE audit_log_partitioned_id_seq OWNED BY audit_log.id;
+
+    CREATE TABLE audit_log_default PARTITION OF audit_log DEFAULT;
+
+    WHILE part_month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF audit_log FOR VALUES FROM (%L) TO (%L)',
+                       'audit_log_p' || to_char(part_month, 'YYYYMM'), part_month, part_month + INTERVAL '1 month');
+        part_month := part_month + INTERVAL '1 month';
+    END LOOP;
+
+    IF legacy THEN
+        -- Bản ghi cũ chưa có created_at được xếp vào thời điểm chuyển đổi
+        INSERT INTO audit_log (id, table_name, record_id, action, changed_data, user_account_id, ip_address, created_at)
+        SELECT id, table_name, record_id, action, changed_data, user_account_id, ip_address,
+               COALESCE(created_at, LOCALTIMESTAMP)
+        FROM audit_log_legacy;
+        DROP TABLE audit_log_legacy;
+    END IF;
+
+    CREATE INDEX idx_audit_log_created_id ON audit_log (created_at, id);
+    CREATE INDEX idx_audit_log_table_created ON audit_log (table_name, created_at);
+    CREATE INDEX idx_audit_log_user_created ON audit_log (user_account_id, created_at);
+    CREATE INDEX idx_audit_log_record ON audit_log (record_id);
+END $$;
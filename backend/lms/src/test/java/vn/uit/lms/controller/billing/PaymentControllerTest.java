@@ -0,0 +1,95 @@
+package vn.uit.lms.controller.billing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import vn.uit.lms.service.billing.PaymentCallbackDetector;
+import vn.uit.lms.service.billing.PaymentEnrollmentOrchestrator;
+import vn.uit.lms.service.billing.PaymentService;
+import vn.uit.lms.service.billing.ZaloPayService;
+import vn.uit.lms.service.billing.gateway.CallbackEnvelope;
+import vn.uit.lms.shared.constant.PaymentProvider;
+import vn.uit.lms.shared.exception.InvalidRequestException;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the payment callback endpoint
+ * Gateways must receive their success acknowledgement once the callback is in the inbox
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PaymentController Tests - Gateway Callback Acknowledgement")
+class PaymentControllerTest {
+
+    private static final Map<String, String> VNPAY_IPN = Map.of(
+            "vnp_TxnRef", "42",
+            "vnp_ResponseCode", "00",
+            "vnp_TransactionNo", "14012345",
+            "vnp_SecureHash", "abc123"
+    );
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentCallbackDetector callbackDetector;
+
+    @Mock
+    private ZaloPayService zaloPayService;
+
+    @Mock
+    private PaymentEnrollmentOrchestrator enrollmentOrchestrator;
+
+    @InjectMocks
+    private PaymentController paymentController;
+
+    @Test
+    @DisplayName("Should acknowledge a stored VNPay IPN with RspCode 00")
+    void shouldAcknowledgeVnPayIpn() {
+        CallbackEnvelope callback = CallbackEnvelope.of(PaymentProvider.VNPAY, VNPAY_IPN, null, "42");
+        when(callbackDetector.parse(VNPAY_IPN)).thenReturn(callback);
+
+        ResponseEntity<?> response = paymentController.unifiedPaymentCallback(VNPAY_IPN);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(Map.of("RspCode", "00", "Message", "Confirm Success"));
+        verify(paymentService).acceptCallback(callback);
+    }
+
+    @Test
+    @DisplayName("Should acknowledge a repeated VNPay IPN again so the gateway stops retrying")
+    void shouldAcknowledgeRepeatedVnPayIpn() {
+        CallbackEnvelope callback = CallbackEnvelope.of(PaymentProvider.VNPAY, VNPAY_IPN, null, "42");
+        when(callbackDetector.parse(VNPAY_IPN)).thenReturn(callback);
+
+        paymentController.unifiedPaymentCallback(VNPAY_IPN);
+        ResponseEntity<?> response = paymentController.unifiedPaymentCallback(VNPAY_IPN);
+
+        assertThat(response.getBody()).isEqualTo(Map.of("RspCode", "00", "Message", "Confirm Success"));
+        verify(paymentService, times(2)).acceptCallback(callback);
+    }
+
+    @Test
+    @DisplayName("Should reject a VNPay IPN with an invalid signature")
+    void shouldRejectInvalidSignature() {
+        CallbackEnvelope callback = CallbackEnvelope.of(PaymentProvider.VNPAY, VNPAY_IPN, null, "42");
+        when(callbackDetector.parse(VNPAY_IPN)).thenReturn(callback);
+        doThrow(new InvalidRequestException("Invalid payment signature")).when(paymentService).acceptCallback(callback);
+
+        ResponseEntity<?> response = paymentController.unifiedPaymentCallback(VNPAY_IPN);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo(Map.of("error", "Invalid payment signature"));
+    }
+}
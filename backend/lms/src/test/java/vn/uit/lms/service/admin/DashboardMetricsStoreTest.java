@@ -0,0 +1,48 @@
+package vn.uit.lms.service.admin;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.uit.lms.service.admin.DashboardMetricsStore.BucketStart;
+import vn.uit.lms.shared.constant.MetricGranularity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Dashboard metric bucket cover")
+class DashboardMetricsStoreTest {
+
+    @Test
+    @DisplayName("answers a year with twelve month buckets")
+    void yearIsTwelveMonths() {
+        List<BucketStart> cover = DashboardMetricsStore.cover(
+                LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 1, 0, 0));
+
+        assertThat(cover).hasSize(12).allMatch(b -> b.granularity() == MetricGranularity.MONTH);
+    }
+
+    @Test
+    @DisplayName("uses one week bucket for a Monday-to-Monday range")
+    void weekIsOneBucket() {
+        List<BucketStart> cover = DashboardMetricsStore.cover(
+                LocalDateTime.of(2026, 10, 12, 0, 0), LocalDateTime.of(2026, 10, 19, 0, 0));
+
+        assertThat(cover).containsExactly(
+                new BucketStart(MetricGranularity.WEEK, LocalDateTime.of(2026, 10, 12, 0, 0)));
+    }
+
+    @Test
+    @DisplayName("fills ragged edges with days and hours")
+    void raggedRange() {
+        List<BucketStart> cover = DashboardMetricsStore.cover(
+                LocalDateTime.of(2026, 9, 30, 22, 15), LocalDateTime.of(2026, 11, 2, 1, 0));
+
+        assertThat(cover).containsExactly(
+                new BucketStart(MetricGranularity.HOUR, LocalDateTime.of(2026, 9, 30, 22, 0)),
+                new BucketStart(MetricGranularity.HOUR, LocalDateTime.of(2026, 9, 30, 23, 0)),
+                new BucketStart(MetricGranularity.MONTH, LocalDateTime.of(2026, 10, 1, 0, 0)),
+                new BucketStart(MetricGranularity.DAY, LocalDateTime.of(2026, 11, 1, 0, 0)),
+                new BucketStart(MetricGranularity.HOUR, LocalDateTime.of(2026, 11, 2, 0, 0)));
+    }
+}
@@ -0,0 +1,126 @@
+package vn.uit.lms.service.admin;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.uit.lms.core.domain.system.UserStatCounter;
+import vn.uit.lms.core.repository.AccountRepository;
+import vn.uit.lms.core.repository.TeacherRepository;
+import vn.uit.lms.core.repository.system.UserStatCounterRepository;
+import vn.uit.lms.shared.constant.AccountStatus;
+import vn.uit.lms.shared.constant.UserStatKey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("User stats store")
+class UserStatsStoreTest {
+
+    private final UserStatsWriter writer = mock(UserStatsWriter.class);
+    private final UserStatCounterRepository counterRepository = mock(UserStatCounterRepository.class);
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final UserStatsStore store = new UserStatsStore(writer, counterRepository,
+            accountRepository, mock(TeacherRepository.class));
+
+    private final List<UserStatCounter> rows = new ArrayList<>();
+
+    @Test
+    @DisplayName("keeps flushed deltas visible while they are written and reloaded")
+    void flushedDeltasStayVisible() {
+        when(counterRepository.findAll()).thenAnswer(inv -> List.copyOf(rows));
+        store.reload();
+        store.add(UserStatKey.TOTAL, 3);
+
+        AtomicLong duringWrite = new AtomicLong();
+        doAnswer(inv -> {
+            duringWrite.set(store.get(UserStatKey.TOTAL));
+            rows.add(counter(UserStatKey.TOTAL, 3));
+            return null;
+        }).when(writer).apply(anyMap());
+
+        store.flush();
+
+        assertThat(duringWrite).hasValue(3);
+        assertThat(store.get(UserStatKey.TOTAL)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("keeps deltas of a failed write in flight and writes them once on retry")
+    void failedWriteIsRetried() {
+        when(counterRepository.findAll()).thenAnswer(inv -> List.copyOf(rows));
+        store.reload();
+        store.add(UserStatKey.TOTAL, 2);
+
+        doThrow(new IllegalStateException("database down")).when(writer).apply(anyMap());
+        store.flush();
+        assertThat(store.get(UserStatKey.TOTAL)).isEqualTo(2);
+
+        store.add(UserStatKey.TOTAL, 1);
+        List<Long> written = new ArrayList<>();
+        doAnswer(inv -> {
+            long total = inv.<Map<UserStatKey, Long>>getArgument(0).get(UserStatKey.TOTAL);
+            written.add(total);
+            rows.add(counter(UserStatKey.TOTAL, total));
+            return null;
+        }).when(writer).apply(anyMap());
+        store.flush();
+        store.flush();
+
+        assertThat(written).containsExactly(3L);
+        assertThat(store.get(UserStatKey.TOTAL)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("does not write flushed deltas again when the reload fails")
+    void failedReloadKeepsWrittenDeltas() {
+        when(counterRepository.findAll()).thenReturn(List.of())
+                .thenThrow(new IllegalStateException("database down"));
+        store.reload();
+        store.add(UserStatKey.ROLE_STUDENT, 4);
+        doNothing().when(writer).apply(anyMap());
+
+        assertThatThrownBy(store::flush).isInstanceOf(IllegalStateException.class);
+
+        assertThat(store.get(UserStatKey.ROLE_STUDENT)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("does not apply deltas again that the exact recount already covers")
+    void recomputeCoversPendingDeltas() {
+        when(counterRepository.findAll()).thenAnswer(inv -> List.copyOf(rows));
+        store.reload();
+        store.add(UserStatKey.TOTAL, 1);
+
+        AccountRepository.StatusCount active = mock(AccountRepository.StatusCount.class);
+        when(active.getStatus()).thenReturn(AccountStatus.ACTIVE);
+        when(active.getTotal()).thenReturn(5L);
+        when(accountRepository.countGroupedByStatus()).thenReturn(List.of(active));
+        doAnswer(inv -> {
+            inv.<Map<UserStatKey, Long>>getArgument(0)
+                    .forEach((key, value) -> rows.add(counter(key, value)));
+            return null;
+        }).when(writer).replace(anyMap());
+
+        store.recompute();
+        store.flush();
+
+        verify(writer, never()).apply(anyMap());
+        assertThat(store.get(UserStatKey.TOTAL)).isEqualTo(5);
+    }
+
+    private static UserStatCounter counter(UserStatKey key, long value) {
+        return UserStatCounter.builder().key(key).value(value).build();
+    }
+}
@@ -0,0 +1,93 @@
+package vn.uit.lms.service.billing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.uit.lms.shared.dto.response.billing.PaymentUrlResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static vn.uit.lms.shared.constant.PaymentProvider.VNPAY;
+import static vn.uit.lms.shared.constant.PaymentProvider.ZALOPAY;
+
+@DisplayName("Checkout idempotency registry")
+class CheckoutIdempotencyRegistryTest {
+
+    private static final String RETURN_URL = "http://localhost:3000/payment/result";
+
+    private final CheckoutIdempotencyRegistry registry = new CheckoutIdempotencyRegistry(30);
+
+    @Test
+    @DisplayName("shares the first checkout with repeats of the same student and version")
+    void repeatedCheckoutSharesResult() {
+        AtomicInteger started = new AtomicInteger();
+        CompletableFuture<PaymentUrlResponse> gateway = new CompletableFuture<>();
+
+        CompletableFuture<PaymentUrlResponse> first = registry.deduplicate(1L, 10L, ZALOPAY, RETURN_URL, () -> {
+            started.incrementAndGet();
+            return gateway;
+        });
+        CompletableFuture<PaymentUrlResponse> repeat = registry.deduplicate(1L, 10L, ZALOPAY, RETURN_URL, () -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture(response(99L));
+        });
+        gateway.complete(response(5L));
+
+        assertThat(started).hasValue(1);
+        assertThat(first.join().getPaymentId()).isEqualTo(5L);
+        assertThat(repeat.join().getPaymentId()).isEqualTo(5L);
+
+        registry.deduplicate(2L, 10L, ZALOPAY, RETURN_URL, () -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture(response(6L));
+        });
+        assertThat(started).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("forgets a failed checkout so the student can retry at once")
+    void failedCheckoutCanBeRetried() {
+        CompletableFuture<PaymentUrlResponse> failed = registry.deduplicate(1L, 10L, ZALOPAY, RETURN_URL,
+                () -> CompletableFuture.failedFuture(new IllegalStateException("gateway down")));
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalStateException.class);
+
+        assertThatThrownBy(() -> registry.deduplicate(1L, 10L, ZALOPAY, RETURN_URL, () -> {
+            throw new IllegalArgumentException("rejected");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        CompletableFuture<PaymentUrlResponse> retry = registry.deduplicate(1L, 10L, ZALOPAY, RETURN_URL,
+                () -> CompletableFuture.completedFuture(response(7L)));
+        assertThat(retry.join().getPaymentId()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("starts a new checkout when the payment method or return URL differs")
+    void differentParametersStartNewCheckout() {
+        AtomicInteger started = new AtomicInteger();
+
+        CompletableFuture<PaymentUrlResponse> zaloPay = registry.deduplicate(1L, 10L, ZALOPAY, RETURN_URL, () -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture(response(5L));
+        });
+        CompletableFuture<PaymentUrlResponse> vnPay = registry.deduplicate(1L, 10L, VNPAY, RETURN_URL, () -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture(response(6L));
+        });
+        CompletableFuture<PaymentUrlResponse> otherReturn = registry.deduplicate(1L, 10L, ZALOPAY,
+                "https://app.example/checkout/done", () -> {
+                    started.incrementAndGet();
+                    return CompletableFuture.completedFuture(response(7L));
+                });
+
+        assertThat(started).hasValue(3);
+        assertThat(zaloPay.join().getPaymentId()).isEqualTo(5L);
+        assertThat(vnPay.join().getPaymentId()).isEqualTo(6L);
+        assertThat(otherReturn.join().getPaymentId()).isEqualTo(7L);
+    }
+
+    private static PaymentUrlResponse response(Long paymentId) {
+        return PaymentUrlResponse.builder().paymentId(paymentId).paymentUrl("https://pay/" + paymentId).build();
+    }
+}
@@ -0,0 +1,152 @@
+package vn.uit.lms.service.billing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import vn.uit.lms.core.domain.billing.PaymentCallbackInbox;
+import vn.uit.lms.core.repository.billing.PaymentCallbackInboxRepository;
+import vn.uit.lms.service.event.PaymentCallbackReceivedEvent;
+import vn.uit.lms.shared.constant.CallbackInboxStatus;
+import vn.uit.lms.shared.constant.PaymentProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Payment callback inbox")
+class PaymentCallbackInboxServiceTest {
+
+    private static final Map<String, String> VNPAY_PAYLOAD = Map.of(
+            "vnp_TxnRef", "42",
+            "vnp_ResponseCode", "00",
+            "vnp_TransactionNo", "14012345",
+            "vnp_SecureHash", "abc123"
+    );
+
+    private final PaymentCallbackInboxRepository inboxRepository = mock(PaymentCallbackInboxRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PaymentCallbackInboxService inboxService =
+            new PaymentCallbackInboxService(inboxRepository, eventPublisher, meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(inboxService, "leaseSeconds", 60L);
+        ReflectionTestUtils.setField(inboxService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(inboxService, "retryBackoffSeconds", 5L);
+    }
+
+    @Test
+    @DisplayName("stores a gateway retry of the same callback once")
+    void acceptIsIdempotent() {
+        AtomicReference<PaymentCallbackInbox> stored = new AtomicReference<>();
+        when(inboxRepository.findByIdempotencyKey(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(stored.get()));
+        when(inboxRepository.saveAndFlush(any(PaymentCallbackInbox.class))).thenAnswer(invocation -> {
+            PaymentCallbackInbox item = invocation.getArgument(0);
+            item.setId(1L);
+            stored.set(item);
+            return item;
+        });
+
+        PaymentCallbackInbox first = inboxService.accept(PaymentProvider.VNPAY, 42L, VNPAY_PAYLOAD);
+        PaymentCallbackInbox second = inboxService.accept(PaymentProvider.VNPAY, 42L, new LinkedHashMap<>(VNPAY_PAYLOAD));
+
+        assertThat(second).isSameAs(first);
+        verify(inboxRepository, times(1)).saveAndFlush(any(PaymentCallbackInbox.class));
+        verify(eventPublisher, times(1)).publishEvent(any(PaymentCallbackReceivedEvent.class));
+        assertThat(receivedCount("accepted")).isEqualTo(1.0);
+        assertThat(receivedCount("duplicate")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("derives the idempotency key from the payload regardless of parameter order")
+    void keyIgnoresParameterOrder() {
+        Map<String, String> reordered = new LinkedHashMap<>();
+        reordered.put("vnp_SecureHash", "abc123");
+        reordered.put("vnp_TransactionNo", "14012345");
+        reordered.put("vnp_ResponseCode", "00");
+        reordered.put("vnp_TxnRef", "42");
+
+        assertThat(PaymentCallbackInboxService.buildIdempotencyKey(PaymentProvider.VNPAY, 42L, reordered))
+                .isEqualTo(PaymentCallbackInboxService.buildIdempotencyKey(PaymentProvider.VNPAY, 42L, VNPAY_PAYLOAD))
+                .startsWith("VNPAY:42:");
+    }
+
+    @Test
+    @DisplayName("reports a lost insert race as a duplicate")
+    void concurrentDuplicateIsReported() {
+        when(inboxRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+        when(inboxRepository.saveAndFlush(any(PaymentCallbackInbox.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_callback_inbox_key"));
+
+        assertThatThrownBy(() -> inboxService.accept(PaymentProvider.VNPAY, 42L, VNPAY_PAYLOAD))
+                .isInstanceOf(PaymentCallbackInboxService.DuplicateCallbackException.class);
+        assertThat(receivedCount("duplicate")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("retries a failed callback with backoff and gives up after max attempts")
+    void markFailedGoesDeadAfterMaxAttempts() {
+        PaymentCallbackInbox item = inboxItem(CallbackInboxStatus.RECEIVED);
+        when(inboxRepository.findById(1L)).thenReturn(Optional.of(item));
+
+        item.claim(Duration.ofSeconds(60));
+        assertThat(inboxService.markFailed(1L, "timeout")).isEqualTo(CallbackInboxStatus.FAILED);
+        assertThat(item.getNextAttemptAt()).isAfter(Instant.now());
+
+        item.claim(Duration.ofSeconds(60));
+        assertThat(inboxService.markFailed(1L, "timeout")).isEqualTo(CallbackInboxStatus.FAILED);
+
+        item.claim(Duration.ofSeconds(60));
+        assertThat(inboxService.markFailed(1L, "timeout")).isEqualTo(CallbackInboxStatus.DEAD);
+        assertThat(item.getAttempts()).isEqualTo(3);
+        assertThat(item.getLastError()).isEqualTo("timeout");
+    }
+
+    @Test
+    @DisplayName("keeps an applied callback APPLIED on failure so only enrollment is retried")
+    void markFailedKeepsAppliedStatus() {
+        PaymentCallbackInbox item = inboxItem(CallbackInboxStatus.APPLIED);
+        when(inboxRepository.findById(1L)).thenReturn(Optional.of(item));
+
+        item.claim(Duration.ofSeconds(60));
+
+        assertThat(inboxService.markFailed(1L, "enrollment failed")).isEqualTo(CallbackInboxStatus.APPLIED);
+    }
+
+    private double receivedCount(String result) {
+        return meterRegistry.counter("lms.payment.callback.received",
+                "provider", PaymentProvider.VNPAY.name(), "result", result).count();
+    }
+
+    private static PaymentCallbackInbox inboxItem(CallbackInboxStatus status) {
+        Instant now = Instant.now();
+        return PaymentCallbackInbox.builder()
+                .id(1L)
+                .idempotencyKey("VNPAY:42:key")
+                .provider(PaymentProvider.VNPAY)
+                .paymentId(42L)
+                .payload(VNPAY_PAYLOAD)
+                .status(status)
+                .receivedAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+}
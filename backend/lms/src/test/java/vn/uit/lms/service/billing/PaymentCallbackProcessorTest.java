@@ -0,0 +1,111 @@
+package vn.uit.lms.service.billing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.uit.lms.core.domain.billing.PaymentCallbackInbox;
+import vn.uit.lms.core.domain.billing.PaymentTransaction;
+import vn.uit.lms.core.repository.billing.PaymentCallbackInboxRepository;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+import vn.uit.lms.service.billing.gateway.CallbackEnvelope;
+import vn.uit.lms.service.billing.gateway.PaymentFactory;
+import vn.uit.lms.service.billing.gateway.PaymentGateway;
+import vn.uit.lms.shared.constant.CallbackInboxStatus;
+import vn.uit.lms.shared.constant.PaymentProvider;
+import vn.uit.lms.shared.constant.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Payment callback processor")
+class PaymentCallbackProcessorTest {
+
+    private static final Map<String, String> PAYLOAD = Map.of("vnp_TxnRef", "42", "vnp_ResponseCode", "00");
+
+    private final PaymentCallbackInboxRepository inboxRepository = mock(PaymentCallbackInboxRepository.class);
+    private final PaymentTransactionRepository paymentRepository = mock(PaymentTransactionRepository.class);
+    private final PaymentFactory paymentFactory = mock(PaymentFactory.class);
+    private final PaymentCallbackDetector callbackDetector = mock(PaymentCallbackDetector.class);
+    private final PaymentSettlementService settlementService = mock(PaymentSettlementService.class);
+    private final PaymentGateway gateway = mock(PaymentGateway.class);
+    private final PaymentCallbackProcessor processor = new PaymentCallbackProcessor(
+            inboxRepository, paymentRepository, paymentFactory, callbackDetector, settlementService);
+
+    private final PaymentCallbackInbox item = PaymentCallbackInbox.builder()
+            .id(1L)
+            .idempotencyKey("VNPAY:42:key")
+            .provider(PaymentProvider.VNPAY)
+            .paymentId(42L)
+            .payload(PAYLOAD)
+            .receivedAt(Instant.now())
+            .nextAttemptAt(Instant.now())
+            .build();
+
+    private final CallbackEnvelope envelope = CallbackEnvelope.of(PaymentProvider.VNPAY, PAYLOAD, null, "42");
+
+    @BeforeEach
+    void setUp() {
+        when(inboxRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(paymentFactory.getProcessor(PaymentProvider.VNPAY)).thenReturn(gateway);
+        when(callbackDetector.parse(PaymentProvider.VNPAY, PAYLOAD)).thenReturn(envelope);
+    }
+
+    @Test
+    @DisplayName("settles a pending payment from a successful callback and marks the row APPLIED")
+    void appliesSuccessfulCallback() {
+        PaymentTransaction payment = payment(PaymentStatus.PENDING);
+        PaymentTransaction paid = payment(PaymentStatus.SUCCESS);
+        when(paymentRepository.findByIdForUpdate(42L)).thenReturn(Optional.of(payment));
+        when(gateway.isPaymentSuccess(envelope)).thenReturn(true);
+        when(gateway.getTransactionId(envelope)).thenReturn("14012345");
+        when(settlementService.markPaid(payment, "14012345")).thenReturn(paid);
+
+        assertThat(processor.applyPayment(1L)).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(item.getStatus()).isEqualTo(CallbackInboxStatus.APPLIED);
+        verify(settlementService, never()).markFailed(any(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("marks a pending payment failed from an unsuccessful callback")
+    void appliesFailedCallback() {
+        PaymentTransaction payment = payment(PaymentStatus.PENDING);
+        when(paymentRepository.findByIdForUpdate(42L)).thenReturn(Optional.of(payment));
+        when(gateway.isPaymentSuccess(envelope)).thenReturn(false);
+        when(gateway.getErrorMessage(envelope)).thenReturn("Cancelled");
+        when(gateway.getErrorCode(envelope)).thenReturn("24");
+        when(settlementService.markFailed(payment, "Cancelled", "24")).thenReturn(payment(PaymentStatus.FAILED));
+
+        assertThat(processor.applyPayment(1L)).isEqualTo(PaymentStatus.FAILED);
+        assertThat(item.getStatus()).isEqualTo(CallbackInboxStatus.APPLIED);
+    }
+
+    @Test
+    @DisplayName("leaves an already settled payment untouched on a late or repeated callback")
+    void ignoresSettledPayment() {
+        when(paymentRepository.findByIdForUpdate(42L)).thenReturn(Optional.of(payment(PaymentStatus.SUCCESS)));
+
+        assertThat(processor.applyPayment(1L)).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(item.getStatus()).isEqualTo(CallbackInboxStatus.APPLIED);
+        verifyNoInteractions(settlementService);
+    }
+
+    private static PaymentTransaction payment(PaymentStatus status) {
+        return PaymentTransaction.builder()
+                .id(42L)
+                .amount(new BigDecimal("100000"))
+                .paymentMethod(PaymentProvider.VNPAY)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package vn.uit.lms.service.billing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.uit.lms.core.domain.Student;
+import vn.uit.lms.core.domain.billing.PaymentTransaction;
+import vn.uit.lms.core.domain.course.Course;
+import vn.uit.lms.core.domain.course.CourseVersion;
+import vn.uit.lms.core.domain.learning.Enrollment;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+import vn.uit.lms.core.repository.learning.EnrollmentRepository;
+import vn.uit.lms.service.learning.EnrollmentService;
+import vn.uit.lms.shared.constant.PaymentStatus;
+import vn.uit.lms.shared.dto.response.enrollment.EnrollmentDetailResponse;
+import vn.uit.lms.shared.exception.InvalidRequestException;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Payment enrollment orchestrator")
+class PaymentEnrollmentOrchestratorTest {
+
+    private final EnrollmentService enrollmentService = mock(EnrollmentService.class);
+    private final PaymentTransactionRepository paymentRepository = mock(PaymentTransactionRepository.class);
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    private final PaymentEnrollmentOrchestrator orchestrator =
+            new PaymentEnrollmentOrchestrator(enrollmentService, paymentRepository, enrollmentRepository);
+
+    @Test
+    @DisplayName("enrolls the student once and records the enrollment on the payment")
+    void enrollsAfterPayment() {
+        PaymentTransaction payment = payment(PaymentStatus.SUCCESS);
+        stubPayment(payment);
+        when(enrollmentRepository.findByStudentIdAndCourseVersionId(1L, 3L)).thenReturn(Optional.empty());
+        when(enrollmentService.enrollStudent(1L, 3L)).thenReturn(EnrollmentDetailResponse.builder().id(9L).build());
+
+        assertThat(orchestrator.processEnrollmentAfterPayment(42L).getId()).isEqualTo(9L);
+        assertThat(payment.getMetadata()).containsEntry("enrollment_status", "SUCCESS").containsEntry("enrollment_id", 9L);
+        assertThat(orchestrator.isEnrollmentRetryable(42L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("skips a payment whose enrollment already succeeded")
+    void repeatedCallIsNoOp() {
+        PaymentTransaction payment = payment(PaymentStatus.SUCCESS);
+        payment.addMetadata("enrollment_status", "SUCCESS");
+        stubPayment(payment);
+
+        assertThat(orchestrator.processEnrollmentAfterPayment(42L)).isNull();
+        verify(enrollmentService, never()).enrollStudent(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("adopts an enrollment left by an earlier attempt instead of enrolling again")
+    void adoptsExistingEnrollment() {
+        PaymentTransaction payment = payment(PaymentStatus.SUCCESS);
+        stubPayment(payment);
+        Enrollment enrollment = mock(Enrollment.class);
+        when(enrollment.getId()).thenReturn(9L);
+        when(enrollmentRepository.findByStudentIdAndCourseVersionId(1L, 3L)).thenReturn(Optional.of(enrollment));
+
+        assertThat(orchestrator.processEnrollmentAfterPayment(42L)).isNull();
+        assertThat(payment.getMetadata()).containsEntry("enrollment_status", "SUCCESS");
+        verify(enrollmentService, never()).enrollStudent(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("does not enroll for a payment that is not successful")
+    void skipsUnpaidPayment() {
+        stubPayment(payment(PaymentStatus.FAILED));
+
+        assertThat(orchestrator.processEnrollmentAfterPayment(42L)).isNull();
+        verify(enrollmentService, never()).enrollStudent(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("marks a system error as retryable and a business rule violation as final")
+    void classifiesEnrollmentFailures() {
+        PaymentTransaction payment = payment(PaymentStatus.SUCCESS);
+        stubPayment(payment);
+        when(enrollmentRepository.findByStudentIdAndCourseVersionId(1L, 3L)).thenReturn(Optional.empty());
+
+        when(enrollmentService.enrollStudent(1L, 3L)).thenThrow(new IllegalStateException("connection reset"));
+        orchestrator.processEnrollmentAfterPayment(42L);
+        assertThat(orchestrator.isEnrollmentRetryable(42L)).isTrue();
+
+        payment.setMetadata(new HashMap<>());
+        doThrow(new InvalidRequestException("Course is closed")).when(enrollmentService).enrollStudent(1L, 3L);
+        orchestrator.processEnrollmentAfterPayment(42L);
+        assertThat(payment.getMetadata()).containsEntry("enrollment_error_type", "BUSINESS_RULE_VIOLATION");
+        assertThat(orchestrator.isEnrollmentRetryable(42L)).isFalse();
+    }
+
+    private void stubPayment(PaymentTransaction payment) {
+        when(paymentRepository.findByIdForUpdate(42L)).thenReturn(Optional.of(payment));
+        when(paymentRepository.findById(42L)).thenReturn(Optional.of(payment));
+    }
+
+    /**
+     * Payment as created at checkout: no metadata yet
+     */
+    private static PaymentTransaction payment(PaymentStatus status) {
+        return PaymentTransaction.builder()
+                .id(42L)
+                .student(Student.builder().id(1L).build())
+                .course(Course.builder().id(2L).build())
+                .courseVersion(CourseVersion.builder().id(3L).build())
+                .amount(new BigDecimal("100000"))
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package vn.uit.lms.service.billing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import vn.uit.lms.core.domain.Teacher;
+import vn.uit.lms.core.domain.billing.Payout;
+import vn.uit.lms.core.repository.TeacherRepository;
+import vn.uit.lms.core.repository.billing.PayoutRepository;
+import vn.uit.lms.core.repository.billing.TeacherRevenueDailyRepository;
+import vn.uit.lms.core.repository.billing.TeacherRevenueDailyRepository.TeacherBalanceTotals;
+import vn.uit.lms.shared.constant.PayoutStatus;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Payout batch")
+class PayoutBatchServiceTest {
+
+    private static final YearMonth PERIOD = YearMonth.of(2024, 5);
+
+    private final PayoutRepository payoutRepository = mock(PayoutRepository.class);
+    private final TeacherRevenueDailyRepository revenueDailyRepository = mock(TeacherRevenueDailyRepository.class);
+    private final TeacherRepository teacherRepository = mock(TeacherRepository.class);
+    private final PayoutBatchService service =
+            new PayoutBatchService(payoutRepository, revenueDailyRepository, teacherRepository);
+
+    @Test
+    @DisplayName("drafts one payout per teacher and skips teachers already paid for the period")
+    @SuppressWarnings("unchecked")
+    void draftsOnlyMissingPayouts() {
+        when(revenueDailyRepository.sumByTeacherBetween(any(), any(), anyLong(), anyLong(), any()))
+                .thenReturn(List.of(balance(1L, "1000000", "700000"), balance(2L, "500000", "400000")));
+        when(payoutRepository.findTeacherIdsWithPayoutForPeriod(eq("2024-05"), anyCollection()))
+                .thenReturn(List.of(2L));
+        when(payoutRepository.findWithBankAccountByTeacherIds(anyCollection()))
+                .thenReturn(List.of(bankPayout(1L)));
+        when(teacherRepository.getReferenceById(anyLong())).thenAnswer(inv -> teacher(inv.getArgument(0)));
+
+        PayoutBatchService.PartitionResult result = service.draftPartition(PERIOD, 0, 1);
+
+        ArgumentCaptor<List<Payout>> saved = ArgumentCaptor.forClass(List.class);
+        verify(payoutRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).singleElement().satisfies(payout -> {
+            assertThat(payout.getTeacher().getId()).isEqualTo(1L);
+            assertThat(payout.getReference()).isEqualTo("PAYOUT-2024-05-T1");
+            assertThat(payout.getAmount()).isEqualByComparingTo("700000");
+            assertThat(payout.getNetAmount()).isEqualByComparingTo("623000");
+            assertThat(payout.getRevenueSharePercentage()).isEqualTo(70.0f);
+            assertThat(payout.getBankAccountNumber()).isEqualTo("0123456789");
+        });
+        assertThat(result.eligibleTeachers()).isEqualTo(2);
+        assertThat(result.payoutsCreated()).isEqualTo(1);
+        assertThat(result.teachersSkipped()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("writes transferable pending payouts to the bank file")
+    void exportsBankFile() throws Exception {
+        Payout ready = bankPayout(1L);
+        ready.setId(10L);
+        ready.setReference("PAYOUT-2024-05-T1");
+        ready.setAccountHolderName("Nguyen, Van A");
+        ready.setNetAmount(new BigDecimal("623000"));
+        Payout noBank = Payout.builder().teacher(teacher(2L)).amount(BigDecimal.TEN).build();
+        noBank.setId(11L);
+        when(payoutRepository.findPageByPeriodAndStatus(eq("2024-05"), eq(PayoutStatus.PENDING), anyLong(), any()))
+                .thenReturn(List.of(ready, noBank));
+
+        StringWriter out = new StringWriter();
+        int written = service.exportBankTransferFile(PERIOD, out);
+
+        assertThat(written).isEqualTo(1);
+        assertThat(out.toString().split("\n")).containsExactly(
+                "reference,teacher_code,beneficiary_name,bank_name,account_number,amount,currency,description",
+                "PAYOUT-2024-05-T1,GV1,\"Nguyen, Van A\",VCB,0123456789,623000.00,VND,LMS payout 2024-05");
+    }
+
+    private static TeacherBalanceTotals balance(Long teacherId, String net, String earnings) {
+        TeacherBalanceTotals balance = mock(TeacherBalanceTotals.class);
+        when(balance.getTeacherId()).thenReturn(teacherId);
+        when(balance.getNetAmount()).thenReturn(new BigDecimal(net));
+        when(balance.getTeacherEarnings()).thenReturn(new BigDecimal(earnings));
+        when(balance.getSalesCount()).thenReturn(3L);
+        when(balance.getRefundCount()).thenReturn(0L);
+        return balance;
+    }
+
+    private static Payout bankPayout(Long teacherId) {
+        Payout payout = Payout.builder().teacher(teacher(teacherId)).currency("VND").build();
+        payout.setBankAccount("0123456789", "VCB", "Nguyen Van A");
+        return payout;
+    }
+
+    private static Teacher teacher(Long id) {
+        Teacher teacher = new Teacher();
+        teacher.setId(id);
+        teacher.setTeacherCode("GV" + id);
+        return teacher;
+    }
+}
@@ -0,0 +1,95 @@
+package vn.uit.lms.service.billing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.uit.lms.core.domain.Teacher;
+import vn.uit.lms.core.domain.billing.PaymentTransaction;
+import vn.uit.lms.core.domain.course.Course;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+import vn.uit.lms.core.repository.billing.RevenueLedgerEntryRepository;
+import vn.uit.lms.core.repository.billing.RevenueShareConfigRepository;
+import vn.uit.lms.core.repository.billing.TeacherRevenueDailyRepository;
+import vn.uit.lms.service.event.PaymentSucceededEvent;
+import vn.uit.lms.shared.constant.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Revenue ledger booking without a share config")
+class RevenueLedgerServiceTest {
+
+    private final RevenueLedgerEntryRepository ledgerEntryRepository = mock(RevenueLedgerEntryRepository.class);
+    private final TeacherRevenueDailyRepository revenueDailyRepository = mock(TeacherRevenueDailyRepository.class);
+    private final RevenueShareConfigRepository configRepository = mock(RevenueShareConfigRepository.class);
+    private final PaymentTransactionRepository paymentRepository = mock(PaymentTransactionRepository.class);
+
+    private final RevenueLedgerService ledgerService = new RevenueLedgerService(
+            ledgerEntryRepository, revenueDailyRepository, new RevenueShareResolver(configRepository), paymentRepository);
+
+    @Test
+    @DisplayName("settling a payment does not depend on the revenue ledger")
+    void settlementSucceedsWithoutConfig() {
+        when(configRepository.findAll()).thenReturn(List.of());
+        when(paymentRepository.save(any(PaymentTransaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        PaymentSettlementService settlementService = new PaymentSettlementService(paymentRepository, event -> { });
+
+        PaymentTransaction paid = settlementService.markPaid(pendingPayment(1L), "TX-1");
+
+        assertThat(paid.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        verify(ledgerEntryRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("the after-commit booking leaves the payment for the sweep instead of failing")
+    void listenerSwallowsMissingConfig() {
+        when(configRepository.findAll()).thenReturn(List.of());
+        PaymentTransaction payment = paidPayment(1L);
+        when(paymentRepository.findById(1L)).thenReturn(Optional.of(payment));
+        RevenueLedgerBookingListener listener = new RevenueLedgerBookingListener(ledgerService);
+
+        assertThatCode(() -> listener.onPaymentSucceeded(new PaymentSucceededEvent(
+                1L, payment.getCourse().getId(), payment.getAmount(), payment.getPaidAt())))
+                .doesNotThrowAnyException();
+
+        verify(ledgerEntryRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("the sweep skips payments it cannot book yet and keeps paging")
+    void sweepSkipsUnbookablePayments() {
+        when(configRepository.findAll()).thenReturn(List.of());
+        when(paymentRepository.findUnbookedSettledPayments(any(), anyList(), any()))
+                .thenReturn(List.of(paidPayment(1L), paidPayment(2L)));
+
+        assertThat(ledgerService.backfillPage(0L, 500)).isEqualTo(2L);
+        verify(ledgerEntryRepository, never()).saveAll(anyList());
+    }
+
+    private static PaymentTransaction pendingPayment(Long id) {
+        Teacher teacher = Teacher.builder().id(10L).build();
+        Course course = Course.builder().id(20L).teacher(teacher).build();
+        return PaymentTransaction.builder()
+                .id(id)
+                .course(course)
+                .amount(new BigDecimal("100000"))
+                .build();
+    }
+
+    private static PaymentTransaction paidPayment(Long id) {
+        PaymentTransaction payment = pendingPayment(id);
+        payment.setStatus(PaymentStatus.SUCCESS);
+        payment.setPaidAt(Instant.parse("2024-05-01T03:00:00Z"));
+        return payment;
+    }
+}
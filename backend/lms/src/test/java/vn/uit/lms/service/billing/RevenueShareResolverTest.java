@@ -0,0 +1,79 @@
+package vn.uit.lms.service.billing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.uit.lms.core.domain.billing.RevenueShareConfig;
+import vn.uit.lms.core.repository.billing.RevenueShareConfigRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Revenue share resolver")
+class RevenueShareResolverTest {
+
+    private static final Long CATEGORY = 7L;
+
+    private final RevenueShareConfigRepository repository = mock(RevenueShareConfigRepository.class);
+    private final RevenueShareResolver resolver = new RevenueShareResolver(repository);
+
+    @Test
+    @DisplayName("applies the share that was in force on each date, including deactivated configs")
+    void historicalDefaultShares() {
+        when(repository.findAll()).thenReturn(List.of(
+                config(1L, null, "70", "2024-01-01", "2024-06-30", false),
+                config(2L, null, "80", "2024-07-01", null, true)
+        ));
+
+        assertThat(resolver.teacherPercentage(null, LocalDate.parse("2024-03-15"))).isEqualByComparingTo("70");
+        assertThat(resolver.teacherPercentage(null, LocalDate.parse("2024-06-30"))).isEqualByComparingTo("70");
+        assertThat(resolver.teacherPercentage(null, LocalDate.parse("2024-07-01"))).isEqualByComparingTo("80");
+        assertThat(resolver.teacherPercentage(null, LocalDate.parse("2030-01-01"))).isEqualByComparingTo("80");
+        assertThatThrownBy(() -> resolver.teacherPercentage(null, LocalDate.parse("2023-12-31")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("prefers the category config and falls back to the default outside its period")
+    void categoryOverride() {
+        when(repository.findAll()).thenReturn(List.of(
+                config(1L, null, "70", "2024-01-01", null, true),
+                config(2L, CATEGORY, "85", "2024-03-01", "2024-03-31", true)
+        ));
+
+        assertThat(resolver.teacherPercentage(CATEGORY, LocalDate.parse("2024-03-10"))).isEqualByComparingTo("85");
+        assertThat(resolver.teacherPercentage(CATEGORY, LocalDate.parse("2024-04-01"))).isEqualByComparingTo("70");
+        assertThat(resolver.teacherPercentage(99L, LocalDate.parse("2024-03-10"))).isEqualByComparingTo("70");
+    }
+
+    @Test
+    @DisplayName("lets the latest-starting config win where configs overlap")
+    void overlappingConfigs() {
+        when(repository.findAll()).thenReturn(List.of(
+                config(1L, null, "70", "2024-01-01", null, true),
+                config(2L, null, "90", "2024-05-01", "2024-05-31", true)
+        ));
+
+        assertThat(resolver.teacherPercentage(null, LocalDate.parse("2024-04-30"))).isEqualByComparingTo("70");
+        assertThat(resolver.teacherPercentage(null, LocalDate.parse("2024-05-15"))).isEqualByComparingTo("90");
+        assertThat(resolver.teacherPercentage(null, LocalDate.parse("2024-06-01"))).isEqualByComparingTo("70");
+    }
+
+    private static RevenueShareConfig config(Long id, Long categoryId, String percentage,
+                                             String from, String to, boolean active) {
+        RevenueShareConfig config = RevenueShareConfig.builder()
+                .categoryId(categoryId)
+                .percentage(new BigDecimal(percentage))
+                .effectiveFrom(LocalDate.parse(from))
+                .effectiveTo(to != null ? LocalDate.parse(to) : null)
+                .isActive(active)
+                .build();
+        config.setId(id);
+        return config;
+    }
+}
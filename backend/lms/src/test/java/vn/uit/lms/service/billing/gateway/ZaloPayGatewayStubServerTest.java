@@ -0,0 +1,120 @@
+package vn.uit.lms.service.billing.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import vn.uit.lms.config.gateway.ZaloPayConfig;
+import vn.uit.lms.shared.exception.PaymentGatewayException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs ZaloPayGateway against a local stub HTTP server (no Spring context).
+ */
+@DisplayName("ZaloPay gateway against stub server")
+class ZaloPayGatewayStubServerTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicInteger delayMs = new AtomicInteger();
+    private final AtomicReference<String> body = new AtomicReference<>(
+            "{\"return_code\":1,\"return_message\":\"ok\",\"is_processing\":false,\"amount\":50000,\"zp_trans_id\":123}");
+
+    private ZaloPayGateway gateway;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(delayMs.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status.get(), bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+
+        ZaloPayConfig config = new ZaloPayConfig();
+        config.setAppid("2553");
+        config.setKey1("key1");
+        config.setKey2("key2");
+        ZaloPayConfig.Endpoints endpoints = new ZaloPayConfig.Endpoints();
+        endpoints.setBase("http://127.0.0.1:" + server.getAddress().getPort());
+        endpoints.setCreate("/v2/create");
+        endpoints.setQuery("/v2/query");
+        endpoints.setRefund("/v2/refund");
+        endpoints.setRefundQuery("/v2/query_refund");
+        config.setEndpoints(endpoints);
+        config.getClient().setQueryTimeoutMs(300);
+        config.getClient().setCircuitFailureThreshold(2);
+        config.getClient().setCircuitOpenSeconds(60);
+
+        gateway = new ZaloPayGateway(config, WebClient.create(), new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should return parsed response asynchronously")
+    void shouldQueryOrderStatusAsync() {
+        Map<String, Object> response = gateway.queryOrderStatusAsync("251019_2553_PAY1").join();
+
+        assertThat(response.get("return_code")).isEqualTo(1);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fail with gateway exception when the call exceeds its timeout")
+    void shouldTimeOut() {
+        delayMs.set(1000);
+
+        assertThatThrownBy(() -> gateway.queryOrderStatusAsync("251019_2553_PAY1").join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(PaymentGatewayException.class)
+                .hasMessageContaining("timed out");
+    }
+
+    @Test
+    @DisplayName("Should open the circuit after consecutive failures and reject without calling")
+    void shouldOpenCircuit() {
+        status.set(503);
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> gateway.queryOrderStatus("251019_2553_PAY1"))
+                    .isInstanceOf(PaymentGatewayException.class);
+        }
+        assertThat(gateway.getCircuitState()).isEqualTo(GatewayCircuitBreaker.State.OPEN);
+
+        int before = requests.get();
+        assertThatThrownBy(() -> gateway.queryOrderStatus("251019_2553_PAY1"))
+                .isInstanceOf(PaymentGatewayException.class)
+                .hasMessageContaining("temporarily unavailable");
+        assertThat(requests.get()).isEqualTo(before);
+    }
+}
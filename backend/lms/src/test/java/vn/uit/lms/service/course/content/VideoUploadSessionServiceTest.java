@@ -0,0 +1,118 @@
+package vn.uit.lms.service.course.content;
+
+import io.minio.messages.Part;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import vn.uit.lms.config.MinioBucketProperties;
+import vn.uit.lms.core.domain.course.content.VideoUploadSession;
+import vn.uit.lms.core.repository.course.content.VideoUploadSessionRepository;
+import vn.uit.lms.service.storage.MinioService;
+import vn.uit.lms.shared.constant.UploadSessionStatus;
+import vn.uit.lms.shared.dto.request.course.content.CompleteUploadSessionRequest;
+import vn.uit.lms.shared.dto.response.course.content.LessonDTO;
+import vn.uit.lms.shared.exception.UploadFileException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Video upload session completion")
+class VideoUploadSessionServiceTest {
+
+    private static final Long LESSON_ID = 3L;
+    private static final Long SESSION_ID = 9L;
+    private static final int TOTAL_PARTS = 2500;
+
+    private final VideoUploadSessionRepository sessionRepository = mock(VideoUploadSessionRepository.class);
+    private final LessonService lessonService = mock(LessonService.class);
+    private final MinioService minioService = mock(MinioService.class);
+    private final VideoUploadSessionService service = new VideoUploadSessionService(
+            sessionRepository, lessonService, minioService, mock(MinioBucketProperties.class));
+
+    @Test
+    @DisplayName("assembles an upload with more parts than one ListParts page")
+    void completesLargeUpload() {
+        VideoUploadSession session = session();
+        when(sessionRepository.findForUpdate(SESSION_ID, LESSON_ID)).thenReturn(Optional.of(session));
+        List<Part> uploaded = new ArrayList<>(parts(1, TOTAL_PARTS));
+        Collections.shuffle(uploaded);
+        when(minioService.listUploadedParts("videos", "lessons/3/video.mp4", "upload-1")).thenReturn(uploaded);
+        when(lessonService.uploadVideoLessonComplete(eq(LESSON_ID), any())).thenReturn(LessonDTO.builder().build());
+
+        service.completeSession(LESSON_ID, SESSION_ID, request());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Part>> assembled = ArgumentCaptor.forClass(List.class);
+        verify(minioService).completeMultipartUpload(eq("videos"), eq("lessons/3/video.mp4"), eq("upload-1"),
+                assembled.capture());
+        assertThat(assembled.getValue()).extracting(Part::partNumber)
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, TOTAL_PARTS).boxed().toList());
+        assertThat(session.getStatus()).isEqualTo(UploadSessionStatus.COMPLETED);
+        assertThat(session.getParts()).hasSize(TOTAL_PARTS);
+        verify(lessonService).uploadVideoLessonComplete(eq(LESSON_ID), any());
+    }
+
+    @Test
+    @DisplayName("refuses to assemble an upload with missing parts")
+    void rejectsMissingParts() {
+        VideoUploadSession session = session();
+        when(sessionRepository.findForUpdate(SESSION_ID, LESSON_ID)).thenReturn(Optional.of(session));
+        List<Part> uploaded = new ArrayList<>(parts(1, 1200));
+        uploaded.addAll(parts(1202, TOTAL_PARTS));
+        when(minioService.listUploadedParts("videos", "lessons/3/video.mp4", "upload-1")).thenReturn(uploaded);
+
+        assertThatThrownBy(() -> service.completeSession(LESSON_ID, SESSION_ID, request()))
+                .isInstanceOf(UploadFileException.class)
+                .hasMessageContaining("[1201]");
+
+        verify(minioService, never()).completeMultipartUpload(anyString(), anyString(), anyString(), anyList());
+        assertThat(session.getStatus()).isEqualTo(UploadSessionStatus.IN_PROGRESS);
+    }
+
+    private static VideoUploadSession session() {
+        return VideoUploadSession.builder()
+                .id(SESSION_ID)
+                .bucket("videos")
+                .objectKey("lessons/3/video.mp4")
+                .uploadId("upload-1")
+                .fileSize(TOTAL_PARTS * 16L * 1024 * 1024)
+                .partSize(16L * 1024 * 1024)
+                .totalParts(TOTAL_PARTS)
+                .expiresAt(Instant.now().plus(1, ChronoUnit.HOURS))
+                .build();
+    }
+
+    private static List<Part> parts(int from, int to) {
+        return IntStream.rangeClosed(from, to)
+                .mapToObj(n -> {
+                    Part part = mock(Part.class);
+                    when(part.partNumber()).thenReturn(n);
+                    when(part.etag()).thenReturn("etag-" + n);
+                    when(part.partSize()).thenReturn(16L * 1024 * 1024);
+                    return part;
+                })
+                .toList();
+    }
+
+    private static CompleteUploadSessionRequest request() {
+        CompleteUploadSessionRequest request = new CompleteUploadSessionRequest();
+        request.setDurationSeconds(1800);
+        return request;
+    }
+}
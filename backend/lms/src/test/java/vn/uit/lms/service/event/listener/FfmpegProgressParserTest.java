@@ -0,0 +1,66 @@
+package vn.uit.lms.service.event.listener;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FfmpegProgressParser Tests")
+class FfmpegProgressParserTest {
+
+    @Test
+    @DisplayName("Should read total duration from the input banner")
+    void shouldReadDurationFromBanner() {
+        FfmpegProgressParser parser = new FfmpegProgressParser();
+
+        parser.accept("  Duration: 00:01:40.00, start: 0.000000, bitrate: 1205 kb/s");
+
+        assertThat(parser.hasTotalDuration()).isTrue();
+        assertThat(parser.getTotalSeconds()).isEqualTo(100.0);
+    }
+
+    @Test
+    @DisplayName("Should compute percent and ETA when a progress block closes")
+    void shouldComputePercentAndEta() {
+        FfmpegProgressParser parser = new FfmpegProgressParser();
+        parser.accept("  Duration: 00:01:40.00, start: 0.000000, bitrate: 1205 kb/s");
+
+        assertThat(parser.accept("out_time_us=25000000")).isFalse();
+        assertThat(parser.accept("total_size=2048")).isFalse();
+        assertThat(parser.accept("speed=2.5x")).isFalse();
+        assertThat(parser.accept("progress=continue")).isTrue();
+
+        assertThat(parser.getPercent()).isEqualTo(25);
+        assertThat(parser.getEtaSeconds()).isEqualTo(30);
+        assertThat(parser.getOutputBytes()).isEqualTo(2048);
+        assertThat(parser.isFinished()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should cap percent at 99 until FFmpeg reports end")
+    void shouldCapPercentUntilEnd() {
+        FfmpegProgressParser parser = new FfmpegProgressParser();
+        parser.setTotalSeconds(10);
+
+        parser.accept("out_time_us=10000000");
+        parser.accept("progress=continue");
+        assertThat(parser.getPercent()).isEqualTo(99);
+
+        parser.accept("progress=end");
+        assertThat(parser.getPercent()).isEqualTo(100);
+        assertThat(parser.getEtaSeconds()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should tolerate N/A values before the first frame")
+    void shouldTolerateNotAvailableValues() {
+        FfmpegProgressParser parser = new FfmpegProgressParser();
+
+        parser.accept("out_time_us=N/A");
+        parser.accept("speed=N/A");
+        parser.accept("progress=continue");
+
+        assertThat(parser.getPercent()).isZero();
+        assertThat(parser.getEtaSeconds()).isNull();
+    }
+}
@@ -0,0 +1,29 @@
+package vn.uit.lms.service.event.listener;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ThumbnailSpriteLayout Tests")
+class ThumbnailSpriteLayoutTest {
+
+    @Test
+    @DisplayName("Should reject a non-positive thumbnail interval")
+    void shouldRejectNonPositiveInterval() {
+        assertThatThrownBy(() -> new ThumbnailSpriteLayout(0, 160, 90, 10, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ThumbnailSpriteLayout(-5, 160, 90, 10, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should round the tile count up to cover the whole duration")
+    void shouldCountTilesForDuration() {
+        ThumbnailSpriteLayout layout = new ThumbnailSpriteLayout(10, 160, 90, 10, 10);
+
+        assertThat(layout.tileCount(95.0)).isEqualTo(10);
+        assertThat(layout.tileCount(0)).isZero();
+    }
+}
@@ -0,0 +1,43 @@
+package vn.uit.lms.service.log;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.uit.lms.shared.exception.InvalidRequestException;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Audit log keyset cursor and partition names")
+class AuditLogServiceTest {
+
+    @Test
+    @DisplayName("round-trips a cursor with microsecond precision")
+    void cursorRoundTrip() {
+        LocalDateTime at = LocalDateTime.of(2026, 10, 19, 8, 30, 15, 123_456_000);
+
+        AuditLogService.Cursor cursor = AuditLogService.decodeCursor(AuditLogService.encodeCursor(at, 987L));
+
+        assertThat(cursor.createdAt()).isEqualTo(at);
+        assertThat(cursor.id()).isEqualTo(987L);
+    }
+
+    @Test
+    @DisplayName("rejects a tampered cursor")
+    void invalidCursor() {
+        assertThatThrownBy(() -> AuditLogService.decodeCursor("not-a-cursor"))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    @DisplayName("maps months to partition names and back")
+    void partitionNames() {
+        YearMonth month = YearMonth.of(2025, 3);
+
+        assertThat(AuditLogPartitionService.partitionName(month)).isEqualTo("audit_log_p202503");
+        assertThat(AuditLogPartitionService.parsePartitionName("audit_log_p202503")).isEqualTo(month);
+        assertThat(AuditLogPartitionService.parsePartitionName("audit_log_legacy")).isNull();
+    }
+}
@@ -0,0 +1,39 @@
+package vn.uit.lms.service.log;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.uit.lms.shared.constant.ActivityType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("User activity ring buffer")
+class UserActivityRecorderTest {
+
+    @Test
+    @DisplayName("overwrites the oldest events when full instead of blocking")
+    void overwritesOldest() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        UserActivityRecorder recorder = new UserActivityRecorder(null, registry, 2);
+
+        recorder.record(1L, ActivityType.LOGIN, "ACCOUNT", "1");
+        recorder.record(2L, ActivityType.LESSON_OPEN, "LESSON", "10");
+        recorder.record(3L, ActivityType.DOWNLOAD, "FILE", "20");
+
+        assertThat(registry.get("lms.activity.recorded").counter().count()).isEqualTo(3);
+        assertThat(registry.get("lms.activity.overwritten").counter().count()).isEqualTo(1);
+        assertThat(registry.get("lms.activity.buffer.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("ignores events without an account")
+    void ignoresAnonymous() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        UserActivityRecorder recorder = new UserActivityRecorder(null, registry, 2);
+
+        recorder.record(null, ActivityType.LESSON_OPEN, "LESSON", "10");
+
+        assertThat(registry.get("lms.activity.recorded").counter().count()).isZero();
+    }
+}
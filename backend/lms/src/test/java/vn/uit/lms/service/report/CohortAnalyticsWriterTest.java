@@ -0,0 +1,44 @@
+package vn.uit.lms.service.report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Cohort analytics refresh statement")
+class CohortAnalyticsWriterTest {
+
+    private static final Pattern STAGE_FILTER = Pattern.compile("COUNT\\(\\*\\) FILTER \\(WHERE ([^)]*)\\)");
+
+    @Test
+    @DisplayName("counts each funnel stage among the cohort members that reached the previous one")
+    void funnelStagesAreMonotonic() {
+        String sql = CohortAnalyticsWriter.REFRESH_SQL;
+        String funnel = sql.substring(sql.indexOf("funnel AS ("), sql.indexOf("GROUP BY cohort_week"));
+        assertThat(funnel).contains("SELECT :courseId, cohort_week, COUNT(*),");
+
+        List<List<String>> stages = new ArrayList<>();
+        Matcher matcher = STAGE_FILTER.matcher(funnel);
+        while (matcher.find()) {
+            stages.add(Arrays.asList(matcher.group(1).trim().split("\\s+AND\\s+")));
+        }
+
+        // enrolled is COUNT(*), every later stage adds one condition to the previous stage
+        assertThat(stages).extracting(stage -> stage.get(stage.size() - 1))
+                .containsExactly("first_lesson", "half_completed", "final_quiz", "certified");
+        for (int i = 0; i < stages.size(); i++) {
+            assertThat(stages.get(i)).hasSize(i + 1);
+            if (i > 0) {
+                assertThat(stages.get(i)).startsWith(stages.get(i - 1).toArray(String[]::new));
+            }
+        }
+        assertThat(funnel).contains("(course_id, cohort_week, enrolled, first_lesson,")
+                .contains("half_completed, final_quiz, certified, computed_at)");
+    }
+}
@@ -0,0 +1,64 @@
+package vn.uit.lms.service.report;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.uit.lms.core.repository.system.CourseDailyFactRepository.FactTotals;
+import vn.uit.lms.shared.dto.response.report.TeacherCourseReportResponse.Metrics;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Teacher report figures and course fact ETL statements")
+class TeacherReportServiceTest {
+
+    @Test
+    @DisplayName("derives averages from summed fact columns")
+    void derivesAverages() {
+        FactTotals totals = mock(FactTotals.class);
+        when(totals.getRevenue()).thenReturn(new BigDecimal("500000.00"));
+        when(totals.getRefunds()).thenReturn(new BigDecimal("100000.00"));
+        when(totals.getActiveLearners()).thenReturn(10L);
+        when(totals.getQuizAttempts()).thenReturn(3L);
+        when(totals.getQuizScoreSum()).thenReturn(25.0);
+        when(totals.getReviewCount()).thenReturn(2L);
+        when(totals.getRatingSum()).thenReturn(9L);
+
+        Metrics metrics = TeacherReportService.toMetrics(totals, 4);
+
+        assertThat(metrics.getNetRevenue()).isEqualByComparingTo("400000");
+        assertThat(metrics.getAverageDailyActiveLearners()).isEqualTo(2.5);
+        assertThat(metrics.getAverageQuizScore()).isEqualTo(8.33);
+        assertThat(metrics.getAverageRating()).isEqualTo(4.5);
+    }
+
+    @Test
+    @DisplayName("reports zeros and no averages for an empty range")
+    void emptyRange() {
+        Metrics metrics = TeacherReportService.toMetrics(mock(FactTotals.class), 30);
+
+        assertThat(metrics.getEnrollments()).isZero();
+        assertThat(metrics.getRevenue()).isEqualByComparingTo("0");
+        assertThat(metrics.getAverageDailyActiveLearners()).isZero();
+        assertThat(metrics.getAverageQuizScore()).isNull();
+        assertThat(metrics.getAverageRating()).isNull();
+    }
+
+    @Test
+    @DisplayName("an ETL step only overwrites the columns it owns")
+    void stepOwnsItsColumns() {
+        CourseFactLoader.Step step = new CourseFactLoader.Step(
+                List.of("course_review"),
+                "SELECT course_id, CAST(created_at AS date) AS fact_date FROM course_review",
+                Map.of("review_count", "(SELECT 1)"));
+
+        String sql = step.sql();
+
+        assertThat(sql).contains("review_count = EXCLUDED.review_count");
+        assertThat(sql).doesNotContain("enrollments = EXCLUDED").doesNotContain("revenue = EXCLUDED");
+    }
+}
@@ -0,0 +1,80 @@
+package vn.uit.lms.service.schedule;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import vn.uit.lms.core.repository.system.MetricRollupRepository;
+import vn.uit.lms.service.admin.DashboardMetricsBackfillService;
+import vn.uit.lms.service.admin.DashboardMetricsStore;
+import vn.uit.lms.service.admin.MetricRollupWriter;
+import vn.uit.lms.shared.constant.DashboardMetric;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Dashboard metrics backfill job")
+class DashboardMetricsBackfillJobTest {
+
+    private static final Instant FIRST_START = Instant.parse("2026-10-01T00:00:00Z");
+
+    private final DashboardMetricsBackfillService backfillService = mock(DashboardMetricsBackfillService.class);
+    private final MetricRollupWriter rollupWriter = mock(MetricRollupWriter.class);
+    private final DashboardMetricsStore store =
+            new DashboardMetricsStore(mock(MetricRollupRepository.class), rollupWriter);
+    private final ScheduledJobLock jobLock = mock(ScheduledJobLock.class);
+    private final DashboardMetricsBackfillJob job =
+            new DashboardMetricsBackfillJob(backfillService, store, rollupWriter, jobLock);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(job, "backfillEnabled", true);
+        when(rollupWriter.registerRecordingSince(DashboardMetric.BACKFILL_MARKER, store.getRecordingSince()))
+                .thenReturn(FIRST_START);
+        when(jobLock.runExclusively(anyString(), any(Runnable.class))).thenAnswer(invocation -> {
+            invocation.getArgument(1, Runnable.class).run();
+            return true;
+        });
+    }
+
+    @Test
+    @DisplayName("replays up to the earliest recording start and writes it with the marker")
+    void replaysFromStoredCutoff() {
+        job.backfillOnStartup();
+
+        verify(backfillService).replayRegistrations(eq(FIRST_START), any());
+        verify(backfillService).replayEnrollments(eq(FIRST_START), any());
+        verify(backfillService).replayPayments(eq(FIRST_START), any());
+        verify(rollupWriter).applyWithMarker(eq(DashboardMetric.BACKFILL_MARKER), any());
+    }
+
+    @Test
+    @DisplayName("leaves the marker unclaimed when the replay fails, so the next start retries")
+    void failedReplayWritesNothing() {
+        when(backfillService.replayEnrollments(eq(FIRST_START), any()))
+                .thenThrow(new IllegalStateException("cursor closed"));
+
+        job.backfillOnStartup();
+
+        verify(rollupWriter, never()).applyWithMarker(any(), any());
+    }
+
+    @Test
+    @DisplayName("does nothing once the backfill is done")
+    void skipsWhenMarked() {
+        when(rollupWriter.isMarked(DashboardMetric.BACKFILL_MARKER)).thenReturn(true);
+
+        job.backfillOnStartup();
+
+        verify(rollupWriter, never()).registerRecordingSince(any(), any());
+        verifyNoInteractions(backfillService, jobLock);
+    }
+}
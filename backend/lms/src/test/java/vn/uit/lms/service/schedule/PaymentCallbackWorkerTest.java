@@ -0,0 +1,155 @@
+package vn.uit.lms.service.schedule;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import vn.uit.lms.core.domain.billing.PaymentCallbackInbox;
+import vn.uit.lms.core.repository.billing.PaymentCallbackInboxRepository;
+import vn.uit.lms.service.billing.PaymentCallbackInboxService;
+import vn.uit.lms.service.billing.PaymentCallbackProcessor;
+import vn.uit.lms.service.billing.PaymentEnrollmentOrchestrator;
+import vn.uit.lms.shared.constant.CallbackInboxStatus;
+import vn.uit.lms.shared.constant.PaymentProvider;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Payment callback worker")
+class PaymentCallbackWorkerTest {
+
+    private final PaymentCallbackInboxService inboxService = mock(PaymentCallbackInboxService.class);
+    private final PaymentCallbackProcessor callbackProcessor = mock(PaymentCallbackProcessor.class);
+    private final PaymentEnrollmentOrchestrator enrollmentOrchestrator = mock(PaymentEnrollmentOrchestrator.class);
+    private final PaymentCallbackInboxRepository inboxRepository = mock(PaymentCallbackInboxRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PaymentCallbackWorker worker = new PaymentCallbackWorker(
+            inboxService, callbackProcessor, enrollmentOrchestrator, inboxRepository, meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(worker, "batchSize", 50);
+        ReflectionTestUtils.setField(worker, "gaugeRefreshMs", 60_000L);
+        when(inboxService.claimDue(50)).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("applies the payment, enrolls and marks the callback processed")
+    void processesReceivedCallback() {
+        when(inboxService.claim(1L)).thenReturn(Optional.of(item(CallbackInboxStatus.RECEIVED)));
+
+        worker.processNow(1L);
+
+        verify(callbackProcessor).applyPayment(1L);
+        verify(enrollmentOrchestrator).processEnrollmentAfterPayment(42L);
+        verify(inboxService).markProcessed(1L);
+    }
+
+    @Test
+    @DisplayName("retries only the enrollment step for a callback already applied")
+    void skipsApplyForAppliedCallback() {
+        when(inboxService.claim(1L)).thenReturn(Optional.of(item(CallbackInboxStatus.APPLIED)));
+
+        worker.processNow(1L);
+
+        verify(callbackProcessor, never()).applyPayment(anyLong());
+        verify(enrollmentOrchestrator).processEnrollmentAfterPayment(42L);
+        verify(inboxService).markProcessed(1L);
+    }
+
+    @Test
+    @DisplayName("does nothing when another worker holds the callback")
+    void skipsCallbackClaimedElsewhere() {
+        when(inboxService.claim(1L)).thenReturn(Optional.empty());
+
+        worker.processNow(1L);
+
+        verify(callbackProcessor, never()).applyPayment(anyLong());
+        verify(inboxService, never()).markProcessed(anyLong());
+    }
+
+    @Test
+    @DisplayName("records a failure and counts the callback as dead once retries are exhausted")
+    void failedCallbackGoesDead() {
+        when(inboxService.claimDue(50)).thenReturn(List.of(item(CallbackInboxStatus.RECEIVED)));
+        when(callbackProcessor.applyPayment(1L)).thenThrow(new IllegalStateException("gateway down"));
+        when(inboxService.markFailed(1L, "gateway down")).thenReturn(CallbackInboxStatus.DEAD);
+
+        worker.poll();
+
+        verify(inboxService, never()).markProcessed(anyLong());
+        assertThat(meterRegistry.counter("lms.payment.callback.failures",
+                "provider", "VNPAY", "result", "DEAD").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("fails the callback when enrollment hit a retryable system error")
+    void retryableEnrollmentFailure() {
+        when(inboxService.claim(1L)).thenReturn(Optional.of(item(CallbackInboxStatus.APPLIED)));
+        when(enrollmentOrchestrator.isEnrollmentRetryable(42L)).thenReturn(true);
+        when(inboxService.markFailed(eq(1L), anyString())).thenReturn(CallbackInboxStatus.APPLIED);
+
+        worker.processNow(1L);
+
+        verify(inboxService).markFailed(eq(1L), anyString());
+        verify(inboxService, never()).markProcessed(anyLong());
+    }
+
+    @Test
+    @DisplayName("serves the gauges from one grouped count refreshed on the poll loop")
+    void gaugesUseCachedGroupedCount() {
+        when(inboxRepository.countUnfinishedGroupedByStatus()).thenReturn(List.of(
+                count(CallbackInboxStatus.RECEIVED, 3),
+                count(CallbackInboxStatus.APPLIED, 2),
+                count(CallbackInboxStatus.FAILED, 1),
+                count(CallbackInboxStatus.DEAD, 4)
+        ));
+
+        worker.poll();
+        worker.poll();
+
+        assertThat(meterRegistry.get("lms.payment.callback.backlog").gauge().value()).isEqualTo(6.0);
+        assertThat(meterRegistry.get("lms.payment.callback.dead").gauge().value()).isEqualTo(4.0);
+        verify(inboxRepository, times(1)).countUnfinishedGroupedByStatus();
+    }
+
+    private static PaymentCallbackInbox item(CallbackInboxStatus status) {
+        return PaymentCallbackInbox.builder()
+                .id(1L)
+                .idempotencyKey("VNPAY:42:key")
+                .provider(PaymentProvider.VNPAY)
+                .paymentId(42L)
+                .payload(Map.of("vnp_TxnRef", "42"))
+                .status(status)
+                .receivedAt(Instant.now())
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+
+    private static PaymentCallbackInboxRepository.StatusCount count(CallbackInboxStatus status, long total) {
+        return new PaymentCallbackInboxRepository.StatusCount() {
+            @Override
+            public CallbackInboxStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package vn.uit.lms.service.schedule;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository;
+import vn.uit.lms.core.repository.billing.PaymentTransactionRepository.PendingPaymentRef;
+import vn.uit.lms.service.billing.PaymentEnrollmentOrchestrator;
+import vn.uit.lms.service.billing.PaymentReconciliationService;
+import vn.uit.lms.service.billing.ZaloPayService;
+import vn.uit.lms.shared.constant.PaymentProvider;
+import vn.uit.lms.shared.dto.response.billing.ZaloPayQueryResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Payment reconciliation job")
+class PaymentReconciliationJobTest {
+
+    private static final String APP_TRANS_ID = "251018_2553_PAY7";
+
+    private final PaymentTransactionRepository paymentRepository = mock(PaymentTransactionRepository.class);
+    private final PaymentReconciliationService reconciliationService = mock(PaymentReconciliationService.class);
+    private final PaymentEnrollmentOrchestrator enrollmentOrchestrator = mock(PaymentEnrollmentOrchestrator.class);
+    private final ZaloPayService zaloPayService = mock(ZaloPayService.class);
+    private final PaymentReconciliationJob job = new PaymentReconciliationJob(paymentRepository,
+            reconciliationService, enrollmentOrchestrator, zaloPayService, new SimpleMeterRegistry(), 2);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(job, "enabled", true);
+        ReflectionTestUtils.setField(job, "pageSize", 100);
+        ReflectionTestUtils.setField(job, "staleAfterMinutes", 20L);
+        ReflectionTestUtils.setField(job, "orderTtlMinutes", 60L);
+        ReflectionTestUtils.setField(job, "escalateAfterHours", 24L);
+        ReflectionTestUtils.setField(job, "retryBackoffMinutes", 10L);
+        ReflectionTestUtils.setField(job, "maxQueryFailures", 6);
+        ReflectionTestUtils.setField(job, "ratePerSecond", 1000);
+    }
+
+    @Test
+    @DisplayName("queries the stored app_trans_id and reschedules a not-found order within its lifetime")
+    void notFoundWithinTtlIsRescheduled() {
+        pending(ref(APP_TRANS_ID, Duration.ofMinutes(30)));
+        when(zaloPayService.queryOrderStatusAsync(APP_TRANS_ID))
+                .thenReturn(CompletableFuture.completedFuture(notFound()));
+
+        job.reconcile();
+
+        verify(zaloPayService).queryOrderStatusAsync(APP_TRANS_ID);
+        verify(reconciliationService).reschedule(eq(7L), any());
+        verify(reconciliationService, never()).expire(anyLong(), anyString());
+    }
+
+    @Test
+    @DisplayName("expires a not-found order only after its lifetime")
+    void notFoundAfterTtlIsExpired() {
+        pending(ref(APP_TRANS_ID, Duration.ofMinutes(90)));
+        when(zaloPayService.queryOrderStatusAsync(APP_TRANS_ID))
+                .thenReturn(CompletableFuture.completedFuture(notFound()));
+
+        job.reconcile();
+
+        verify(reconciliationService).expire(eq(7L), anyString());
+    }
+
+    @Test
+    @DisplayName("does not query a payment without a stored gateway order id")
+    void missingOrderIdIsNotQueried() {
+        pending(ref(null, Duration.ofMinutes(90)));
+
+        job.reconcile();
+
+        verify(zaloPayService, never()).queryOrderStatusAsync(anyString());
+        verify(reconciliationService).reschedule(eq(7L), any());
+        verify(reconciliationService, never()).expire(anyLong(), anyString());
+    }
+
+    private void pending(PendingPaymentRef ref) {
+        when(paymentRepository.findPendingForReconciliation(anyLong(), any(), any(), any()))
+                .thenReturn(List.of(ref));
+    }
+
+    private static PendingPaymentRef ref(String providerOrderId, Duration age) {
+        PendingPaymentRef ref = mock(PendingPaymentRef.class);
+        when(ref.getId()).thenReturn(7L);
+        when(ref.getPaymentMethod()).thenReturn(PaymentProvider.ZALOPAY);
+        when(ref.getProviderOrderId()).thenReturn(providerOrderId);
+        when(ref.getCreatedAt()).thenReturn(Instant.now().minus(age));
+        when(ref.getReconcileAttempts()).thenReturn(0);
+        return ref;
+    }
+
+    private static ZaloPayQueryResponse notFound() {
+        return ZaloPayQueryResponse.builder()
+                .returnCode(2)
+                .returnMessage("Giao dịch thất bại")
+                .isProcessing(false)
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package vn.uit.lms.service.storage;
+
+import io.minio.MinioClient;
+import io.minio.messages.ListPartsResult;
+import io.minio.messages.Part;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("MinIO multipart part listing")
+class MinioServiceTest {
+
+    private final MinioMultipartClient multipartClient = mock(MinioMultipartClient.class);
+    private final MinioService minioService = new MinioService(mock(MinioClient.class), multipartClient);
+
+    @Test
+    @DisplayName("follows truncated ListParts pages until every part is listed")
+    void followsEveryPage() throws Exception {
+        ListPartsResult first = page(1, 1000, true, 1000);
+        ListPartsResult second = page(1001, 2000, true, 2000);
+        ListPartsResult last = page(2001, 2500, false, 0);
+        when(multipartClient.listParts("videos", "key", "upload", 0)).thenReturn(first);
+        when(multipartClient.listParts("videos", "key", "upload", 1000)).thenReturn(second);
+        when(multipartClient.listParts("videos", "key", "upload", 2000)).thenReturn(last);
+
+        List<Part> parts = minioService.listUploadedParts("videos", "key", "upload");
+
+        assertThat(parts).hasSize(2500);
+        assertThat(parts).extracting(Part::partNumber).doesNotHaveDuplicates().contains(1, 1000, 1001, 2500);
+        verify(multipartClient).listParts("videos", "key", "upload", 2000);
+    }
+
+    private static ListPartsResult page(int from, int to, boolean truncated, int nextMarker) {
+        List<Part> parts = IntStream.rangeClosed(from, to)
+                .mapToObj(n -> new Part(n, "etag-" + n))
+                .toList();
+        ListPartsResult page = mock(ListPartsResult.class);
+        when(page.partList()).thenReturn(parts);
+        when(page.isTruncated()).thenReturn(truncated);
+        when(page.nextPartNumberMarker()).thenReturn(nextMarker);
+        return page;
+    }
+}
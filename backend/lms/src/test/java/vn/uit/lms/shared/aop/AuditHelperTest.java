@@ -0,0 +1,51 @@
+package vn.uit.lms.shared.aop;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Audit record id extraction")
+class AuditHelperTest {
+
+    record RecordResult(Long id, String name) {
+    }
+
+    public static class PublicGetterResult {
+        public Long getId() {
+            return 7L;
+        }
+    }
+
+    static class BaseEntity {
+        private Long id = 42L;
+    }
+
+    static class SubEntity extends BaseEntity {
+    }
+
+    @Test
+    @DisplayName("reads the id component of a record")
+    void recordComponent() {
+        assertThat(AuditHelper.recordId(new RecordResult(5L, "a"))).isEqualTo("5");
+    }
+
+    @Test
+    @DisplayName("prefers a public getId()")
+    void publicGetter() {
+        assertThat(AuditHelper.recordId(new PublicGetterResult())).isEqualTo("7");
+    }
+
+    @Test
+    @DisplayName("falls back to an id field declared in a superclass")
+    void inheritedField() {
+        assertThat(AuditHelper.recordId(new SubEntity())).isEqualTo("42");
+    }
+
+    @Test
+    @DisplayName("returns null for results without an id")
+    void noId() {
+        assertThat(AuditHelper.recordId("plain")).isNull();
+        assertThat(AuditHelper.recordId(null)).isNull();
+    }
+}
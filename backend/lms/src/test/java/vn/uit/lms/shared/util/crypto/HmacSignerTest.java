@@ -0,0 +1,74 @@
+package vn.uit.lms.shared.util.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks HmacSigner against the per-call HMACUtil implementation it replaces.
+ */
+@DisplayName("HMAC signer")
+class HmacSignerTest {
+
+    private static final String KEY = "trMrHtvjo6myautxDUiAcYsVtaeQ8nhf";
+    private static final String DATA = "2553|240101_2553_PAY42|user_7|50000|1704067200000|{}|[]";
+
+    @Test
+    @DisplayName("produces the same hex as HMACUtil for SHA-256 and SHA-512")
+    void matchesHmacUtil() {
+        for (String algorithm : List.of(HMACUtil.HMACSHA256, HMACUtil.HMACSHA512)) {
+            assertThat(HmacSigner.of(algorithm, KEY).signHex(DATA))
+                    .isEqualTo(HMACUtil.HMacHexStringEncode(algorithm, KEY, DATA));
+        }
+    }
+
+    @Test
+    @DisplayName("verifies hex signatures in either case and rejects tampered or malformed ones")
+    void verifyHex() {
+        HmacSigner signer = HmacSigner.of(HMACUtil.HMACSHA512, KEY);
+        String signature = signer.signHex(DATA);
+
+        assertThat(signer.verifyHex(DATA, signature)).isTrue();
+        assertThat(signer.verifyHex(DATA, signature.toUpperCase())).isTrue();
+        assertThat(signer.verifyHex(DATA + "x", signature)).isFalse();
+        assertThat(signer.verifyHex(DATA, signature.substring(1))).isFalse();
+        assertThat(signer.verifyHex(DATA, "zz" + signature.substring(2))).isFalse();
+        assertThat(signer.verifyHex(DATA, null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("is safe to share between threads")
+    void sharedAcrossThreads() throws Exception {
+        HmacSigner signer = HmacSigner.of(HMACUtil.HMACSHA256, KEY);
+        assertThat(HmacSigner.of(HMACUtil.HMACSHA256, KEY + "2").signHex(DATA)).isNotEqualTo(signer.signHex(DATA));
+
+        String expected = signer.signHex(DATA);
+        Set<String> results = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = IntStream.range(0, 8)
+                    .mapToObj(i -> pool.submit(() -> {
+                        for (int n = 0; n < 1_000; n++) {
+                            results.add(signer.signHex(DATA));
+                        }
+                    }))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(results).containsExactly(expected);
+    }
+}
@@ -0,0 +1,75 @@
+package vn.uit.lms.shared.util.export;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vn.uit.lms.shared.constant.ExportFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PDF export")
+class PdfExportUtilTest {
+
+    private static final Pattern START_XREF = Pattern.compile("startxref\n(\\d+)\n%%EOF\n$");
+    private static final Pattern SUBSECTION = Pattern.compile("xref\n0 (\\d+)\n");
+    private static final int ENTRY_LENGTH = 20;
+
+    @Test
+    @DisplayName("points every cross-reference entry and startxref at the right byte offset")
+    void crossReferenceOffsetsAreExact() throws IOException {
+        String pdf = twoSectionReport();
+
+        Matcher startXref = START_XREF.matcher(pdf);
+        assertThat(startXref.find()).isTrue();
+        int xref = Integer.parseInt(startXref.group(1));
+
+        Matcher subsection = SUBSECTION.matcher(pdf);
+        assertThat(subsection.find(xref) && subsection.start() == xref).isTrue();
+        int size = Integer.parseInt(subsection.group(1));
+        assertThat(pdf).contains("trailer\n<< /Size " + size + " ");
+
+        int entries = subsection.end();
+        assertThat(pdf.substring(entries, entries + ENTRY_LENGTH)).isEqualTo("0000000000 65535 f \n");
+        for (int id = 1; id < size; id++) {
+            String entry = pdf.substring(entries + id * ENTRY_LENGTH, entries + (id + 1) * ENTRY_LENGTH);
+            assertThat(entry).matches("\\d{10} 00000 n \n");
+
+            int offset = Integer.parseInt(entry.substring(0, 10));
+            assertThat(pdf.startsWith(id + " 0 obj\n", offset))
+                    .as("object %d at offset %d", id, offset)
+                    .isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("breaks a long section over several pages")
+    void longSectionSpansPages() throws IOException {
+        String pdf = twoSectionReport();
+
+        assertThat(pdf).startsWith("%PDF-1.4\n");
+        assertThat(pdf).containsPattern("/Type /Pages /Count [3-9] ");
+    }
+
+    private static String twoSectionReport() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ReportWriter writer = ReportWriter.open(ExportFormat.PDF, out, "Báo cáo doanh thu")) {
+            writer.section("Tổng quan", List.of("Chỉ số", "Giá trị"));
+            writer.writeRow(List.of("Doanh thu", new BigDecimal("1250000.00")));
+            writer.writeRow(List.of("Đơn hàng (đã thanh toán)", 42));
+
+            writer.section("Theo khóa học", List.of("Khóa học", "Số đơn", "Doanh thu"));
+            for (int i = 1; i <= 150; i++) {
+                writer.writeRow(List.of("Khóa học " + i, i, BigDecimal.valueOf(i * 10_000L)));
+            }
+            writer.finish();
+        }
+        return out.toString(StandardCharsets.ISO_8859_1);
+    }
+}